@@ -0,0 +1,102 @@
+package ecommerce.benchmark;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import ecommerce.configuration.auth.AuthRoleSet;
+import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.configuration.auth.RolesJwtAuthenticationToken;
+import ecommerce.service.utils.AuthUtils;
+
+/**
+ * Role checks of OrdersService (every orders request).
+ * The user has several roles, but not the required one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthUtilsBenchmark {
+
+    private static final AuthRoleSet REQUIRED_ROLES = AuthRoleSet.of(
+        AuthRoles.ORDER_SEARCH,
+        AuthRoles.ORDER_UPDATE
+    );
+
+    private Authentication jwtUser;
+    private Authentication otherUser;
+
+    @Setup
+    public void setup() {
+        final List<GrantedAuthority> authorities = Stream.of(
+                AuthRoles.PRODUCT_CREATE,
+                AuthRoles.PRODUCT_UPDATE,
+                AuthRoles.PRODUCT_DELETE,
+                AuthRoles.CATEGORY_MANAGE,
+                "offline_access",
+                "uma_authorization"
+            )
+            .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+            .toList();
+        final var jwt = Jwt.withTokenValue("token")
+            .header("alg", "HS256")
+            .subject("user")
+            .issuedAt(Instant.now())
+            .build();
+
+        jwtUser = new RolesJwtAuthenticationToken(jwt, authorities);
+        otherUser = UsernamePasswordAuthenticationToken.authenticated("user", null, authorities);
+    }
+
+    /**
+     * Roles precomputed once per token
+     */
+    @Benchmark
+    public boolean userHasAnyRole_jwt() {
+        return AuthUtils.userHasAnyRole(jwtUser, REQUIRED_ROLES);
+    }
+
+    /**
+     * Roles built from authorities on every check
+     */
+    @Benchmark
+    public boolean userHasAnyRole_otherAuthentication() {
+        return AuthUtils.userHasAnyRole(otherUser, REQUIRED_ROLES);
+    }
+
+    /**
+     * Previous implementation (set of authorities collected on every check)
+     */
+    @Benchmark
+    public boolean userHasAnyRole_streamSet() {
+        final Set<String> userRoles = jwtUser.getAuthorities()
+            .stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toSet());
+
+        return Stream.of(AuthRoles.ORDER_SEARCH, AuthRoles.ORDER_UPDATE)
+            .anyMatch(userRoles::contains);
+    }
+}
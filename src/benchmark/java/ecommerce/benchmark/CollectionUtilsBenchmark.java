@@ -0,0 +1,58 @@
+package ecommerce.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ecommerce.dto.orders.InOrderProduct;
+import ecommerce.service.utils.CollectionUtils;
+
+/**
+ * Duplicates check of order products (every created order)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollectionUtilsBenchmark {
+
+    @Param({ "5", "100" })
+    private int size;
+
+    private List<Long> ids;
+    private List<InOrderProduct> orderProducts;
+
+    @Setup
+    public void setup() {
+        ids = new ArrayList<>(size);
+        orderProducts = new ArrayList<>(size);
+        for (long i = 0; i < size; ++i) {
+            ids.add(i);
+            orderProducts.add(new InOrderProduct(i, 1));
+        }
+    }
+
+    @Benchmark
+    public boolean containsDuplicates() {
+        return CollectionUtils.containsDuplicates(ids);
+    }
+
+    @Benchmark
+    public boolean containsDuplicates_identityFn() {
+        return CollectionUtils.containsDuplicates(orderProducts, InOrderProduct::productId);
+    }
+}
@@ -0,0 +1,130 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.EcommerceApplication;
+import ecommerce.dto.products.InProductStock;
+import ecommerce.repository.categories.CategoriesRepository;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderProduct;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.inventory.InventoryService;
+
+/**
+ * Flash sale: many concurrent orders reserve stock of a single product
+ * (each in its own transaction) on embedded H2.
+ * With single shard every reservation waits for the row lock of the previous one,
+ * more shards let reservations update different rows concurrently.
+ * Orders are not saved, only reservation of the stock is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class InventoryBenchmark {
+
+    /**
+     * Stock of the product is never sold out during the benchmark
+     */
+    private static final long STOCK = 1_000_000_000L;
+
+    @Param({ "1", "8", "16" })
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private TransactionTemplate transactionTemplate;
+    private Product product;
+
+    @State(Scope.Thread)
+    public static class ThreadOrder {
+        private Order order;
+
+        @Setup
+        public void setup(InventoryBenchmark benchmark) {
+            order = new Order();
+            order.setOrderProducts(List.of(OrderProduct.builder()
+                .product(benchmark.product)
+                .order(order)
+                .price(benchmark.product.getPrice())
+                .quantity(1)
+                .build()
+            ));
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(EcommerceApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:inventory;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--ecommerce.logging.level.console=WARN",
+                "--ecommerce.logging.level.file=WARN",
+                "--logging.file.name=target/inventory-benchmark.log",
+                "--ecommerce.inventory.shards=" + shards
+            );
+        inventoryService = context.getBean(InventoryService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        final var category = context.getBean(CategoriesRepository.class).save(Category.builder()
+            .name("category")
+            .build()
+        );
+        final var productsRepository = context.getBean(ProductsRepository.class);
+        final var productId = productsRepository.save(Product.builder()
+            .active(true)
+            .name("hot product")
+            .description("description")
+            .price(BigDecimal.ONE)
+            .category(category)
+            .stockTracked(false)
+            .build()
+        ).getId();
+        inventoryService.putStock(productId, new InProductStock(STOCK));
+        product = productsRepository.findById(productId).orElseThrow();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean reserve(ThreadOrder threadOrder) {
+        return transactionTemplate.execute(status -> inventoryService
+            .reserve(List.of(threadOrder.order))
+            .rejected()
+            .isEmpty()
+        );
+    }
+}
@@ -0,0 +1,100 @@
+package ecommerce.benchmark;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.configuration.auth.CachingJwtAuthenticationProvider;
+import ecommerce.configuration.auth.JwtGrantedAuthConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Authentication of bearer tokens (every authenticated request).
+ * Provider benchmarks run in several threads, as requests of many clients
+ * share the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthBenchmark {
+
+    private static final String KEY = "11111111111111111111111111111111111111111111111111111111111";
+
+    private JwtGrantedAuthConverter converter;
+    private Jwt jwt;
+    private CachingJwtAuthenticationProvider cachingProvider;
+    private CachingJwtAuthenticationProvider uncachedProvider;
+    private BearerTokenAuthenticationToken bearer;
+
+    @Setup
+    public void setup() {
+        final var token = JWT.create()
+            .withSubject("user")
+            .withExpiresAt(Instant.now().plus(1, ChronoUnit.DAYS))
+            .withClaim("realm_access", Map.of("roles", List.of(
+                AuthRoles.ORDER_SEARCH,
+                AuthRoles.ORDER_UPDATE,
+                AuthRoles.PRODUCT_CREATE,
+                "offline_access"
+            )))
+            .sign(Algorithm.HMAC256(KEY));
+        final var decoder = NimbusJwtDecoder
+            .withSecretKey(new SecretKeySpec(KEY.getBytes(), "HmacSHA256"))
+            .build();
+
+        converter = new JwtGrantedAuthConverter();
+        jwt = decoder.decode(token);
+        cachingProvider = new CachingJwtAuthenticationProvider(decoder, converter, 10_000, new SimpleMeterRegistry());
+        uncachedProvider = new CachingJwtAuthenticationProvider(decoder, converter, 0, new SimpleMeterRegistry());
+        bearer = new BearerTokenAuthenticationToken(token);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Authentication authenticate_cached() {
+        return cachingProvider.authenticate(bearer);
+    }
+
+    /**
+     * Signature verification, parsing and conversion on every request
+     */
+    @Benchmark
+    @Threads(4)
+    public Authentication authenticate_uncached() {
+        return uncachedProvider.authenticate(bearer);
+    }
+}
@@ -0,0 +1,114 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.filter.ThresholdFilter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import ecommerce.dto.products.InProductFilters;
+
+/**
+ * Cost of log calls on request threads with appenders configured
+ * as in logback-spring.xml (bounded non-blocking async appender with
+ * level threshold). Written events are consumed by no-op appender,
+ * so only the request thread's part is measured.
+ *
+ * Compares default levels (DEBUG logger and threshold) with TRACE ones,
+ * where every logged DTO is rendered by the request thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private Logger traceLogger;
+    private InProductFilters filters;
+
+    @Setup
+    public void setup() {
+        loggerContext = new LoggerContext();
+
+        logger = loggerContext.getLogger("ecommerce.benchmark.default");
+        logger.setLevel(Level.DEBUG);
+        logger.setAdditive(false);
+        logger.addAppender(asyncAppender(Level.DEBUG));
+
+        traceLogger = loggerContext.getLogger("ecommerce.benchmark.trace");
+        traceLogger.setLevel(Level.TRACE);
+        traceLogger.setAdditive(false);
+        traceLogger.addAppender(asyncAppender(Level.TRACE));
+
+        filters = new InProductFilters("name", "search", BigDecimal.ONE, BigDecimal.TEN, 1L);
+    }
+
+    private AsyncAppender asyncAppender(Level level) {
+        final var nopAppender = new NOPAppender<ILoggingEvent>();
+        nopAppender.setContext(loggerContext);
+        nopAppender.start();
+
+        final var threshold = new ThresholdFilter();
+        threshold.setLevel(level.levelStr);
+        threshold.start();
+
+        final var asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(loggerContext);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addFilter(threshold);
+        asyncAppender.addAppender(nopAppender);
+        asyncAppender.start();
+        return asyncAppender;
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    /**
+     * log.trace("{}", dto) below logger's level, no event is created
+     */
+    @Benchmark
+    public void trace_rejectedByLoggerLevel() {
+        logger.trace("{}", filters);
+    }
+
+    /**
+     * log.trace("{}", dto) with TRACE levels, the DTO is rendered
+     * by the request thread before the event is queued
+     */
+    @Benchmark
+    public void trace_renderedOnRequestThread() {
+        traceLogger.trace("{}", filters);
+    }
+
+    /**
+     * log.info of written event, message is rendered before the event is queued
+     */
+    @Benchmark
+    public void info_enqueued() {
+        logger.info("found products count={}", 20);
+    }
+}
@@ -0,0 +1,169 @@
+package ecommerce.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import ecommerce.dto.orders.OutOrder;
+import ecommerce.dto.products.OutProduct;
+import ecommerce.dto.shared.OutPage;
+import ecommerce.repository.addresses.entity.Address;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderProduct;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.payments.entity.Payment;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.addresses.mapper.AddressesMapper;
+import ecommerce.service.orders.mapper.OrderProductsMapper;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.payments.mapper.PaymentsMapper;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.mapper.PaginationMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+
+/**
+ * Mapping of loaded entities into responses
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappersBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * Order with orderProductsCount products
+     */
+    @State(Scope.Benchmark)
+    public static class OrderState {
+
+        @Param({ "1", "10" })
+        private int orderProductsCount;
+
+        private Order order;
+
+        @Setup
+        public void setup() {
+            final var products = createProducts(orderProductsCount);
+            final var address = Address.builder()
+                .id(1L)
+                .street("street")
+                .house("house")
+                .postalCode("postalCode")
+                .city("city")
+                .country(Country.builder().id(1L).active(true).name("country").build())
+                .build();
+            final var payment = Payment.builder()
+                .id(1L)
+                .paymentMethod(PaymentMethod.builder()
+                    .id(1L)
+                    .active(true)
+                    .name("paymentMethod")
+                    .description("description")
+                    .build()
+                )
+                .amount(BigDecimal.valueOf(100))
+                .build();
+            order = Order.builder()
+                .id(1L)
+                .username("user")
+                .address(address)
+                .payment(payment)
+                .orderedAt(LocalDateTime.now())
+                .build();
+            final var orderProducts = new ArrayList<OrderProduct>(orderProductsCount);
+            for (int i = 0; i < orderProductsCount; ++i) {
+                orderProducts.add(OrderProduct.builder()
+                    .product(products.get(i))
+                    .order(order)
+                    .price(products.get(i).getPrice())
+                    .quantity(1)
+                    .build()
+                );
+            }
+            order.setOrderProducts(orderProducts);
+        }
+    }
+
+    private ProductsMapper productsMapper;
+    private OrdersMapper ordersMapper;
+    private PaginationMapper paginationMapper;
+    private Product product;
+    private Page<Product> productsPage;
+
+    @Setup
+    public void setup() {
+        productsMapper = new ProductsMapper(new PassthroughUserInputSanitizer());
+        ordersMapper = new OrdersMapper(
+            new OrderProductsMapper(productsMapper),
+            new AddressesMapper(),
+            new PaymentsMapper()
+        );
+        paginationMapper = new PaginationMapper();
+
+        final var products = createProducts(PAGE_SIZE);
+        product = products.get(0);
+        productsPage = new PageImpl<>(products, PageRequest.of(3, PAGE_SIZE, Sort.by("id")), 10_000);
+    }
+
+    @Benchmark
+    public OutOrder ordersMapper_fromEntity(OrderState state) {
+        return ordersMapper.fromEntity(state.order);
+    }
+
+    @Benchmark
+    public OutProduct productsMapper_fromEntity() {
+        return productsMapper.fromEntity(product);
+    }
+
+    /**
+     * Page of PAGE_SIZE products
+     */
+    @Benchmark
+    public OutPage<OutProduct> paginationMapper_fromPage() {
+        return paginationMapper.fromPage(productsPage, productsMapper::fromEntity, OutProduct::id);
+    }
+
+    private static List<Product> createProducts(int count) {
+        final var category = Category.builder()
+            .id(1L)
+            .name("category")
+            .build();
+        final var products = new ArrayList<Product>(count);
+        for (long i = 1; i <= count; ++i) {
+            products.add(Product.builder()
+                .id(i)
+                .active(true)
+                .name("product " + i)
+                .description("description " + i)
+                .price(BigDecimal.valueOf(i))
+                .category(category)
+                .build()
+            );
+        }
+        return products;
+    }
+}
@@ -0,0 +1,386 @@
+package ecommerce.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds empty database (schema created by the application) with reproducible dataset.
+ * Rows get consecutive IDs starting at 1, so the workload can pick existing rows
+ * without querying them. Sequences are moved past the seeded IDs.
+ *
+ * Rows are inserted with JDBC batches (rewritten into multi-row inserts by PostgreSQL
+ * driver with reWriteBatchedInserts=true), orders are seeded by several connections
+ * in parallel ranges.
+ *
+ * Nested set bounds of categories are left empty, the application computes them on startup.
+ */
+@Slf4j
+public class DatasetGenerator {
+
+    public static final List<String> ADJECTIVES = List.of(
+        "red", "green", "blue", "black", "white", "wooden", "metal", "glass", "leather", "cotton",
+        "small", "large", "vintage", "modern", "classic", "portable", "wireless", "electric", "organic", "premium"
+    );
+    public static final List<String> NOUNS = List.of(
+        "chair", "table", "lamp", "shoe", "jacket", "phone", "camera", "guitar", "bottle", "backpack",
+        "watch", "keyboard", "monitor", "blender", "kettle", "pillow", "blanket", "bicycle", "helmet", "notebook"
+    );
+
+    private static final int COUNTRIES = 20;
+    private static final int PAYMENT_METHODS = 5;
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_SIZE = 10_000;
+    private static final LocalDateTime FIRST_ORDER_AT = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final Duration ORDERS_PERIOD = Duration.ofDays(730);
+
+    private final LoadTestConfig config;
+
+    public DatasetGenerator(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public static String username(long userIdx) {
+        return "user-" + userIdx;
+    }
+
+    /**
+     * @param orderId
+     * @param users
+     * @return username of the user who placed the order
+     */
+    public static String orderUsername(long orderId, int users) {
+        return username(orderId % users);
+    }
+
+    public static String productName(long productId) {
+        final var adjective = ADJECTIVES.get((int) (productId % ADJECTIVES.size()));
+        final var noun = NOUNS.get((int) ((productId / ADJECTIVES.size()) % NOUNS.size()));
+        return adjective + " " + noun + " " + productId;
+    }
+
+    public static BigDecimal productPrice(long productId) {
+        return BigDecimal.valueOf(100 + (productId * 7919) % 100_000, 2);
+    }
+
+    /**
+     * @param depth
+     * @param fanout
+     * @return number of categories of the full tree
+     */
+    public static long categoriesCount(int depth, int fanout) {
+        long count = 0;
+        long level = 1;
+        for (int i = 0; i < depth; ++i) {
+            level *= fanout;
+            count += level;
+        }
+        return count;
+    }
+
+    /**
+     * @param connection
+     * @return true when products or orders exist
+     */
+    public boolean isSeeded(Connection connection) throws SQLException {
+        try (final var statement = connection.createStatement()) {
+            final var products = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM products)");
+            products.next();
+            return products.getBoolean(1);
+        }
+    }
+
+    public void seed() throws SQLException, InterruptedException, ExecutionException {
+        final var started = System.nanoTime();
+        try (final var connection = connect()) {
+            if (isSeeded(connection)) {
+                log.info("database already contains products, seeding skipped");
+                return;
+            }
+
+            final var categories = seedCategories(connection);
+            seedReferenceData(connection);
+            seedProducts(connection, categories);
+        }
+        seedOrders();
+
+        try (final var connection = connect()) {
+            restartSequences(connection);
+            if (!config.isH2()) {
+                try (final var statement = connection.createStatement()) {
+                    statement.execute("ANALYZE");
+                }
+            }
+        }
+        log.info("seeded database in {}s", (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private Connection connect() throws SQLException {
+        final var connection = DriverManager.getConnection(
+            config.effectiveJdbcUrl(),
+            config.username(),
+            config.password()
+        );
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    /**
+     * Full tree, every branch has categoriesDepth levels.
+     * IDs are assigned level by level, children of every category are consecutive.
+     */
+    private long seedCategories(Connection connection) throws SQLException {
+        final var count = categoriesCount(config.categoriesDepth(), config.categoriesFanout());
+        final var sql = "INSERT INTO categories (id, name, parent_category_id) VALUES (?, ?, ?)";
+        try (final var statement = connection.prepareStatement(sql)) {
+            for (long id = 1; id <= count; ++id) {
+                statement.setLong(1, id);
+                statement.setString(2, "category " + id);
+                // children of category p are p * fanout + 1 ... (p + 1) * fanout
+                final var parent = (id - 1) / config.categoriesFanout();
+                if (parent == 0) {
+                    statement.setNull(3, Types.BIGINT);
+                } else {
+                    statement.setLong(3, parent);
+                }
+                statement.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        log.info("seeded categories count={}", count);
+        return count;
+    }
+
+    private void seedReferenceData(Connection connection) throws SQLException {
+        try (final var statement = connection.prepareStatement(
+            "INSERT INTO countries (id, active, name) VALUES (?, true, ?)"
+        )) {
+            for (long id = 1; id <= COUNTRIES; ++id) {
+                statement.setLong(1, id);
+                statement.setString(2, "country " + id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        try (final var statement = connection.prepareStatement(
+            "INSERT INTO payment_methods (id, active, name, description) VALUES (?, true, ?, ?)"
+        )) {
+            for (long id = 1; id <= PAYMENT_METHODS; ++id) {
+                statement.setLong(1, id);
+                statement.setString(2, "payment method " + id);
+                statement.setString(3, "description of payment method " + id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private void seedProducts(Connection connection, long categories) throws SQLException {
+        final var random = new Random(config.randomSeed());
+        final var sql = """
+            INSERT INTO products (id, active, name, description, price, category_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+        try (final var statement = connection.prepareStatement(sql)) {
+            for (long id = 1; id <= config.products(); ++id) {
+                statement.setLong(1, id);
+                statement.setBoolean(2, id % 50 != 0);
+                statement.setString(3, productName(id));
+                statement.setString(4, "description of " + productName(id));
+                statement.setBigDecimal(5, productPrice(id));
+                statement.setLong(6, 1 + random.nextLong(categories));
+                statement.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    statement.executeBatch();
+                }
+                if (id % COMMIT_SIZE == 0) {
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        log.info("seeded products count={}", config.products());
+    }
+
+    private void seedOrders() throws InterruptedException, ExecutionException {
+        final var threads = Math.max(1, config.seedThreads());
+        final var rangeSize = (config.orders() + threads - 1) / threads;
+        final var seeded = new AtomicLong();
+
+        final var executor = Executors.newFixedThreadPool(threads);
+        try {
+            final var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < threads; ++i) {
+                final var first = 1 + i * rangeSize;
+                final var last = Math.min(config.orders(), first + rangeSize - 1);
+                futures.add(executor.submit(() -> {
+                    seedOrders(first, last, seeded);
+                    return null;
+                }));
+            }
+            for (final var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("seeded orders count={}", config.orders());
+    }
+
+    /**
+     * Seeds orders [first, last] with their addresses, payments and summaries (sharing order's ID)
+     */
+    private void seedOrders(long first, long last, AtomicLong seeded) throws SQLException {
+        final var random = new Random(config.randomSeed() + first);
+        try (
+            final var connection = connect();
+            final var addresses = connection.prepareStatement("""
+                INSERT INTO addresses (id, street, house, postal_code, city, country_id)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """);
+            final var payments = connection.prepareStatement("""
+                INSERT INTO payments (id, payment_method_id, amount, completed_at)
+                VALUES (?, ?, ?, ?)
+            """);
+            final var orders = connection.prepareStatement("""
+                INSERT INTO orders (id, username, address_id, payment_id, ordered_at, completed_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """);
+            final var orderProducts = connection.prepareStatement("""
+                INSERT INTO order_products (id, product_id, order_id, price, quantity)
+                VALUES (?, ?, ?, ?, ?)
+            """);
+            final var orderSummaries = connection.prepareStatement("""
+                INSERT INTO order_summaries (id, username, status, total_amount, line_count,
+                    ordered_at, completed_at, payment_completed_at, products)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, %s)
+            """.formatted(config.isH2() ? "? FORMAT JSON" : "CAST(? AS jsonb)"))
+        ) {
+            var committed = first - 1;
+            for (long id = first; id <= last; ++id) {
+                final var orderedAt = FIRST_ORDER_AT.plusSeconds(random.nextLong(ORDERS_PERIOD.toSeconds()));
+                final var completedAt = random.nextInt(10) < 7
+                    ? Timestamp.valueOf(orderedAt.plusDays(1 + random.nextInt(5)))
+                    : null;
+
+                var amount = BigDecimal.ZERO;
+                final var summaryProducts = new StringJoiner(",", "[", "]");
+                for (int i = 0; i < config.orderProducts(); ++i) {
+                    final var productId = 1 + random.nextLong(config.products());
+                    final var quantity = 1 + random.nextInt(3);
+                    final var price = productPrice(productId);
+                    amount = amount.add(price.multiply(BigDecimal.valueOf(quantity)));
+
+                    orderProducts.setLong(1, (id - 1) * config.orderProducts() + i + 1);
+                    orderProducts.setLong(2, productId);
+                    orderProducts.setLong(3, id);
+                    orderProducts.setBigDecimal(4, price);
+                    orderProducts.setInt(5, quantity);
+                    orderProducts.addBatch();
+
+                    summaryProducts.add("{\"productId\":%d,\"name\":\"%s\",\"price\":%s,\"quantity\":%d}"
+                        .formatted(productId, productName(productId), price.toPlainString(), quantity));
+                }
+
+                addresses.setLong(1, id);
+                addresses.setString(2, "street " + random.nextInt(1000));
+                addresses.setString(3, Integer.toString(1 + random.nextInt(200)));
+                addresses.setString(4, "%05d".formatted(random.nextInt(100_000)));
+                addresses.setString(5, "city " + random.nextInt(500));
+                addresses.setLong(6, 1 + random.nextInt(COUNTRIES));
+                addresses.addBatch();
+
+                payments.setLong(1, id);
+                payments.setLong(2, 1 + random.nextInt(PAYMENT_METHODS));
+                payments.setBigDecimal(3, amount);
+                payments.setTimestamp(4, completedAt);
+                payments.addBatch();
+
+                orders.setLong(1, id);
+                orders.setString(2, orderUsername(id, config.users()));
+                orders.setLong(3, id);
+                orders.setLong(4, id);
+                orders.setTimestamp(5, Timestamp.valueOf(orderedAt));
+                orders.setTimestamp(6, completedAt);
+                orders.addBatch();
+
+                // order and its payment are completed together
+                orderSummaries.setLong(1, id);
+                orderSummaries.setString(2, orderUsername(id, config.users()));
+                orderSummaries.setString(3, completedAt != null ? "COMPLETED" : "PENDING");
+                orderSummaries.setBigDecimal(4, amount);
+                orderSummaries.setInt(5, config.orderProducts());
+                orderSummaries.setTimestamp(6, Timestamp.valueOf(orderedAt));
+                orderSummaries.setTimestamp(7, completedAt);
+                orderSummaries.setTimestamp(8, completedAt);
+                orderSummaries.setString(9, summaryProducts.toString());
+                orderSummaries.addBatch();
+
+                final var count = id - first + 1;
+                if (count % BATCH_SIZE == 0 || id == last) {
+                    // parents before children
+                    addresses.executeBatch();
+                    payments.executeBatch();
+                    orders.executeBatch();
+                    orderProducts.executeBatch();
+                    orderSummaries.executeBatch();
+                }
+                if (count % COMMIT_SIZE == 0 || id == last) {
+                    connection.commit();
+                    final var total = seeded.addAndGet(id - committed);
+                    committed = id;
+                    if (total % 1_000_000 < COMMIT_SIZE) {
+                        log.info("seeded orders {}/{}", total, config.orders());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves sequences past seeded IDs. Every sequence is used by pooled
+     * optimizer (allocation size 50), which uses values (next - 50, next].
+     */
+    private void restartSequences(Connection connection) throws SQLException {
+        final var lastIds = Map.of(
+            "categories_seq", categoriesCount(config.categoriesDepth(), config.categoriesFanout()),
+            "countries_seq", (long) COUNTRIES,
+            "payment_methods_seq", (long) PAYMENT_METHODS,
+            "products_seq", config.products(),
+            "addresses_seq", config.orders(),
+            "payments_seq", config.orders(),
+            "orders_seq", config.orders(),
+            "order_products_seq", config.orders() * config.orderProducts()
+        );
+        try (final var statement = connection.createStatement()) {
+            for (final var lastId : lastIds.entrySet()) {
+                statement.execute(
+                    "ALTER SEQUENCE %s RESTART WITH %d".formatted(lastId.getKey(), lastId.getValue() + 100)
+                );
+            }
+        }
+        connection.commit();
+    }
+}
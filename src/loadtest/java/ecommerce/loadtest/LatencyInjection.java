@@ -0,0 +1,80 @@
+package ecommerce.loadtest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Simulates remote database by delaying every executed JDBC statement
+ * (loadtest.db-latency). Request threads wait as if they waited
+ * for the network, which shows how many concurrent requests
+ * platform and virtual threads can serve with slow database.
+ */
+@Configuration
+public class LatencyInjection {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute",
+        "executeQuery",
+        "executeUpdate",
+        "executeLargeUpdate",
+        "executeBatch",
+        "executeLargeBatch"
+    );
+
+    @Bean
+    public static BeanPostProcessor latencyInjectingDataSourcePostProcessor(
+        @Value("${loadtest.db-latency}") Duration latency
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || latency.isZero()) {
+                    return bean;
+                }
+                return proxy(DataSource.class, dataSource, latency);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Duration latency) {
+        final InvocationHandler handler = (proxy, method, args) -> {
+            if (Statement.class.isAssignableFrom(method.getDeclaringClass())
+                && EXECUTE_METHODS.contains(method.getName())
+            ) {
+                TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+            }
+
+            final Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            // statements of proxied connections are proxied too
+            if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                return proxy(Connection.class, connection, latency);
+            }
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy((Class<Statement>) method.getReturnType(), statement, latency);
+            }
+            return result;
+        };
+
+        return (T) Proxy.newProxyInstance(LatencyInjection.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
@@ -0,0 +1,118 @@
+package ecommerce.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the workload with fixed number of clients (closed model).
+ * Every client sends next request when it receives previous response,
+ * so latency of overloaded application lowers the throughput instead
+ * of queueing requests. Only requests started after the warmup
+ * and finished within the measured duration are recorded.
+ */
+@Slf4j
+public class LoadDriver {
+
+    /**
+     * Results of single scenario
+     *
+     * @param latencies in microseconds
+     * @param errors responses with status 4xx or 5xx and failed requests
+     */
+    public record ScenarioResult(Histogram latencies, long errors) {}
+
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(1).toNanos() / 1000;
+
+    private final Workload workload;
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+
+    private final Map<String, ConcurrentHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public LoadDriver(Workload workload, LoadTestConfig config) {
+        this.workload = workload;
+        this.config = config;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        for (final var scenario : Workload.SCENARIOS) {
+            latencies.put(scenario.name(), new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(scenario.name(), new LongAdder());
+        }
+    }
+
+    /**
+     * @return results of scenarios (in order of Workload.SCENARIOS)
+     */
+    public Map<String, ScenarioResult> run() throws InterruptedException {
+        final var start = System.nanoTime();
+        final var measureFrom = start + config.warmup().toNanos();
+        final var measureTo = measureFrom + config.duration().toNanos();
+
+        final var clients = new ArrayList<Thread>(config.clients());
+        for (int i = 0; i < config.clients(); ++i) {
+            final var random = new Random(config.randomSeed() + i);
+            final var client = new Thread(() -> runClient(random, measureFrom, measureTo), "loadtest-client-" + i);
+            client.start();
+            clients.add(client);
+        }
+        log.info("started clients count={} warmup={} duration={}", config.clients(), config.warmup(), config.duration());
+        for (final var client : clients) {
+            client.join();
+        }
+
+        final var results = new LinkedHashMap<String, ScenarioResult>();
+        for (final var scenario : Workload.SCENARIOS) {
+            results.put(
+                scenario.name(),
+                new ScenarioResult(latencies.get(scenario.name()), errors.get(scenario.name()).sum())
+            );
+        }
+        return results;
+    }
+
+    private void runClient(Random random, long measureFrom, long measureTo) {
+        while (true) {
+            final var scenario = workload.nextScenario(random);
+            final var request = scenario.request().apply(workload, random);
+
+            final var started = System.nanoTime();
+            if (started >= measureTo) {
+                return;
+            }
+            boolean failed;
+            try {
+                final var response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                failed = response.statusCode() >= 400;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.debug("request failed {}: {}", request.uri(), e.toString());
+                failed = true;
+            }
+            final var finished = System.nanoTime();
+
+            if (started >= measureFrom && finished <= measureTo) {
+                latencies.get(scenario.name()).recordValue(Math.min((finished - started) / 1000, MAX_LATENCY_MICROS));
+                if (failed) {
+                    errors.get(scenario.name()).increment();
+                }
+            }
+        }
+    }
+}
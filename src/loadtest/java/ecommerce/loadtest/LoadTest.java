@@ -0,0 +1,92 @@
+package ecommerce.loadtest;
+
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ecommerce.EcommerceApplication;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * End-to-end load test of the application.
+ *
+ * 1. the application creates the schema (ddl-auto) of empty database
+ * 2. DatasetGenerator seeds the dataset (skipped when products exist)
+ * 3. the application is started on random port and LoadDriver runs the Workload
+ * 4. LoadTestReport writes latencies and throughput of scenarios
+ *
+ * mvn -P loadtest -DskipTests verify -Dloadtest.args="--database=h2 --products=10000 --orders=10000"
+ */
+@Slf4j
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        final var config = LoadTestConfig.parse(args);
+        log.info("{}", config);
+
+        try (final var context = start(config, WebApplicationType.NONE, "PT0S")) {
+            log.info("created schema");
+        }
+
+        final var generator = new DatasetGenerator(config);
+        generator.seed();
+
+        // tokens of the workload are signed with key generated for this run
+        final var hmacKey = HexFormat.of().formatHex(SecureRandom.getSeed(32));
+        final var appProperties = new LinkedHashMap<String, Object>();
+        appProperties.put("ecommerce.auth.jwt.hmac.key", hmacKey);
+
+        try (final var context = start(config, WebApplicationType.SERVLET, config.dbLatency().toString(), appProperties)) {
+            final var port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            final var workload = new Workload(URI.create("http://localhost:" + port), config, hmacKey);
+
+            final var results = new LoadDriver(workload, config).run();
+            final var report = new LoadTestReport(config).write(results);
+            log.info("{}", report.total());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(
+        LoadTestConfig config,
+        WebApplicationType type,
+        String dbLatency
+    ) {
+        return start(config, type, dbLatency, Map.of());
+    }
+
+    private static ConfigurableApplicationContext start(
+        LoadTestConfig config,
+        WebApplicationType type,
+        String dbLatency,
+        Map<String, Object> extraProperties
+    ) {
+        final var properties = new LinkedHashMap<String, Object>();
+        properties.put("spring.datasource.url", config.effectiveJdbcUrl());
+        properties.put("spring.datasource.username", config.username());
+        properties.put("spring.datasource.password", config.password());
+        properties.put("server.port", 0);
+        properties.put("loadtest.db-latency", dbLatency);
+        // logging of every request would measure the disk
+        properties.put("ecommerce.logging.level.console", "INFO");
+        properties.put("ecommerce.logging.level.file", "INFO");
+        properties.put("logging.file.name", config.output().resolve("ecommerce.log").toString());
+        properties.putAll(extraProperties);
+        properties.putAll(config.appProperties());
+
+        // passed as command line arguments, which override application.properties
+        final var args = properties.entrySet().stream()
+            .map(property -> "--" + property.getKey() + "=" + property.getValue())
+            .toArray(String[]::new);
+
+        return new SpringApplicationBuilder(EcommerceApplication.class, LatencyInjection.class)
+            .web(type)
+            .run(args);
+    }
+}
@@ -0,0 +1,133 @@
+package ecommerce.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of the load test, parsed from "--name=value" arguments.
+ * Arguments starting with "--spring." or "--ecommerce." are passed
+ * to the tested application.
+ *
+ * @param database 'postgres' (docker-compose database) or 'h2' (embedded stand-in)
+ * @param jdbcUrl URL of PostgreSQL database (ignored for h2)
+ * @param username
+ * @param password
+ * @param categoriesDepth depth of every branch of the categories tree
+ * @param categoriesFanout number of children of every non-leaf category
+ * @param products
+ * @param orders
+ * @param orderProducts number of products (lines) of every order
+ * @param users number of distinct users ordering
+ * @param seedThreads number of connections seeding orders in parallel
+ * @param clients number of concurrent clients (closed model, every client waits for its response)
+ * @param warmup duration of requests excluded from results
+ * @param duration duration of measured requests
+ * @param dbLatency delay added to every executed JDBC statement
+ * @param randomSeed
+ * @param output directory of the reports
+ * @param appProperties properties of the tested application
+ */
+public record LoadTestConfig(
+    String database,
+    String jdbcUrl,
+    String username,
+    String password,
+    int categoriesDepth,
+    int categoriesFanout,
+    long products,
+    long orders,
+    int orderProducts,
+    int users,
+    int seedThreads,
+    int clients,
+    Duration warmup,
+    Duration duration,
+    Duration dbLatency,
+    long randomSeed,
+    Path output,
+    Map<String, String> appProperties
+) {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+        Map.entry("database", "postgres"),
+        Map.entry("jdbc-url", "jdbc:postgresql://localhost:5432/ecommerce?reWriteBatchedInserts=true"),
+        Map.entry("username", "admin"),
+        Map.entry("password", "admin"),
+        Map.entry("categories-depth", "6"),
+        Map.entry("categories-fanout", "3"),
+        Map.entry("products", "1000000"),
+        Map.entry("orders", "10000000"),
+        Map.entry("order-products", "3"),
+        Map.entry("users", "10000"),
+        Map.entry("seed-threads", "4"),
+        Map.entry("clients", "32"),
+        Map.entry("warmup", "PT30S"),
+        Map.entry("duration", "PT2M"),
+        Map.entry("db-latency", "PT0S"),
+        Map.entry("random-seed", "42"),
+        Map.entry("output", "target/loadtest")
+    );
+
+    public static LoadTestConfig parse(String[] args) {
+        final var options = new HashMap<>(DEFAULTS);
+        final var appProperties = new LinkedHashMap<String, String>();
+        for (final var arg : args) {
+            final var separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("expected --name=value argument: " + arg);
+            }
+            final var name = arg.substring(2, separator);
+            final var value = arg.substring(separator + 1);
+
+            if (name.startsWith("spring.") || name.startsWith("ecommerce.")) {
+                appProperties.put(name, value);
+            } else if (DEFAULTS.containsKey(name)) {
+                options.put(name, value);
+            } else {
+                throw new IllegalArgumentException("unknown option: " + name);
+            }
+        }
+
+        final var database = options.get("database");
+        if (!database.equals("postgres") && !database.equals("h2")) {
+            throw new IllegalArgumentException("database must be 'postgres' or 'h2'");
+        }
+
+        return new LoadTestConfig(
+            database,
+            options.get("jdbc-url"),
+            options.get("username"),
+            options.get("password"),
+            Integer.parseInt(options.get("categories-depth")),
+            Integer.parseInt(options.get("categories-fanout")),
+            Long.parseLong(options.get("products")),
+            Long.parseLong(options.get("orders")),
+            Integer.parseInt(options.get("order-products")),
+            Integer.parseInt(options.get("users")),
+            Integer.parseInt(options.get("seed-threads")),
+            Integer.parseInt(options.get("clients")),
+            Duration.parse(options.get("warmup")),
+            Duration.parse(options.get("duration")),
+            Duration.parse(options.get("db-latency")),
+            Long.parseLong(options.get("random-seed")),
+            Path.of(options.get("output")),
+            appProperties
+        );
+    }
+
+    public boolean isH2() {
+        return database.equals("h2");
+    }
+
+    /**
+     * @return JDBC URL of the tested database
+     */
+    public String effectiveJdbcUrl() {
+        return isH2()
+            ? "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"
+            : jdbcUrl;
+    }
+}
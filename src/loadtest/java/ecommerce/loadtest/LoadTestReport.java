@@ -0,0 +1,184 @@
+package ecommerce.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes throughput and latency percentiles of every scenario
+ * (and of all requests) as report.json and report.html
+ */
+@Slf4j
+public class LoadTestReport {
+
+    /**
+     * @param name
+     * @param requests measured requests
+     * @param errors
+     * @param throughput requests per second
+     * @param p50 latency in milliseconds
+     * @param p90
+     * @param p99
+     * @param p999
+     * @param max
+     */
+    public record ScenarioReport(
+        String name,
+        long requests,
+        long errors,
+        double throughput,
+        double p50,
+        double p90,
+        double p99,
+        double p999,
+        double max
+    ) {}
+
+    public record Report(
+        Map<String, Object> config,
+        List<ScenarioReport> scenarios,
+        ScenarioReport total
+    ) {}
+
+    private final LoadTestConfig config;
+
+    public LoadTestReport(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public Report write(Map<String, LoadDriver.ScenarioResult> results) throws IOException {
+        final var seconds = config.duration().toNanos() / 1e9;
+        final var all = new Histogram(3);
+        long allErrors = 0;
+
+        final var scenarios = new ArrayList<ScenarioReport>();
+        for (final var result : results.entrySet()) {
+            final var latencies = result.getValue().latencies();
+            scenarios.add(scenarioReport(result.getKey(), latencies, result.getValue().errors(), seconds));
+            all.add(latencies);
+            allErrors += result.getValue().errors();
+        }
+
+        final var configReport = new LinkedHashMap<String, Object>();
+        configReport.put("database", config.database());
+        configReport.put("categories", DatasetGenerator.categoriesCount(config.categoriesDepth(), config.categoriesFanout()));
+        configReport.put("products", config.products());
+        configReport.put("orders", config.orders());
+        configReport.put("orderProducts", config.orderProducts());
+        configReport.put("users", config.users());
+        configReport.put("clients", config.clients());
+        configReport.put("warmup", config.warmup());
+        configReport.put("duration", config.duration());
+        configReport.put("dbLatency", config.dbLatency());
+        configReport.put("appProperties", config.appProperties());
+
+        final var report = new Report(configReport, scenarios, scenarioReport("total", all, allErrors, seconds));
+
+        Files.createDirectories(config.output());
+        final var objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(config.output().resolve("report.json").toFile(), report);
+        Files.writeString(config.output().resolve("report.html"), html(report));
+
+        log.info("report written to {}", config.output().toAbsolutePath());
+        return report;
+    }
+
+    private static ScenarioReport scenarioReport(String name, Histogram latencies, long errors, double seconds) {
+        return new ScenarioReport(
+            name,
+            latencies.getTotalCount(),
+            errors,
+            round(latencies.getTotalCount() / seconds),
+            millis(latencies, 50),
+            millis(latencies, 90),
+            millis(latencies, 99),
+            millis(latencies, 99.9),
+            round(latencies.getMaxValue() / 1000.0)
+        );
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return round(latencies.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static String html(Report report) {
+        final var rows = new StringBuilder();
+        for (final var scenario : report.scenarios()) {
+            rows.append(row(scenario, "td"));
+        }
+        rows.append(row(report.total(), "th"));
+
+        final var config = new StringBuilder();
+        for (final var option : report.config().entrySet()) {
+            config.append("<tr><th>%s</th><td>%s</td></tr>\n".formatted(option.getKey(), escape(option.getValue())));
+        }
+
+        return """
+            <!DOCTYPE html>
+            <html>
+            <head>
+            <meta charset="utf-8">
+            <title>ecommerce load test</title>
+            <style>
+            body { font-family: sans-serif; }
+            table { border-collapse: collapse; margin-bottom: 2em; }
+            th, td { border: 1px solid #ccc; padding: 4px 8px; text-align: right; }
+            </style>
+            </head>
+            <body>
+            <h1>ecommerce load test</h1>
+            <table>
+            <tr><th>scenario</th><th>requests</th><th>errors</th><th>req/s</th>\
+            <th>p50 [ms]</th><th>p90 [ms]</th><th>p99 [ms]</th><th>p99.9 [ms]</th><th>max [ms]</th></tr>
+            %s</table>
+            <table>
+            %s</table>
+            </body>
+            </html>
+            """.formatted(rows, config);
+    }
+
+    private static String row(ScenarioReport scenario, String cell) {
+        final var values = List.of(
+            scenario.name(),
+            scenario.requests(),
+            scenario.errors(),
+            scenario.throughput(),
+            scenario.p50(),
+            scenario.p90(),
+            scenario.p99(),
+            scenario.p999(),
+            scenario.max()
+        );
+        final var row = new StringBuilder("<tr>");
+        for (final var value : values) {
+            row.append("<%s>%s</%s>".formatted(cell, escape(value), cell));
+        }
+        return row.append("</tr>\n").toString();
+    }
+
+    private static String escape(Object value) {
+        return String.valueOf(value)
+            .replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;");
+    }
+}
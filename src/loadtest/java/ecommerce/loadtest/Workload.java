@@ -0,0 +1,205 @@
+package ecommerce.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+
+/**
+ * Weighted mix of requests of browsing and ordering customers.
+ * Requests refer to rows of the seeded dataset (see DatasetGenerator).
+ *
+ * 'products.search' and 'products.name-like' select similar products
+ * with full-text search and with LIKE pattern, so their latencies compare both paths.
+ */
+public class Workload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * @param name reported name
+     * @param weight relative frequency
+     * @param request creates request for the random generator of the client
+     */
+    public record Scenario(
+        String name,
+        int weight,
+        BiFunction<Workload, Random, HttpRequest> request
+    ) {}
+
+    public static final List<Scenario> SCENARIOS = List.of(
+        new Scenario("products.get", 25, Workload::getProduct),
+        new Scenario("products.list", 15, Workload::getProducts),
+        new Scenario("products.list-category", 15, Workload::getProductsOfCategory),
+        new Scenario("products.search", 10, Workload::searchProducts),
+        new Scenario("products.name-like", 5, Workload::filterProductsByName),
+        new Scenario("categories.list", 10, Workload::getCategories),
+        new Scenario("orders.list", 5, Workload::getOrders),
+        new Scenario("orders.summaries", 10, Workload::getOrderSummaries),
+        new Scenario("orders.get", 8, Workload::getOrder),
+        new Scenario("orders.create", 2, Workload::postOrder)
+    );
+
+    private final URI baseUri;
+    private final LoadTestConfig config;
+    private final long categories;
+    private final String[] tokens;
+    private final int totalWeight;
+
+    public Workload(URI baseUri, LoadTestConfig config, String hmacKey) {
+        this.baseUri = baseUri;
+        this.config = config;
+        this.categories = DatasetGenerator.categoriesCount(config.categoriesDepth(), config.categoriesFanout());
+        this.totalWeight = SCENARIOS.stream().mapToInt(Scenario::weight).sum();
+
+        // tokens are reused by every request of the user, as by real clients
+        final var algorithm = Algorithm.HMAC256(hmacKey);
+        final var expiresAt = Instant.now().plus(1, ChronoUnit.DAYS);
+        this.tokens = new String[config.users()];
+        for (int i = 0; i < tokens.length; ++i) {
+            tokens[i] = JWT.create()
+                .withSubject(DatasetGenerator.username(i))
+                .withExpiresAt(expiresAt)
+                .withClaim("realm_access", Map.of("roles", List.of("offline_access")))
+                .sign(algorithm);
+        }
+    }
+
+    /**
+     * @param random
+     * @return scenario picked according to weights
+     */
+    public Scenario nextScenario(Random random) {
+        var remaining = random.nextInt(totalWeight);
+        for (final var scenario : SCENARIOS) {
+            remaining -= scenario.weight();
+            if (remaining < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private HttpRequest getProduct(Random random) {
+        return get("/api/v1/products/" + randomProduct(random), null);
+    }
+
+    /**
+     * Mostly first pages, with total
+     */
+    private HttpRequest getProducts(Random random) {
+        return get("/api/v1/products?pageSize=20&pageIdx=" + randomPage(random), null);
+    }
+
+    private HttpRequest getProductsOfCategory(Random random) {
+        final var category = 1 + random.nextLong(categories);
+        return get(
+            "/api/v1/products?pageSize=20&pageIdx=%d&category=%d".formatted(randomPage(random), category),
+            null
+        );
+    }
+
+    private HttpRequest searchProducts(Random random) {
+        return get("/api/v1/products?pageSize=20&pageIdx=0&search=" + randomSearch(random).replace(" ", "+"), null);
+    }
+
+    private HttpRequest filterProductsByName(Random random) {
+        final var pattern = "%" + randomSearch(random).replace(" ", "%") + "%";
+        return get("/api/v1/products?pageSize=20&pageIdx=0&name=" + pattern.replace("%", "%25"), null);
+    }
+
+    private HttpRequest getCategories(Random random) {
+        return get("/api/v1/categories", null);
+    }
+
+    /**
+     * Orders of the user (privileged users are not simulated)
+     */
+    private HttpRequest getOrders(Random random) {
+        return get(
+            "/api/v1/orders?pageSize=10&pageIdx=" + random.nextInt(3),
+            tokens[random.nextInt(tokens.length)]
+        );
+    }
+
+    /**
+     * Order history of the user
+     */
+    private HttpRequest getOrderSummaries(Random random) {
+        return get(
+            "/api/v1/orders/summaries?pageSize=10&pageIdx=" + random.nextInt(3),
+            tokens[random.nextInt(tokens.length)]
+        );
+    }
+
+    /**
+     * Existing order requested by its owner
+     */
+    private HttpRequest getOrder(Random random) {
+        final var id = 1 + random.nextLong(config.orders());
+        return get("/api/v1/orders/" + id, tokens[(int) (id % config.users())]);
+    }
+
+    private HttpRequest postOrder(Random random) {
+        final var products = new ArrayList<String>();
+        final var count = 1 + random.nextInt(config.orderProducts());
+        for (int i = 0; i < count; ++i) {
+            // IDs of inactive products (every 50th) would be rejected
+            var product = randomProduct(random);
+            if (product % 50 == 0) {
+                --product;
+            }
+            products.add("{\"productId\":%d,\"quantity\":%d}".formatted(product, 1 + i));
+        }
+        final var body = """
+            {"address":{"street":"street","house":"1","postalCode":"00-000","city":"city","country":%d},\
+            "payment":{"paymentMethod":%d},"products":[%s]}"""
+            .formatted(1 + random.nextInt(20), 1 + random.nextInt(5), String.join(",", products));
+
+        return HttpRequest.newBuilder(baseUri.resolve("/api/v1/orders"))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Authorization", "Bearer " + tokens[random.nextInt(tokens.length)])
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        final var builder = HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(REQUEST_TIMEOUT)
+            .GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private long randomProduct(Random random) {
+        return 1 + random.nextLong(config.products());
+    }
+
+    /**
+     * Two thirds of listings request first page, the rest one of the next 50 pages
+     */
+    private int randomPage(Random random) {
+        return random.nextInt(3) < 2 ? 0 : 1 + random.nextInt(50);
+    }
+
+    /**
+     * Word and prefix of another word (e.g. "red cha")
+     */
+    private String randomSearch(Random random) {
+        final var adjective = DatasetGenerator.ADJECTIVES.get(random.nextInt(DatasetGenerator.ADJECTIVES.size()));
+        final var noun = DatasetGenerator.NOUNS.get(random.nextInt(DatasetGenerator.NOUNS.size()));
+        return adjective + " " + noun.substring(0, 3);
+    }
+}
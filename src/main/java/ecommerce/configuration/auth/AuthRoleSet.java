@@ -0,0 +1,108 @@
+package ecommerce.configuration.auth;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Immutable set of roles known to the application (AuthRoles.ALL),
+ * stored as a bitmask. Checking roles does not allocate.
+ *
+ * User's roles are computed once per token (RolesJwtAuthenticationToken),
+ * required roles are meant to be kept in constants.
+ * Roles unknown to the application are ignored.
+ */
+public final class AuthRoleSet {
+
+    public static final AuthRoleSet EMPTY = new AuthRoleSet(0L);
+
+    private static final Map<String, Long> BITS = new HashMap<>();
+    static {
+        if (AuthRoles.ALL.size() > Long.SIZE) {
+            throw new IllegalStateException("AuthRoleSet supports at most %d roles".formatted(Long.SIZE));
+        }
+        for (int i = 0; i < AuthRoles.ALL.size(); ++i) {
+            BITS.put(AuthRoles.ALL.get(i), 1L << i);
+        }
+    }
+
+    private final long bits;
+
+    private AuthRoleSet(long bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @param roles roles from AuthRoles
+     * @return set of the roles
+     * @throws IllegalArgumentException any of roles is not listed in AuthRoles.ALL
+     */
+    public static AuthRoleSet of(String... roles) {
+        long bits = 0L;
+        for (final var role : roles) {
+            final var bit = BITS.get(role);
+            if (bit == null) {
+                throw new IllegalArgumentException("unknown role=%s".formatted(role));
+            }
+            bits |= bit;
+        }
+        return new AuthRoleSet(bits);
+    }
+
+    /**
+     * @param authorities user's authorities
+     * @return set of known roles among the authorities
+     */
+    public static AuthRoleSet fromAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        long bits = 0L;
+        for (final var authority : authorities) {
+            final var bit = BITS.get(authority.getAuthority());
+            if (bit != null) {
+                bits |= bit;
+            }
+        }
+        return bits == 0L ? EMPTY : new AuthRoleSet(bits);
+    }
+
+    /**
+     * @param roles
+     * @return true when set contains any of the roles
+     */
+    public boolean containsAny(AuthRoleSet roles) {
+        return (bits & roles.bits) != 0L;
+    }
+
+    /**
+     * @param roles
+     * @return true when set contains all the roles
+     */
+    public boolean containsAll(AuthRoleSet roles) {
+        return (bits & roles.bits) == roles.bits;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof AuthRoleSet other && other.bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(bits);
+    }
+
+    @Override
+    public String toString() {
+        final var builder = new StringBuilder("AuthRoleSet[");
+        for (int i = 0; i < AuthRoles.ALL.size(); ++i) {
+            if ((bits & (1L << i)) != 0L) {
+                if (builder.charAt(builder.length() - 1) != '[') {
+                    builder.append(',');
+                }
+                builder.append(AuthRoles.ALL.get(i));
+            }
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -1,5 +1,7 @@
 package ecommerce.configuration.auth;
 
+import java.util.List;
+
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -18,4 +20,22 @@ public class AuthRoles {
     public static final String COUNTRY_MANAGE = "ecommerce_manage_country";
 
     public static final String PAYMENT_METHOD_MANAGE = "ecommerce_manage_payment_method";
+
+    public static final String METRICS_VIEW = "ecommerce_view_metrics";
+
+    /**
+     * All roles known to the application (order defines bits of AuthRoleSet)
+     */
+    public static final List<String> ALL = List.of(
+        PRODUCT_CREATE,
+        PRODUCT_UPDATE,
+        PRODUCT_DELETE,
+        ORDER_SEARCH,
+        ORDER_UPDATE,
+        ORDER_UPDATE_COMPLETED_AT,
+        CATEGORY_MANAGE,
+        COUNTRY_MANAGE,
+        PAYMENT_METHOD_MANAGE,
+        METRICS_VIEW
+    );
 }
@@ -0,0 +1,194 @@
+package ecommerce.configuration.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replacement of JwtAuthenticationProvider that caches decoded tokens.
+ *
+ * Clients reuse the same bearer token for many requests, so verified Jwt
+ * with converted authorities and roles is kept (keyed by SHA-256 of the token)
+ * until token's 'exp'. Tokens without 'exp' are never cached.
+ * Every request still gets its own authentication object.
+ */
+@Slf4j
+public class CachingJwtAuthenticationProvider implements AuthenticationProvider {
+
+    private record Entry(
+        Jwt jwt,
+        Collection<GrantedAuthority> authorities,
+        AuthRoleSet roles,
+        Instant expiresAt
+    ) {}
+
+    /**
+     * Percentage of entries evicted at once when the cache is full
+     */
+    private static final int EVICTED_PERCENT = 10;
+
+    private final JwtDecoder jwtDecoder;
+    private final JwtGrantedAuthConverter jwtAuthConverter;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param jwtDecoder decodes and verifies tokens
+     * @param jwtAuthConverter extracts authorities from decoded token
+     * @param maxSize maximum number of cached tokens (0 disables cache)
+     * @param meterRegistry registry of hit/miss metrics
+     */
+    public CachingJwtAuthenticationProvider(
+        JwtDecoder jwtDecoder,
+        JwtGrantedAuthConverter jwtAuthConverter,
+        int maxSize,
+        MeterRegistry meterRegistry
+    ) {
+        this.jwtDecoder = jwtDecoder;
+        this.jwtAuthConverter = jwtAuthConverter;
+        this.maxSize = maxSize;
+
+        this.hits = Counter.builder("ecommerce.cache.gets")
+            .tag("cache", "jwt")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("ecommerce.cache.gets")
+            .tag("cache", "jwt")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("ecommerce.cache.size", entries, ConcurrentHashMap::size)
+            .tag("cache", "jwt")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        final var bearer = (BearerTokenAuthenticationToken) authentication;
+        final var token = bearer.getToken();
+
+        final var key = digest(token);
+        final var now = Instant.now();
+        var entry = entries.get(key);
+        if (entry != null && now.isBefore(entry.expiresAt())) {
+            hits.increment();
+        } else {
+            misses.increment();
+            entry = decode(token);
+            put(key, entry, now);
+        }
+
+        final var result = new RolesJwtAuthenticationToken(
+            entry.jwt(),
+            entry.authorities(),
+            entry.roles()
+        );
+        result.setDetails(bearer.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return BearerTokenAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private Entry decode(String token) {
+        final Jwt jwt;
+        try {
+            jwt = jwtDecoder.decode(token);
+        } catch (BadJwtException e) {
+            log.debug("failed to decode JWT: {}", e.getMessage());
+            throw new InvalidBearerTokenException(e.getMessage(), e);
+        } catch (JwtException e) {
+            throw new AuthenticationServiceException(e.getMessage(), e);
+        }
+
+        final var authorities = jwtAuthConverter.convert(jwt);
+        return new Entry(
+            jwt,
+            authorities,
+            AuthRoleSet.fromAuthorities(authorities),
+            jwt.getExpiresAt()
+        );
+    }
+
+    private void put(ByteBuffer key, Entry entry, Instant now) {
+        if (entry.expiresAt() == null || maxSize <= 0) {
+            return;
+        }
+
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict(now);
+        }
+
+        entries.put(key, entry);
+    }
+
+    /**
+     * Removes expired tokens. When the cache is still full, removes tokens
+     * that expire soonest, several at once so the sorting is amortized
+     * over the following puts. Only one thread evicts, others do not wait for it.
+     */
+    private void evict(Instant now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            entries.values().removeIf(cached -> !now.isBefore(cached.expiresAt()));
+
+            if (entries.size() >= maxSize) {
+                final var evicted = entries.size() - maxSize + Math.max(1, maxSize * EVICTED_PERCENT / 100);
+                entries.entrySet()
+                    .stream()
+                    .sorted(Comparator.comparing(cached -> cached.getValue().expiresAt()))
+                    .limit(evicted)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+                log.debug("evicted soonest expiring tokens count={}", evicted);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            final var digest = MessageDigest
+                .getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return ByteBuffer.wrap(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,19 +2,22 @@ package ecommerce.configuration.auth;
 
 import javax.crypto.spec.SecretKeySpec;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,10 +34,16 @@ public class JwtAuthConfiguration {
     public SecurityFilterChain securityFilterChainBean(
         HttpSecurity http,
         JwtDecoder jwtDecoder,
-        JwtGrantedAuthConverter jwtAuthConverter
+        JwtGrantedAuthConverter jwtAuthConverter,
+        @Value("${ecommerce.auth.jwt.cache.max-size}") int jwtCacheMaxSize,
+        ObjectProvider<MeterRegistry> meterRegistry
     ) throws Exception {
-        final var jwtAuthenticationConverter = new JwtAuthenticationConverter();
-        jwtAuthenticationConverter.setJwtGrantedAuthoritiesConverter(jwtAuthConverter);
+        final var jwtAuthenticationProvider = new CachingJwtAuthenticationProvider(
+            jwtDecoder,
+            jwtAuthConverter,
+            jwtCacheMaxSize,
+            meterRegistry.getIfAvailable(() -> Metrics.globalRegistry)
+        );
 
         return http
             .csrf((csrf) -> csrf.disable())
@@ -55,19 +64,21 @@ public class JwtAuthConfiguration {
                     .requestMatchers(HttpMethod.POST, "/api/v1/products").authenticated()
                     .requestMatchers(HttpMethod.DELETE, "/api/v1/products/*").authenticated()
                     .requestMatchers(HttpMethod.PATCH, "/api/v1/products/*").authenticated()
+                    .requestMatchers(HttpMethod.PUT, "/api/v1/products/*/stock").authenticated()
                     // payment methods
                     .requestMatchers(HttpMethod.POST, "/api/v1/payment-methods").authenticated()
                     .requestMatchers(HttpMethod.DELETE, "/api/v1/payment-methods/*").authenticated()
                     .requestMatchers(HttpMethod.PATCH, "/api/v1/payment-methods/*").authenticated()
+                    // actuator (metrics expose routes, cache sizes and JDBC statistics)
+                    .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                    .requestMatchers("/actuator/**").hasAuthority(AuthRoles.METRICS_VIEW)
                     // rest
                     .anyRequest().permitAll()
             )
             .oauth2ResourceServer(oauth2 -> {
                 oauth2
                     .jwt(jwt -> 
-                        jwt
-                            .decoder(jwtDecoder)
-                            .jwtAuthenticationConverter(jwtAuthenticationConverter)
+                        jwt.authenticationManager(new ProviderManager(jwtAuthenticationProvider))
                     );
             })
             .exceptionHandling(exceptionHandling -> 
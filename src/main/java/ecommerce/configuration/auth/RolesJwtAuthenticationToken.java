@@ -0,0 +1,37 @@
+package ecommerce.configuration.auth;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+/**
+ * JWT authentication with roles precomputed once per token
+ */
+public class RolesJwtAuthenticationToken extends JwtAuthenticationToken {
+
+    private final AuthRoleSet roles;
+
+    public RolesJwtAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities) {
+        this(jwt, authorities, AuthRoleSet.fromAuthorities(authorities));
+    }
+
+    /**
+     * @param jwt
+     * @param authorities
+     * @param roles roles already computed from the authorities
+     */
+    public RolesJwtAuthenticationToken(
+        Jwt jwt,
+        Collection<? extends GrantedAuthority> authorities,
+        AuthRoleSet roles
+    ) {
+        super(jwt, authorities);
+        this.roles = roles;
+    }
+
+    public AuthRoleSet getRoles() {
+        return roles;
+    }
+}
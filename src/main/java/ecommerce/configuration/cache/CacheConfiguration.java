@@ -0,0 +1,42 @@
+package ecommerce.configuration.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ecommerce.dto.countries.OutCountry;
+import ecommerce.dto.paymentmethods.OutPaymentMethod;
+import ecommerce.dto.products.OutProductDetails;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.service.utils.ReferenceCache;
+import ecommerce.service.utils.TinyLfuCache;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class CacheConfiguration {
+
+    @Bean
+    public ReferenceCache<Country, OutCountry> countriesCacheBean(
+        @Value("${ecommerce.cache.reference.max-size}") int maxSize,
+        MeterRegistry meterRegistry
+    ) {
+        return new ReferenceCache<>("countries", maxSize, meterRegistry);
+    }
+
+    @Bean
+    public ReferenceCache<PaymentMethod, OutPaymentMethod> paymentMethodsCacheBean(
+        @Value("${ecommerce.cache.reference.max-size}") int maxSize,
+        MeterRegistry meterRegistry
+    ) {
+        return new ReferenceCache<>("payment_methods", maxSize, meterRegistry);
+    }
+
+    @Bean
+    public TinyLfuCache<OutProductDetails> productsCacheBean(
+        @Value("${ecommerce.cache.products.max-size}") int maxSize,
+        MeterRegistry meterRegistry
+    ) {
+        return new TinyLfuCache<>("products", maxSize, meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package ecommerce.configuration.database;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import ecommerce.repository.utils.SliceSpecificationRepository;
+
+@Configuration
+@EnableJpaRepositories(
+    basePackages = "ecommerce.repository",
+    repositoryBaseClass = SliceSpecificationRepository.class
+)
+public class JpaConfiguration {
+
+}
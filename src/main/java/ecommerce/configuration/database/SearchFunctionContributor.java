@@ -0,0 +1,43 @@
+package ecommerce.configuration.database;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers PostgreSQL full-text search functions usable in criteria queries
+ * (registered through META-INF/services, only for PostgreSQL dialect).
+ *
+ * Both functions build the document as to_tsvector('simple', text),
+ * so they match expression index created by ProductsSearchIndex.
+ * <ul>
+ *   <li>fts_match(text, query) - true when text matches tsquery</li>
+ *   <li>fts_rank(text, query) - relevance of the text (ts_rank)</li>
+ * </ul>
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    public static final String FTS_MATCH = "fts_match";
+    public static final String FTS_RANK = "fts_rank";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (!(functionContributions.getDialect() instanceof PostgreSQLDialect)) {
+            return;
+        }
+
+        final var registry = functionContributions.getFunctionRegistry();
+        final var types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        registry.registerPattern(
+            FTS_MATCH,
+            "(to_tsvector('simple', ?1) @@ to_tsquery('simple', ?2))",
+            types.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        registry.registerPattern(
+            FTS_RANK,
+            "ts_rank(to_tsvector('simple', ?1), to_tsquery('simple', ?2))",
+            types.resolve(StandardBasicTypes.FLOAT)
+        );
+    }
+}
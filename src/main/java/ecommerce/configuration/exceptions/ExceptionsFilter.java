@@ -18,7 +18,7 @@ import lombok.extern.slf4j.Slf4j;
  * Catches any exception, logs it and sends response INTERNAL_SERVER_ERROR
  */
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
 @Slf4j
 public class ExceptionsFilter extends OncePerRequestFilter {
 
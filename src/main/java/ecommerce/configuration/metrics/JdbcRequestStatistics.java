@@ -0,0 +1,61 @@
+package ecommerce.configuration.metrics;
+
+/**
+ * JDBC statements executed while processing current request.
+ *
+ * Statistics are bound to the thread processing the request
+ * by RequestMetricsFilter and collected by JdbcStatisticsSessionListener,
+ * statements executed outside of any request are not counted.
+ */
+public class JdbcRequestStatistics {
+
+    private static final ThreadLocal<JdbcRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    /**
+     * Binds new statistics to the current thread
+     *
+     * @return bound statistics
+     */
+    public static JdbcRequestStatistics start() {
+        final var statistics = new JdbcRequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * Unbinds statistics from the current thread
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Records executed statement (or batch of statements)
+     *
+     * @param nanos execution time
+     */
+    public static void record(long nanos) {
+        final var statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.nanos += nanos;
+        }
+    }
+
+    /**
+     * @return number of executed statements (batch counts as single statement)
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return total execution time of statements
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,35 @@
+package ecommerce.configuration.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Measures every statement executed by Hibernate session
+ * and records it in JdbcRequestStatistics.
+ *
+ * Instantiated by Hibernate for every session
+ * (configured with 'hibernate.session.events.auto').
+ */
+public class JdbcStatisticsSessionListener implements SessionEventListener {
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        JdbcRequestStatistics.record(System.nanoTime() - executionStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        JdbcRequestStatistics.record(System.nanoTime() - executionStart);
+    }
+}
@@ -0,0 +1,22 @@
+package ecommerce.configuration.metrics;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilterBean(
+        MeterRegistry meterRegistry
+    ) {
+        final var registration = new FilterRegistrationBean<>(new RequestMetricsFilter(meterRegistry));
+        // Outside of ExceptionsFilter to see status of failed requests
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
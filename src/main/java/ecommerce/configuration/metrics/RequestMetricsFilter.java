@@ -0,0 +1,88 @@
+package ecommerce.configuration.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records database load of every request:
+ * <ul>
+ *   <li>'ecommerce.http.requests.jdbc.statements' - number of executed statements</li>
+ *   <li>'ecommerce.http.requests.jdbc.time' - total execution time of statements</li>
+ * </ul>
+ * Metrics are tagged like 'http.server.requests' (latency recorded by Spring Boot),
+ * with matched route pattern instead of raw URI, so endpoints can be compared directly.
+ * Registered in MetricsConfiguration.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        final var statistics = JdbcRequestStatistics.start();
+        final var start = System.nanoTime();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            JdbcRequestStatistics.stop();
+            final var duration = System.nanoTime() - start;
+
+            final var tags = Tags.of(
+                "method", request.getMethod(),
+                "uri", getUri(request),
+                "status", getStatusClass(response)
+            );
+            DistributionSummary.builder("ecommerce.http.requests.jdbc.statements")
+                .description("number of JDBC statements executed by request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+            Timer.builder("ecommerce.http.requests.jdbc.time")
+                .description("total execution time of JDBC statements executed by request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+
+            log.debug(
+                "request time={}ms statements={} statementsTime={}ms",
+                TimeUnit.NANOSECONDS.toMillis(duration),
+                statistics.getStatements(),
+                TimeUnit.NANOSECONDS.toMillis(statistics.getNanos())
+            );
+        }
+    }
+
+    private String getUri(HttpServletRequest request) {
+        // Set by Spring MVC, missing when request was rejected before reaching controller
+        final var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+
+    private String getStatusClass(HttpServletResponse response) {
+        return (response.getStatus() / 100) + "xx";
+    }
+}
@@ -0,0 +1,12 @@
+package ecommerce.configuration.scheduling;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables background jobs (methods annotated with @Scheduled)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,87 @@
+package ecommerce.configuration.threads;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reports virtual threads pinned to their carrier thread
+ * (blocking inside 'synchronized' or native frames) for longer than 'threshold'.
+ *
+ * Pinned virtual thread blocks the carrier, so with virtual threads enabled
+ * (spring.threads.virtual.enabled) a lock held around JDBC I/O
+ * limits throughput to the number of carriers.
+ * Every pinning is logged with top frames of its stack trace
+ * and recorded in 'ecommerce.threads.pinned' timer.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.threads.pinning-monitor.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Timer pinned;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(
+        @Value("${ecommerce.threads.pinning-monitor.threshold}") Duration threshold,
+        MeterRegistry meterRegistry
+    ) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder("ecommerce.threads.pinned")
+            .description("time virtual threads spent pinned to carrier threads")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        recordingStream = new RecordingStream();
+        recordingStream
+            .enable(PINNED_EVENT)
+            .withThreshold(threshold)
+            .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+
+        log.info("started monitoring pinned virtual threads threshold={}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        final var stackTrace = event.getStackTrace();
+        final var frames = stackTrace == null
+            ? "unknown"
+            : stackTrace.getFrames()
+                .stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "%s.%s:%d".formatted(
+                    frame.getMethod().getType().getName(),
+                    frame.getMethod().getName(),
+                    frame.getLineNumber()
+                ))
+                .collect(Collectors.joining("\n\tat "));
+
+        log.warn("virtual thread pinned duration={}\n\tat {}", event.getDuration(), frames);
+    }
+}
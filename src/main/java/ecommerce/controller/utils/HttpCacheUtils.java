@@ -0,0 +1,37 @@
+package ecommerce.controller.utils;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class HttpCacheUtils {
+
+    /**
+     * Sets 'Cache-Control' and 'ETag' headers and compares ETag with 'If-None-Match'.
+     * When it returns true, response status is already set to 304
+     * and controller should return null without calling the service.
+     *
+     * @param request
+     * @param response
+     * @param eTag current ETag of the resource (without quotes)
+     * @param cacheControl value of 'Cache-Control' header (not set when blank)
+     * @return true when client's copy is up to date
+     */
+    public static boolean checkNotModified(
+        WebRequest request,
+        HttpServletResponse response,
+        String eTag,
+        String cacheControl
+    ) {
+        if (StringUtils.hasText(cacheControl)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+
+        return request.checkNotModified(eTag);
+    }
+}
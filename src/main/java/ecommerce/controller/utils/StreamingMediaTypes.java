@@ -0,0 +1,39 @@
+package ecommerce.controller.utils;
+
+import org.springframework.http.MediaType;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Media types of streamed bulk endpoints (imports and exports)
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class StreamingMediaTypes {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    /**
+     * Chooses format of streamed response from 'Accept' header,
+     * the first of explicitly listed NDJSON or CSV wins, NDJSON is the default
+     *
+     * @param accept value of 'Accept' header (may be null)
+     * @return true when CSV is preferred
+     */
+    public static boolean isCsvPreferred(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+
+        for (final var mediaType : MediaType.parseMediaTypes(accept)) {
+            if (mediaType.equalsTypeAndSubtype(TEXT_CSV)) {
+                return true;
+            }
+            if (mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON)) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
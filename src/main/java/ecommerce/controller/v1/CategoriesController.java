@@ -4,6 +4,7 @@ import static ecommerce.configuration.docs.OpenApiConfiguration.BEARER;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
@@ -16,8 +17,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.controller.utils.HttpCacheUtils;
 import ecommerce.dto.categories.InCategory;
 import ecommerce.dto.categories.OutCategory;
 import ecommerce.exception.ConflictException;
@@ -28,6 +31,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
@@ -42,14 +46,26 @@ public class CategoriesController {
 
     private final CategoriesService categoriesService;
 
+    @Value("${ecommerce.http.cache-control.categories}")
+    private String categoriesCacheControl;
+
     @GetMapping("")
     @Operation(
         summary = "fetch list of all categories",
         responses = {
-            @ApiResponse(responseCode = "200", description = "success")
+            @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "304", description = "categories did not change since 'If-None-Match' ETag")
         }
     )
-    public List<OutCategory> getCategories() {
+    public List<OutCategory> getCategories(
+        WebRequest request,
+        HttpServletResponse response
+    ) {
+        final var eTag = categoriesService.getCategoriesETag();
+        if (HttpCacheUtils.checkNotModified(request, response, eTag, categoriesCacheControl)) {
+            return null;
+        }
+
         return categoriesService.getCategories();
     }
 
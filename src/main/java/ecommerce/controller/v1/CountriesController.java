@@ -4,6 +4,7 @@ import static ecommerce.configuration.docs.OpenApiConfiguration.BEARER;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
@@ -15,8 +16,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.controller.utils.HttpCacheUtils;
 import ecommerce.dto.countries.InCountry;
 import ecommerce.dto.countries.OutCountry;
 import ecommerce.exception.ConflictException;
@@ -26,6 +29,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
@@ -40,6 +44,9 @@ public class CountriesController {
 
     private final CountriesService countriesService;
 
+    @Value("${ecommerce.http.cache-control.countries}")
+    private String countriesCacheControl;
+
     @GetMapping("/{id}")
     @Operation(
         summary = "fetch active country by id",
@@ -58,10 +65,19 @@ public class CountriesController {
     @Operation(
         summary = "fetch all active countries",
         responses = {
-            @ApiResponse(responseCode = "200", description = "success")
+            @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "304", description = "countries did not change since 'If-None-Match' ETag")
         }
     )
-    public List<OutCountry> getCountries() {
+    public List<OutCountry> getCountries(
+        WebRequest request,
+        HttpServletResponse response
+    ) {
+        final var eTag = countriesService.getCountriesETag();
+        if (HttpCacheUtils.checkNotModified(request, response, eTag, countriesCacheControl)) {
+            return null;
+        }
+
         return countriesService.getCountries();
     }
 
@@ -2,7 +2,12 @@ package ecommerce.controller.v1;
 
 import static ecommerce.configuration.docs.OpenApiConfiguration.BEARER;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
@@ -12,27 +17,35 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.controller.utils.StreamingMediaTypes;
 import ecommerce.dto.addresses.InAddress;
 import ecommerce.dto.orders.InOrder;
+import ecommerce.dto.orders.InOrderBatch;
 import ecommerce.dto.orders.InOrderCompletedAtUpdate;
 import ecommerce.dto.orders.InOrderFilters;
 import ecommerce.dto.orders.OutOrder;
+import ecommerce.dto.orders.OutOrderBatch;
+import ecommerce.dto.orders.OutOrderSummary;
 import ecommerce.dto.payments.InPaymentCompletedAtUpdate;
 import ecommerce.dto.shared.InPagination;
 import ecommerce.dto.shared.OutPage;
 import ecommerce.exception.ConflictException;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
+import ecommerce.service.orders.OrderSummariesService;
+import ecommerce.service.orders.OrdersExportService;
 import ecommerce.service.orders.OrdersService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
@@ -46,6 +59,8 @@ import lombok.RequiredArgsConstructor;
 public class OrdersController {
 
     private final OrdersService ordersService;
+    private final OrdersExportService ordersExportService;
+    private final OrderSummariesService orderSummariesService;
 
     @GetMapping("")
     @Operation(
@@ -53,17 +68,68 @@ public class OrdersController {
         security = @SecurityRequirement(name = BEARER),
         responses = {
             @ApiResponse(responseCode = "200", description = "success"),
-            @ApiResponse(responseCode = "400", description = "any of input parameters is invalid")
+            @ApiResponse(responseCode = "400", description = "any of input parameters or pagination cursor is invalid")
         }
     )
     public OutPage<OutOrder> getOrders(
         @Validated @ModelAttribute InPagination pagination,
         @Validated @ModelAttribute InOrderFilters filters
-    ) {
+    ) throws ValidationException {
         final var auth = SecurityContextHolder.getContext().getAuthentication();
         return ordersService.getOrders(auth, filters, pagination);
     }
 
+    @GetMapping("/summaries")
+    @Operation(
+        summary = "fetch order history (summaries of orders)",
+        description = "summaries contain status, total amount and ordered products "
+            + "as of ordering, without address and products' details",
+        security = @SecurityRequirement(name = BEARER),
+        responses = {
+            @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "400", description = "any of input parameters or pagination cursor is invalid"),
+            @ApiResponse(responseCode = "401", description = "user is unauthenticated")
+        }
+    )
+    public OutPage<OutOrderSummary> getOrderSummaries(
+        @Validated @ModelAttribute InPagination pagination,
+        @Validated @ModelAttribute InOrderFilters filters
+    ) throws ValidationException {
+        final var auth = SecurityContextHolder.getContext().getAuthentication();
+        return orderSummariesService.getOrderSummaries(auth, filters, pagination);
+    }
+
+    @GetMapping(
+        value = "/export",
+        produces = { MediaType.APPLICATION_NDJSON_VALUE, StreamingMediaTypes.TEXT_CSV_VALUE }
+    )
+    @Secured({ AuthRoles.ORDER_SEARCH })
+    @Operation(
+        summary = "export all orders matching filters as NDJSON or CSV (chosen by 'Accept')",
+        description = "orders are streamed without pagination, rows do not contain order products",
+        security = @SecurityRequirement(name = BEARER),
+        responses = {
+            @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "400", description = "any of input parameters is invalid"),
+            @ApiResponse(responseCode = "401", description = "user is unauthenticated"),
+            @ApiResponse(responseCode = "403", description = "user lacks role " + AuthRoles.ORDER_SEARCH)
+        }
+    )
+    public void exportOrders(
+        @Validated @ModelAttribute InOrderFilters filters,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        HttpServletResponse response
+    ) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (StreamingMediaTypes.isCsvPreferred(accept)) {
+            response.setContentType(StreamingMediaTypes.TEXT_CSV_VALUE);
+            ordersExportService.exportOrdersCsv(filters, response.getWriter());
+        } else {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            ordersExportService.exportOrdersNdjson(filters, response.getWriter());
+        }
+    }
+
     @GetMapping("/{id}")
     @Operation(
         summary = "fetch order by id",
@@ -94,16 +160,39 @@ public class OrdersController {
             @ApiResponse(
                 responseCode = "404",
                 description = "country, payment method or any of ordered products does not exist"
-            )
+            ),
+            @ApiResponse(responseCode = "409", description = "any of ordered products is out of stock")
         }
     )
     public OutOrder postOrder(
         @Validated @RequestBody InOrder order
-    ) throws NotFoundException, ValidationException {
+    ) throws NotFoundException, ValidationException, ConflictException {
         final var auth = SecurityContextHolder.getContext().getAuthentication();
         return ordersService.postOrder(auth, order);
     }
 
+    @PostMapping("/batch")
+    @Operation(
+        summary = "create batch of orders",
+        description = "orders are created in single transaction, "
+            + "rejected orders are reported per item and do not prevent creating the others",
+        security = @SecurityRequirement(name = BEARER),
+        responses = {
+            @ApiResponse(responseCode = "200", description = "success (some of the orders may be rejected)"),
+            @ApiResponse(
+                responseCode = "400",
+                description = "any of input parameters is invalid or batch contains too many orders"
+            ),
+            @ApiResponse(responseCode = "401", description = "user is unauthenticated")
+        }
+    )
+    public OutOrderBatch postOrders(
+        @Validated @RequestBody InOrderBatch batch
+    ) throws ValidationException {
+        final var auth = SecurityContextHolder.getContext().getAuthentication();
+        return ordersService.postOrders(auth, batch);
+    }
+
     @PutMapping("/{id}/address")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(
@@ -168,7 +257,10 @@ public class OrdersController {
                 description = "user lacks any of the roles [" + AuthRoles.ORDER_UPDATE_COMPLETED_AT + "," + AuthRoles.ORDER_UPDATE + "]"
             ),
             @ApiResponse(responseCode = "404", description = "order does not exist"),
-            @ApiResponse(responseCode = "409", description = "order payment has already been completed")
+            @ApiResponse(
+                responseCode = "409",
+                description = "order payment has already been completed or stock of its expired reservation is sold out"
+            )
         }
     )
     public void putOrderPaymentCompletedAt(
@@ -4,6 +4,7 @@ import static ecommerce.configuration.docs.OpenApiConfiguration.BEARER;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
@@ -16,8 +17,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.controller.utils.HttpCacheUtils;
 import ecommerce.dto.paymentmethods.InPaymentMethod;
 import ecommerce.dto.paymentmethods.InPaymentMethodPatch;
 import ecommerce.dto.paymentmethods.OutPaymentMethod;
@@ -28,6 +31,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
@@ -42,14 +46,26 @@ public class PaymentMethodsController {
 
     private final PaymentMethodsService paymentMethodsService;
 
+    @Value("${ecommerce.http.cache-control.payment-methods}")
+    private String paymentMethodsCacheControl;
+
     @GetMapping("")
     @Operation(
         summary = "fetch all available payment methods",
         responses = {
-            @ApiResponse(responseCode = "200", description = "success")
+            @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "304", description = "payment methods did not change since 'If-None-Match' ETag")
         }
     )
-    public List<OutPaymentMethod> getPaymentMethods() {
+    public List<OutPaymentMethod> getPaymentMethods(
+        WebRequest request,
+        HttpServletResponse response
+    ) {
+        final var eTag = paymentMethodsService.getPaymentMethodsETag();
+        if (HttpCacheUtils.checkNotModified(request, response, eTag, paymentMethodsCacheControl)) {
+            return null;
+        }
+
         return paymentMethodsService.getPaymentMethods();
     }
 
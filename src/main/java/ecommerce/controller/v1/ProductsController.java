@@ -1,6 +1,12 @@
 package ecommerce.controller.v1;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,26 +15,37 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.controller.utils.HttpCacheUtils;
+import ecommerce.controller.utils.StreamingMediaTypes;
 import ecommerce.dto.products.InProduct;
 import ecommerce.dto.products.InProductPatch;
 import ecommerce.dto.products.InProductFilters;
+import ecommerce.dto.products.InProductStock;
 import ecommerce.dto.products.OutProduct;
 import ecommerce.dto.products.OutProductDetails;
+import ecommerce.dto.products.OutProductImport;
+import ecommerce.dto.products.OutProductStock;
 import ecommerce.dto.shared.InPagination;
 import ecommerce.dto.shared.OutPage;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
+import ecommerce.service.inventory.InventoryService;
+import ecommerce.service.products.ProductsImportService;
 import ecommerce.service.products.ProductsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 
@@ -44,18 +61,31 @@ import static ecommerce.configuration.docs.OpenApiConfiguration.BEARER;
 public class ProductsController {
 
     private final ProductsService productsService;
+    private final ProductsImportService productsImportService;
+    private final InventoryService inventoryService;
+
+    @Value("${ecommerce.http.cache-control.products}")
+    private String productsCacheControl;
 
     @GetMapping("/{id}")
     @Operation(
         summary = "fetch single active product",
         responses = {
             @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "304", description = "product did not change since 'If-None-Match' ETag"),
             @ApiResponse(responseCode = "404", description = "product does not exist")
         }
     )
     public OutProductDetails getProduct(
-        @NotNull @PathVariable Long id
+        @NotNull @PathVariable Long id,
+        WebRequest request,
+        HttpServletResponse response
     ) throws NotFoundException {
+        final var eTag = productsService.getProductETag(id);
+        if (HttpCacheUtils.checkNotModified(request, response, eTag, productsCacheControl)) {
+            return null;
+        }
+
         return productsService.getProduct(id);
     }
 
@@ -64,13 +94,13 @@ public class ProductsController {
         summary = "fetch page of active products",
         responses = {
             @ApiResponse(responseCode = "200", description = "success"),
-            @ApiResponse(responseCode = "400", description = "any of input parameters is invalid")
+            @ApiResponse(responseCode = "400", description = "any of input parameters or pagination cursor is invalid")
         }
     )
     public OutPage<OutProduct> getProducts(
         @Validated @ModelAttribute InPagination pagination,
         @Validated @ModelAttribute InProductFilters filters
-    ) {
+    ) throws ValidationException {
         return productsService.getProducts(filters, pagination);
     }
 
@@ -93,6 +123,37 @@ public class ProductsController {
         return productsService.postProduct(product);
     }
 
+    @PostMapping(
+        value = "/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, StreamingMediaTypes.TEXT_CSV_VALUE }
+    )
+    @Secured({ AuthRoles.PRODUCT_CREATE })
+    @Operation(
+        summary = "create many products from NDJSON (InProduct per line) or CSV (header: name,description,price,category)",
+        description = "body is streamed and products are saved in batches, invalid lines are skipped and reported",
+        security = @SecurityRequirement(name = BEARER),
+        responses = {
+            @ApiResponse(responseCode = "200", description = "success (some lines might have been rejected)"),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing or CSV is malformed"),
+            @ApiResponse(responseCode = "401", description = "user is unauthenticated"),
+            @ApiResponse(responseCode = "403", description = "user lacks role " + AuthRoles.PRODUCT_CREATE)
+        }
+    )
+    public OutProductImport importProducts(
+        HttpServletRequest request
+    ) throws IOException, ValidationException {
+        final var contentType = MediaType.parseMediaType(request.getContentType());
+        final var charset = contentType.getCharset() != null
+            ? contentType.getCharset()
+            : StandardCharsets.UTF_8;
+        final var reader = new InputStreamReader(request.getInputStream(), charset);
+
+        if (StreamingMediaTypes.TEXT_CSV.isCompatibleWith(contentType)) {
+            return productsImportService.importProductsCsv(reader);
+        }
+        return productsImportService.importProductsNdjson(reader);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Secured({ AuthRoles.PRODUCT_DELETE })
@@ -134,4 +195,39 @@ public class ProductsController {
     ) throws NotFoundException, ValidationException {
         productsService.patchProduct(id, productPatch);
     }
+
+    @GetMapping("/{id}/stock")
+    @Operation(
+        summary = "fetch available stock of active product",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "success"),
+            @ApiResponse(responseCode = "404", description = "product does not exist")
+        }
+    )
+    public OutProductStock getProductStock(
+        @NotNull @PathVariable Long id
+    ) throws NotFoundException {
+        return inventoryService.getStock(id);
+    }
+
+    @PutMapping("/{id}/stock")
+    @Secured({ AuthRoles.PRODUCT_UPDATE })
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(
+        summary = "set available stock of the product (product's stock becomes limited)",
+        security = @SecurityRequirement(name = BEARER),
+        responses = {
+            @ApiResponse(responseCode = "204", description = "success"),
+            @ApiResponse(responseCode = "400", description = "any of input parameters is invalid"),
+            @ApiResponse(responseCode = "401", description = "user is unauthenticated"),
+            @ApiResponse(responseCode = "403", description = "user lacks role " + AuthRoles.PRODUCT_UPDATE),
+            @ApiResponse(responseCode = "404", description = "product does not exist")
+        }
+    )
+    public void putProductStock(
+        @NotNull @PathVariable Long id,
+        @Validated @RequestBody InProductStock stock
+    ) throws NotFoundException {
+        inventoryService.putStock(id, stock);
+    }
 }
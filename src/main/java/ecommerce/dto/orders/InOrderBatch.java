@@ -0,0 +1,11 @@
+package ecommerce.dto.orders;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+public record InOrderBatch(
+    @NotEmpty @Valid List<@NotNull InOrder> orders
+) {}
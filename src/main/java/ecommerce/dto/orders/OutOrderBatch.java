@@ -0,0 +1,9 @@
+package ecommerce.dto.orders;
+
+import java.util.List;
+
+public record OutOrderBatch(
+    int createdCount,
+    int rejectedCount,
+    List<OutOrderBatchItem> items
+) {}
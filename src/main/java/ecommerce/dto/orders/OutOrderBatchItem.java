@@ -0,0 +1,16 @@
+package ecommerce.dto.orders;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Result of creating single order of the batch
+ *
+ * @param index index of the order in the batch
+ * @param orderId ID of created order (null when order was rejected)
+ * @param error reason why order was rejected (null when order was created)
+ */
+public record OutOrderBatchItem(
+    int index,
+    @Nullable Long orderId,
+    @Nullable String error
+) {}
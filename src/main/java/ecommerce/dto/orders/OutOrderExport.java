@@ -0,0 +1,22 @@
+package ecommerce.dto.orders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of orders export (without order products)
+ */
+public record OutOrderExport(
+    Long id,
+    String username,
+    LocalDateTime orderedAt,
+    LocalDateTime completedAt,
+    String street,
+    String house,
+    String postalCode,
+    String city,
+    Long country,
+    Long paymentMethod,
+    BigDecimal paymentAmount,
+    LocalDateTime paymentCompletedAt
+) {}
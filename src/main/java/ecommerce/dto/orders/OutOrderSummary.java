@@ -0,0 +1,31 @@
+package ecommerce.dto.orders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+
+/**
+ * @param id
+ * @param username
+ * @param status PENDING, PAID or COMPLETED
+ * @param totalAmount amount of the payment
+ * @param lineCount number of ordered products
+ * @param orderedAt
+ * @param completedAt
+ * @param paymentCompletedAt
+ * @param products products with their names and prices as of ordering
+ */
+@Builder
+public record OutOrderSummary(
+    Long id,
+    String username,
+    String status,
+    BigDecimal totalAmount,
+    Integer lineCount,
+    LocalDateTime orderedAt,
+    LocalDateTime completedAt,
+    LocalDateTime paymentCompletedAt,
+    List<OutOrderSummaryProduct> products
+) {}
@@ -0,0 +1,13 @@
+package ecommerce.dto.orders;
+
+import java.math.BigDecimal;
+
+import lombok.Builder;
+
+@Builder
+public record OutOrderSummaryProduct(
+    Long productId,
+    String name,
+    BigDecimal price,
+    Integer quantity
+) {}
@@ -8,8 +8,17 @@ import ecommerce.dto.validation.nullablenotblank.NullableNotBlank;
 
 import jakarta.validation.constraints.DecimalMin;
 
+/**
+ * @param name LIKE pattern of the name (case insensitive)
+ * @param search words which must all occur in the name as word prefixes,
+ * products are sorted by relevance on offset pages
+ * @param minPrice
+ * @param maxPrice
+ * @param category
+ */
 public record InProductFilters(
     @Nullable @NullableNotBlank String name,
+    @Nullable @NullableNotBlank String search,
     @Nullable @DecimalMin(value = "0", inclusive = true) BigDecimal minPrice,
     @Nullable @DecimalMin(value = "0", inclusive = true) BigDecimal maxPrice,
     @Nullable Long category
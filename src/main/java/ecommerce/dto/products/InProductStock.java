@@ -0,0 +1,11 @@
+package ecommerce.dto.products;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * @param available stock available for new orders (stock held by unpaid orders is not included)
+ */
+public record InProductStock(
+    @NotNull @Min(0) Long available
+) {}
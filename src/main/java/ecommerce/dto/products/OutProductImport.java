@@ -0,0 +1,16 @@
+package ecommerce.dto.products;
+
+import java.util.List;
+
+/**
+ * Summary of products import
+ *
+ * @param createdCount number of created products
+ * @param rejectedCount number of rejected lines
+ * @param errors errors of rejected lines (only first ones, up to configured limit)
+ */
+public record OutProductImport(
+    int createdCount,
+    int rejectedCount,
+    List<OutProductImportError> errors
+) {}
@@ -0,0 +1,12 @@
+package ecommerce.dto.products;
+
+/**
+ * Reason why single line of products import was rejected
+ *
+ * @param line line number in the imported body (1-based)
+ * @param error
+ */
+public record OutProductImportError(
+    int line,
+    String error
+) {}
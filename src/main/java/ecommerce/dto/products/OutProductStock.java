@@ -0,0 +1,15 @@
+package ecommerce.dto.products;
+
+import lombok.Builder;
+
+/**
+ * @param productId
+ * @param tracked false when product's stock is unlimited
+ * @param available stock available for new orders (null when stock is not tracked)
+ */
+@Builder
+public record OutProductStock(
+    Long productId,
+    Boolean tracked,
+    Long available
+) {}
@@ -1,9 +1,27 @@
 package ecommerce.dto.shared;
 
+import org.springframework.lang.Nullable;
+
+import ecommerce.dto.validation.nullablenotblank.NullableNotBlank;
+import ecommerce.dto.validation.pagination.ValidPagination;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+/**
+ * Offset pagination when 'pageIdx' is specified,
+ * cursor (keyset) pagination when 'after' is specified
+ * 
+ * @param pageSize at most 1000, so that one additional row can always be fetched
+ * @param pageIdx index of the page
+ * @param after cursor returned as 'nextCursor' of previous page
+ * @param withTotal whether offset page should contain total count (true by default),
+ * without it next page is detected by fetching one additional row
+ */
+@ValidPagination
 public record InPagination(
-    @NotNull @Min(1) Integer pageSize,
-    @NotNull @Min(0) Integer pageIdx
+    @NotNull @Min(1) @Max(1000) Integer pageSize,
+    @Nullable @Min(0) Integer pageIdx,
+    @Nullable @NullableNotBlank String after,
+    @Nullable Boolean withTotal
 ) {}
@@ -4,6 +4,13 @@ import java.util.List;
 
 import lombok.Builder;
 
+/**
+ * 'pageIdx', 'totalPages' and 'totalElements' are null for cursor pagination.
+ * 'totalPages' and 'totalElements' are null when total was not requested
+ * and may be estimated for unfiltered queries of large tables.
+ * 'nextCursor' is null when there is no next page or when the page is not
+ * sorted by ID (products full-text search sorted by relevance).
+ */
 @Builder
 public record OutPage<T>(
     List<T> content,
@@ -11,5 +18,6 @@ public record OutPage<T>(
     Integer pageIdx,
     Integer pageSize,
     Integer totalPages,
-    Long totalElements
+    Long totalElements,
+    String nextCursor
 ) {}
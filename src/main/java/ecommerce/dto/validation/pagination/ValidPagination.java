@@ -0,0 +1,18 @@
+package ecommerce.dto.validation.pagination;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = ValidPaginationValidator.class)
+public @interface ValidPagination {
+    String message() default "exactly one of 'pageIdx' and 'after' must be specified";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
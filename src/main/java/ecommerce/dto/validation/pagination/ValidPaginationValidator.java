@@ -0,0 +1,22 @@
+package ecommerce.dto.validation.pagination;
+
+import ecommerce.dto.shared.InPagination;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidPaginationValidator implements ConstraintValidator<ValidPagination, InPagination> {
+
+    @Override
+    public boolean isValid(InPagination value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true;
+        }
+
+        // Offset pagination (pageIdx) and cursor pagination (after) are exclusive
+        final boolean isOffset = value.pageIdx() != null;
+        final boolean isCursor = value.after() != null;
+
+        return isOffset != isCursor;
+    }
+
+}
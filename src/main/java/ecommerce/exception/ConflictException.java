@@ -10,4 +10,9 @@ public class ConflictException extends Exception {
         final var message = "order with id=%d has already been completed".formatted(id);
         return new ConflictException(message);
     }
+
+    public static ConflictException productOutOfStock(long id) {
+        final var message = "product with id=%d is out of stock".formatted(id);
+        return new ConflictException(message);
+    }
 }
@@ -1,25 +1,118 @@
 package ecommerce.repository.categories;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.categories.projection.CategoryBounds;
+import ecommerce.repository.categories.projection.CategoryLink;
+import jakarta.persistence.LockModeType;
 
 public interface CategoriesRepository extends JpaRepository<Category, Long> {
 
-    @Query(
-        value = """
-            WITH RECURSIVE category_ids (id, parent_category_id) AS (
-                SELECT id, parent_category_id FROM categories WHERE id = :categoryId
-                UNION ALL
-                SELECT c.id, c.parent_category_id FROM categories c INNER JOIN category_ids ids ON c.parent_category_id = ids.id
-            )
-            SELECT id FROM category_ids
-        """,
-        nativeQuery = true
-    )
-    List<Long> findCategoryIdsTree(Long categoryId);
+    @Query("""
+        SELECT new ecommerce.repository.categories.projection.CategoryLink(c.id, p.id, c.treeLeft, c.treeRight)
+        FROM Category c LEFT JOIN c.parentCategory p
+    """)
+    List<CategoryLink> findCategoryLinks();
+
+    @Query("""
+        SELECT new ecommerce.repository.categories.projection.CategoryBounds(c.id, c.treeLeft, c.treeRight)
+        FROM Category c WHERE c.id = :id
+    """)
+    Optional<CategoryBounds> findCategoryBoundsById(Long id);
+
+    @Query("SELECT MAX(c.treeRight) FROM Category c")
+    Integer findMaxTreeRight();
+
+    /**
+     * Locks root categories until the end of the transaction.
+     * Every write of nested set bounds locks them first,
+     * so concurrent writes of the tree are serialized.
+     * 
+     * @return IDs of root categories
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id FROM Category c WHERE c.parentCategory IS NULL ORDER BY c.id")
+    List<Long> lockRootCategories();
+
+    /**
+     * Makes room for 'size' positions after the last descendant of the parent.
+     * Following categories move by 'size', the parent and its ancestors grow by 'size'.
+     * 
+     * @param parentLeft
+     * @param parentRight
+     * @param size
+     * @return number of updated categories
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Category c SET
+            c.treeLeft = CASE WHEN c.treeLeft > :parentRight THEN c.treeLeft + :size ELSE c.treeLeft END,
+            c.treeRight = c.treeRight + :size
+        WHERE c.treeRight > :parentRight OR (c.treeLeft <= :parentLeft AND c.treeRight >= :parentRight)
+    """)
+    int openTreeGap(Integer parentLeft, Integer parentRight, Integer size);
+
+    /**
+     * Removes positions [left, right] of a subtree (which is deleted or moved away).
+     * Following categories move back by 'size', ancestors of the subtree shrink by 'size'.
+     * 
+     * @param left
+     * @param right
+     * @param size right - left + 1
+     * @return number of updated categories
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Category c SET
+            c.treeLeft = CASE WHEN c.treeLeft > :right THEN c.treeLeft - :size ELSE c.treeLeft END,
+            c.treeRight = c.treeRight - :size
+        WHERE c.treeRight >= :right AND (c.treeLeft < :left OR c.treeLeft > :right)
+    """)
+    int closeTreeGap(Integer left, Integer right, Integer size);
+
+    /**
+     * Moves bounds of categories which treeLeft is within [from, to] by 'offset'
+     * 
+     * @param from
+     * @param to
+     * @param offset
+     * @return number of updated categories
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Category c SET c.treeLeft = c.treeLeft + :offset, c.treeRight = c.treeRight + :offset
+        WHERE c.treeLeft BETWEEN :from AND :to
+    """)
+    int shiftTreeBounds(Integer from, Integer to, Integer offset);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Category c SET c.treeLeft = :treeLeft, c.treeRight = :treeRight WHERE c.id = :id")
+    int updateTreeBounds(Long id, Integer treeLeft, Integer treeRight);
+
+    /**
+     * Updates bounds of given categories in single transaction
+     * (used only to number the tree on application start)
+     * 
+     * @param bounds
+     */
+    @Transactional
+    default void updateAllTreeBounds(Collection<CategoryBounds> bounds) {
+        for (final var categoryBounds : bounds) {
+            updateTreeBounds(categoryBounds.id(), categoryBounds.treeLeft(), categoryBounds.treeRight());
+        }
+    }
 
 }
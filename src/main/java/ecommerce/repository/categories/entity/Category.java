@@ -9,6 +9,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -20,7 +21,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "categories")
+@Table(
+    name = "categories",
+    indexes = @Index(name = "categories_tree_left_idx", columnList = "tree_left")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -42,6 +46,16 @@ public class Category {
     )
     private Category parentCategory;
 
+    /**
+     * Nested set bounds maintained by CategoriesService with bulk updates
+     * (never written from the entity).
+     * Descendants have treeLeft within [treeLeft, treeRight]
+     */
+    @Column(name = "tree_left", insertable = false, updatable = false)
+    private Integer treeLeft;
+    @Column(name = "tree_right", insertable = false, updatable = false)
+    private Integer treeRight;
+
     @OneToMany(mappedBy = "parentCategory")
     private List<Category> childCategories;
 
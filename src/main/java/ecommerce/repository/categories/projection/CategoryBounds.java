@@ -0,0 +1,15 @@
+package ecommerce.repository.categories.projection;
+
+/**
+ * Nested set bounds of the category.
+ * Category belongs to the subtree when its treeLeft is within subtree's bounds.
+ * 
+ * @param id category ID
+ * @param treeLeft
+ * @param treeRight
+ */
+public record CategoryBounds(
+    Long id,
+    Integer treeLeft,
+    Integer treeRight
+) {}
@@ -0,0 +1,16 @@
+package ecommerce.repository.categories.projection;
+
+/**
+ * Edge of the categories tree with persisted nested set bounds of the category
+ * 
+ * @param id category ID
+ * @param parentCategory parent category ID (null for root categories)
+ * @param treeLeft null when category was not numbered yet
+ * @param treeRight null when category was not numbered yet
+ */
+public record CategoryLink(
+    Long id,
+    Long parentCategory,
+    Integer treeLeft,
+    Integer treeRight
+) {}
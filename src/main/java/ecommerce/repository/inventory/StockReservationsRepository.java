@@ -0,0 +1,62 @@
+package ecommerce.repository.inventory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import ecommerce.repository.inventory.entity.StockReservation;
+
+public interface StockReservationsRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Sells stock held by the order's reservations (deletes them)
+     *
+     * @param orderId
+     * @return number of deleted reservations
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.order.id = :orderId AND r.releasedAt IS NULL")
+    int deleteHeldByOrderId(Long orderId);
+
+    /**
+     * @param orderId
+     * @return reservations which stock was released, ordered by product and shard
+     */
+    @Query("""
+        SELECT r FROM StockReservation r
+        WHERE r.order.id = :orderId AND r.releasedAt IS NOT NULL
+        ORDER BY r.productId, r.shard
+    """)
+    List<StockReservation> findReleasedByOrderId(Long orderId);
+
+    /**
+     * @param now
+     * @param limit
+     * @return IDs of reservations which still hold stock after they expired, oldest first
+     */
+    @Query("""
+        SELECT r.id FROM StockReservation r
+        WHERE r.releasedAt IS NULL AND r.expiresAt < :now
+        ORDER BY r.expiresAt
+    """)
+    List<Long> findExpiredIds(LocalDateTime now, Limit limit);
+
+    /**
+     * Marks reservation as released only if it still holds stock
+     * (it has not been sold or released concurrently)
+     *
+     * @param id
+     * @param releasedAt
+     * @return number of updated reservations (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.releasedAt = :releasedAt WHERE r.id = :id AND r.releasedAt IS NULL")
+    int markReleasedIfHeld(Long id, LocalDateTime releasedAt);
+}
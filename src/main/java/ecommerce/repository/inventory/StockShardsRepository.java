@@ -0,0 +1,69 @@
+package ecommerce.repository.inventory;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import ecommerce.repository.inventory.entity.StockShard;
+import ecommerce.repository.inventory.projection.ShardAvailability;
+import jakarta.persistence.LockModeType;
+
+public interface StockShardsRepository extends JpaRepository<StockShard, StockShard.StockShardId> {
+
+    /**
+     * Takes stock from the shard only if it has enough of it
+     * (check and update are single atomic statement)
+     *
+     * @param productId
+     * @param shard
+     * @param quantity
+     * @return number of updated shards (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE StockShard s SET s.available = s.available - :quantity
+        WHERE s.productId = :productId AND s.shard = :shard AND s.available >= :quantity
+    """)
+    int takeIfAvailable(Long productId, Integer shard, Long quantity);
+
+    /**
+     * @param productId
+     * @param shard
+     * @param quantity
+     * @return number of updated shards (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE StockShard s SET s.available = s.available + :quantity
+        WHERE s.productId = :productId AND s.shard = :shard
+    """)
+    int giveBack(Long productId, Integer shard, Long quantity);
+
+    /**
+     * Locks all shards of the product (in ascending order of shards)
+     * until the end of the transaction
+     *
+     * @param productId
+     * @return availability of every shard
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT new ecommerce.repository.inventory.projection.ShardAvailability(s.shard, s.available)
+        FROM StockShard s WHERE s.productId = :productId ORDER BY s.shard
+    """)
+    List<ShardAvailability> lockShards(Long productId);
+
+    @Query("SELECT SUM(s.available) FROM StockShard s WHERE s.productId = :productId")
+    Long sumAvailable(Long productId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockShard s WHERE s.productId = :productId")
+    int deleteByProduct(Long productId);
+}
@@ -0,0 +1,71 @@
+package ecommerce.repository.inventory.entity;
+
+import java.time.LocalDateTime;
+
+import ecommerce.repository.orders.entity.Order;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Stock taken from single shard by unpaid order.
+ * Reservation is deleted when the order's payment is completed (stock is sold)
+ * and released (stock is returned to the shard) when it expires.
+ */
+@Entity
+@Table(
+    name = "stock_reservations",
+    indexes = {
+        @Index(name = "stock_reservations_order_id_idx", columnList = "order_id"),
+        @Index(name = "stock_reservations_expires_at_idx", columnList = "expires_at")
+    }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_reservations_seq")
+    @SequenceGenerator(name = "stock_reservations_seq", sequenceName = "stock_reservations_seq", allocationSize = Order.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @ManyToOne(
+        fetch = FetchType.LAZY,
+        optional = false
+    )
+    @JoinColumn(
+        name = "order_id",
+        nullable = false,
+        updatable = false
+    )
+    private Order order;
+
+    @Nonnull
+    private Long productId;
+    @Nonnull
+    private Integer shard;
+    @Nonnull
+    private Long quantity;
+
+    @Nonnull
+    private LocalDateTime expiresAt;
+    /**
+     * Set when the reservation expired and its stock was returned to the shard
+     */
+    private LocalDateTime releasedAt;
+}
@@ -0,0 +1,48 @@
+package ecommerce.repository.inventory.entity;
+
+import java.io.Serializable;
+
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Part of product's available stock.
+ * Stock of every product is split into several rows (shards),
+ * so concurrent reservations of the same product mostly update
+ * (and lock) different rows. Available stock is the sum of all shards.
+ */
+@Entity
+@Table(name = "stock_shards")
+@IdClass(StockShard.StockShardId.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class StockShard {
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class StockShardId implements Serializable {
+        private Long productId;
+        private Integer shard;
+    }
+
+    @Id
+    private Long productId;
+    @Id
+    private Integer shard;
+
+    @Nonnull
+    private Long available;
+}
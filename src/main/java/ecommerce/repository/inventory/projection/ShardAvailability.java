@@ -0,0 +1,10 @@
+package ecommerce.repository.inventory.projection;
+
+/**
+ * @param shard
+ * @param available stock of the shard
+ */
+public record ShardAvailability(
+    Integer shard,
+    Long available
+) {}
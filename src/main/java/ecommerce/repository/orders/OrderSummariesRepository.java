@@ -0,0 +1,77 @@
+package ecommerce.repository.orders;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import ecommerce.repository.orders.entity.OrderSummary;
+import ecommerce.repository.utils.SliceSpecificationExecutor;
+
+public interface OrderSummariesRepository
+extends
+    JpaRepository<OrderSummary, Long>,
+    JpaSpecificationExecutor<OrderSummary>,
+    SliceSpecificationExecutor<OrderSummary>
+{
+
+    /**
+     * @param id
+     * @param completedAt
+     * @return number of updated summaries (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE OrderSummary s
+        SET s.completedAt = :completedAt, s.status = ecommerce.repository.orders.entity.OrderStatus.COMPLETED
+        WHERE s.id = :id
+    """)
+    int updateCompletedAt(Long id, LocalDateTime completedAt);
+
+    /**
+     * Status changes to PAID unless the order has already been completed
+     *
+     * @param id
+     * @param completedAt
+     * @return number of updated summaries (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE OrderSummary s
+        SET s.paymentCompletedAt = :completedAt, s.status = CASE
+            WHEN s.completedAt IS NULL THEN ecommerce.repository.orders.entity.OrderStatus.PAID
+            ELSE s.status
+        END
+        WHERE s.id = :id
+    """)
+    int updatePaymentCompletedAt(Long id, LocalDateTime completedAt);
+
+    /**
+     * Finds IDs of orders created without summary (before summaries existed)
+     *
+     * @param afterId only orders with greater IDs are searched
+     * @param limit
+     * @return IDs in ascending order
+     */
+    @Query("""
+        SELECT o.id FROM Order o
+        WHERE o.id > :afterId AND NOT EXISTS (SELECT 1 FROM OrderSummary s WHERE s.id = o.id)
+        ORDER BY o.id
+    """)
+    List<Long> findOrderIdsWithoutSummary(long afterId, Limit limit);
+
+    /**
+     * @param ids
+     * @return IDs of existing summaries among 'ids'
+     */
+    @Query("SELECT s.id FROM OrderSummary s WHERE s.id IN :ids")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+}
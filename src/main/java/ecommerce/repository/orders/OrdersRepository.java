@@ -1,13 +1,63 @@
 package ecommerce.repository.orders;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.utils.SliceSpecificationExecutor;
+import jakarta.persistence.LockModeType;
 
-public interface OrdersRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrdersRepository
+extends
+    JpaRepository<Order, Long>,
+    JpaSpecificationExecutor<Order>,
+    SliceSpecificationExecutor<Order>
+{
 
+    @EntityGraph(Order.DETAILS_GRAPH)
+    Optional<Order> findWithDetailsById(Long id);
+
+    @EntityGraph(Order.DETAILS_GRAPH)
     Optional<Order> findByIdAndUsername(Long id, String username);
+
+    @EntityGraph(Order.DETAILS_GRAPH)
+    List<Order> findWithDetailsByIdIn(Collection<Long> ids);
+
+    /**
+     * Locks orders until the end of the transaction,
+     * so they cannot be completed concurrently
+     *
+     * @param ids
+     * @return IDs of locked orders
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Long> lockByIdIn(Collection<Long> ids);
+
+    /**
+     * Completes order only if it is not completed yet
+     * and 'completedAt' is not before its 'orderedAt'
+     * (check and update are single atomic statement)
+     *
+     * @param id
+     * @param completedAt
+     * @return number of updated orders (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.completedAt = :completedAt
+        WHERE o.id = :id AND o.completedAt IS NULL AND o.orderedAt <= :completedAt
+    """)
+    int updateCompletedAtIfNotCompleted(Long id, LocalDateTime completedAt);
 }
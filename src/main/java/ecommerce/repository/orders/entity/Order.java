@@ -13,8 +13,12 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -24,14 +28,43 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "orders")
+@NamedEntityGraph(
+    name = Order.DETAILS_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode(value = "address", subgraph = "address"),
+        @NamedAttributeNode(value = "payment", subgraph = "payment"),
+        @NamedAttributeNode(value = "orderProducts", subgraph = "orderProducts")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "address", attributeNodes = @NamedAttributeNode("country")),
+        @NamedSubgraph(name = "payment", attributeNodes = @NamedAttributeNode("paymentMethod")),
+        @NamedSubgraph(name = "orderProducts", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+        @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category"))
+    }
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 @Builder
 public class Order {
+    /**
+     * Everything needed to map order to OutOrder, loaded in single query
+     */
+    public static final String DETAILS_GRAPH = "Order.details";
+
+    /**
+     * IDs of orders and of entities created together with them
+     * (addresses, payments, order products) are allocated from sequences
+     * in blocks of that size (pooled optimizer), so creating order
+     * does not fetch sequence for every inserted row.
+     * Must match increment of already existing sequences.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Nonnull
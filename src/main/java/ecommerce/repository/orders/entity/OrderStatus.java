@@ -0,0 +1,29 @@
+package ecommerce.repository.orders.entity;
+
+/**
+ * Status of order derived from its and its payment's 'completedAt'
+ */
+public enum OrderStatus {
+    /**
+     * Neither order nor its payment has been completed
+     */
+    PENDING,
+    /**
+     * Payment has been completed, order has not
+     */
+    PAID,
+    /**
+     * Order has been completed
+     */
+    COMPLETED;
+
+    public static OrderStatus of(Order order) {
+        if (order.getCompletedAt() != null) {
+            return COMPLETED;
+        }
+        if (order.getPayment().getCompletedAt() != null) {
+            return PAID;
+        }
+        return PENDING;
+    }
+}
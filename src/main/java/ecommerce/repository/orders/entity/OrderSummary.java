@@ -0,0 +1,91 @@
+package ecommerce.repository.orders.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Denormalized read model of order (one row per order) serving order history.
+ * Written together with the order and updated when the order or its payment
+ * is completed, so listing user's orders reads only this table
+ * (username index) instead of joining orders' details.
+ */
+@Entity
+@Table(
+    name = "order_summaries",
+    indexes = @Index(name = "order_summaries_username_id_idx", columnList = "username, id")
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+public class OrderSummary implements Persistable<Long> {
+    /**
+     * ID of the summarized order
+     */
+    @Id
+    private Long id;
+
+    @Nonnull
+    private String username;
+
+    @Nonnull
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Nonnull
+    @Column(scale = 2)
+    private BigDecimal totalAmount;
+
+    @Nonnull
+    private Integer lineCount;
+
+    @Nonnull
+    private LocalDateTime orderedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime paymentCompletedAt;
+
+    @Nonnull
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<OrderSummaryProduct> products;
+
+    /**
+     * ID is assigned (order's ID), so save() could not tell
+     * new summary from existing one without selecting it first
+     */
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    private void markPersisted() {
+        persisted = true;
+    }
+}
@@ -0,0 +1,18 @@
+package ecommerce.repository.orders.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Snapshot of ordered product stored in OrderSummary (as of ordering)
+ *
+ * @param productId
+ * @param name
+ * @param price price of single product
+ * @param quantity
+ */
+public record OrderSummaryProduct(
+    Long productId,
+    String name,
+    BigDecimal price,
+    Integer quantity
+) {}
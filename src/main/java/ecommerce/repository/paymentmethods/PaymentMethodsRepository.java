@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import ecommerce.repository.paymentmethods.entity.PaymentMethod;
 
@@ -12,4 +15,33 @@ public interface PaymentMethodsRepository extends JpaRepository<PaymentMethod, L
     List<PaymentMethod> findByActiveTrue();
 
     Optional<PaymentMethod> findByIdAndActiveTrue(long id);
+
+    /**
+     * Deletes payment method by changing 'active' to false
+     *
+     * @param id
+     * @return number of deactivated payment methods (0 when it does not exist or is inactive)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentMethod pm SET pm.active = false WHERE pm.id = :id AND pm.active = true")
+    int deactivateById(long id);
+
+    /**
+     * Updates non-null properties of active payment method
+     *
+     * @param id
+     * @param name
+     * @param description
+     * @return number of updated payment methods (0 when it does not exist or is inactive)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE PaymentMethod pm SET
+            pm.name = COALESCE(:name, pm.name),
+            pm.description = COALESCE(:description, pm.description)
+        WHERE pm.id = :id AND pm.active = true
+    """)
+    int patchById(long id, String name, String description);
 }
@@ -1,9 +1,52 @@
 package ecommerce.repository.payments;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import ecommerce.repository.payments.entity.Payment;
+import jakarta.persistence.LockModeType;
 
 public interface PaymentsRepository extends JpaRepository<Payment, Long> {
 
+    /**
+     * Completes payment of order only if it is not completed yet
+     * and 'completedAt' is not before order's 'orderedAt'
+     * (check and update are single atomic statement)
+     *
+     * @param orderId
+     * @param completedAt
+     * @return number of updated payments (0 or 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Payment p SET p.completedAt = :completedAt
+        WHERE p.completedAt IS NULL AND p.id IN (
+            SELECT o.payment.id FROM Order o
+            WHERE o.id = :orderId AND o.orderedAt <= :completedAt
+        )
+    """)
+    int updateCompletedAtIfNotCompletedByOrderId(Long orderId, LocalDateTime completedAt);
+
+    /**
+     * Locks payments of orders until the end of the transaction,
+     * so they cannot be completed concurrently
+     *
+     * @param orderIds
+     * @return IDs of locked payments
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT p.id FROM Payment p
+        WHERE p.id IN (SELECT o.payment.id FROM Order o WHERE o.id IN :orderIds)
+        ORDER BY p.id
+    """)
+    List<Long> lockByOrderIdIn(Collection<Long> orderIds);
 }
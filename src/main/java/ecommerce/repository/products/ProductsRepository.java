@@ -1,20 +1,70 @@
 package ecommerce.repository.products;
 
+import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import ecommerce.repository.products.entity.Product;
+import ecommerce.repository.utils.SliceSpecificationExecutor;
 
 public interface ProductsRepository 
 extends
     JpaRepository<Product, Long>,
-    JpaSpecificationExecutor<Product>
+    JpaSpecificationExecutor<Product>,
+    SliceSpecificationExecutor<Product>
 {
     Optional<Product> findByIdAndActiveTrue(long id);
 
     List<Product> findByActiveTrueAndIdIn(Collection<Long> productIds);
+
+    /**
+     * Deletes product by changing 'active' to false
+     *
+     * @param id
+     * @return number of deactivated products (0 when product does not exist or is inactive)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.active = false WHERE p.id = :id AND p.active = true")
+    int deactivateById(long id);
+
+    /**
+     * Updates non-null properties of active product
+     *
+     * @param id
+     * @param name
+     * @param description
+     * @param price
+     * @param categoryId
+     * @return number of updated products (0 when product does not exist or is inactive)
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE Product p SET
+            p.name = COALESCE(:name, p.name),
+            p.description = COALESCE(:description, p.description),
+            p.price = COALESCE(:price, p.price),
+            p.category.id = COALESCE(:categoryId, p.category.id)
+        WHERE p.id = :id AND p.active = true
+    """)
+    int patchById(long id, String name, String description, BigDecimal price, Long categoryId);
+
+    /**
+     * Estimates count of active products (deleted products stay in the table),
+     * see SliceSpecificationExecutor.estimateCount(String)
+     *
+     * @return estimated count or empty when estimate is not available
+     */
+    default OptionalLong estimateActiveCount() {
+        return estimateCount("active = true");
+    }
 }
@@ -10,6 +10,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -20,7 +21,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "products")
+@Table(
+    name = "products",
+    indexes = @Index(name = "products_category_id_idx", columnList = "category_id")
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
@@ -55,4 +59,10 @@ public class Product {
         nullable = false
     )
     private Category category;
+
+    /**
+     * when true, ordered quantities are reserved from product's stock (see StockShard),
+     * otherwise product's stock is unlimited
+     */
+    private Boolean stockTracked;
 }
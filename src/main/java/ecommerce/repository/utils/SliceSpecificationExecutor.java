@@ -0,0 +1,159 @@
+package ecommerce.repository.utils;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Extension of JpaSpecificationExecutor for queries that do not need
+ * total count or compute it in a custom way.
+ * Implemented by SliceSpecificationRepository (repositories base class).
+ */
+@NoRepositoryBean
+public interface SliceSpecificationExecutor<T> {
+
+    /**
+     * Finds slice of entities matching specification.
+     * Unlike findAll(Specification, Pageable) it never executes count query,
+     * it fetches one additional row to find out whether next slice exists.
+     *
+     * @param specification
+     * @param pageable
+     * @return found slice
+     */
+    Slice<T> findSlice(Specification<T> specification, Pageable pageable);
+
+    /**
+     * Finds page of entities matching specification.
+     * Unlike findAll(Specification, Pageable) total count is provided by the caller
+     * (e.g. from cache). Supplier is not called when total can be deduced from the page.
+     *
+     * @param specification
+     * @param pageable
+     * @param totalSupplier
+     * @return found page
+     */
+    Page<T> findPage(Specification<T> specification, Pageable pageable, LongSupplier totalSupplier);
+
+    /**
+     * Two-phase variant of findSlice(Specification, Pageable).
+     * First selects only IDs of the slice, then loads entities with
+     * these IDs using named entity graph. Collections from the graph
+     * are fetched without paginating joined rows in memory.
+     *
+     * @param specification
+     * @param pageable
+     * @param entityGraph name of the entity graph
+     * @return found slice
+     */
+    Slice<T> findSlice(Specification<T> specification, Pageable pageable, String entityGraph);
+
+    /**
+     * Two-phase variant of findPage(Specification, Pageable, LongSupplier).
+     *
+     * @param specification
+     * @param pageable
+     * @param totalSupplier
+     * @param entityGraph name of the entity graph
+     * @return found page
+     * @see #findSlice(Specification, Pageable, String)
+     */
+    Page<T> findPage(
+        Specification<T> specification,
+        Pageable pageable,
+        LongSupplier totalSupplier,
+        String entityGraph
+    );
+
+    /**
+     * Projection variant of findSlice(Specification, Pageable).
+     * Selects only listed attributes and passes them to the projection's
+     * constructor, entities are neither hydrated nor managed
+     * by the persistence context. Orders set by the specification
+     * (e.g. relevance) precede the pageable's sort.
+     *
+     * @param <P>
+     * @param specification
+     * @param pageable
+     * @param projection class with constructor matching attributes
+     * @param attributes attribute paths (e.g. "category.id") in constructor order
+     * @return found slice
+     */
+    <P> Slice<P> findSlice(
+        Specification<T> specification,
+        Pageable pageable,
+        Class<P> projection,
+        List<String> attributes
+    );
+
+    /**
+     * Projection variant of findPage(Specification, Pageable, LongSupplier).
+     *
+     * @param <P>
+     * @param specification
+     * @param pageable
+     * @param totalSupplier
+     * @param projection class with constructor matching attributes
+     * @param attributes attribute paths (e.g. "category.id") in constructor order
+     * @return found page
+     * @see #findSlice(Specification, Pageable, Class, List)
+     */
+    <P> Page<P> findPage(
+        Specification<T> specification,
+        Pageable pageable,
+        LongSupplier totalSupplier,
+        Class<P> projection,
+        List<String> attributes
+    );
+
+    /**
+     * Streams projections of all entities matching specification.
+     * Rows are read from forward-only cursor in chunks of 'fetchSize'
+     * (PostgreSQL uses cursor only inside transaction), so memory
+     * does not depend on the number of rows.
+     * Stream must be closed.
+     *
+     * @param <P>
+     * @param specification
+     * @param sort
+     * @param projection class with constructor matching attributes
+     * @param attributes attribute paths (e.g. "category.id") in constructor order
+     * @param fetchSize number of rows fetched from database at once
+     * @return stream of projections
+     */
+    <P> Stream<P> streamProjections(
+        Specification<T> specification,
+        Sort sort,
+        Class<P> projection,
+        List<String> attributes,
+        int fetchSize
+    );
+
+    /**
+     * Estimates count of all rows of the table using planner statistics
+     * (pg_class.reltuples). Estimate is available only for PostgreSQL
+     * and only after the table has been analyzed.
+     *
+     * @return estimated count of rows or empty when estimate is not available
+     */
+    OptionalLong estimateCount();
+
+    /**
+     * Estimates count of rows matching the condition using planner's
+     * row estimate (EXPLAIN), for listings which always filter the table
+     * (e.g. soft deleted rows). Estimate is available only for PostgreSQL
+     * and only after the table has been analyzed.
+     *
+     * @param condition native SQL condition on table's columns (never user input)
+     * @return estimated count of matching rows or empty when estimate is not available
+     */
+    OptionalLong estimateCount(String condition);
+}
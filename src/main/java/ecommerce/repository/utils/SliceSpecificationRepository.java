@@ -0,0 +1,316 @@
+package ecommerce.repository.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Table;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Base class of all repositories (configured in JpaConfiguration)
+ */
+public class SliceSpecificationRepository<T, ID>
+extends
+    SimpleJpaRepository<T, ID>
+implements
+    SliceSpecificationExecutor<T>
+{
+
+    /**
+     * Row estimate of the top node of EXPLAIN's text output
+     */
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+
+    public SliceSpecificationRepository(
+        JpaEntityInformation<T, ?> entityInformation,
+        EntityManager entityManager
+    ) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> specification, Pageable pageable) {
+        final var query = getQuery(specification, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        final var content = new ArrayList<T>(query.getResultList());
+        final var hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(content.size() - 1);
+        }
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public Page<T> findPage(
+        Specification<T> specification,
+        Pageable pageable,
+        LongSupplier totalSupplier
+    ) {
+        final var query = getQuery(specification, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, totalSupplier);
+    }
+
+    @Override
+    public Slice<T> findSlice(
+        Specification<T> specification,
+        Pageable pageable,
+        String entityGraph
+    ) {
+        final var ids = new ArrayList<Object>(
+            findIds(specification, pageable, pageable.getPageSize() + 1)
+        );
+        final var hasNext = ids.size() > pageable.getPageSize();
+        if (hasNext) {
+            ids.remove(ids.size() - 1);
+        }
+
+        return new SliceImpl<>(findAllByIds(ids, pageable.getSort(), entityGraph), pageable, hasNext);
+    }
+
+    @Override
+    public Page<T> findPage(
+        Specification<T> specification,
+        Pageable pageable,
+        LongSupplier totalSupplier,
+        String entityGraph
+    ) {
+        final var ids = findIds(specification, pageable, pageable.getPageSize());
+
+        return PageableExecutionUtils.getPage(
+            findAllByIds(ids, pageable.getSort(), entityGraph),
+            pageable,
+            totalSupplier
+        );
+    }
+
+    @Override
+    public <P> Slice<P> findSlice(
+        Specification<T> specification,
+        Pageable pageable,
+        Class<P> projection,
+        List<String> attributes
+    ) {
+        final var content = new ArrayList<P>(
+            findProjections(specification, pageable, pageable.getPageSize() + 1, projection, attributes)
+        );
+        final var hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(content.size() - 1);
+        }
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public <P> Page<P> findPage(
+        Specification<T> specification,
+        Pageable pageable,
+        LongSupplier totalSupplier,
+        Class<P> projection,
+        List<String> attributes
+    ) {
+        final var content = findProjections(
+            specification,
+            pageable,
+            pageable.getPageSize(),
+            projection,
+            attributes
+        );
+
+        return PageableExecutionUtils.getPage(content, pageable, totalSupplier);
+    }
+
+    @Override
+    public <P> Stream<P> streamProjections(
+        Specification<T> specification,
+        Sort sort,
+        Class<P> projection,
+        List<String> attributes,
+        int fetchSize
+    ) {
+        return createProjectionQuery(specification, sort, projection, attributes)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+            .getResultStream();
+    }
+
+    @Override
+    public OptionalLong estimateCount() {
+        final var table = findPostgresTable();
+        if (table == null) {
+            return OptionalLong.empty();
+        }
+
+        final var result = entityManager
+            .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = to_regclass(:table)")
+            .setParameter("table", table)
+            .getResultList();
+        if (result.isEmpty() || !(result.get(0) instanceof Number reltuples)) {
+            return OptionalLong.empty();
+        }
+
+        // reltuples is -1 (or 0 in older versions) until the table is analyzed
+        final var estimate = reltuples.longValue();
+        if (estimate <= 0) {
+            return OptionalLong.empty();
+        }
+
+        return OptionalLong.of(estimate);
+    }
+
+    @Override
+    public OptionalLong estimateCount(String condition) {
+        // Without statistics the planner only guesses
+        if (estimateCount().isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        final var plan = entityManager
+            .createNativeQuery("EXPLAIN SELECT 1 FROM " + findPostgresTable() + " WHERE " + condition)
+            .getResultList();
+        if (plan.isEmpty() || !(plan.get(0) instanceof String topNode)) {
+            return OptionalLong.empty();
+        }
+
+        final var rows = PLAN_ROWS.matcher(topNode);
+        if (!rows.find()) {
+            return OptionalLong.empty();
+        }
+
+        return OptionalLong.of(Long.parseLong(rows.group(1)));
+    }
+
+    /**
+     * @return name of entity's table or null when database is not PostgreSQL
+     */
+    private String findPostgresTable() {
+        final var dialect = entityManager
+            .getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect();
+        final var table = getDomainClass().getAnnotation(Table.class);
+        if (!(dialect instanceof PostgreSQLDialect) || table == null) {
+            return null;
+        }
+
+        return table.name();
+    }
+
+    private <P> List<P> findProjections(
+        Specification<T> specification,
+        Pageable pageable,
+        int maxResults,
+        Class<P> projection,
+        List<String> attributes
+    ) {
+        return createProjectionQuery(specification, pageable.getSort(), projection, attributes)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(maxResults)
+            .getResultList();
+    }
+
+    private <P> TypedQuery<P> createProjectionQuery(
+        Specification<T> specification,
+        Sort sort,
+        Class<P> projection,
+        List<String> attributes
+    ) {
+        final var cb = entityManager.getCriteriaBuilder();
+        final var query = cb.createQuery(projection);
+        final var root = query.from(getDomainClass());
+
+        final var predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        final var selections = attributes.stream()
+            .map(attribute -> {
+                Path<?> path = root;
+                for (final var name : attribute.split("\\.")) {
+                    path = path.get(name);
+                }
+                return path;
+            })
+            .toArray(Selection<?>[]::new);
+        query.select(cb.construct(projection, selections));
+        // orders set by the specification (e.g. relevance) precede the sort
+        final var orders = new ArrayList<Order>(query.getOrderList());
+        orders.addAll(QueryUtils.toOrders(sort, root, cb));
+        query.orderBy(orders);
+
+        return entityManager.createQuery(query);
+    }
+
+    private List<Object> findIds(
+        Specification<T> specification,
+        Pageable pageable,
+        int maxResults
+    ) {
+        final var cb = entityManager.getCriteriaBuilder();
+        final var query = cb.createQuery(Object.class);
+        final var root = query.from(getDomainClass());
+
+        final var predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get(entityInformation.getIdAttribute().getName()));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return entityManager
+            .createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(maxResults)
+            .getResultList();
+    }
+
+    private List<T> findAllByIds(List<Object> ids, Sort sort, String entityGraph) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final var cb = entityManager.getCriteriaBuilder();
+        final var query = cb.createQuery(getDomainClass());
+        final var root = query.from(getDomainClass());
+        query.where(root.get(entityInformation.getIdAttribute().getName()).in(ids));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager
+            .createQuery(query)
+            .setHint(AvailableHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(entityGraph))
+            .getResultList();
+    }
+}
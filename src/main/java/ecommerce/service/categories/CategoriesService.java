@@ -1,19 +1,29 @@
 package ecommerce.service.categories;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import ecommerce.dto.categories.InCategory;
 import ecommerce.dto.categories.OutCategory;
+import ecommerce.dto.products.OutProductDetails;
 import ecommerce.exception.ConflictException;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
 import ecommerce.repository.categories.CategoriesRepository;
 import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.categories.projection.CategoryBounds;
 import ecommerce.service.categories.mapper.CategoriesMapper;
+import ecommerce.service.utils.DataVersion;
+import ecommerce.service.utils.TinyLfuCache;
+import ecommerce.service.utils.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,6 +34,16 @@ public class CategoriesService {
 
     private final CategoriesMapper categoriesMapper;
     private final CategoriesRepository categoriesRepository;
+    private final CategoriesTreeIndex categoriesTreeIndex;
+    private final TinyLfuCache<OutProductDetails> productsCache;
+    private final DataVersion categoriesVersion = new DataVersion();
+
+    /**
+     * @return strong ETag of all categories, changed by every write
+     */
+    public String getCategoriesETag() {
+        return categoriesVersion.eTag();
+    }
 
     /**
      * Finds category by ID
@@ -63,6 +83,7 @@ public class CategoriesService {
      * @throws NotFoundException parent category does not exist
      * @throws ConflictException category with such name already exist
      */
+    @Transactional(rollbackFor = ConflictException.class)
     public OutCategory postCategory(
         InCategory categoryIn
     ) throws NotFoundException, ConflictException {
@@ -75,14 +96,18 @@ public class CategoriesService {
 
         var categoryEntity = categoriesMapper.intoEntity(categoryIn, parentCategoryEntity);
 
+        categoriesRepository.lockRootCategories();
         try {
-            categoryEntity = categoriesRepository.save(categoryEntity);
+            categoryEntity = categoriesRepository.saveAndFlush(categoryEntity);
             log.info("created category with id={}", categoryEntity.getId());
 
         } catch (DataIntegrityViolationException e) {
             throw new ConflictException("category with such name already exist" + e.getMessage());
         }
 
+        insertIntoTree(categoryEntity.getId(), categoryIn.parentCategory());
+        TransactionUtils.afterCommit(categoriesVersion::increment);
+
         final var categoryOut = categoriesMapper.fromEntity(categoryEntity);
 
         return categoryOut;
@@ -101,6 +126,7 @@ public class CategoriesService {
      * @throws ConflictException category with such name already exist
      * @throws ValidationException updating parent category would cause a cycle
      */
+    @Transactional(rollbackFor = ConflictException.class)
     public void putCategory(
         long id,
         InCategory inCategory
@@ -115,17 +141,27 @@ public class CategoriesService {
             validateNoCategoriesCycle(parentCategory, categoryToEdit);
         }
 
+        final var previousParentId = Optional.ofNullable(categoryToEdit.getParentCategory())
+            .map(Category::getId)
+            .orElse(null);
         final var categoryToSave = categoriesMapper
             .intoEntity(inCategory, parentCategory);
         categoryToSave.setId(categoryToEdit.getId());
 
+        categoriesRepository.lockRootCategories();
         try {
-            categoriesRepository.save(categoryToSave);
+            categoriesRepository.saveAndFlush(categoryToSave);
             log.info("updated category with id={}", id);
 
         } catch (DataIntegrityViolationException e) {
             throw new ConflictException("category with such name already exist: " + e.getMessage());
         }
+
+        if (!Objects.equals(previousParentId, inCategory.parentCategory())) {
+            moveInTree(id, inCategory.parentCategory());
+        }
+        // Cached product details refer to categories
+        TransactionUtils.afterCommit(this::invalidateCaches);
     }
 
     /**
@@ -135,18 +171,131 @@ public class CategoriesService {
      * @throws NotFoundException category does not exist
      * @throws ConflictException category cannot be removed because it's assigned to some product
      */
+    @Transactional(rollbackFor = ConflictException.class)
     public void deleteCategory(long id) throws NotFoundException, ConflictException {
         log.trace("id={}", id);
 
         final var categoryEntity = findCategoryById(id);
 
+        categoriesRepository.lockRootCategories();
+        final var bounds = findTreeBounds(id);
         try {
             categoriesRepository.delete(categoryEntity);
+            categoriesRepository.flush();
             log.info("deleted category with id={}", id);
 
         } catch (DataIntegrityViolationException e) {
             throw new ConflictException("category cannot be removed: " + e.getMessage());
         }
+
+        // Only categories without children can be deleted
+        bounds.ifPresent(categoryBounds -> categoriesRepository.closeTreeGap(
+            categoryBounds.treeLeft(),
+            categoryBounds.treeRight(),
+            categoryBounds.treeRight() - categoryBounds.treeLeft() + 1
+        ));
+        TransactionUtils.afterCommit(this::invalidateCaches);
+    }
+
+    /**
+     * Persists nested set bounds of categories which differ
+     * from the bounds computed by the categories tree index.
+     * Runs on application start, writes keep the bounds up to date.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void updateTreeBounds() {
+        categoriesRepository.lockRootCategories();
+        final var staleBounds = categoriesTreeIndex.findStaleBounds();
+        if (staleBounds.isEmpty()) {
+            return;
+        }
+
+        categoriesRepository.updateAllTreeBounds(staleBounds);
+        log.info("updated categories tree bounds count={}", staleBounds.size());
+    }
+
+    /**
+     * Changes categories ETag and drops cached product details (referring to categories).
+     * Runs after commit, so concurrent readers cannot cache old rows under the new version.
+     */
+    private void invalidateCaches() {
+        categoriesVersion.increment();
+        productsCache.invalidateAll();
+    }
+
+    /**
+     * @param id
+     * @return persisted bounds or empty when category was not numbered yet
+     */
+    private Optional<CategoryBounds> findTreeBounds(long id) {
+        return categoriesRepository
+            .findCategoryBoundsById(id)
+            .filter(bounds -> bounds.treeLeft() != null && bounds.treeRight() != null);
+    }
+
+    /**
+     * Makes room for 'size' categories after the last descendant of the parent
+     * (or after all categories for root)
+     *
+     * @param parentId null for root categories
+     * @param size
+     * @return first position of the gap or empty when parent was not numbered yet
+     */
+    private Optional<Integer> openTreeGap(Long parentId, int size) {
+        if (parentId == null) {
+            final var maxTreeRight = categoriesRepository.findMaxTreeRight();
+            return Optional.of(maxTreeRight != null ? maxTreeRight + 1 : 0);
+        }
+
+        final var parentBounds = findTreeBounds(parentId);
+        parentBounds.ifPresent(bounds -> categoriesRepository.openTreeGap(
+            bounds.treeLeft(),
+            bounds.treeRight(),
+            size
+        ));
+        return parentBounds.map(bounds -> bounds.treeRight() + 1);
+    }
+
+    /**
+     * Numbers new category as the last child of its parent
+     * (constant number of statements regardless of the tree size)
+     */
+    private void insertIntoTree(long id, Long parentId) {
+        final var position = openTreeGap(parentId, 1);
+        if (position.isEmpty()) {
+            updateTreeBounds();
+            return;
+        }
+
+        categoriesRepository.updateTreeBounds(id, position.get(), position.get());
+    }
+
+    /**
+     * Moves category with its subtree to be the last child of new parent.
+     * Subtree is moved to negative positions out of the way, gap it left
+     * is closed, new gap is opened under the parent and the subtree is moved there
+     * (constant number of statements regardless of the tree size).
+     */
+    private void moveInTree(long id, Long parentId) {
+        final var bounds = findTreeBounds(id);
+        if (bounds.isEmpty()) {
+            updateTreeBounds();
+            return;
+        }
+
+        final int treeLeft = bounds.get().treeLeft();
+        final int treeRight = bounds.get().treeRight();
+        final var size = treeRight - treeLeft + 1;
+        categoriesRepository.shiftTreeBounds(treeLeft, treeRight, -treeRight - 1);
+        categoriesRepository.closeTreeGap(treeLeft, treeRight, size);
+
+        final var position = openTreeGap(parentId, size);
+        if (position.isEmpty()) {
+            updateTreeBounds();
+            return;
+        }
+        categoriesRepository.shiftTreeBounds(-size, -1, treeRight + 1 - treeLeft + position.get());
     }
 
     private void validateNoCategoriesCycle(Category parent, Category self) throws ValidationException {
@@ -0,0 +1,119 @@
+package ecommerce.service.categories;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.stereotype.Component;
+
+import ecommerce.repository.categories.CategoriesRepository;
+import ecommerce.repository.categories.projection.CategoryBounds;
+import ecommerce.repository.categories.projection.CategoryLink;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Numbers the categories tree persisted in the database.
+ *
+ * Categories are numbered in pre-order, so every subtree occupies
+ * continuous range of positions [position, position + size).
+ * Positions are persisted as nested set bounds of the categories
+ * (treeLeft = position, treeRight = position + size - 1),
+ * so subtree can be filtered in SQL with single range predicate.
+ *
+ * CategoriesService keeps the persisted bounds up to date with set-based
+ * updates after every write, nothing is kept in memory. The tree is numbered
+ * only on application start, to number categories without bounds
+ * (e.g. inserted directly into the database) and to repair inconsistent bounds.
+ * Siblings keep their persisted order (categories without bounds follow,
+ * sorted by ID), so valid bounds are never rewritten.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CategoriesTreeIndex {
+
+    private static final Comparator<CategoryLink> SIBLINGS_ORDER = Comparator
+        .comparing(CategoryLink::treeLeft, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(CategoryLink::id);
+
+    private final CategoriesRepository categoriesRepository;
+
+    /**
+     * Numbers the tree loaded from the database and compares
+     * computed bounds with the persisted ones
+     *
+     * @return bounds that have to be updated in the database
+     */
+    public List<CategoryBounds> findStaleBounds() {
+        final var links = categoriesRepository.findCategoryLinks();
+        final var ids = new HashMap<Long, CategoryLink>(links.size() * 2);
+        for (final var link : links) {
+            ids.put(link.id(), link);
+        }
+
+        final var children = new HashMap<Long, List<CategoryLink>>();
+        final var roots = new ArrayList<CategoryLink>();
+        for (final var link : links) {
+            final var parentId = link.parentCategory();
+            if (parentId == null || !ids.containsKey(parentId)) {
+                roots.add(link);
+            } else {
+                children
+                    .computeIfAbsent(parentId, key -> new ArrayList<>())
+                    .add(link);
+            }
+        }
+        children.values().forEach(siblings -> siblings.sort(SIBLINGS_ORDER));
+        roots.sort(SIBLINGS_ORDER);
+
+        // Iterative DFS, deep trees must not overflow the stack
+        final var preorder = new ArrayList<CategoryLink>(links.size());
+        final var stack = new ArrayDeque<CategoryLink>();
+        for (int i = roots.size() - 1; i >= 0; --i) {
+            stack.push(roots.get(i));
+        }
+        while (!stack.isEmpty()) {
+            final var link = stack.pop();
+            preorder.add(link);
+
+            final var linkChildren = children.getOrDefault(link.id(), Collections.emptyList());
+            for (int i = linkChildren.size() - 1; i >= 0; --i) {
+                stack.push(linkChildren.get(i));
+            }
+        }
+        if (preorder.size() != links.size()) {
+            log.warn(
+                "categories tree contains cycle, unreachable categories count={}",
+                links.size() - preorder.size()
+            );
+        }
+
+        // Descendants always follow their ancestor in pre-order,
+        // so sizes can be accumulated walking backwards
+        final var sizes = new HashMap<Long, Integer>(preorder.size() * 2);
+        for (int i = preorder.size() - 1; i >= 0; --i) {
+            final var link = preorder.get(i);
+            final int size = sizes.merge(link.id(), 1, Integer::sum);
+            if (link.parentCategory() != null && ids.containsKey(link.parentCategory())) {
+                sizes.merge(link.parentCategory(), size, Integer::sum);
+            }
+        }
+
+        final var staleBounds = new ArrayList<CategoryBounds>();
+        for (int i = 0; i < preorder.size(); ++i) {
+            final var link = preorder.get(i);
+            final var treeRight = i + sizes.get(link.id()) - 1;
+            if (!Objects.equals(i, link.treeLeft()) || !Objects.equals(treeRight, link.treeRight())) {
+                staleBounds.add(new CategoryBounds(link.id(), i, treeRight));
+            }
+        }
+
+        log.info("numbered categories tree count={} stale count={}", preorder.size(), staleBounds.size());
+        return staleBounds;
+    }
+}
@@ -13,6 +13,8 @@ import ecommerce.exception.NotFoundException;
 import ecommerce.repository.countries.CountriesRepository;
 import ecommerce.repository.countries.entity.Country;
 import ecommerce.service.countries.mapper.CountriesMapper;
+import ecommerce.service.utils.DataVersion;
+import ecommerce.service.utils.ReferenceCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -23,17 +25,27 @@ public class CountriesService {
 
     private final CountriesMapper countriesMapper;
     private final CountriesRepository countriesRepository;
+    private final ReferenceCache<Country, OutCountry> countriesCache;
+    private final DataVersion countriesVersion = new DataVersion();
 
     /**
-     * Finds country by ID
+     * @return strong ETag of active countries, changed by every write
+     */
+    public String getCountriesETag() {
+        return countriesVersion.eTag();
+    }
+
+    /**
+     * Finds country by ID (from cache).
+     * Returned entity is shared and must not be modified.
      * 
      * @param id
      * @return found country
      * @throws NotFoundException country does not exist or it is inactive
      */
     public Country findByIdActive(long id) throws NotFoundException {
-        final var country = countriesRepository
-            .findByIdAndActiveTrue(id)
+        final var country = countriesCache
+            .find(id, countriesRepository::findByIdAndActiveTrue)
             .orElseThrow(() -> NotFoundException.country(id));
         return country;
     }
@@ -59,12 +71,14 @@ public class CountriesService {
      * @return found countries
      */
     public List<OutCountry> getCountries() {
-        final var countryEntities = countriesRepository.findByActiveTrue();
-        log.info("found countries count={}", countryEntities.size());
+        final var outCountries = countriesCache.findAll(() -> {
+            final var countryEntities = countriesRepository.findByActiveTrue();
+            log.info("found countries count={}", countryEntities.size());
 
-        final var outCountries = countryEntities.stream()
-            .map(countriesMapper::fromEntity)
-            .collect(Collectors.toList());
+            return countryEntities.stream()
+                .map(countriesMapper::fromEntity)
+                .collect(Collectors.toList());
+        });
 
         return outCountries;
     }
@@ -100,6 +114,8 @@ public class CountriesService {
             countryEntity = countriesRepository.save(countryEntity);
             log.info("updated country with id={}", countryEntity.getId());
         }
+        countriesCache.invalidate(countryEntity.getId());
+        countriesVersion.increment();
 
         final var outCountry = countriesMapper.fromEntity(countryEntity);
         return outCountry;
@@ -112,11 +128,16 @@ public class CountriesService {
      * @throws NotFoundException country does not exist or is inactive
      */
     public void deleteCountry(long id) throws NotFoundException {
-        final var country = findByIdActive(id);
+        // Cached entity is shared, so the modified one is loaded from the database
+        final var country = countriesRepository
+            .findByIdAndActiveTrue(id)
+            .orElseThrow(() -> NotFoundException.country(id));
         log.info("found country with id={}", id);
 
         country.setActive(false);
         countriesRepository.save(country);
+        countriesCache.invalidate(id);
+        countriesVersion.increment();
         log.info("deleted country with id={}", id);
     }
 }
@@ -0,0 +1,52 @@
+package ecommerce.service.inventory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically gives back stock of expired reservations
+ * (orders which payment was not completed in time).
+ * Every reservation is released in its own short transaction,
+ * so the job never holds locks of many shards at once.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryExpiryJob {
+
+    private final InventoryService inventoryService;
+
+    @Value("${ecommerce.inventory.reservation.expiry-batch-size}")
+    private int batchSize;
+
+    @Scheduled(
+        fixedDelayString = "${ecommerce.inventory.reservation.expiry-interval}",
+        initialDelayString = "${ecommerce.inventory.reservation.expiry-interval}"
+    )
+    public void releaseExpiredReservations() {
+        long released = 0;
+        try {
+            while (true) {
+                final var ids = inventoryService.findExpiredReservations(batchSize);
+                for (final var id : ids) {
+                    if (inventoryService.releaseReservation(id)) {
+                        ++released;
+                    }
+                }
+                if (ids.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("releasing expired stock reservations failed: {}", e.getMessage());
+        }
+
+        if (released > 0) {
+            log.info("released expired stock reservations count={}", released);
+        }
+    }
+}
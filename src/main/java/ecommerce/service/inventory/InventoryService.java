@@ -0,0 +1,372 @@
+package ecommerce.service.inventory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ecommerce.dto.products.InProductStock;
+import ecommerce.dto.products.OutProductStock;
+import ecommerce.exception.ConflictException;
+import ecommerce.exception.NotFoundException;
+import ecommerce.repository.inventory.StockReservationsRepository;
+import ecommerce.repository.inventory.StockShardsRepository;
+import ecommerce.repository.inventory.entity.StockReservation;
+import ecommerce.repository.inventory.entity.StockShard;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderProduct;
+import ecommerce.repository.products.ProductsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reserves stock of ordered products.
+ *
+ * Stock of tracked products is split into 'ecommerce.inventory.shards' rows.
+ * Reservation takes stock from a random shard with single conditional update,
+ * so concurrent orders of the same product (flash sale) mostly lock different rows.
+ * Only when no single shard has enough stock, all shards of the product are locked
+ * and stock is taken from several of them.
+ *
+ * Rows are always locked in order of product ID and shard (order products are
+ * sorted by product ID), so concurrent reservations of multi-product orders
+ * cannot deadlock.
+ *
+ * Reserved stock is held until order's payment is completed (the stock is sold)
+ * or until the reservation expires after 'ecommerce.inventory.reservation.ttl'
+ * (the stock is released by InventoryExpiryJob).
+ *
+ * Products without tracked stock are unlimited and cost no queries.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InventoryService {
+
+    /**
+     * Result of reserving stock of several orders
+     *
+     * @param reservations reservations of accepted orders (not saved yet)
+     * @param rejected orders which products are out of stock, with the reason
+     */
+    public record Reservations(
+        List<StockReservation> reservations,
+        Map<Order, ConflictException> rejected
+    ) {}
+
+    /**
+     * Stock taken from single shard
+     */
+    private record Take(int shard, long quantity) {}
+
+    private final ProductsRepository productsRepository;
+    private final StockShardsRepository stockShardsRepository;
+    private final StockReservationsRepository stockReservationsRepository;
+
+    @Value("${ecommerce.inventory.shards}")
+    private int shards;
+
+    @Value("${ecommerce.inventory.reservation.ttl}")
+    private Duration reservationTtl;
+
+    /**
+     * Get product's available stock
+     *
+     * @param productId
+     * @return stock (available is null when stock is not tracked)
+     * @throws NotFoundException product does not exist
+     */
+    public OutProductStock getStock(long productId) throws NotFoundException {
+        log.trace("productId={}", productId);
+
+        final var productEntity = productsRepository
+            .findByIdAndActiveTrue(productId)
+            .orElseThrow(() -> NotFoundException.product(productId));
+        log.info("found product with id={}", productId);
+
+        if (!Boolean.TRUE.equals(productEntity.getStockTracked())) {
+            return OutProductStock.builder()
+                .productId(productId)
+                .tracked(false)
+                .build();
+        }
+
+        final var available = stockShardsRepository.sumAvailable(productId);
+        return OutProductStock.builder()
+            .productId(productId)
+            .tracked(true)
+            .available(available != null ? available : 0)
+            .build();
+    }
+
+    /**
+     * Set product's available stock (product's stock becomes tracked).
+     * Stock is split evenly into shards, stock held by existing reservations is not affected.
+     *
+     * @param productId
+     * @param stock
+     * @throws NotFoundException product does not exist
+     */
+    @Transactional
+    public void putStock(long productId, InProductStock stock) throws NotFoundException {
+        log.trace("productId={}", productId);
+        log.trace("{}", stock);
+
+        final var productEntity = productsRepository
+            .findByIdAndActiveTrue(productId)
+            .orElseThrow(() -> NotFoundException.product(productId));
+        log.info("found product with id={}", productId);
+
+        // Waits for reservations in progress
+        stockShardsRepository.lockShards(productId);
+        stockShardsRepository.deleteByProduct(productId);
+
+        final var available = stock.available();
+        final var shardEntities = IntStream.range(0, shards)
+            .mapToObj(shard -> StockShard.builder()
+                .productId(productId)
+                .shard(shard)
+                .available(available / shards + (shard < available % shards ? 1 : 0))
+                .build())
+            .collect(Collectors.toList());
+        stockShardsRepository.saveAll(shardEntities);
+
+        productEntity.setStockTracked(true);
+        productsRepository.save(productEntity);
+        log.info("updated product with id={} stock available={}", productId, available);
+    }
+
+    /**
+     * Reserve stock of orders' products (must be called in transaction).
+     * Orders are processed together, every product is locked once
+     * (in ascending order), even when several orders contain it.
+     * Order which product is out of stock is rejected and stock
+     * it has already taken is given back.
+     *
+     * @param orders orders with order products sorted by product ID
+     * @return reservations of accepted orders and rejected orders
+     */
+    public Reservations reserve(List<Order> orders) {
+        final var linesByProduct = new TreeMap<Long, List<OrderProduct>>();
+        for (final var order : orders) {
+            for (final var orderProduct : order.getOrderProducts()) {
+                if (Boolean.TRUE.equals(orderProduct.getProduct().getStockTracked())) {
+                    linesByProduct
+                        .computeIfAbsent(orderProduct.getProduct().getId(), id -> new ArrayList<>())
+                        .add(orderProduct);
+                }
+            }
+        }
+        if (linesByProduct.isEmpty()) {
+            return new Reservations(List.of(), Map.of());
+        }
+
+        final var expiresAt = LocalDateTime.now().plus(reservationTtl);
+        final var reservations = new LinkedHashMap<Order, List<StockReservation>>();
+        final var rejected = new LinkedHashMap<Order, ConflictException>();
+        for (final var entry : linesByProduct.entrySet()) {
+            final var productId = entry.getKey();
+            final var lines = entry.getValue()
+                .stream()
+                .filter(line -> !rejected.containsKey(line.getOrder()))
+                .toList();
+            if (lines.isEmpty()) {
+                continue;
+            }
+
+            final var quantities = lines.stream()
+                .map(line -> line.getQuantity().longValue())
+                .toList();
+            final var takes = takeStock(productId, quantities);
+
+            for (int i = 0; i < lines.size(); ++i) {
+                final var order = lines.get(i).getOrder();
+                if (takes.get(i) == null) {
+                    log.info("product with id={} is out of stock", productId);
+                    rejected.put(order, ConflictException.productOutOfStock(productId));
+                    final var orderReservations = reservations.remove(order);
+                    if (orderReservations != null) {
+                        giveBack(orderReservations);
+                    }
+                    continue;
+                }
+
+                final var orderReservations = reservations.computeIfAbsent(order, o -> new ArrayList<>());
+                for (final var take : takes.get(i)) {
+                    orderReservations.add(StockReservation.builder()
+                        .order(order)
+                        .productId(productId)
+                        .shard(take.shard())
+                        .quantity(take.quantity())
+                        .expiresAt(expiresAt)
+                        .build());
+                }
+            }
+        }
+
+        final var accepted = reservations.values()
+            .stream()
+            .flatMap(List::stream)
+            .toList();
+        log.info("reserved stock count={} rejected orders count={}", accepted.size(), rejected.size());
+        return new Reservations(accepted, rejected);
+    }
+
+    /**
+     * Save reservations returned by reserve after their orders were saved
+     *
+     * @param reservations
+     */
+    public void saveReservations(List<StockReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        stockReservationsRepository.saveAll(reservations);
+        log.info("created stock reservations count={}", reservations.size());
+    }
+
+    /**
+     * Sell stock reserved by the order (must be called in transaction).
+     * Stock of reservations which have already expired is taken again.
+     *
+     * @param orderId
+     * @throws ConflictException stock of expired reservation is not available anymore
+     */
+    public void confirm(long orderId) throws ConflictException {
+        final var sold = stockReservationsRepository.deleteHeldByOrderId(orderId);
+
+        final var released = stockReservationsRepository.findReleasedByOrderId(orderId);
+        if (released.isEmpty()) {
+            log.info("sold order's with id={} reserved stock count={}", orderId, sold);
+            return;
+        }
+
+        final var quantitiesByProduct = released.stream()
+            .collect(Collectors.groupingBy(
+                StockReservation::getProductId,
+                TreeMap::new,
+                Collectors.summingLong(StockReservation::getQuantity)
+            ));
+        for (final var entry : quantitiesByProduct.entrySet()) {
+            if (takeStock(entry.getKey(), List.of(entry.getValue())).get(0) == null) {
+                throw ConflictException.productOutOfStock(entry.getKey());
+            }
+        }
+        stockReservationsRepository.deleteAllInBatch(released);
+        log.info("sold order's with id={} reserved stock count={} expired count={}", orderId, sold, released.size());
+    }
+
+    /**
+     * @param limit
+     * @return IDs of expired reservations which still hold stock
+     */
+    public List<Long> findExpiredReservations(int limit) {
+        return stockReservationsRepository.findExpiredIds(LocalDateTime.now(), Limit.of(limit));
+    }
+
+    /**
+     * Give back stock of expired reservation (unless it was sold or released concurrently)
+     *
+     * @param id
+     * @return true when the stock was released
+     */
+    @Transactional
+    public boolean releaseReservation(long id) {
+        if (stockReservationsRepository.markReleasedIfHeld(id, LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        final var reservation = stockReservationsRepository.findById(id).orElseThrow();
+        stockShardsRepository.giveBack(reservation.getProductId(), reservation.getShard(), reservation.getQuantity());
+        log.info("released stock reservation with id={}", id);
+        return true;
+    }
+
+    /**
+     * Take stock of single product for every quantity (in order).
+     * Single quantity is taken from a single shard without locking other shards,
+     * otherwise all shards are locked.
+     *
+     * @return stock taken for every quantity (null when there is not enough of it)
+     */
+    private List<List<Take>> takeStock(long productId, List<Long> quantities) {
+        if (quantities.size() == 1) {
+            final var quantity = quantities.get(0);
+            final var start = ThreadLocalRandom.current().nextInt(shards);
+            for (int i = 0; i < shards; ++i) {
+                final var shard = (start + i) % shards;
+                if (stockShardsRepository.takeIfAvailable(productId, shard, quantity) == 1) {
+                    return List.of(List.of(new Take(shard, quantity)));
+                }
+            }
+
+            // Sold out product is rejected without locking its shards
+            final var available = stockShardsRepository.sumAvailable(productId);
+            if (available == null || available < quantity) {
+                return Collections.singletonList(null);
+            }
+        }
+
+        final var shardAvailabilities = stockShardsRepository.lockShards(productId);
+        final var available = new long[shardAvailabilities.size()];
+        long totalAvailable = 0;
+        for (int i = 0; i < available.length; ++i) {
+            available[i] = shardAvailabilities.get(i).available();
+            totalAvailable += available[i];
+        }
+
+        final var taken = new long[available.length];
+        final var takes = new ArrayList<List<Take>>(quantities.size());
+        for (final var quantity : quantities) {
+            if (totalAvailable < quantity) {
+                takes.add(null);
+                continue;
+            }
+
+            final var quantityTakes = new ArrayList<Take>();
+            var remaining = quantity.longValue();
+            for (int i = 0; i < available.length && remaining > 0; ++i) {
+                final var shardTake = Math.min(available[i], remaining);
+                if (shardTake > 0) {
+                    available[i] -= shardTake;
+                    taken[i] += shardTake;
+                    remaining -= shardTake;
+                    quantityTakes.add(new Take(shardAvailabilities.get(i).shard(), shardTake));
+                }
+            }
+            totalAvailable -= quantity;
+            takes.add(quantityTakes);
+        }
+
+        for (int i = 0; i < taken.length; ++i) {
+            if (taken[i] > 0) {
+                final var shard = shardAvailabilities.get(i).shard();
+                if (stockShardsRepository.takeIfAvailable(productId, shard, taken[i]) == 0) {
+                    throw new IllegalStateException(
+                        "stock of product with id=%d changed while it was locked".formatted(productId)
+                    );
+                }
+            }
+        }
+        return takes;
+    }
+
+    private void giveBack(List<StockReservation> reservations) {
+        for (final var reservation : reservations) {
+            stockShardsRepository.giveBack(reservation.getProductId(), reservation.getShard(), reservation.getQuantity());
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package ecommerce.service.orders;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.dto.orders.InOrderFilters;
+import ecommerce.dto.orders.OutOrderSummary;
+import ecommerce.dto.shared.InPagination;
+import ecommerce.dto.shared.OutPage;
+import ecommerce.exception.ValidationException;
+import ecommerce.repository.orders.OrderSummariesRepository;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.payments.PaymentsRepository;
+import ecommerce.repository.utils.SliceSpecificationExecutor;
+import ecommerce.service.orders.mapper.OrderSummariesMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.utils.AuthUtils;
+import ecommerce.service.utils.TotalCountCache;
+import ecommerce.service.utils.mapper.PaginationMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Order history served from order summaries (CQRS read model).
+ * Summaries are written by OrdersService in the same transactions
+ * as orders. Orders created before summaries existed are summarized
+ * when the application starts, until then history is served from orders.
+ * Summarized orders are locked, so they are completed either before
+ * they are read or after their summary is committed (and then updated).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderSummariesService {
+
+    private final OrderSummariesMapper orderSummariesMapper;
+    private final OrdersSpecificationMapper ordersSpecificationMapper;
+    private final PaginationMapper paginationMapper;
+    private final TotalCountCache totalCountCache;
+    private final OrderSummariesRepository orderSummariesRepository;
+    private final OrdersRepository ordersRepository;
+    private final PaymentsRepository paymentsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ecommerce.orders.summaries.backfill.batch-size}")
+    private int backfillBatchSize;
+    @Value("${ecommerce.orders.summaries.backfill.max-attempts}")
+    private int backfillMaxAttempts;
+
+    /**
+     * Set once every order has its summary
+     */
+    private volatile boolean backfilled;
+
+    /**
+     * Find order summaries page with specified filters.
+     * Underprivileged users can search through only their own orders.
+     *
+     * @param user
+     * @param filters
+     * @param pagination
+     * @return found summaries
+     * @throws ValidationException pagination cursor is invalid
+     */
+    public OutPage<OutOrderSummary> getOrderSummaries(
+        Authentication user,
+        InOrderFilters filters,
+        InPagination pagination
+    ) throws ValidationException {
+        log.trace("{}", filters);
+        log.trace("{}", pagination);
+
+        final var isUserPrivileged = AuthUtils.userHasAnyRole(user, OrdersService.ORDER_VIEW_ROLES);
+        if (!isUserPrivileged) {
+            // underpriviliged user can view only his own orders
+            filters.setUsername(user.getName());
+        }
+
+        if (!backfilled) {
+            // some orders may not have summaries yet, they are summarized on the fly
+            final var specification = ordersSpecificationMapper.mapToSpecification(filters);
+            return findSummaries(
+                ordersRepository,
+                specification,
+                pagination,
+                () -> countSummaries(filters, () -> ordersRepository.count(specification)),
+                order -> orderSummariesMapper.fromEntity(orderSummariesMapper.intoEntity(order))
+            );
+        }
+
+        final var specification = ordersSpecificationMapper.mapToSummarySpecification(filters);
+        return findSummaries(
+            orderSummariesRepository,
+            specification,
+            pagination,
+            () -> countSummaries(filters, () -> orderSummariesRepository.count(specification)),
+            orderSummariesMapper::fromEntity
+        );
+    }
+
+    /**
+     * Creates summaries of new orders (within caller's transaction)
+     *
+     * @param orders saved orders with their payments and order products
+     */
+    public void createSummaries(List<Order> orders) {
+        orderSummariesRepository.saveAll(
+            orders.stream()
+                .map(orderSummariesMapper::intoEntity)
+                .toList()
+        );
+        log.info("created order summaries count={}", orders.size());
+    }
+
+    /**
+     * Updates summary of order which has just been completed
+     *
+     * @param id
+     * @param completedAt
+     */
+    public void orderCompleted(long id, LocalDateTime completedAt) {
+        orderSummariesRepository.updateCompletedAt(id, completedAt);
+        log.debug("updated order summary with id={}", id);
+    }
+
+    /**
+     * Updates summary of order which payment has just been completed
+     *
+     * @param id
+     * @param completedAt
+     */
+    public void paymentCompleted(long id, LocalDateTime completedAt) {
+        orderSummariesRepository.updatePaymentCompletedAt(id, completedAt);
+        log.debug("updated order summary with id={}", id);
+    }
+
+    /**
+     * Summarizes orders created without summaries, in batches
+     * of 'ecommerce.orders.summaries.backfill.batch-size' orders
+     * (every batch in its own transaction). Failed batch is retried
+     * up to 'ecommerce.orders.summaries.backfill.max-attempts' times.
+     *
+     * @throws IllegalStateException orders could not be summarized,
+     * so the application fails instead of serving history from orders
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSummaries() {
+        long afterId = 0;
+        long count = 0;
+        int attempt = 1;
+        while (true) {
+            final var lastId = afterId;
+            final List<Long> ids;
+            final int batchCount;
+            try {
+                ids = orderSummariesRepository.findOrderIdsWithoutSummary(
+                    lastId,
+                    Limit.of(backfillBatchSize)
+                );
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                batchCount = transactionTemplate.execute(status -> summarizeBatch(ids));
+            } catch (RuntimeException e) {
+                if (attempt >= backfillMaxAttempts) {
+                    throw new IllegalStateException(
+                        "summarizing orders failed after count=%d attempts=%d".formatted(count, attempt),
+                        e
+                    );
+                }
+                log.warn("summarizing orders batch failed attempt={}: {}", attempt, e.getMessage());
+                ++attempt;
+                continue;
+            }
+
+            count += batchCount;
+            attempt = 1;
+            afterId = ids.get(ids.size() - 1);
+            log.debug("summarized orders batch count={} total={}", batchCount, count);
+        }
+
+        backfilled = true;
+        log.info("summarized orders created without summaries count={}", count);
+    }
+
+    /**
+     * Summarizes orders (within caller's transaction). Orders and their payments
+     * are locked before they are read, so concurrent completion cannot
+     * be lost. Orders summarized in the meantime (e.g. by another instance) are skipped.
+     *
+     * @param ids IDs of orders without summaries
+     * @return number of created summaries
+     */
+    private int summarizeBatch(List<Long> ids) {
+        ordersRepository.lockByIdIn(ids);
+        paymentsRepository.lockByOrderIdIn(ids);
+
+        final var summarizedIds = new HashSet<>(orderSummariesRepository.findIdsByIdIn(ids));
+        final var orders = ordersRepository.findWithDetailsByIdIn(
+            ids.stream()
+                .filter(id -> !summarizedIds.contains(id))
+                .toList()
+        );
+        orderSummariesRepository.saveAll(
+            orders.stream()
+                .map(orderSummariesMapper::intoEntity)
+                .toList()
+        );
+        return orders.size();
+    }
+
+    private <E> OutPage<OutOrderSummary> findSummaries(
+        SliceSpecificationExecutor<E> repository,
+        Specification<E> specification,
+        InPagination pagination,
+        LongSupplier totalSupplier,
+        Function<E, OutOrderSummary> mapFn
+    ) throws ValidationException {
+        if (paginationMapper.isCursorPagination(pagination)) {
+            final var pageRequest = paginationMapper.intoCursorPageRequest(pagination);
+            final var cursorSpecification = specification
+                .and(paginationMapper.<E>intoCursorSpecification(pagination));
+
+            final var entitySlice = repository.findSlice(cursorSpecification, pageRequest);
+            log.info("found order summaries count={}", entitySlice.getNumberOfElements());
+
+            return paginationMapper.fromCursorSlice(entitySlice, mapFn, OutOrderSummary::id);
+        }
+
+        final var pageRequest = paginationMapper.intoPageRequest(pagination);
+
+        if (!paginationMapper.isTotalRequested(pagination)) {
+            final var entitySlice = repository.findSlice(specification, pageRequest);
+            log.info("found order summaries count={}", entitySlice.getNumberOfElements());
+
+            return paginationMapper.fromSlice(entitySlice, mapFn, OutOrderSummary::id);
+        }
+
+        final var entityPage = repository.findPage(specification, pageRequest, totalSupplier);
+        log.info("found order summaries count={}", entityPage.getNumberOfElements());
+
+        return paginationMapper.fromPage(entityPage, mapFn, OutOrderSummary::id);
+    }
+
+    /**
+     * Counts from total count cache, shared with orders (every order has single summary).
+     * Without filters the count is estimated (for large tables).
+     */
+    private long countSummaries(InOrderFilters filters, LongSupplier exactCount) {
+        final var countKey = ordersSpecificationMapper.mapToCountKey(filters);
+        if (countKey.isUnfiltered()) {
+            return totalCountCache.countOrEstimate(countKey, ordersRepository::estimateCount, exactCount);
+        }
+
+        return totalCountCache.count(countKey, exactCount);
+    }
+}
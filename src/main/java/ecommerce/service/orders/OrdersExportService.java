@@ -0,0 +1,140 @@
+package ecommerce.service.orders;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ecommerce.dto.orders.InOrderFilters;
+import ecommerce.dto.orders.OutOrderExport;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.utils.CsvWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports orders for reporting.
+ * Orders are selected as flat OutOrderExport rows from forward-only cursor
+ * and written as they are read, without pagination, count query or entities,
+ * so memory does not depend on the number of exported orders.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrdersExportService {
+
+    private static final Sort SORT = Sort.by("id");
+
+    private final OrdersRepository ordersRepository;
+    private final OrdersSpecificationMapper ordersSpecificationMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ecommerce.orders.export.fetch-size}")
+    private int fetchSize;
+
+    /**
+     * Write orders matching filters as NDJSON (OutOrderExport per line)
+     *
+     * @param filters
+     * @param writer
+     * @return number of exported orders
+     * @throws IOException writing failed (e.g. client disconnected)
+     */
+    @Transactional(readOnly = true)
+    public long exportOrdersNdjson(InOrderFilters filters, Writer writer) throws IOException {
+        log.trace("{}", filters);
+
+        final var rowWriter = objectMapper
+            .writerFor(OutOrderExport.class)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        long count = 0;
+        try (final var rows = streamOrders(filters)) {
+            final var iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(writer, iterator.next());
+                writer.write('\n');
+                ++count;
+            }
+        }
+        writer.flush();
+
+        log.info("exported orders count={}", count);
+        return count;
+    }
+
+    /**
+     * Write orders matching filters as CSV with header (OutOrderExport's components)
+     *
+     * @param filters
+     * @param writer
+     * @return number of exported orders
+     * @throws IOException writing failed (e.g. client disconnected)
+     */
+    @Transactional(readOnly = true)
+    public long exportOrdersCsv(InOrderFilters filters, Writer writer) throws IOException {
+        log.trace("{}", filters);
+
+        final var csvWriter = new CsvWriter(writer);
+        csvWriter.writeRecord(
+            "id",
+            "username",
+            "orderedAt",
+            "completedAt",
+            "street",
+            "house",
+            "postalCode",
+            "city",
+            "country",
+            "paymentMethod",
+            "paymentAmount",
+            "paymentCompletedAt"
+        );
+
+        long count = 0;
+        try (final var rows = streamOrders(filters)) {
+            final var iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                final var row = iterator.next();
+                csvWriter.writeRecord(
+                    row.id(),
+                    row.username(),
+                    row.orderedAt(),
+                    row.completedAt(),
+                    row.street(),
+                    row.house(),
+                    row.postalCode(),
+                    row.city(),
+                    row.country(),
+                    row.paymentMethod(),
+                    row.paymentAmount(),
+                    row.paymentCompletedAt()
+                );
+                ++count;
+            }
+        }
+        writer.flush();
+
+        log.info("exported orders count={}", count);
+        return count;
+    }
+
+    private Stream<OutOrderExport> streamOrders(InOrderFilters filters) {
+        return ordersRepository.streamProjections(
+            ordersSpecificationMapper.mapToSpecification(filters),
+            SORT,
+            OutOrderExport.class,
+            OrdersMapper.OUT_ORDER_EXPORT_ATTRIBUTES,
+            fetchSize
+        );
+    }
+}
@@ -2,20 +2,31 @@ package ecommerce.service.orders;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import ecommerce.configuration.auth.AuthRoleSet;
 import ecommerce.configuration.auth.AuthRoles;
 import ecommerce.dto.addresses.InAddress;
 import ecommerce.dto.orders.InOrder;
+import ecommerce.dto.orders.InOrderBatch;
 import ecommerce.dto.orders.InOrderCompletedAtUpdate;
 import ecommerce.dto.orders.InOrderFilters;
 import ecommerce.dto.orders.InOrderProduct;
 import ecommerce.dto.orders.OutOrder;
+import ecommerce.dto.orders.OutOrderBatch;
+import ecommerce.dto.orders.OutOrderBatchItem;
 import ecommerce.dto.payments.InPaymentCompletedAtUpdate;
 import ecommerce.dto.shared.InPagination;
 import ecommerce.dto.shared.OutPage;
@@ -23,13 +34,17 @@ import ecommerce.exception.ConflictException;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
 import ecommerce.repository.addresses.AddressesRepository;
+import ecommerce.repository.countries.entity.Country;
 import ecommerce.repository.orders.OrderProductsRepository;
 import ecommerce.repository.orders.OrdersRepository;
 import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
 import ecommerce.repository.payments.PaymentsRepository;
 import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
 import ecommerce.service.addresses.mapper.AddressesMapper;
 import ecommerce.service.countries.CountriesService;
+import ecommerce.service.inventory.InventoryService;
 import ecommerce.service.orders.mapper.OrderProductsMapper;
 import ecommerce.service.orders.mapper.OrdersMapper;
 import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
@@ -37,6 +52,7 @@ import ecommerce.service.paymentmethods.PaymentMethodsService;
 import ecommerce.service.payments.mapper.PaymentsMapper;
 import ecommerce.service.utils.AuthUtils;
 import ecommerce.service.utils.CollectionUtils;
+import ecommerce.service.utils.TotalCountCache;
 import ecommerce.service.utils.mapper.PaginationMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -46,6 +62,18 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class OrdersService {
 
+    /**
+     * Roles allowing to view other users' orders (also their summaries)
+     */
+    static final AuthRoleSet ORDER_VIEW_ROLES = AuthRoleSet.of(
+        AuthRoles.ORDER_SEARCH,
+        AuthRoles.ORDER_UPDATE
+    );
+    /**
+     * Roles allowing to update other users' orders
+     */
+    private static final AuthRoleSet ORDER_UPDATE_ROLES = AuthRoleSet.of(AuthRoles.ORDER_UPDATE);
+
     private final CountriesService countriesService;
     private final PaymentMethodsService paymentMethodsService;
     private final OrdersMapper ordersMapper;
@@ -53,12 +81,18 @@ public class OrdersService {
     private final AddressesMapper addressesMapper;
     private final PaymentsMapper paymentsMapper;
     private final PaginationMapper paginationMapper;
+    private final TotalCountCache totalCountCache;
     private final OrdersSpecificationMapper ordersSpecificationMapper;
     private final OrdersRepository ordersRepository;
     private final OrderProductsRepository orderProductsRepository;
     private final ProductsRepository productsRepository;
     private final AddressesRepository addressesRepository;
     private final PaymentsRepository paymentsRepository;
+    private final OrderSummariesService orderSummariesService;
+    private final InventoryService inventoryService;
+
+    @Value("${ecommerce.orders.batch.max-size}")
+    private int batchMaxSize;
 
     /**
      * Find order by ID.
@@ -76,16 +110,12 @@ public class OrdersService {
     public OutOrder getOrder(Authentication user, long id) throws NotFoundException {
         log.trace("id={}", id);
 
-        final var isUserPrivileged = AuthUtils.userHasAnyRole(
-            user,
-            AuthRoles.ORDER_SEARCH,
-            AuthRoles.ORDER_UPDATE
-        );
+        final var isUserPrivileged = AuthUtils.userHasAnyRole(user, ORDER_VIEW_ROLES);
         final Order orderEntity;
         if (isUserPrivileged) {
             // Priviliged user can view other users' orders
             orderEntity = ordersRepository
-                .findById(id)
+                .findWithDetailsById(id)
                 .orElseThrow(() -> NotFoundException.order(id));
         } else {
             orderEntity = ordersRepository
@@ -106,28 +136,78 @@ public class OrdersService {
      * @param filters
      * @param pagination
      * @return found filters
+     * @throws ValidationException pagination cursor is invalid
      */
-    public OutPage<OutOrder> getOrders(Authentication user, InOrderFilters filters, InPagination pagination) {
+    public OutPage<OutOrder> getOrders(
+        Authentication user,
+        InOrderFilters filters,
+        InPagination pagination
+    ) throws ValidationException {
         log.trace("{}", filters);
         log.trace("{}", pagination);
 
-        final var isUserPrivileged = AuthUtils.userHasAnyRole(
-            user,
-            AuthRoles.ORDER_SEARCH,
-            AuthRoles.ORDER_UPDATE
-        );
+        final var isUserPrivileged = AuthUtils.userHasAnyRole(user, ORDER_VIEW_ROLES);
         if (!isUserPrivileged) {
             // underpriviliged user can view only his own orders
             filters.setUsername(user.getName());
         }
 
-        final var pageRequest = paginationMapper.intoPageRequest(pagination);
+        // Orders are loaded in two phases (IDs of the page, then orders with details graph),
+        // so each page costs fixed number of queries regardless of its size
         final var specification = ordersSpecificationMapper.mapToSpecification(filters);
 
-        final var entityPage = ordersRepository.findAll(specification, pageRequest);
+        if (paginationMapper.isCursorPagination(pagination)) {
+            // Keyset pagination skips count query and does not use OFFSET
+            final var pageRequest = paginationMapper.intoCursorPageRequest(pagination);
+            final var cursorSpecification = specification
+                .and(paginationMapper.<Order>intoCursorSpecification(pagination));
+
+            final var entitySlice = ordersRepository.findSlice(
+                cursorSpecification,
+                pageRequest,
+                Order.DETAILS_GRAPH
+            );
+            log.info("found orders count={}", entitySlice.getNumberOfElements());
+
+            final var outPage = paginationMapper.fromCursorSlice(
+                entitySlice,
+                ordersMapper::fromEntity,
+                OutOrder::id
+            );
+            return outPage;
+        }
+
+        final var pageRequest = paginationMapper.intoPageRequest(pagination);
+
+        if (!paginationMapper.isTotalRequested(pagination)) {
+            final var entitySlice = ordersRepository.findSlice(
+                specification,
+                pageRequest,
+                Order.DETAILS_GRAPH
+            );
+            log.info("found orders count={}", entitySlice.getNumberOfElements());
+
+            final var outPage = paginationMapper.fromSlice(
+                entitySlice,
+                ordersMapper::fromEntity,
+                OutOrder::id
+            );
+            return outPage;
+        }
+
+        final var entityPage = ordersRepository.findPage(
+            specification,
+            pageRequest,
+            () -> countOrders(filters, specification),
+            Order.DETAILS_GRAPH
+        );
         log.info("found orders count={}", entityPage.getNumberOfElements());
 
-        final var outPage = paginationMapper.fromPage(entityPage, ordersMapper::fromEntity);
+        final var outPage = paginationMapper.fromPage(
+            entityPage,
+            ordersMapper::fromEntity,
+            OutOrder::id
+        );
         return outPage;
     }
 
@@ -144,12 +224,13 @@ public class OrdersService {
      *   <li>some of ordered products does not exist</li>
      * </ul>
      * @throws ValidationException order contains duplicated product
+     * @throws ConflictException some of ordered products is out of stock
      */
     @Transactional
     public OutOrder postOrder(
         Authentication user,
         InOrder orderIn
-    ) throws NotFoundException, ValidationException {
+    ) throws NotFoundException, ValidationException, ConflictException {
         log.trace("{}", orderIn);
 
         validatePostOrderNoDuplicatedProducts(orderIn);
@@ -171,49 +252,148 @@ public class OrdersService {
         }
         log.info("found all ordered products count={}", productEntities.size());
 
-        // Sorted by ID to make working with products easier
-        final var orderInProducts = orderIn.products().stream()
-            .sorted((a, b) -> Long.compare(a.productId(), b.productId()))
-            .collect(Collectors.toList());
-        final var sortedProductEntities = productEntities.stream()
-            .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
-            .collect(Collectors.toList());
-
-        final var summedPrice = IntStream.range(0, orderInProducts.size())
-            .mapToObj(i -> {
-                final var quantity = BigDecimal.valueOf(orderInProducts.get(i).quantity());
-                final var price = sortedProductEntities.get(i).getPrice();
-                return price.multiply(quantity);
-            })
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        final var addressEntity = addressesMapper.intoEntity(orderIn.address(), countryEntity);
-        final var paymentEntity = paymentsMapper.intoEntity(paymentMethodEntity, summedPrice);
-        final var orderEntity = ordersMapper.intoEntity(
+        final var orderEntity = intoOrderEntity(
+            user,
             orderIn,
-            user.getName(),
-            addressEntity,
-            paymentEntity
+            countryEntity,
+            paymentMethodEntity,
+            mapProductsById(productEntities)
         );
+
+        final var reservations = inventoryService.reserve(List.of(orderEntity));
+        if (!reservations.rejected().isEmpty()) {
+            throw reservations.rejected().get(orderEntity);
+        }
+
         final var savedOrderEntity = ordersRepository.save(orderEntity);
         log.info("created order with id={}", orderEntity.getId());
 
-        var orderProductEntities = IntStream.range(0, orderInProducts.size())
-            .mapToObj(i -> orderProductsMapper.intoEntity(
-                orderInProducts.get(i),
-                sortedProductEntities.get(i),
-                savedOrderEntity
-            ))
-            .collect(Collectors.toList());
-        orderProductEntities = orderProductsRepository.saveAll(orderProductEntities);
+        final var orderProductEntities = orderProductsRepository.saveAll(orderEntity.getOrderProducts());
         log.info("created order products count={}", orderProductEntities.size());
 
         savedOrderEntity.setOrderProducts(orderProductEntities);
+        inventoryService.saveReservations(reservations.reservations());
+        orderSummariesService.createSummaries(List.of(savedOrderEntity));
+
         final var orderOut = ordersMapper.fromEntity(savedOrderEntity);
 
         return orderOut;
     }
 
+    /**
+     * Create batch of orders in single transaction.
+     * Orders are validated independently, rejected orders (including orders
+     * of products out of stock) are reported in the result and do not prevent
+     * creating the other orders.
+     * Products of all orders are fetched with single query
+     * and rows are inserted in JDBC batches.
+     *
+     * @param user
+     * @param batch
+     * @return result of every order of the batch (in the same order)
+     * @throws ValidationException batch contains more than 'ecommerce.orders.batch.max-size' orders
+     */
+    @Transactional
+    public OutOrderBatch postOrders(
+        Authentication user,
+        InOrderBatch batch
+    ) throws ValidationException {
+        final var ordersIn = batch.orders();
+        log.trace("orders count={}", ordersIn.size());
+
+        if (ordersIn.size() > batchMaxSize) {
+            throw new ValidationException(
+                "batch cannot contain more than %d orders".formatted(batchMaxSize)
+            );
+        }
+
+        final var productIds = ordersIn.stream()
+            .flatMap(order -> order.products().stream())
+            .map(InOrderProduct::productId)
+            .collect(Collectors.toSet());
+        final var productEntities = mapProductsById(productsRepository.findByActiveTrueAndIdIn(productIds));
+        log.info("found ordered products count={}", productEntities.size());
+
+        // Countries and payment methods repeat across orders,
+        // every distinct one is resolved once per batch
+        final var countryEntities = new HashMap<Long, Country>();
+        final var paymentMethodEntities = new HashMap<Long, PaymentMethod>();
+
+        final var items = new ArrayList<OutOrderBatchItem>(ordersIn.size());
+        final var orderEntities = new ArrayList<Order>(ordersIn.size());
+        final var orderEntitiesIndices = new ArrayList<Integer>(ordersIn.size());
+        for (int i = 0; i < ordersIn.size(); ++i) {
+            final var orderIn = ordersIn.get(i);
+            try {
+                validatePostOrderNoDuplicatedProducts(orderIn);
+
+                final var countryId = orderIn.address().country();
+                var countryEntity = countryEntities.get(countryId);
+                if (countryEntity == null) {
+                    countryEntity = countriesService.findByIdActive(countryId);
+                    countryEntities.put(countryId, countryEntity);
+                }
+
+                final var paymentMethodId = orderIn.payment().paymentMethod();
+                var paymentMethodEntity = paymentMethodEntities.get(paymentMethodId);
+                if (paymentMethodEntity == null) {
+                    paymentMethodEntity = paymentMethodsService.findByIdActive(paymentMethodId);
+                    paymentMethodEntities.put(paymentMethodId, paymentMethodEntity);
+                }
+
+                orderEntities.add(intoOrderEntity(
+                    user,
+                    orderIn,
+                    countryEntity,
+                    paymentMethodEntity,
+                    productEntities
+                ));
+                orderEntitiesIndices.add(i);
+                items.add(null);
+
+            } catch (NotFoundException | ValidationException e) {
+                log.info("rejected order with index={}: {}", i, e.getMessage());
+                items.add(new OutOrderBatchItem(i, null, e.getMessage()));
+            }
+        }
+
+        // Stock of all orders is reserved together, every product is locked at most once per batch
+        final var reservations = inventoryService.reserve(orderEntities);
+        for (int i = orderEntities.size() - 1; i >= 0; --i) {
+            final var rejection = reservations.rejected().get(orderEntities.get(i));
+            if (rejection != null) {
+                final var index = orderEntitiesIndices.get(i);
+                log.info("rejected order with index={}: {}", index, rejection.getMessage());
+                items.set(index, new OutOrderBatchItem(index, null, rejection.getMessage()));
+                orderEntities.remove(i);
+                orderEntitiesIndices.remove(i);
+            }
+        }
+
+        final var savedOrderEntities = ordersRepository.saveAll(orderEntities);
+        log.info("created orders count={}", savedOrderEntities.size());
+
+        final var orderProductEntities = orderEntities.stream()
+            .flatMap(order -> order.getOrderProducts().stream())
+            .collect(Collectors.toList());
+        orderProductsRepository.saveAll(orderProductEntities);
+        log.info("created order products count={}", orderProductEntities.size());
+
+        inventoryService.saveReservations(reservations.reservations());
+        orderSummariesService.createSummaries(savedOrderEntities);
+
+        for (int i = 0; i < savedOrderEntities.size(); ++i) {
+            final var index = orderEntitiesIndices.get(i);
+            items.set(index, new OutOrderBatchItem(index, savedOrderEntities.get(i).getId(), null));
+        }
+
+        return new OutOrderBatch(
+            savedOrderEntities.size(),
+            ordersIn.size() - savedOrderEntities.size(),
+            items
+        );
+    }
+
     /**
      * Update order's address.
      * Underprivileged users can change address only of their own orders.
@@ -237,7 +417,7 @@ public class OrdersService {
         log.trace("id={}", id);
         log.trace("{}", address);
 
-        final var isUserPrivileged = AuthUtils.userHasAnyRole(user, AuthRoles.ORDER_UPDATE);
+        final var isUserPrivileged = AuthUtils.userHasAnyRole(user, ORDER_UPDATE_ROLES);
         final Order orderEntity;
         if (isUserPrivileged) {
             // Privileged users can update other users' orders 
@@ -264,7 +444,10 @@ public class OrdersService {
     }
 
     /**
-     * Update order's 'completedAt'
+     * Update order's 'completedAt'.
+     * Order is completed with single conditional update, so concurrent
+     * requests complete it exactly once. Order is loaded only to find out
+     * why the update did not happen. Order's summary is updated in the same transaction.
      * 
      * @param id
      * @param update
@@ -272,6 +455,7 @@ public class OrdersService {
      * @throws ConflictException order has already been completed
      * @throws ValidationException 'completedAt' is invalid
      */
+    @Transactional
     public void putOrderCompletedAt(
         long id,
         InOrderCompletedAtUpdate update
@@ -279,37 +463,45 @@ public class OrdersService {
         log.trace("id={}", id);
         log.trace("{}", update);
 
+        if (update.completedAt().isAfter(LocalDateTime.now())) {
+            throw new ValidationException("completedAt cannot be from the future");
+        }
+
+        if (ordersRepository.updateCompletedAtIfNotCompleted(id, update.completedAt()) == 1) {
+            log.info("patched order with id={}", id);
+            orderSummariesService.orderCompleted(id, update.completedAt());
+            return;
+        }
+
         final var orderEntity = ordersRepository
             .findById(id)
             .orElseThrow(() -> NotFoundException.order(id));
         log.info("found order with id={}", id);
 
-        final var completedAt = orderEntity.getCompletedAt();
-        if (completedAt != null) {
+        if (orderEntity.getCompletedAt() != null) {
             throw ConflictException.orderAlreadyCompleted(id);
         }
-        if (update.completedAt().isAfter(LocalDateTime.now())) {
-            throw new ValidationException("completedAt cannot be from the future");
-        }
-        if (update.completedAt().isBefore(orderEntity.getOrderedAt())) {
-            throw new ValidationException("completedAt must be after orderedAt");
-        }
-
-        orderEntity.setCompletedAt(update.completedAt());
-        ordersRepository.save(orderEntity);
-
-        log.info("patched order with id={}", id);
+        throw new ValidationException("completedAt must be after orderedAt");
     }
 
     /**
-     * Update payment's 'completedAt'
+     * Update payment's 'completedAt'.
+     * Payment is completed with single conditional update, so concurrent
+     * requests complete it exactly once. Order is loaded only to find out
+     * why the update did not happen. Order's summary is updated and order's
+     * reserved stock is sold in the same transaction.
      * 
      * @param id
      * @param update
      * @throws NotFoundException order does not exist
-     * @throws ConflictException order's payment has already been completed
+     * @throws ConflictException
+     * <ul>
+     *   <li>order's payment has already been completed</li>
+     *   <li>order's reservation expired and its product is out of stock</li>
+     * </ul>
      * @throws ValidationException invalid 'completedAt'
      */
+    @Transactional(rollbackFor = ConflictException.class)
     public void putOrderPaymentCompletedAt(
         long id,
         InPaymentCompletedAtUpdate update
@@ -317,29 +509,106 @@ public class OrdersService {
         log.trace("id={}", id);
         log.trace("{}", update);
 
+        if (update.completedAt().isAfter(LocalDateTime.now())) {
+            throw new ValidationException("payment's completed at cannot be from the future");
+        }
+
+        if (paymentsRepository.updateCompletedAtIfNotCompletedByOrderId(id, update.completedAt()) == 1) {
+            log.info("updated order's with id={} payment", id);
+            orderSummariesService.paymentCompleted(id, update.completedAt());
+            inventoryService.confirm(id);
+            return;
+        }
+
         final var orderEntity = ordersRepository
             .findById(id)
             .orElseThrow(() -> NotFoundException.order(id));
         log.info("found order with id={}", id);
 
-        final var paymentEntity = orderEntity.getPayment();
-        final var completedAt = paymentEntity.getCompletedAt();
-        if (completedAt != null) {
+        if (orderEntity.getPayment().getCompletedAt() != null) {
             throw new ConflictException(
                 "order's with id=%d payment has already been completed"
                     .formatted(id)
             );
         }
-        if (update.completedAt().isAfter(LocalDateTime.now())) {
-            throw new ValidationException("payment's completed at cannot be from the future");
+        throw new ValidationException("payment's completedAt must be after orderedAt");
+    }
+
+    /**
+     * Counts orders from total count cache.
+     * Without filters the count is estimated (for large tables).
+     */
+    private long countOrders(InOrderFilters filters, Specification<Order> specification) {
+        final var countKey = ordersSpecificationMapper.mapToCountKey(filters);
+        if (countKey.isUnfiltered()) {
+            return totalCountCache.countOrEstimate(
+                countKey,
+                ordersRepository::estimateCount,
+                () -> ordersRepository.count(specification)
+            );
         }
-        if (update.completedAt().isBefore(orderEntity.getOrderedAt())) {
-            throw new ValidationException("payment's completedAt must be after orderedAt");
+
+        return totalCountCache.count(countKey, () -> ordersRepository.count(specification));
+    }
+
+    /**
+     * Maps order to entity together with its order products (not saved yet).
+     * Order products are sorted by product ID.
+     *
+     * @throws NotFoundException some of ordered products is missing in 'productEntities'
+     */
+    private Order intoOrderEntity(
+        Authentication user,
+        InOrder orderIn,
+        Country countryEntity,
+        PaymentMethod paymentMethodEntity,
+        Map<Long, Product> productEntities
+    ) throws NotFoundException {
+        final var orderInProducts = orderIn.products().stream()
+            .sorted((a, b) -> Long.compare(a.productId(), b.productId()))
+            .collect(Collectors.toList());
+
+        final var orderedProductEntities = new ArrayList<Product>(orderInProducts.size());
+        for (final var orderInProduct : orderInProducts) {
+            final var productEntity = productEntities.get(orderInProduct.productId());
+            if (productEntity == null) {
+                throw NotFoundException.product(orderInProduct.productId());
+            }
+            orderedProductEntities.add(productEntity);
         }
 
-        paymentEntity.setCompletedAt(update.completedAt());
-        paymentsRepository.save(paymentEntity);
-        log.info("updated order's with id={} payment with id={}", orderEntity.getId(), paymentEntity.getId());
+        final var summedPrice = IntStream.range(0, orderInProducts.size())
+            .mapToObj(i -> {
+                final var quantity = BigDecimal.valueOf(orderInProducts.get(i).quantity());
+                final var price = orderedProductEntities.get(i).getPrice();
+                return price.multiply(quantity);
+            })
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        final var addressEntity = addressesMapper.intoEntity(orderIn.address(), countryEntity);
+        final var paymentEntity = paymentsMapper.intoEntity(paymentMethodEntity, summedPrice);
+        final var orderEntity = ordersMapper.intoEntity(
+            orderIn,
+            user.getName(),
+            addressEntity,
+            paymentEntity
+        );
+
+        final var orderProductEntities = IntStream.range(0, orderInProducts.size())
+            .mapToObj(i -> orderProductsMapper.intoEntity(
+                orderInProducts.get(i),
+                orderedProductEntities.get(i),
+                orderEntity
+            ))
+            .collect(Collectors.toList());
+        orderEntity.setOrderProducts(orderProductEntities);
+
+        return orderEntity;
+    }
+
+    private Map<Long, Product> mapProductsById(List<Product> productEntities) {
+        return productEntities.stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
 
     private void validatePostOrderNoDuplicatedProducts(InOrder order) throws ValidationException {
@@ -0,0 +1,67 @@
+package ecommerce.service.orders.mapper;
+
+import org.springframework.stereotype.Component;
+
+import ecommerce.dto.orders.OutOrderSummary;
+import ecommerce.dto.orders.OutOrderSummaryProduct;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderStatus;
+import ecommerce.repository.orders.entity.OrderSummary;
+import ecommerce.repository.orders.entity.OrderSummaryProduct;
+
+@Component
+public class OrderSummariesMapper {
+
+    /**
+     * @param order saved order with its payment and order products
+     * @return summary of the order
+     */
+    public OrderSummary intoEntity(Order order) {
+        return OrderSummary.builder()
+            .id(order.getId())
+            .username(order.getUsername())
+            .status(OrderStatus.of(order))
+            .totalAmount(order.getPayment().getAmount())
+            .lineCount(order.getOrderProducts().size())
+            .orderedAt(order.getOrderedAt())
+            .completedAt(order.getCompletedAt())
+            .paymentCompletedAt(order.getPayment().getCompletedAt())
+            .products(
+                order.getOrderProducts()
+                    .stream()
+                    .map(orderProduct -> new OrderSummaryProduct(
+                        orderProduct.getProduct().getId(),
+                        orderProduct.getProduct().getName(),
+                        orderProduct.getPrice(),
+                        orderProduct.getQuantity()
+                    ))
+                    .toList()
+            )
+            .build();
+    }
+
+    public OutOrderSummary fromEntity(OrderSummary summary) {
+        return OutOrderSummary.builder()
+            .id(summary.getId())
+            .username(summary.getUsername())
+            .status(summary.getStatus().name())
+            .totalAmount(summary.getTotalAmount())
+            .lineCount(summary.getLineCount())
+            .orderedAt(summary.getOrderedAt())
+            .completedAt(summary.getCompletedAt())
+            .paymentCompletedAt(summary.getPaymentCompletedAt())
+            .products(
+                summary.getProducts()
+                    .stream()
+                    .map(product -> OutOrderSummaryProduct.builder()
+                        .productId(product.productId())
+                        .name(product.name())
+                        .price(product.price())
+                        .quantity(product.quantity())
+                        .build()
+                    )
+                    .toList()
+            )
+            .build();
+    }
+}
@@ -1,6 +1,7 @@
 package ecommerce.service.orders.mapper;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
@@ -18,6 +19,25 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class OrdersMapper {
 
+    /**
+     * Order attributes OutOrderExport is constructed from (in constructor order).
+     * Used to stream OutOrderExport directly without loading entities.
+     */
+    public static final List<String> OUT_ORDER_EXPORT_ATTRIBUTES = List.of(
+        "id",
+        "username",
+        "orderedAt",
+        "completedAt",
+        "address.street",
+        "address.house",
+        "address.postalCode",
+        "address.city",
+        "address.country.id",
+        "payment.paymentMethod.id",
+        "payment.amount",
+        "payment.completedAt"
+    );
+
     private final OrderProductsMapper orderProductsMapper;
     private final AddressesMapper addressesMapper;
     private final PaymentsMapper paymentsMapper;
@@ -7,13 +7,41 @@ import org.springframework.stereotype.Component;
 
 import ecommerce.dto.orders.InOrderFilters;
 import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderSummary;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 
 @Component
 public class OrdersSpecificationMapper {
 
+    /**
+     * Normalized filters used as the key of total count cache
+     */
+    public record CountKey(
+        Boolean completed,
+        String username
+    ) {
+        public boolean isUnfiltered() {
+            return completed == null && username == null;
+        }
+    }
+
+    public CountKey mapToCountKey(InOrderFilters filters) {
+        return new CountKey(filters.getCompleted(), filters.getUsername());
+    }
+
     public Specification<Order> mapToSpecification(InOrderFilters filters) {
+        return createSpecification(filters);
+    }
+
+    /**
+     * Summaries have the same filtered attributes as orders
+     */
+    public Specification<OrderSummary> mapToSummarySpecification(InOrderFilters filters) {
+        return createSpecification(filters);
+    }
+
+    private <T> Specification<T> createSpecification(InOrderFilters filters) {
         return (root, query, cb) -> {
             final var predicates = new ArrayList<Predicate>();
 
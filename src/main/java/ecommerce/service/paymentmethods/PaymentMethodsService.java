@@ -13,6 +13,8 @@ import ecommerce.exception.ValidationException;
 import ecommerce.repository.paymentmethods.PaymentMethodsRepository;
 import ecommerce.repository.paymentmethods.entity.PaymentMethod;
 import ecommerce.service.paymentmethods.mapper.PaymentMethodsMapper;
+import ecommerce.service.utils.DataVersion;
+import ecommerce.service.utils.ReferenceCache;
 import ecommerce.service.utils.sanitizer.IUserInputSanitizer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,17 +27,27 @@ public class PaymentMethodsService {
     private final PaymentMethodsMapper paymentMethodsMapper;
     private final IUserInputSanitizer userInputSanitizer;
     private final PaymentMethodsRepository paymentMethodsRepository;
+    private final ReferenceCache<PaymentMethod, OutPaymentMethod> paymentMethodsCache;
+    private final DataVersion paymentMethodsVersion = new DataVersion();
 
     /**
-     * Find payment method by id
+     * @return strong ETag of active payment methods, changed by every write
+     */
+    public String getPaymentMethodsETag() {
+        return paymentMethodsVersion.eTag();
+    }
+
+    /**
+     * Find payment method by id (from cache).
+     * Returned entity is shared and must not be modified.
      * 
      * @param id
      * @return found payment method
      * @throws NotFoundException payment method does not exist or is inactive
      */
     public PaymentMethod findByIdActive(long id) throws NotFoundException {
-        final var payment = paymentMethodsRepository
-            .findByIdAndActiveTrue(id)
+        final var payment = paymentMethodsCache
+            .find(id, paymentMethodsRepository::findByIdAndActiveTrue)
             .orElseThrow(() -> NotFoundException.paymentMethod(id));
         return payment;
     }
@@ -46,12 +58,14 @@ public class PaymentMethodsService {
      * @return found payment methods
      */
     public List<OutPaymentMethod> getPaymentMethods() {
-        final var paymentMethodEntities = paymentMethodsRepository.findByActiveTrue();
-        log.info("found payment methods count={}", paymentMethodEntities.size());
+        final var paymentMethods = paymentMethodsCache.findAll(() -> {
+            final var paymentMethodEntities = paymentMethodsRepository.findByActiveTrue();
+            log.info("found payment methods count={}", paymentMethodEntities.size());
 
-        final var paymentMethods = paymentMethodEntities.stream()
-            .map(paymentMethodsMapper::fromEntity)
-            .collect(Collectors.toList());
+            return paymentMethodEntities.stream()
+                .map(paymentMethodsMapper::fromEntity)
+                .collect(Collectors.toList());
+        });
 
         return paymentMethods;
     }
@@ -87,6 +101,8 @@ public class PaymentMethodsService {
 
         var entity = paymentMethodsMapper.intoEntity(inPaymentMethod);
         entity = paymentMethodsRepository.save(entity);
+        paymentMethodsCache.invalidateAll();
+        paymentMethodsVersion.increment();
         log.info("created payment method with id={}", entity.getId());
 
         final var outPaymentMethod = paymentMethodsMapper.fromEntity(entity);
@@ -94,7 +110,7 @@ public class PaymentMethodsService {
     }
 
     /**
-     * Update part of payment method
+     * Update part of payment method (single statement)
      * 
      * @param id
      * @param patch
@@ -108,24 +124,24 @@ public class PaymentMethodsService {
         log.trace("id={}", id);
         log.trace("{}", patch);
 
-        final var entity = findByIdActive(id);
-        log.info("found payment method with id={}", id);
+        final var name = patch.name() != null
+            ? userInputSanitizer.sanitize(patch.name())
+            : null;
+        final var description = patch.description() != null
+            ? userInputSanitizer.sanitize(patch.description())
+            : null;
 
-        if (patch.name() != null) {
-            final var name = userInputSanitizer.sanitize(patch.name());
-            entity.setName(name);
-        }
-        if (patch.description() != null) {
-            final var description = userInputSanitizer.sanitize(patch.description());
-            entity.setDescription(description);
+        if (paymentMethodsRepository.patchById(id, name, description) == 0) {
+            throw NotFoundException.paymentMethod(id);
         }
 
-        paymentMethodsRepository.save(entity);
+        paymentMethodsCache.invalidate(id);
+        paymentMethodsVersion.increment();
         log.info("updated payment method with id={}", id);
     }
 
     /**
-     * Delete payment method by changing 'active' to false
+     * Delete payment method by changing 'active' to false (single statement)
      * 
      * @param id
      * @throws NotFoundException payment method does not exist or is inactive
@@ -133,11 +149,12 @@ public class PaymentMethodsService {
     public void deletePaymentMethod(long id) throws NotFoundException {
         log.trace("id={}", id);
 
-        final var entity = findByIdActive(id);
-        log.info("found payment method with id={}", id);
+        if (paymentMethodsRepository.deactivateById(id) == 0) {
+            throw NotFoundException.paymentMethod(id);
+        }
 
-        entity.setActive(false);
-        paymentMethodsRepository.save(entity);
+        paymentMethodsCache.invalidate(id);
+        paymentMethodsVersion.increment();
         log.info("deleted payment method with id={}", id);
     }
 
@@ -0,0 +1,242 @@
+package ecommerce.service.products;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ecommerce.dto.products.InProduct;
+import ecommerce.dto.products.OutProductImport;
+import ecommerce.dto.products.OutProductImportError;
+import ecommerce.exception.NotFoundException;
+import ecommerce.exception.ValidationException;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.categories.CategoriesService;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates products from large NDJSON or CSV bodies.
+ * Input is parsed line by line, products are saved in batches
+ * (every batch in its own transaction) and persistence context is cleared
+ * after every batch, so memory does not depend on size of the import.
+ * Invalid lines are skipped and reported, batches saved before
+ * unexpected failure stay saved.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductsImportService {
+
+    /**
+     * Columns of imported CSV (in any order, header is required)
+     */
+    public static final List<String> CSV_COLUMNS = List.of("name", "description", "price", "category");
+
+    private final CategoriesService categoriesService;
+    private final ProductsService productsService;
+    private final ProductsRepository productsRepository;
+    private final ProductsMapper productsMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+
+    @Value("${ecommerce.products.import.batch-size}")
+    private int batchSize;
+    @Value("${ecommerce.products.import.max-reported-errors}")
+    private int maxReportedErrors;
+
+    /**
+     * Import products, every line of 'reader' is single InProduct JSON (blank lines are skipped)
+     *
+     * @param reader
+     * @return summary of the import
+     * @throws IOException reading of the body failed
+     */
+    public OutProductImport importProductsNdjson(Reader reader) throws IOException {
+        final var productReader = objectMapper.readerFor(InProduct.class);
+        final var lines = new BufferedReader(reader);
+        final var productsImport = new ProductsImport();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            ++lineNumber;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            final InProduct product;
+            try {
+                product = productReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                productsImport.reject(lineNumber, "invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            productsImport.add(lineNumber, product);
+        }
+
+        return productsImport.finish();
+    }
+
+    /**
+     * Import products from CSV with header containing CSV_COLUMNS
+     *
+     * @param reader
+     * @return summary of the import
+     * @throws IOException reading of the body failed
+     * @throws ValidationException header is invalid or CSV is malformed
+     */
+    public OutProductImport importProductsCsv(Reader reader) throws IOException, ValidationException {
+        final var csvReader = new CsvReader(new BufferedReader(reader));
+        final var header = csvReader.readRecord();
+        if (header == null) {
+            throw new ValidationException("CSV header is missing");
+        }
+        final var columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i] = header.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new ValidationException("CSV header lacks column '%s'".formatted(CSV_COLUMNS.get(i)));
+            }
+        }
+
+        final var productsImport = new ProductsImport();
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            final var lineNumber = csvReader.getRecordLine();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                productsImport.reject(
+                    lineNumber,
+                    "expected %d fields, found %d".formatted(header.size(), record.size())
+                );
+                continue;
+            }
+
+            final InProduct product;
+            try {
+                product = new InProduct(
+                    record.get(columns[0]),
+                    record.get(columns[1]),
+                    new BigDecimal(record.get(columns[2]).trim()),
+                    Long.valueOf(record.get(columns[3]).trim())
+                );
+            } catch (NumberFormatException e) {
+                productsImport.reject(lineNumber, "'price' or 'category' is not a number");
+                continue;
+            }
+            productsImport.add(lineNumber, product);
+        }
+
+        return productsImport.finish();
+    }
+
+    /**
+     * State of single import: categories cache, pending batch and summary
+     */
+    private class ProductsImport {
+
+        private final HashMap<Long, Category> categories = new HashMap<>();
+        private final HashSet<Long> missingCategories = new HashSet<>();
+        private final ArrayList<Product> batch = new ArrayList<>(batchSize);
+        private final ArrayList<OutProductImportError> errors = new ArrayList<>();
+        private int createdCount = 0;
+        private int rejectedCount = 0;
+
+        void add(int line, InProduct product) {
+            final var violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                final var error = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+                reject(line, error);
+                return;
+            }
+
+            final var category = findCategory(product.category());
+            if (category == null) {
+                reject(line, "category with id=%d does not exist".formatted(product.category()));
+                return;
+            }
+
+            try {
+                batch.add(productsMapper.intoEntity(product, category));
+            } catch (ValidationException e) {
+                reject(line, e.getMessage());
+                return;
+            }
+
+            if (batch.size() >= batchSize) {
+                saveBatch();
+            }
+        }
+
+        void reject(int line, String error) {
+            ++rejectedCount;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new OutProductImportError(line, error));
+            }
+        }
+
+        OutProductImport finish() {
+            saveBatch();
+            log.info("imported products count={} rejected={}", createdCount, rejectedCount);
+
+            return new OutProductImport(createdCount, rejectedCount, errors);
+        }
+
+        private Category findCategory(long id) {
+            if (missingCategories.contains(id)) {
+                return null;
+            }
+
+            var category = categories.get(id);
+            if (category == null) {
+                try {
+                    category = categoriesService.findCategoryById(id);
+                } catch (NotFoundException e) {
+                    missingCategories.add(id);
+                    return null;
+                }
+                categories.put(id, category);
+            }
+            return category;
+        }
+
+        private void saveBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            productsRepository.saveAll(batch);
+            productsService.productsChanged();
+            createdCount += batch.size();
+            log.debug("saved products batch count={} total={}", batch.size(), createdCount);
+
+            batch.clear();
+            // Request's persistence context (open-in-view) would keep every saved product
+            entityManager.clear();
+        }
+    }
+}
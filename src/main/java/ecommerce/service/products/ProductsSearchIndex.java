@@ -0,0 +1,169 @@
+package ecommerce.service.products;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full-text search of products' names.
+ *
+ * With PostgreSQL names are matched with tsvector / tsquery
+ * (words of the search are matched as prefixes and products are ranked
+ * by relevance), backed by GIN expression index. Trigram index additionally
+ * serves 'UPPER(name) LIKE' filter, which otherwise scans the whole table.
+ * Indexes are created (concurrently, without blocking writes) when
+ * the application starts, because they cannot be expressed with JPA.
+ *
+ * Other databases (H2 in tests) fall back to 'UPPER(name) LIKE' of every word
+ * matched as prefix of name's space separated words (without ranking).
+ */
+@Component
+@Slf4j
+public class ProductsSearchIndex {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final List<String> POSTGRESQL_INDEX_NAMES = List.of(
+        "products_name_fts_idx",
+        "products_name_trgm_idx"
+    );
+
+    private static final List<String> POSTGRESQL_INDEXES = List.of(
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS products_name_fts_idx"
+            + " ON products USING GIN (to_tsvector('simple', name))",
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX CONCURRENTLY IF NOT EXISTS products_name_trgm_idx"
+            + " ON products USING GIN (UPPER(name) gin_trgm_ops)"
+    );
+
+    /**
+     * Index interrupted while being built concurrently (e.g. by restart) is left INVALID,
+     * it is not used by queries, but it is still maintained and skipped by IF NOT EXISTS
+     */
+    private static final String IS_INDEX_INVALID = """
+        SELECT NOT i.indisvalid FROM pg_index i INNER JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE c.relname = ? AND pg_table_is_visible(c.oid)
+    """;
+
+    private final DataSource dataSource;
+    private final boolean fullText;
+    private final boolean createIndexes;
+
+    public ProductsSearchIndex(
+        DataSource dataSource,
+        EntityManagerFactory entityManagerFactory,
+        @Value("${ecommerce.products.search.create-indexes}") boolean createIndexes
+    ) {
+        this.dataSource = dataSource;
+        this.fullText = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices()
+            .getDialect() instanceof PostgreSQLDialect;
+        this.createIndexes = createIndexes;
+    }
+
+    /**
+     * @return true when database supports full-text search (fts_match and fts_rank functions)
+     */
+    public boolean isFullText() {
+        return fullText;
+    }
+
+    /**
+     * Splits search into lower case words, everything except letters and digits separates words
+     *
+     * @param search
+     * @return words of the search (may be empty)
+     */
+    public static List<String> toWords(String search) {
+        return WORD.matcher(search)
+            .results()
+            .map(result -> result.group().toLowerCase(Locale.ROOT))
+            .toList();
+    }
+
+    /**
+     * Creates tsquery matching names containing all words (as prefixes),
+     * e.g. "Red sho" becomes "'red':* & 'sho':*"
+     *
+     * @param words non-empty result of toWords
+     * @return tsquery
+     */
+    public static String toPrefixQuery(List<String> words) {
+        return words.stream()
+            .map(word -> "'" + word + "':*")
+            .collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * Creates missing search indexes, invalid ones are dropped and created again.
+     * Failures are only logged (e.g. missing privilege to create pg_trgm extension),
+     * search works without indexes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!fullText || !createIndexes) {
+            return;
+        }
+
+        for (final var name : POSTGRESQL_INDEX_NAMES) {
+            if (isIndexInvalid(name)) {
+                log.warn("products search index '{}' is invalid, it will be created again", name);
+                execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+            }
+        }
+        for (final var sql : POSTGRESQL_INDEXES) {
+            execute(sql);
+        }
+    }
+
+    /**
+     * @param name
+     * @return true when index exists and is invalid
+     */
+    private boolean isIndexInvalid(String name) {
+        try (
+            final var connection = dataSource.getConnection();
+            final var statement = connection.prepareStatement(IS_INDEX_INVALID)
+        ) {
+            statement.setString(1, name);
+            try (final var resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            log.warn("validity of products search index '{}' was not checked: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * CONCURRENTLY cannot run inside transaction, statements are auto-committed
+     *
+     * @param sql
+     */
+    private void execute(String sql) {
+        try (
+            final var connection = dataSource.getConnection();
+            final var statement = connection.createStatement()
+        ) {
+            statement.execute(sql);
+            log.info("executed products search index statement '{}'", sql);
+        } catch (SQLException e) {
+            log.warn("products search index statement failed '{}': {}", sql, e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package ecommerce.service.products;
 
+import java.util.function.Function;
+
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import ecommerce.dto.products.InProduct;
@@ -16,6 +19,9 @@ import ecommerce.repository.products.entity.Product;
 import ecommerce.service.categories.CategoriesService;
 import ecommerce.service.products.mapper.ProductsMapper;
 import ecommerce.service.products.mapper.ProductsSpecificationMapper;
+import ecommerce.service.utils.DataVersion;
+import ecommerce.service.utils.TinyLfuCache;
+import ecommerce.service.utils.TotalCountCache;
 import ecommerce.service.utils.mapper.PaginationMapper;
 import ecommerce.service.utils.sanitizer.IUserInputSanitizer;
 import jakarta.persistence.criteria.Path;
@@ -33,9 +39,24 @@ public class ProductsService {
     private final ProductsMapper productsMapper;
     private final ProductsSpecificationMapper productsSpecificationMapper;
     private final PaginationMapper paginationMapper;
+    private final TotalCountCache totalCountCache;
+    private final TinyLfuCache<OutProductDetails> productsCache;
+    private final DataVersion productsVersion = new DataVersion();
+
+    /**
+     * Every write of any product changes ETags of all products
+     *
+     * @param id
+     * @return strong ETag of the product's details
+     */
+    public String getProductETag(long id) {
+        return productsVersion.eTag(id);
+    }
 
     /**
-     * Find product by id
+     * Find product by id.
+     * Details of frequently requested products are served from products cache
+     * without accessing the database, every write invalidates the product.
      * 
      * @param id
      * @return found product's details
@@ -44,29 +65,34 @@ public class ProductsService {
     public OutProductDetails getProduct(long id) throws NotFoundException {
         log.trace("id={}", id);
 
-        final var entity = findProductByIdActive(id);
+        final var product = productsCache
+            .find(id, productId -> productsRepository
+                .findByIdAndActiveTrue(productId)
+                .map(productsMapper::fromEntityDetails)
+            )
+            .orElseThrow(() -> NotFoundException.product(id));
         log.info("found product with id={}", id);
 
-        final var product = productsMapper.fromEntityDetails(entity);
-
         return product;
     }
 
     /**
-     * Find active products page with specified filters
+     * Find active products page with specified filters.
+     * Products are selected directly as OutProduct (without entities
+     * and their descriptions), so listing does not hydrate entities.
      * 
      * @param filters
      * @param pagination
      * @return found products
+     * @throws ValidationException pagination cursor is invalid
      */
     public OutPage<OutProduct> getProducts(
         InProductFilters filters,
         InPagination pagination
-    ) {
+    ) throws ValidationException {
         log.trace("{}", filters);
         log.trace("{}", pagination);
 
-        final var pageRequest = paginationMapper.intoPageRequest(pagination);
         final var specification = productsSpecificationMapper
             .mapToSpecification(filters)
             .and((root, query, cb) -> {
@@ -74,10 +100,68 @@ public class ProductsService {
                 return cb.equal(path, true);
             });
 
-        final var entityPage = productsRepository.findAll(specification, pageRequest);
-        log.info("found products count={}", entityPage.getNumberOfElements());
+        if (paginationMapper.isCursorPagination(pagination)) {
+            // Keyset pagination skips count query and does not use OFFSET
+            final var pageRequest = paginationMapper.intoCursorPageRequest(pagination);
+            final var cursorSpecification = specification
+                .and(paginationMapper.<Product>intoCursorSpecification(pagination));
+
+            final var productSlice = productsRepository.findSlice(
+                cursorSpecification,
+                pageRequest,
+                OutProduct.class,
+                ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+            );
+            log.info("found products count={}", productSlice.getNumberOfElements());
 
-        final var outPage = paginationMapper.fromPage(entityPage, productsMapper::fromEntity);
+            final var outPage = paginationMapper.fromCursorSlice(
+                productSlice,
+                Function.identity(),
+                OutProduct::id
+            );
+            return outPage;
+        }
+
+        final var pageRequest = paginationMapper.intoPageRequest(pagination);
+        // Offset pages of full-text search are sorted by relevance,
+        // such pages have no cursor (cursor requires ID order)
+        final var rankedSpecification = specification
+            .and(productsSpecificationMapper.mapToRelevanceOrder(filters));
+        final Function<OutProduct, Long> cursorIdFn = productsSpecificationMapper.isOrderedByRelevance(filters)
+            ? null
+            : OutProduct::id;
+
+        if (!paginationMapper.isTotalRequested(pagination)) {
+            final var productSlice = productsRepository.findSlice(
+                rankedSpecification,
+                pageRequest,
+                OutProduct.class,
+                ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+            );
+            log.info("found products count={}", productSlice.getNumberOfElements());
+
+            final var outPage = paginationMapper.fromSlice(
+                productSlice,
+                Function.identity(),
+                cursorIdFn
+            );
+            return outPage;
+        }
+
+        final var productPage = productsRepository.findPage(
+            rankedSpecification,
+            pageRequest,
+            () -> countProducts(filters, specification),
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+        log.info("found products count={}", productPage.getNumberOfElements());
+
+        final var outPage = paginationMapper.fromPage(
+            productPage,
+            Function.identity(),
+            cursorIdFn
+        );
         return outPage;
     }
 
@@ -97,6 +181,7 @@ public class ProductsService {
 
         var entity = productsMapper.intoEntity(product, categoryEntity);
         entity = productsRepository.save(entity);
+        productsVersion.increment();
         log.info("created product with id={}", entity.getId());
 
         final var savedProduct = productsMapper.fromEntityDetails(entity);
@@ -113,17 +198,19 @@ public class ProductsService {
     public void deleteProduct(long id) throws NotFoundException {
         log.trace("id={}", id);
 
-        final var product = findProductByIdActive(id);
-        log.info("found product with id={}", id);
-
-        product.setActive(false);
+        if (productsRepository.deactivateById(id) == 0) {
+            throw NotFoundException.product(id);
+        }
 
-        productsRepository.save(product);
+        productsVersion.increment();
+        productsCache.invalidate(id);
         log.info("deleted product with id={}", id);
     }
 
     /**
-     * Update some properties of the product
+     * Update some properties of the product.
+     * Product is updated with single statement, only the category is loaded
+     * (when changed) to verify it exists.
      * 
      * @param id
      * @param productPatch
@@ -141,33 +228,54 @@ public class ProductsService {
         log.trace("id={}", id);
         log.trace("{}", productPatch);
 
-        final var product = findProductByIdActive(id);
-        log.info("found product with id={}", id);
-
-        if (productPatch.name() != null) {
-            final var name = productsInputSanitizer.sanitize(productPatch.name());
-            product.setName(name);
-        }
-        if (productPatch.description() != null) {
-            final var description = productsInputSanitizer.sanitize(productPatch.description());
-            product.setDescription(description);
-        }
-        if (productPatch.price() != null) {
-            product.setPrice(productPatch.price());
-        }
+        final var name = productPatch.name() != null
+            ? productsInputSanitizer.sanitize(productPatch.name())
+            : null;
+        final var description = productPatch.description() != null
+            ? productsInputSanitizer.sanitize(productPatch.description())
+            : null;
         if (productPatch.category() != null) {
-            final var categoryEntity = categoriesService.findCategoryById(productPatch.category());
-            product.setCategory(categoryEntity);
+            // only verifies that category exists
+            categoriesService.findCategoryById(productPatch.category());
         }
 
-        productsRepository.save(product);
+        final var updated = productsRepository.patchById(
+            id,
+            name,
+            description,
+            productPatch.price(),
+            productPatch.category()
+        );
+        if (updated == 0) {
+            throw NotFoundException.product(id);
+        }
+
+        productsVersion.increment();
+        productsCache.invalidate(id);
         log.info("patched product with id={}", id);
     }
 
-    private Product findProductByIdActive(long id) throws NotFoundException {
-        final var product = productsRepository
-            .findByIdAndActiveTrue(id)
-            .orElseThrow(() -> NotFoundException.product(id));
-        return product;
+    /**
+     * Changes ETags of products written outside of this service (e.g. imported)
+     */
+    void productsChanged() {
+        productsVersion.increment();
+    }
+
+    /**
+     * Counts products from total count cache.
+     * Without filters the count of active products is estimated (for large tables).
+     */
+    private long countProducts(InProductFilters filters, Specification<Product> specification) {
+        final var countKey = productsSpecificationMapper.mapToCountKey(filters);
+        if (countKey.isUnfiltered()) {
+            return totalCountCache.countOrEstimate(
+                countKey,
+                productsRepository::estimateActiveCount,
+                () -> productsRepository.count(specification)
+            );
+        }
+
+        return totalCountCache.count(countKey, () -> productsRepository.count(specification));
     }
 }
@@ -1,5 +1,7 @@
 package ecommerce.service.products.mapper;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import ecommerce.dto.products.InProduct;
@@ -15,6 +17,12 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ProductsMapper {
 
+    /**
+     * Product attributes OutProduct is constructed from (in constructor order).
+     * Used to select OutProduct directly without loading entities.
+     */
+    public static final List<String> OUT_PRODUCT_ATTRIBUTES = List.of("id", "name", "price", "category.id");
+
     private final IUserInputSanitizer productsInputSanitizer;
 
     public Product intoEntity(InProduct product, Category category) throws ValidationException {
@@ -27,6 +35,7 @@ public class ProductsMapper {
             .description(description)
             .price(product.price())
             .category(category)
+            .stockTracked(false)
             .build();
     }
 
@@ -2,18 +2,23 @@ package ecommerce.service.products.mapper;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Locale;
 
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import ecommerce.configuration.database.SearchFunctionContributor;
 import ecommerce.dto.products.InProductFilters;
-import ecommerce.repository.categories.CategoriesRepository;
 import ecommerce.repository.categories.entity.Category;
 import ecommerce.repository.products.entity.Product;
+import ecommerce.service.products.ProductsSearchIndex;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,7 +27,33 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class ProductsSpecificationMapper {
 
-    private final CategoriesRepository categoriesRepository;
+    private final ProductsSearchIndex productsSearchIndex;
+
+    /**
+     * Normalized filters used as the key of total count cache.
+     * Filters selecting the same products produce equal keys.
+     */
+    public record CountKey(
+        String name,
+        String search,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Long category
+    ) {
+        public boolean isUnfiltered() {
+            return name == null && search == null && minPrice == null && maxPrice == null && category == null;
+        }
+    }
+
+    public CountKey mapToCountKey(InProductFilters filters) {
+        return new CountKey(
+            filters.name() != null ? filters.name().toUpperCase() : null,
+            filters.search() != null ? String.join(" ", ProductsSearchIndex.toWords(filters.search())) : null,
+            filters.minPrice() != null ? filters.minPrice().stripTrailingZeros() : null,
+            filters.maxPrice() != null ? filters.maxPrice().stripTrailingZeros() : null,
+            filters.category()
+        );
+    }
 
     public Specification<Product> mapToSpecification(InProductFilters filters) {
         return (root, query, cb) -> {
@@ -38,6 +69,34 @@ public class ProductsSpecificationMapper {
                 predicates.add(predicate);
             }
 
+            final var search = filters.search();
+            if (search != null) {
+                final var words = ProductsSearchIndex.toWords(search);
+                final Path<String> path = root.get("name");
+                if (words.isEmpty()) {
+                    predicates.add(cb.disjunction()); // search without any word matches nothing
+                } else if (productsSearchIndex.isFullText()) {
+                    final Predicate predicate = cb.isTrue(cb.function(
+                        SearchFunctionContributor.FTS_MATCH,
+                        Boolean.class,
+                        path,
+                        cb.literal(ProductsSearchIndex.toPrefixQuery(words))
+                    ));
+                    predicates.add(predicate);
+                } else {
+                    // Like tsquery of full-text search, every word has to prefix
+                    // some word of the name (words separated by spaces)
+                    for (final var word : words) {
+                        final var upperWord = word.toUpperCase(Locale.ROOT);
+                        final Predicate predicate = cb.or(
+                            cb.like(cb.upper(path), upperWord + "%"),
+                            cb.like(cb.upper(path), "% " + upperWord + "%")
+                        );
+                        predicates.add(predicate);
+                    }
+                }
+            }
+
             final var minPrice = filters.minPrice();
             if (minPrice != null) {
                 final Path<BigDecimal> path = root.get("price");
@@ -54,15 +113,16 @@ public class ProductsSpecificationMapper {
 
             final var category = filters.category();
             if (category != null) {
-                final var categoryIds = categoriesRepository.findCategoryIdsTree(category);
-                if (!categoryIds.isEmpty()) {
-                    final Join<Product, Category> join = root.join("category", JoinType.INNER);
-                    final Predicate predicate = join.get("id").in(categoryIds);
-                    predicates.add(predicate);
-                } else {
-                    log.warn("category with id={} does not exist", category);
-                    predicates.add(cb.disjunction()); // makes sure no product is found
-                }
+                // Bounds of the filtered category are read by the same query,
+                // missing category makes both subqueries null and matches nothing
+                final Join<Product, Category> join = root.join("category", JoinType.INNER);
+                final Path<Integer> path = join.get("treeLeft");
+                final Predicate predicate = cb.between(
+                    path,
+                    categoryBound(query, cb, category, "treeLeft"),
+                    categoryBound(query, cb, category, "treeRight")
+                );
+                predicates.add(predicate);
             }
 
             if (predicates.isEmpty()) {
@@ -72,4 +132,58 @@ public class ProductsSpecificationMapper {
             }
         };
     }
+
+    /**
+     * @return subquery selecting nested set bound of the category
+     */
+    private static Subquery<Integer> categoryBound(
+        CriteriaQuery<?> query,
+        CriteriaBuilder cb,
+        long categoryId,
+        String attribute
+    ) {
+        final var subquery = query.subquery(Integer.class);
+        final var category = subquery.from(Category.class);
+        return subquery
+            .select(category.get(attribute))
+            .where(cb.equal(category.get("id"), categoryId));
+    }
+
+    /**
+     * Orders products by relevance to 'search' (most relevant first).
+     * Relevance is available only with full-text search, otherwise
+     * (or without 'search') the specification does nothing.
+     * Orders set by specification precede the page's sort.
+     *
+     * @param filters
+     * @return specification ordering the query
+     */
+    public Specification<Product> mapToRelevanceOrder(InProductFilters filters) {
+        return (root, query, cb) -> {
+            if (!isOrderedByRelevance(filters)) {
+                return null;
+            }
+            final var words = ProductsSearchIndex.toWords(filters.search());
+
+            final Path<String> path = root.get("name");
+            query.orderBy(cb.desc(cb.function(
+                SearchFunctionContributor.FTS_RANK,
+                Float.class,
+                path,
+                cb.literal(ProductsSearchIndex.toPrefixQuery(words))
+            )));
+            return null;
+        };
+    }
+
+    /**
+     * @param filters
+     * @return true when mapToRelevanceOrder orders products by relevance
+     * (instead of by ID only)
+     */
+    public boolean isOrderedByRelevance(InProductFilters filters) {
+        return filters.search() != null
+            && productsSearchIndex.isFullText()
+            && !ProductsSearchIndex.toWords(filters.search()).isEmpty();
+    }
 }
@@ -1,13 +1,9 @@
 package ecommerce.service.utils;
 
-import java.util.Arrays;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 
+import ecommerce.configuration.auth.AuthRoleSet;
+import ecommerce.configuration.auth.RolesJwtAuthenticationToken;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
@@ -21,13 +17,9 @@ public class AuthUtils {
      */
     public static boolean userHasAnyRole(
         Authentication user,
-        String... requiredRoles
+        AuthRoleSet requiredRoles
     ) {
-        final var userRoles = extractUserRoles(user);
-        final var hasAnyRole = Stream.of(requiredRoles)
-            .anyMatch(requiredRole -> userRoles.contains(requiredRole));
-
-        return hasAnyRole;
+        return extractUserRoles(user).containsAny(requiredRoles);
     }
 
     /**
@@ -37,20 +29,17 @@ public class AuthUtils {
      */
     public static boolean userHasAllRoles(
         Authentication user,
-        String... requiredRoles
+        AuthRoleSet requiredRoles
     ) {
-        final var userRoles = extractUserRoles(user);
-        final var requredRolesList = Arrays.asList(requiredRoles);
-        final var hasAllRoles = userRoles.containsAll(requredRolesList);
-
-        return hasAllRoles;
+        return extractUserRoles(user).containsAll(requiredRoles);
     }
 
-    private static Set<String> extractUserRoles(Authentication user) {
-        final var userRoles = user.getAuthorities()
-            .stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.toSet());
-        return userRoles;
+    private static AuthRoleSet extractUserRoles(Authentication user) {
+        // Roles of JWT users are computed once per token
+        if (user instanceof RolesJwtAuthenticationToken token) {
+            return token.getRoles();
+        }
+
+        return AuthRoleSet.fromAuthorities(user.getAuthorities());
     }
 }
@@ -0,0 +1,127 @@
+package ecommerce.service.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.lang.Nullable;
+
+import ecommerce.exception.ValidationException;
+
+/**
+ * Reads CSV (RFC 4180) records one by one, so the whole input is never buffered.
+ * Fields may be quoted, quoted fields can contain separators, line breaks
+ * and escaped quotes ("").
+ */
+public class CsvReader {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final int EOF = -1;
+
+    private final Reader reader;
+
+    private int line = 1;
+    private int recordLine = 1;
+    private int peeked = EOF - 1;
+
+    /**
+     * @param reader should be buffered
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return line number where the last read record started (1-based)
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Reads next record
+     *
+     * @return fields of the record or null at the end of input
+     * @throws IOException
+     * @throws ValidationException quoted field is not closed or is followed by other characters
+     */
+    @Nullable
+    public List<String> readRecord() throws IOException, ValidationException {
+        recordLine = line;
+        var c = read();
+        if (c == EOF) {
+            return null;
+        }
+
+        final var fields = new ArrayList<String>();
+        final var field = new StringBuilder();
+        while (true) {
+            if (c == QUOTE && field.isEmpty()) {
+                readQuoted(field);
+                c = read();
+                if (c != SEPARATOR && c != '\n' && c != '\r' && c != EOF) {
+                    throw new ValidationException(
+                        "line %d: unexpected character after quoted field".formatted(line)
+                    );
+                }
+                continue;
+            }
+
+            if (c == SEPARATOR) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private void readQuoted(StringBuilder field) throws IOException, ValidationException {
+        while (true) {
+            final var c = read();
+            if (c == EOF) {
+                throw new ValidationException(
+                    "line %d: quoted field is not closed".formatted(recordLine)
+                );
+            }
+            if (c == QUOTE) {
+                if (peek() != QUOTE) {
+                    return;
+                }
+                read();
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int peek() throws IOException {
+        if (peeked < EOF) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private int read() throws IOException {
+        final int c;
+        if (peeked >= EOF) {
+            c = peeked;
+            peeked = EOF - 1;
+        } else {
+            c = reader.read();
+        }
+
+        if (c == '\n') {
+            ++line;
+        }
+        return c;
+    }
+}
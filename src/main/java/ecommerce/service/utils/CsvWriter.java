@@ -0,0 +1,58 @@
+package ecommerce.service.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV (RFC 4180) records.
+ * Fields containing separators, quotes or line breaks are quoted,
+ * null fields are written as empty ones.
+ */
+public class CsvWriter {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+
+    /**
+     * @param writer should be buffered
+     */
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes single record, fields are converted with toString()
+     *
+     * @param fields
+     * @throws IOException
+     */
+    public void writeRecord(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; ++i) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            if (fields[i] != null) {
+                writeField(fields[i].toString());
+            }
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeField(String field) throws IOException {
+        final var quoted = field.indexOf(SEPARATOR) >= 0
+            || field.indexOf(QUOTE) >= 0
+            || field.indexOf('\n') >= 0
+            || field.indexOf('\r') >= 0;
+        if (!quoted) {
+            writer.write(field);
+            return;
+        }
+
+        writer.write(QUOTE);
+        writer.write(field.replace("\"", "\"\""));
+        writer.write(QUOTE);
+    }
+}
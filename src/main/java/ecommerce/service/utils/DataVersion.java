@@ -0,0 +1,37 @@
+package ecommerce.service.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of data maintained by a service, incremented by every write
+ * of the service. Used to create strong ETags without accessing the database.
+ *
+ * Version starts from 0 after each restart, so ETags also contain
+ * random epoch of the process to never match ETags created before restart.
+ */
+public class DataVersion {
+
+    private static final String EPOCH = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+    private final AtomicLong version = new AtomicLong();
+
+    public void increment() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return ETag (without quotes) of the whole data
+     */
+    public String eTag() {
+        return EPOCH + "-" + version.get();
+    }
+
+    /**
+     * @param id
+     * @return ETag (without quotes) of the single resource
+     */
+    public String eTag(long id) {
+        return eTag() + "-" + id;
+    }
+}
@@ -0,0 +1,145 @@
+package ecommerce.service.utils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded read-through cache of small, rarely changing reference data
+ * (e.g. active countries).
+ *
+ * Single values are loaded by ID on miss, list of all values is
+ * loaded once and kept as immutable snapshot. Owner of the data
+ * invalidates changed IDs after each write, values loaded concurrently
+ * with invalidation are discarded.
+ *
+ * Cached values are shared between requests and must not be modified.
+ *
+ * @param <V> type of single value
+ * @param <L> type of list element
+ */
+@Slf4j
+public class ReferenceCache<V, L> {
+
+    private final String name;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<Long, V> values = new ConcurrentHashMap<>();
+    private volatile List<L> list;
+    /**
+     * Incremented by every invalidation
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param name name of the cache (used as metrics tag)
+     * @param maxSize maximum number of cached single values
+     * @param meterRegistry registry of hit/miss metrics
+     */
+    public ReferenceCache(String name, int maxSize, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxSize = maxSize;
+
+        this.hits = Counter.builder("ecommerce.cache.gets")
+            .tag("cache", name)
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("ecommerce.cache.gets")
+            .tag("cache", name)
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder("ecommerce.cache.size", values, ConcurrentHashMap::size)
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Finds value by ID, loads it on miss.
+     * Missing values are not cached.
+     *
+     * @param id
+     * @param loader loads value from the database
+     * @return found value
+     */
+    public Optional<V> find(long id, LongFunction<Optional<V>> loader) {
+        final var cached = values.get(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        final var loadVersion = version.get();
+        final var loaded = loader.apply(id);
+        if (loaded.isPresent() && values.size() < maxSize) {
+            values.put(id, loaded.get());
+            if (version.get() != loadVersion) {
+                // Invalidated while loading, loaded value may be stale
+                values.remove(id);
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Finds all values, loads them on miss
+     *
+     * @param loader loads all values from the database
+     * @return immutable list of all values
+     */
+    public List<L> findAll(Supplier<List<L>> loader) {
+        final var cached = list;
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        final var loadVersion = version.get();
+        final var loaded = List.copyOf(loader.get());
+        synchronized (this) {
+            if (version.get() == loadVersion) {
+                list = loaded;
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Invalidates value with ID and list of all values
+     *
+     * @param id
+     */
+    public void invalidate(long id) {
+        synchronized (this) {
+            version.incrementAndGet();
+            list = null;
+        }
+        values.remove(id);
+        log.debug("invalidated cache={} id={}", name, id);
+    }
+
+    /**
+     * Invalidates list of all values (e.g. after creating new value)
+     */
+    public void invalidateAll() {
+        synchronized (this) {
+            version.incrementAndGet();
+            list = null;
+        }
+        log.debug("invalidated cache={} list", name);
+    }
+}
@@ -0,0 +1,365 @@
+package ecommerce.service.utils;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Size-bounded read-through cache of frequently requested values
+ * with W-TinyLFU eviction policy.
+ *
+ * New values enter small LRU window (1% of the capacity). Value leaving
+ * the window competes with the least recently used value of the main space
+ * and the one requested more often recently (estimated by count-min sketch)
+ * stays. Main space is segmented LRU, values requested again are protected
+ * from one-off requests. So long tail of rarely requested values
+ * (e.g. crawlers) cannot flush the hot values.
+ *
+ * Cached values are read without blocking, the access is recorded
+ * in the policy only when its lock is free (dropped accesses only make
+ * the policy less precise). Owner of the data invalidates changed IDs
+ * after each write, values loaded concurrently with invalidation are discarded.
+ *
+ * Cached values are shared between requests and must not be modified.
+ *
+ * @param <V> type of the value
+ */
+@Slf4j
+public class TinyLfuCache<V> {
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private enum Segment { WINDOW, PROBATION, PROTECTED }
+
+    private final String name;
+    private final int windowMaxSize;
+    private final int mainMaxSize;
+    private final int protectedMaxSize;
+
+    private final ConcurrentHashMap<Long, V> values = new ConcurrentHashMap<>();
+
+    // Policy, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final HashMap<Long, Segment> segments = new HashMap<>();
+    private final LinkedHashSet<Long> window = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> probation = new LinkedHashSet<>();
+    private final LinkedHashSet<Long> protectedValues = new LinkedHashSet<>();
+    /**
+     * Incremented by every invalidation
+     */
+    private long version;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loads;
+
+    /**
+     * @param name name of the cache (used as metrics tag)
+     * @param maxSize maximum number of cached values (0 disables the cache)
+     * @param meterRegistry registry of hit/miss, eviction and load time metrics
+     */
+    public TinyLfuCache(String name, int maxSize, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.windowMaxSize = Math.min(maxSize, Math.max(1, maxSize * WINDOW_PERCENT / 100));
+        this.mainMaxSize = maxSize - windowMaxSize;
+        this.protectedMaxSize = mainMaxSize * PROTECTED_PERCENT / 100;
+        this.sketch = new FrequencySketch(maxSize);
+
+        this.hits = Counter.builder("ecommerce.cache.gets")
+            .tag("cache", name)
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("ecommerce.cache.gets")
+            .tag("cache", name)
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("ecommerce.cache.evictions")
+            .description("values evicted to keep the cache within its maximum size")
+            .tag("cache", name)
+            .register(meterRegistry);
+        this.loads = Timer.builder("ecommerce.cache.loads")
+            .description("time spent loading missing values")
+            .tag("cache", name)
+            .register(meterRegistry);
+        Gauge.builder("ecommerce.cache.size", values, ConcurrentHashMap::size)
+            .tag("cache", name)
+            .register(meterRegistry);
+        Gauge.builder("ecommerce.cache.hit.ratio", this, TinyLfuCache::hitRatio)
+            .description("hits of all gets since the start")
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Finds value by ID, loads it on miss.
+     * Missing values are not cached.
+     *
+     * @param id
+     * @param loader loads value from the database
+     * @return found value
+     */
+    public Optional<V> find(long id, LongFunction<Optional<V>> loader) {
+        final var cached = values.get(id);
+        if (cached != null) {
+            hits.increment();
+            if (lock.tryLock()) {
+                try {
+                    recordAccess(id);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        final long loadVersion;
+        lock.lock();
+        try {
+            loadVersion = version;
+        } finally {
+            lock.unlock();
+        }
+
+        final var loadStart = System.nanoTime();
+        final var loaded = loader.apply(id);
+        loads.record(System.nanoTime() - loadStart, TimeUnit.NANOSECONDS);
+
+        lock.lock();
+        try {
+            sketch.increment(id);
+            // Invalidated while loading, loaded value may be stale
+            if (loaded.isPresent() && version == loadVersion) {
+                put(id, loaded.get());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Invalidates value with ID
+     *
+     * @param id
+     */
+    public void invalidate(long id) {
+        lock.lock();
+        try {
+            ++version;
+            final var segment = segments.remove(id);
+            if (segment != null) {
+                segmentValues(segment).remove(id);
+                values.remove(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.debug("invalidated cache={} id={}", name, id);
+    }
+
+    /**
+     * Invalidates all values (frequencies of requests are kept)
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            ++version;
+            segments.clear();
+            window.clear();
+            probation.clear();
+            protectedValues.clear();
+            values.clear();
+        } finally {
+            lock.unlock();
+        }
+        log.debug("invalidated cache={} all", name);
+    }
+
+    private double hitRatio() {
+        final var hitCount = hits.count();
+        final var total = hitCount + misses.count();
+        return total > 0 ? hitCount / total : 0;
+    }
+
+    private LinkedHashSet<Long> segmentValues(Segment segment) {
+        return switch (segment) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            case PROTECTED -> protectedValues;
+        };
+    }
+
+    private void recordAccess(long id) {
+        sketch.increment(id);
+
+        final var segment = segments.get(id);
+        if (segment == null) {
+            // evicted or invalidated since it was read
+            return;
+        }
+        switch (segment) {
+            case WINDOW -> moveToTail(window, id);
+            case PROBATION -> {
+                probation.remove(id);
+                protect(id);
+            }
+            case PROTECTED -> moveToTail(protectedValues, id);
+        }
+    }
+
+    private void put(long id, V value) {
+        if (segments.containsKey(id)) {
+            // loaded concurrently by another request
+            values.put(id, value);
+            return;
+        }
+        if (windowMaxSize == 0) {
+            return;
+        }
+
+        values.put(id, value);
+        segments.put(id, Segment.WINDOW);
+        window.add(id);
+        if (window.size() > windowMaxSize) {
+            admit(pollFirst(window));
+        }
+    }
+
+    /**
+     * Moves value leaving the window to the main space,
+     * if it is requested more often than the main space's victim
+     */
+    private void admit(long candidate) {
+        if (probation.size() + protectedValues.size() < mainMaxSize) {
+            probation.add(candidate);
+            segments.put(candidate, Segment.PROBATION);
+            return;
+        }
+
+        final var victims = !probation.isEmpty() ? probation : protectedValues;
+        if (victims.isEmpty()) {
+            evict(candidate);
+            return;
+        }
+
+        final var victim = victims.iterator().next();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            evict(victim);
+            probation.add(candidate);
+            segments.put(candidate, Segment.PROBATION);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    private void protect(long id) {
+        protectedValues.add(id);
+        segments.put(id, Segment.PROTECTED);
+        if (protectedValues.size() > protectedMaxSize) {
+            final var demoted = pollFirst(protectedValues);
+            probation.add(demoted);
+            segments.put(demoted, Segment.PROBATION);
+        }
+    }
+
+    private void evict(long id) {
+        segments.remove(id);
+        values.remove(id);
+        evictions.increment();
+    }
+
+    private static void moveToTail(LinkedHashSet<Long> segmentValues, long id) {
+        segmentValues.remove(id);
+        segmentValues.add(id);
+    }
+
+    private static long pollFirst(LinkedHashSet<Long> segmentValues) {
+        final var iterator = segmentValues.iterator();
+        final var first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+
+    /**
+     * Count-min sketch estimating how often IDs were requested recently.
+     * Counters saturate at 15 and all of them are halved after
+     * 10 times capacity increments, so old popularity fades out.
+     */
+    private static class FrequencySketch {
+
+        private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L,
+            0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L
+        };
+        private static final int MAX_COUNT = 15;
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maxSize) {
+            final var width = Integer.highestOneBit(Math.max(16, maxSize - 1) << 1);
+            this.counters = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        int frequency(long id) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < SEEDS.length; ++row) {
+                frequency = Math.min(frequency, counters[row][index(id, row)]);
+            }
+            return frequency;
+        }
+
+        void increment(long id) {
+            boolean incremented = false;
+            for (int row = 0; row < SEEDS.length; ++row) {
+                final var index = index(id, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    ++counters[row][index];
+                    incremented = true;
+                }
+            }
+
+            if (incremented && ++additions >= sampleSize) {
+                for (final var row : counters) {
+                    for (int i = 0; i < row.length; ++i) {
+                        row[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        /**
+         * Seeded murmur3 finalizer, rows are hashed independently
+         */
+        private int index(long id, int row) {
+            var hash = id ^ SEEDS[row];
+            hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+            hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return (int) hash & mask;
+        }
+    }
+}
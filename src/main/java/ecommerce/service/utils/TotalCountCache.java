@@ -0,0 +1,143 @@
+package ecommerce.service.utils;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Short living cache of pages' total counts.
+ *
+ * Count query often costs more than fetching the page itself
+ * and its result barely changes between requests for the following pages,
+ * so it is reused for 'ttl' for the same (normalized) filters.
+ * Keys must implement equals/hashCode (e.g. records).
+ */
+@Component
+@Slf4j
+public class TotalCountCache {
+
+    private record Entry(long count, long expiresAt) {}
+
+    /**
+     * Percentage of entries evicted at once when the cache is full
+     */
+    private static final int EVICTED_PERCENT = 10;
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final long estimateMinRows;
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * @param ttl how long counted total stays valid
+     * @param maxSize maximum number of cached totals
+     * @param estimateMinRows estimate is used instead of counting
+     * only when table has at least that many rows
+     */
+    public TotalCountCache(
+        @Value("${ecommerce.pagination.count-cache.ttl}") Duration ttl,
+        @Value("${ecommerce.pagination.count-cache.max-size}") int maxSize,
+        @Value("${ecommerce.pagination.estimated-count.min-rows}") long estimateMinRows
+    ) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.estimateMinRows = estimateMinRows;
+    }
+
+    /**
+     * Returns cached total or counts it when it is missing or expired
+     *
+     * @param key normalized filters
+     * @param exactCount executes count query
+     * @return total count
+     */
+    public long count(Object key, LongSupplier exactCount) {
+        final var now = System.nanoTime();
+
+        final var cached = entries.get(key);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            log.debug("using cached total count={}", cached.count());
+            return cached.count();
+        }
+
+        final var count = exactCount.getAsLong();
+        put(key, new Entry(count, now + ttlNanos));
+
+        return count;
+    }
+
+    /**
+     * Like count(Object, LongSupplier) but for unfiltered queries of large tables
+     * uses planner's estimate instead of executing count query
+     *
+     * @param key normalized filters
+     * @param estimatedCount estimates count of all rows of the table
+     * @param exactCount executes count query
+     * @return total count (possibly estimated)
+     */
+    public long countOrEstimate(
+        Object key,
+        Supplier<OptionalLong> estimatedCount,
+        LongSupplier exactCount
+    ) {
+        return count(key, () -> {
+            final var estimate = estimatedCount.get();
+            if (estimate.isPresent() && estimate.getAsLong() >= estimateMinRows) {
+                log.debug("using estimated total count={}", estimate.getAsLong());
+                return estimate.getAsLong();
+            }
+
+            return exactCount.getAsLong();
+        });
+    }
+
+    private void put(Object key, Entry entry) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            evict();
+        }
+
+        entries.put(key, entry);
+    }
+
+    /**
+     * Removes expired entries. When the cache is still full, removes
+     * the oldest entries (all entries live for the same 'ttl'), several
+     * at once so the sorting is amortized over the following puts.
+     * Only one thread evicts, others do not wait for it.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            final var now = System.nanoTime();
+            entries.values().removeIf(cached -> cached.expiresAt() - now <= 0);
+
+            if (entries.size() >= maxSize) {
+                final var evicted = entries.size() - maxSize + Math.max(1, maxSize * EVICTED_PERCENT / 100);
+                entries.entrySet()
+                    .stream()
+                    .sorted(Comparator.comparingLong(cached -> cached.getValue().expiresAt() - now))
+                    .limit(evicted)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+                log.debug("evicted oldest total counts count={}", evicted);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
@@ -1,30 +1,93 @@
 package ecommerce.service.utils.mapper;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.function.Function;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import ecommerce.dto.shared.InPagination;
 import ecommerce.dto.shared.OutPage;
+import ecommerce.exception.ValidationException;
+import jakarta.persistence.criteria.Path;
 import lombok.RequiredArgsConstructor;
 
 @Component
 @RequiredArgsConstructor
 public class PaginationMapper {
 
+    /**
+     * Both pagination modes sort by ID, so cursor created from
+     * offset page can be used to fetch the following page
+     */
+    private static final Sort SORT = Sort.by("id");
+
+    public boolean isCursorPagination(InPagination pagination) {
+        return pagination.after() != null;
+    }
+
+    /**
+     * @param pagination
+     * @return true unless client explicitly opted out of total count
+     */
+    public boolean isTotalRequested(InPagination pagination) {
+        return !Boolean.FALSE.equals(pagination.withTotal());
+    }
+
     public PageRequest intoPageRequest(InPagination pagination) {
         return PageRequest.of(
             pagination.pageIdx(),
-            pagination.pageSize()
+            pagination.pageSize(),
+            SORT
         );
     }
 
+    /**
+     * @param pagination
+     * @return first page request, cursor specification selects the rows
+     */
+    public PageRequest intoCursorPageRequest(InPagination pagination) {
+        return PageRequest.of(0, pagination.pageSize(), SORT);
+    }
+
+    /**
+     * Creates seek predicate (id > last ID from the cursor)
+     *
+     * @param <E>
+     * @param pagination
+     * @return specification selecting rows after the cursor
+     * @throws ValidationException cursor is invalid
+     */
+    public <E> Specification<E> intoCursorSpecification(
+        InPagination pagination
+    ) throws ValidationException {
+        final var lastId = decodeCursor(pagination.after());
+
+        return (root, query, cb) -> {
+            final Path<Long> path = root.get("id");
+            return cb.greaterThan(path, lastId);
+        };
+    }
+
+    /**
+     * @param <T>
+     * @param <E>
+     * @param pageEntities
+     * @param mapFn
+     * @param idFn ID of the page's last element becomes the cursor,
+     * null when the page is not sorted by ID (no cursor)
+     * @return page
+     */
     public <T, E> OutPage<T> fromPage(
         Page<E> pageEntities,
-        Function<E, T> mapFn
+        Function<E, T> mapFn,
+        Function<T, Long> idFn
     ) {
         final Page<T> pageDto = pageEntities.map(mapFn);
         final Pageable pageable = pageDto.getPageable();
@@ -35,6 +98,72 @@ public class PaginationMapper {
             .pageSize(pageable.getPageSize())
             .totalPages(pageDto.getTotalPages())
             .totalElements(pageDto.getTotalElements())
+            .nextCursor(nextCursor(pageDto, idFn))
             .build();
     }
+
+    /**
+     * @param <T>
+     * @param <E>
+     * @param sliceEntities
+     * @param mapFn
+     * @param idFn ID of the slice's last element becomes the cursor,
+     * null when the slice is not sorted by ID (no cursor)
+     * @return page without total
+     */
+    public <T, E> OutPage<T> fromSlice(
+        Slice<E> sliceEntities,
+        Function<E, T> mapFn,
+        Function<T, Long> idFn
+    ) {
+        final Slice<T> sliceDto = sliceEntities.map(mapFn);
+        final Pageable pageable = sliceDto.getPageable();
+
+        return OutPage.<T>builder()
+            .content(sliceDto.getContent())
+            .pageIdx(pageable.getPageNumber())
+            .pageSize(pageable.getPageSize())
+            .nextCursor(nextCursor(sliceDto, idFn))
+            .build();
+    }
+
+    public <T, E> OutPage<T> fromCursorSlice(
+        Slice<E> sliceEntities,
+        Function<E, T> mapFn,
+        Function<T, Long> idFn
+    ) {
+        final Slice<T> sliceDto = sliceEntities.map(mapFn);
+
+        return OutPage.<T>builder()
+            .content(sliceDto.getContent())
+            .pageSize(sliceDto.getSize())
+            .nextCursor(nextCursor(sliceDto, idFn))
+            .build();
+    }
+
+    private <T> String nextCursor(Slice<T> slice, Function<T, Long> idFn) {
+        // Cursor continues ID order, it would skip or repeat rows of other orders
+        if (idFn == null || !slice.hasNext() || !slice.hasContent()) {
+            return null;
+        }
+
+        final var content = slice.getContent();
+        final var lastId = idFn.apply(content.get(content.size() - 1));
+        return encodeCursor(lastId);
+    }
+
+    private String encodeCursor(long lastId) {
+        final var bytes = Long.toString(lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private long decodeCursor(String cursor) throws ValidationException {
+        try {
+            final var bytes = Base64.getUrlDecoder().decode(cursor);
+            return Long.parseLong(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is IllegalArgumentException as well
+            throw new ValidationException("invalid pagination cursor: " + cursor);
+        }
+    }
 }
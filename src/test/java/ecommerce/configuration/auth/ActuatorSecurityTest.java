@@ -0,0 +1,76 @@
+package ecommerce.configuration.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import ecommerce.controller.utils.ControllerTestUtils;
+
+/**
+ * Actuator endpoints run in the whole application (outside of controller slices)
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:actuator;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "ecommerce.logging.level.console=WARN",
+    "ecommerce.logging.level.file=WARN"
+})
+@AutoConfigureMockMvc
+public class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void health_anonymous() throws Exception {
+        mvc
+            .perform(MockMvcRequestBuilders.get("/actuator/health"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+    }
+
+    @Test
+    public void metrics_anonymous() throws Exception {
+        mvc
+            .perform(MockMvcRequestBuilders.get("/actuator/metrics"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.UNAUTHORIZED));
+        mvc
+            .perform(MockMvcRequestBuilders.get("/actuator/metrics/ecommerce.cache.gets"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.UNAUTHORIZED));
+        mvc
+            .perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.UNAUTHORIZED));
+    }
+
+    @Test
+    public void metrics_withoutRole() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/actuator/metrics")
+                    .with(SecurityMockMvcRequestPostProcessors.jwt())
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.FORBIDDEN));
+    }
+
+    @Test
+    public void metrics_withRole() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/actuator/metrics")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.METRICS_VIEW))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+    }
+}
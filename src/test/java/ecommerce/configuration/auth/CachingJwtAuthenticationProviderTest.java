@@ -0,0 +1,147 @@
+package ecommerce.configuration.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingJwtAuthenticationProviderTest {
+
+    private static final int MAX_SIZE = 2;
+
+    private JwtDecoder jwtDecoder;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setupProvider() {
+        jwtDecoder = Mockito.mock(JwtDecoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        provider = new CachingJwtAuthenticationProvider(
+            jwtDecoder,
+            new JwtGrantedAuthConverter(),
+            MAX_SIZE,
+            meterRegistry
+        );
+    }
+
+    private void mockDecode(String token, Instant expiresAt) {
+        final var builder = Jwt.withTokenValue(token)
+            .header("alg", "HS256")
+            .subject("user")
+            .claim("realm_access", Map.of("roles", List.of(AuthRoles.ORDER_SEARCH)));
+        if (expiresAt != null) {
+            builder
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt);
+        }
+        Mockito
+            .doReturn(builder.build())
+            .when(jwtDecoder)
+            .decode(token);
+    }
+
+    private RolesJwtAuthenticationToken authenticate(String token) {
+        return (RolesJwtAuthenticationToken) provider.authenticate(new BearerTokenAuthenticationToken(token));
+    }
+
+    private double gets(String result) {
+        return meterRegistry
+            .get("ecommerce.cache.gets")
+            .tags("cache", "jwt", "result", result)
+            .counter()
+            .count();
+    }
+
+    @Test
+    public void authenticate_cachedUntilExpiration() {
+        mockDecode("token", Instant.now().plusSeconds(60));
+
+        final var first = authenticate("token");
+        final var second = authenticate("token");
+
+        Mockito.verify(jwtDecoder, Mockito.times(1)).decode("token");
+        assertNotSame(first, second);
+        assertEquals("user", second.getName());
+        assertTrue(second.getRoles().containsAll(AuthRoleSet.of(AuthRoles.ORDER_SEARCH)));
+        assertEquals(1.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+        assertEquals(1.0, meterRegistry.get("ecommerce.cache.size").gauge().value());
+    }
+
+    @Test
+    public void authenticate_expiredTokenDecodedAgain() {
+        mockDecode("token", Instant.now().minusSeconds(1));
+
+        authenticate("token");
+        authenticate("token");
+
+        Mockito.verify(jwtDecoder, Mockito.times(2)).decode("token");
+    }
+
+    @Test
+    public void authenticate_tokenWithoutExpirationNotCached() {
+        mockDecode("token", null);
+
+        authenticate("token");
+        authenticate("token");
+
+        Mockito.verify(jwtDecoder, Mockito.times(2)).decode("token");
+        assertEquals(0.0, meterRegistry.get("ecommerce.cache.size").gauge().value());
+    }
+
+    @Test
+    public void authenticate_sizeLimited() {
+        final var expiresAt = Instant.now().plusSeconds(60);
+        for (int i = 0; i < MAX_SIZE * 3; ++i) {
+            mockDecode("token" + i, expiresAt);
+            authenticate("token" + i);
+        }
+
+        assertTrue(meterRegistry.get("ecommerce.cache.size").gauge().value() <= MAX_SIZE);
+    }
+
+    @Test
+    public void authenticate_fullCacheEvictsSoonestExpiring() {
+        final var now = Instant.now();
+        for (int i = 0; i <= MAX_SIZE; ++i) {
+            mockDecode("token" + i, now.plusSeconds(60 + i));
+            authenticate("token" + i);
+        }
+        Mockito.clearInvocations(jwtDecoder);
+
+        // Tokens that expire later stay cached
+        for (int i = 1; i <= MAX_SIZE; ++i) {
+            authenticate("token" + i);
+        }
+        Mockito.verifyNoInteractions(jwtDecoder);
+
+        authenticate("token0");
+        Mockito.verify(jwtDecoder).decode("token0");
+    }
+
+    @Test
+    public void authenticate_invalidToken() {
+        Mockito
+            .doThrow(new BadJwtException("invalid signature"))
+            .when(jwtDecoder)
+            .decode("token");
+
+        assertThrows(InvalidBearerTokenException.class, () -> authenticate("token"));
+    }
+}
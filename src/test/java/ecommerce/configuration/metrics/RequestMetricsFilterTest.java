@@ -0,0 +1,83 @@
+package ecommerce.configuration.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RequestMetricsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestMetricsFilter filter;
+
+    @BeforeEach
+    public void setupFilter() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestMetricsFilter(meterRegistry);
+    }
+
+    @Test
+    public void doFilter_recordsStatementsByRoutePattern() throws Exception {
+        final var request = new MockHttpServletRequest("GET", "/api/v1/products/12");
+        final var response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/products/{id}");
+            JdbcRequestStatistics.record(TimeUnit.MILLISECONDS.toNanos(2));
+            JdbcRequestStatistics.record(TimeUnit.MILLISECONDS.toNanos(3));
+        });
+
+        final var statements = meterRegistry
+            .find("ecommerce.http.requests.jdbc.statements")
+            .tags("method", "GET", "uri", "/api/v1/products/{id}", "status", "2xx")
+            .summary();
+        assertNotNull(statements);
+        assertEquals(1, statements.count());
+        assertEquals(2.0, statements.totalAmount());
+
+        final var time = meterRegistry
+            .find("ecommerce.http.requests.jdbc.time")
+            .tags("method", "GET", "uri", "/api/v1/products/{id}", "status", "2xx")
+            .timer();
+        assertNotNull(time);
+        assertEquals(5.0, time.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void doFilter_unknownRoute() throws Exception {
+        final var request = new MockHttpServletRequest("POST", "/api/v1/orders");
+        final var response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            ((MockHttpServletResponse) res).setStatus(401);
+        });
+
+        final var statements = meterRegistry
+            .find("ecommerce.http.requests.jdbc.statements")
+            .tags("method", "POST", "uri", "UNKNOWN", "status", "4xx")
+            .summary();
+        assertNotNull(statements);
+        assertEquals(0.0, statements.totalAmount());
+    }
+
+    @Test
+    public void record_outsideOfRequestIgnored() throws Exception {
+        JdbcRequestStatistics.record(1);
+
+        final var request = new MockHttpServletRequest("GET", "/api/v1/countries");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {});
+
+        final var statements = meterRegistry
+            .find("ecommerce.http.requests.jdbc.statements")
+            .summary();
+        assertEquals(0.0, statements.totalAmount());
+    }
+}
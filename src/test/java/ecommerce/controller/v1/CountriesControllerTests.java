@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -13,6 +14,7 @@ import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequ
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -81,6 +83,40 @@ public class CountriesControllerTests {
             .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
     }
 
+    @Test
+    public void getCountries_eTagReturned() throws Exception {
+        Mockito
+            .doReturn("\"etag\"")
+            .when(countriesService)
+            .getCountriesETag();
+
+        mvc
+            .perform(
+                MockMvcRequestBuilders.get("/api/v1/countries")
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK))
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"etag\""))
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    public void getCountries_statusCode304() throws Exception {
+        Mockito
+            .doReturn("\"etag\"")
+            .when(countriesService)
+            .getCountriesETag();
+
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/api/v1/countries")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"etag\"")
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.NOT_MODIFIED));
+
+        Mockito.verify(countriesService, Mockito.never()).getCountries();
+    }
+
     //#endregion
 
     //#region postCountry
@@ -1,5 +1,7 @@
 package ecommerce.controller.v1;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -11,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.Nullable;
@@ -27,6 +30,7 @@ import ecommerce.configuration.auth.JwtAuthConfiguration;
 import ecommerce.controller.utils.ControllerTestUtils;
 import ecommerce.dto.addresses.InAddress;
 import ecommerce.dto.orders.InOrder;
+import ecommerce.dto.orders.InOrderBatch;
 import ecommerce.dto.orders.InOrderCompletedAtUpdate;
 import ecommerce.dto.orders.InOrderProduct;
 import ecommerce.dto.payments.InPayment;
@@ -34,6 +38,8 @@ import ecommerce.dto.payments.InPaymentCompletedAtUpdate;
 import ecommerce.exception.ConflictException;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
+import ecommerce.service.orders.OrderSummariesService;
+import ecommerce.service.orders.OrdersExportService;
 import ecommerce.service.orders.OrdersService;
 
 @WebMvcTest(OrdersController.class)
@@ -47,6 +53,10 @@ public class OrdersControllerTests {
 
     @MockBean
     private OrdersService ordersService;
+    @MockBean
+    private OrdersExportService ordersExportService;
+    @MockBean
+    private OrderSummariesService orderSummariesService;
 
     //#region getOrders
 
@@ -120,6 +130,13 @@ public class OrdersControllerTests {
         );
     }
 
+    @Test
+    public void getOrders_pageSizeAboveMax() throws Exception {
+        test_getOrders_validation(
+            "/api/v1/orders?pageIdx=0&pageSize=2147483647"
+        );
+    }
+
     @Test
     public void getOrders_usernameBlank() throws Exception {
         test_getOrders_validation(
@@ -129,6 +146,115 @@ public class OrdersControllerTests {
 
     //#endregion
 
+    //#region getOrderSummaries
+
+    private void test_getOrderSummaries_authorization(
+        HttpStatus expectedStatus,
+        @Nullable RequestPostProcessor postProcessor
+    ) throws Exception {
+        var requestBuilder = MockMvcRequestBuilders.get("/api/v1/orders/summaries?pageIdx=0&pageSize=10");
+        if (postProcessor != null) {
+            requestBuilder = requestBuilder.with(postProcessor);
+        }
+
+        mvc
+            .perform(requestBuilder)
+            .andExpect(ControllerTestUtils.expectStatus(expectedStatus));
+    }
+
+    @Test
+    public void getOrderSummaries_statusCode200() throws Exception {
+        test_getOrderSummaries_authorization(
+            HttpStatus.OK,
+            SecurityMockMvcRequestPostProcessors.jwt()
+        );
+    }
+
+    @Test
+    public void getOrderSummaries_unauthorized() throws Exception {
+        test_getOrderSummaries_authorization(
+            HttpStatus.UNAUTHORIZED,
+            null
+        );
+    }
+
+    @Test
+    public void getOrderSummaries_pageSizeNull() throws Exception {
+        test_getOrders_validation(
+            "/api/v1/orders/summaries?pageIdx=0"
+        );
+    }
+
+    //#endregion
+
+    //#region exportOrders
+
+    @Test
+    public void exportOrders_ndjsonByDefault() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/api/v1/orders/export?completed=true")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.ORDER_SEARCH))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+
+        Mockito
+            .verify(ordersExportService, Mockito.times(1))
+            .exportOrdersNdjson(
+                Mockito.assertArg(filters -> assertEquals(true, filters.getCompleted())),
+                Mockito.any()
+            );
+    }
+
+    @Test
+    public void exportOrders_csv() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/api/v1/orders/export")
+                    .header(HttpHeaders.ACCEPT, "text/csv")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.ORDER_SEARCH))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+
+        Mockito
+            .verify(ordersExportService, Mockito.times(1))
+            .exportOrdersCsv(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void exportOrders_forbidden() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/api/v1/orders/export")
+                    .with(SecurityMockMvcRequestPostProcessors.jwt())
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.FORBIDDEN));
+
+        Mockito
+            .verify(ordersExportService, Mockito.never())
+            .exportOrdersNdjson(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void exportOrders_unauthorized() throws Exception {
+        mvc
+            .perform(MockMvcRequestBuilders.get("/api/v1/orders/export"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.UNAUTHORIZED));
+    }
+
+    //#endregion
+
     //#region getOrder
     
     private void test_getOrder_authorization(
@@ -238,6 +364,19 @@ public class OrdersControllerTests {
         test_postOrder_authorization(HttpStatus.UNAUTHORIZED, null);
     }
 
+    @Test
+    public void postOrder_productOutOfStock() throws Exception {
+        Mockito
+            .doThrow(ConflictException.productOutOfStock(1L))
+            .when(ordersService)
+            .postOrder(Mockito.any(), Mockito.any());
+
+        test_postOrder_authorization(
+            HttpStatus.CONFLICT,
+            SecurityMockMvcRequestPostProcessors.jwt()
+        );
+    }
+
     @Test
     public void postOrder_productsNull() throws Exception {
         final var order = new InOrder(
@@ -555,6 +694,101 @@ public class OrdersControllerTests {
 
     //#endregion
 
+    //#region postOrders
+
+    private InOrder createInOrder() {
+        return new InOrder(
+            new InAddress(
+                "super straight street", 
+                "12", 
+                "12-345", 
+                "Baldur's Gate", 
+                1L
+            ),
+            new InPayment(1L),
+            List.of(
+                new InOrderProduct(1L, 10),
+                new InOrderProduct(2L, 15)
+            )
+        );
+    }
+
+    private void test_postOrders(
+        HttpStatus expectedStatus,
+        InOrderBatch batch,
+        @Nullable RequestPostProcessor postProcessor
+    ) throws Exception {
+        var requestBuilder = MockMvcRequestBuilders
+            .post("/api/v1/orders/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(batch));
+        if (postProcessor != null) {
+            requestBuilder = requestBuilder.with(postProcessor);
+        }
+
+        mvc
+            .perform(requestBuilder)
+            .andExpect(ControllerTestUtils.expectStatus(expectedStatus));
+    }
+
+    @Test
+    public void postOrders_statusCode200() throws Exception {
+        test_postOrders(
+            HttpStatus.OK,
+            new InOrderBatch(List.of(createInOrder(), createInOrder())),
+            SecurityMockMvcRequestPostProcessors.jwt()
+        );
+    }
+
+    @Test
+    public void postOrders_unauthorized() throws Exception {
+        test_postOrders(
+            HttpStatus.UNAUTHORIZED,
+            new InOrderBatch(List.of(createInOrder())),
+            null
+        );
+    }
+
+    @Test
+    public void postOrders_ordersEmpty() throws Exception {
+        test_postOrders(
+            HttpStatus.BAD_REQUEST,
+            new InOrderBatch(Collections.emptyList()),
+            SecurityMockMvcRequestPostProcessors.jwt()
+        );
+    }
+
+    @Test
+    public void postOrders_ordersContainInvalidOrder() throws Exception {
+        final var invalidOrder = new InOrder(
+            createInOrder().address(),
+            createInOrder().payment(),
+            Collections.emptyList()
+        );
+
+        test_postOrders(
+            HttpStatus.BAD_REQUEST,
+            new InOrderBatch(List.of(createInOrder(), invalidOrder)),
+            SecurityMockMvcRequestPostProcessors.jwt()
+        );
+    }
+
+    @Test
+    public void postOrders_tooManyOrders() throws Exception {
+        Mockito
+            .doThrow(ValidationException.class)
+            .when(ordersService)
+            .postOrders(Mockito.any(), Mockito.any());
+
+        test_postOrders(
+            HttpStatus.BAD_REQUEST,
+            new InOrderBatch(List.of(createInOrder())),
+            SecurityMockMvcRequestPostProcessors.jwt()
+        );
+    }
+
+    //#endregion
+
     //#region putOrderAddress
 
     private void test_putOrderAddress_authorization(
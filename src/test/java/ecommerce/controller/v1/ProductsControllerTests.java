@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.lang.Nullable;
@@ -16,6 +17,7 @@ import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequ
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.JwtRequestPostProcessor;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -24,9 +26,13 @@ import ecommerce.configuration.auth.JwtAuthConfiguration;
 import ecommerce.controller.utils.ControllerTestUtils;
 import ecommerce.dto.products.InProduct;
 import ecommerce.dto.products.InProductPatch;
+import ecommerce.dto.products.InProductStock;
 import ecommerce.dto.products.OutProductDetails;
+import ecommerce.dto.products.OutProductStock;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
+import ecommerce.service.inventory.InventoryService;
+import ecommerce.service.products.ProductsImportService;
 import ecommerce.service.products.ProductsService;
 
 @WebMvcTest(ProductsController.class)
@@ -40,6 +46,10 @@ public class ProductsControllerTests {
 
     @MockBean
     private ProductsService productsService;
+    @MockBean
+    private ProductsImportService productsImportService;
+    @MockBean
+    private InventoryService inventoryService;
 
     //#region getProducts
 
@@ -76,6 +86,31 @@ public class ProductsControllerTests {
             .getProducts(Mockito.any(), Mockito.any());
     }
 
+    @Test
+    public void getProducts_cursor() throws Exception {
+        final int pageSize = 10;
+        final String url = "/api/v1/products?pageSize=%d&after=%s"
+            .formatted(pageSize, "MTA");
+
+        mvc
+            .perform(MockMvcRequestBuilders.get(url))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+
+        Mockito
+            .verify(productsService, Mockito.times(1))
+            .getProducts(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void getProducts_pageIdxAndCursor() throws Exception {
+        final int pageSize = 10;
+        final int pageIdx = 2;
+        final String url = "/api/v1/products?pageSize=%d&pageIdx=%d&after=%s"
+            .formatted(pageSize, pageIdx, "MTA");
+
+        test_getProducts_validationException(url);
+    }
+
     @Test
     public void getProducts_pageSizeNull() throws Exception {
         final int pageIdx = 2;
@@ -351,6 +386,142 @@ public class ProductsControllerTests {
             .andExpect(ControllerTestUtils.expectStatus(HttpStatus.NOT_FOUND));
     }
 
+    @Test
+    public void getProduct_eTagReturned() throws Exception {
+        Mockito
+            .doReturn("\"etag-1\"")
+            .when(productsService)
+            .getProductETag(Mockito.anyLong());
+
+        mvc
+            .perform(MockMvcRequestBuilders.get("/api/v1/products/1"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK))
+            .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"etag-1\""));
+    }
+
+    @Test
+    public void getProduct_statusCode304() throws Exception {
+        Mockito
+            .doReturn("\"etag-1\"")
+            .when(productsService)
+            .getProductETag(Mockito.anyLong());
+
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .get("/api/v1/products/1")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"etag-1\"")
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.NOT_MODIFIED));
+
+        Mockito.verify(productsService, Mockito.never()).getProduct(Mockito.anyLong());
+    }
+
+    //#endregion
+
+    //#region importProducts
+
+    @Test
+    public void importProducts_ndjson() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .post("/api/v1/products/import")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"name\":\"name\",\"description\":\"description\",\"price\":1.00,\"category\":1}\n")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.PRODUCT_CREATE))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+
+        Mockito
+            .verify(productsImportService, Mockito.times(1))
+            .importProductsNdjson(Mockito.any());
+        Mockito
+            .verify(productsImportService, Mockito.never())
+            .importProductsCsv(Mockito.any());
+    }
+
+    @Test
+    public void importProducts_csv() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .post("/api/v1/products/import")
+                    .contentType("text/csv;charset=UTF-8")
+                    .content("name,description,price,category\nname,description,1.00,1\n")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.PRODUCT_CREATE))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK));
+
+        Mockito
+            .verify(productsImportService, Mockito.times(1))
+            .importProductsCsv(Mockito.any());
+    }
+
+    @Test
+    public void importProducts_unsupportedMediaType() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .post("/api/v1/products/import")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[]")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.PRODUCT_CREATE))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+    }
+
+    @Test
+    public void importProducts_forbidden() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .post("/api/v1/products/import")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("")
+                    .with(SecurityMockMvcRequestPostProcessors.jwt())
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.FORBIDDEN));
+
+        Mockito
+            .verify(productsImportService, Mockito.never())
+            .importProductsNdjson(Mockito.any());
+    }
+
+    @Test
+    public void importProducts_invalidCsv() throws Exception {
+        Mockito
+            .doThrow(ValidationException.class)
+            .when(productsImportService)
+            .importProductsCsv(Mockito.any());
+
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .post("/api/v1/products/import")
+                    .contentType("text/csv")
+                    .content("")
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.PRODUCT_CREATE))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.BAD_REQUEST));
+    }
+
     //#endregion
 
     //#region deleteProduct
@@ -601,4 +772,108 @@ public class ProductsControllerTests {
     }
 
     //#endregion
+
+    //#region productStock
+
+    @Test
+    public void getProductStock() throws Exception {
+        Mockito
+            .doReturn(OutProductStock.builder().productId(1L).tracked(true).available(10L).build())
+            .when(inventoryService)
+            .getStock(Mockito.eq(1L));
+
+        mvc
+            .perform(MockMvcRequestBuilders.get("/api/v1/products/1/stock"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.OK))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.available").value(10));
+    }
+
+    @Test
+    public void getProductStock_notFound() throws Exception {
+        Mockito
+            .doThrow(NotFoundException.class)
+            .when(inventoryService)
+            .getStock(Mockito.anyLong());
+
+        mvc
+            .perform(MockMvcRequestBuilders.get("/api/v1/products/1/stock"))
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    public void putProductStock_statusCode204() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .put("/api/v1/products/1/stock")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsBytes(new InProductStock(10L)))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.PRODUCT_UPDATE))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.NO_CONTENT));
+
+        Mockito
+            .verify(inventoryService)
+            .putStock(Mockito.eq(1L), Mockito.eq(new InProductStock(10L)));
+    }
+
+    @Test
+    public void putProductStock_unauthorized() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .put("/api/v1/products/1/stock")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsBytes(new InProductStock(10L)))
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.UNAUTHORIZED));
+
+        Mockito
+            .verify(inventoryService, Mockito.never())
+            .putStock(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    public void putProductStock_forbidden() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .put("/api/v1/products/1/stock")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsBytes(new InProductStock(10L)))
+                    .with(SecurityMockMvcRequestPostProcessors.jwt())
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.FORBIDDEN));
+
+        Mockito
+            .verify(inventoryService, Mockito.never())
+            .putStock(Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    public void putProductStock_negative() throws Exception {
+        mvc
+            .perform(
+                MockMvcRequestBuilders
+                    .put("/api/v1/products/1/stock")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsBytes(new InProductStock(-1L)))
+                    .with(
+                        SecurityMockMvcRequestPostProcessors
+                            .jwt()
+                            .authorities(new SimpleGrantedAuthority(AuthRoles.PRODUCT_UPDATE))
+                    )
+            )
+            .andExpect(ControllerTestUtils.expectStatus(HttpStatus.BAD_REQUEST));
+
+        Mockito
+            .verify(inventoryService, Mockito.never())
+            .putStock(Mockito.anyLong(), Mockito.any());
+    }
+
+    //#endregion
 }
@@ -1,31 +1,42 @@
 package ecommerce.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import ecommerce.dto.categories.InCategory;
+import ecommerce.dto.products.OutProductDetails;
 import ecommerce.exception.ConflictException;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
 import ecommerce.repository.categories.CategoriesRepository;
 import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.categories.projection.CategoryBounds;
 import ecommerce.service.categories.CategoriesService;
+import ecommerce.service.categories.CategoriesTreeIndex;
 import ecommerce.service.categories.mapper.CategoriesMapper;
+import ecommerce.service.utils.TinyLfuCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class CategoriesServiceTest {
 
     private CategoriesMapper categoriesMapper;
     private CategoriesRepository categoriesRepository;
+    private CategoriesTreeIndex categoriesTreeIndex;
+    private TinyLfuCache<OutProductDetails> productsCache;
 
     @BeforeEach
     public void setupDependencies() {
@@ -34,6 +45,8 @@ public class CategoriesServiceTest {
         // not contain any business logic
         categoriesMapper = new CategoriesMapper();
         categoriesRepository = Mockito.mock(CategoriesRepository.class);
+        categoriesTreeIndex = Mockito.mock(CategoriesTreeIndex.class);
+        productsCache = new TinyLfuCache<>("products", 100, new SimpleMeterRegistry());
     }
 
     /**
@@ -43,7 +56,12 @@ public class CategoriesServiceTest {
      * @return
      */
     private CategoriesService createService() {
-        return new CategoriesService(categoriesMapper, categoriesRepository);
+        return new CategoriesService(
+            categoriesMapper,
+            categoriesRepository,
+            categoriesTreeIndex,
+            productsCache
+        );
     }
 
     //#region findCategoryById
@@ -170,7 +188,7 @@ public class CategoriesServiceTest {
         Mockito
             .doThrow(DataIntegrityViolationException.class)
             .when(categoriesRepository)
-            .save(Mockito.any());
+            .saveAndFlush(Mockito.any());
 
         final var inCategory = new InCategory("name", null);
 
@@ -195,7 +213,7 @@ public class CategoriesServiceTest {
         Mockito
             .doReturn(category)
             .when(categoriesRepository)
-            .save(Mockito.any());
+            .saveAndFlush(Mockito.any());
 
         final var service = createService();
 
@@ -227,10 +245,14 @@ public class CategoriesServiceTest {
             .doReturn(Optional.of(parentCategory))
             .when(categoriesRepository)
             .findById(Mockito.eq(parentCategory.getId()));
+        Mockito
+            .doReturn(Optional.of(new CategoryBounds(parentCategory.getId(), 0, 0)))
+            .when(categoriesRepository)
+            .findCategoryBoundsById(Mockito.eq(parentCategory.getId()));
         Mockito
             .doReturn(category)
             .when(categoriesRepository)
-            .save(Mockito.any());
+            .saveAndFlush(Mockito.any());
 
         final var inCategory = new InCategory("new name", parentCategory.getId());
 
@@ -241,6 +263,12 @@ public class CategoriesServiceTest {
         assertEquals(category.getId(), out.id());
         assertEquals(category.getName(), out.name());
         assertEquals(category.getParentCategory().getId(), out.parentCategory());
+        Mockito
+            .verify(categoriesRepository, Mockito.times(1))
+            .openTreeGap(0, 0, 1);
+        Mockito
+            .verify(categoriesRepository, Mockito.times(1))
+            .updateTreeBounds(category.getId(), 1, 1);
     }
 
     //#endregion
@@ -314,7 +342,7 @@ public class CategoriesServiceTest {
         Mockito
             .doThrow(DataIntegrityViolationException.class)
             .when(categoriesRepository)
-            .save(Mockito.any());
+            .saveAndFlush(Mockito.any());
 
         final var inCategory = new InCategory("name", null);
 
@@ -411,6 +439,14 @@ public class CategoriesServiceTest {
             .doReturn(Optional.of(category2))
             .when(categoriesRepository)
             .findById(category2.getId());
+        Mockito
+            .doReturn(Optional.of(new CategoryBounds(category1.getId(), 0, 0)))
+            .when(categoriesRepository)
+            .findCategoryBoundsById(category1.getId());
+        Mockito
+            .doReturn(Optional.of(new CategoryBounds(category2.getId(), 0, 0)))
+            .when(categoriesRepository)
+            .findCategoryBoundsById(category2.getId());
 
         final var inCategory = new InCategory("new name", category2.getId());
 
@@ -420,12 +456,43 @@ public class CategoriesServiceTest {
 
         Mockito
             .verify(categoriesRepository, Mockito.times(1))
-            .save(
+            .saveAndFlush(
                 Mockito.assertArg((saved) -> {
                     assertEquals(category1.getId(), saved.getId());
                     assertEquals(inCategory.parentCategory(), saved.getParentCategory().getId());
                 })
             );
+        // category 1 moves out of the way, its position is removed
+        // and it is moved after category 2 (which is then at position 0)
+        final var inOrder = Mockito.inOrder(categoriesRepository);
+        inOrder.verify(categoriesRepository).shiftTreeBounds(0, 0, -1);
+        inOrder.verify(categoriesRepository).closeTreeGap(0, 0, 1);
+        inOrder.verify(categoriesRepository).openTreeGap(0, 0, 1);
+        inOrder.verify(categoriesRepository).shiftTreeBounds(-1, -1, 2);
+    }
+
+    @Test
+    public void putCategory_sameParent() throws NotFoundException, ConflictException, ValidationException {
+        final var category = Category.builder()
+            .id(1L)
+            .name("name 1")
+            .parentCategory(null)
+            .childCategories(Collections.emptyList())
+            .products(Collections.emptyList())
+            .build();
+
+        Mockito
+            .doReturn(Optional.of(category))
+            .when(categoriesRepository)
+            .findById(category.getId());
+
+        final var service = createService();
+
+        service.putCategory(category.getId(), new InCategory("new name", null));
+
+        Mockito
+            .verify(categoriesRepository, Mockito.never())
+            .shiftTreeBounds(Mockito.any(), Mockito.any(), Mockito.any());
     }
 
     //#endregion
@@ -488,6 +555,10 @@ public class CategoriesServiceTest {
             .doReturn(Optional.of(category))
             .when(categoriesRepository)
             .findById(Mockito.eq(category.getId()));
+        Mockito
+            .doReturn(Optional.of(new CategoryBounds(category.getId(), 3, 3)))
+            .when(categoriesRepository)
+            .findCategoryBoundsById(Mockito.eq(category.getId()));
 
         final var service = createService();
 
@@ -500,7 +571,97 @@ public class CategoriesServiceTest {
                     assertEquals(category.getId(), deleted.getId());
                 })
             );
+        Mockito
+            .verify(categoriesRepository, Mockito.times(1))
+            .closeTreeGap(3, 3, 1);
     }
     
+    @Test
+    public void deleteCategory_cachesInvalidatedAfterCommit() throws NotFoundException, ConflictException {
+        final var category = Category.builder()
+            .id(1L)
+            .name("name 1")
+            .parentCategory(null)
+            .childCategories(Collections.emptyList())
+            .products(Collections.emptyList())
+            .build();
+
+        Mockito
+            .doReturn(Optional.of(category))
+            .when(categoriesRepository)
+            .findById(Mockito.eq(category.getId()));
+
+        final var loads = new AtomicInteger();
+        final var productDetails = Mockito.mock(OutProductDetails.class);
+        productsCache.find(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(productDetails);
+        });
+
+        final var service = createService();
+        final var eTag = service.getCategoriesETag();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteCategory(category.getId());
+
+            // Concurrent readers still see the category until commit
+            assertEquals(eTag, service.getCategoriesETag());
+            productsCache.find(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(productDetails);
+            });
+            assertEquals(1, loads.get());
+
+            TransactionSynchronizationManager
+                .getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotEquals(eTag, service.getCategoriesETag());
+        productsCache.find(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(productDetails);
+        });
+        assertEquals(2, loads.get());
+    }
+    
+    //#endregion
+
+    //#region updateTreeBounds
+
+    @Test
+    public void updateTreeBounds_noStaleBounds() {
+        final var service = createService();
+
+        service.updateTreeBounds();
+
+        Mockito
+            .verify(categoriesRepository, Mockito.never())
+            .updateAllTreeBounds(Mockito.any());
+    }
+
+    @Test
+    public void updateTreeBounds() {
+        final var staleBounds = List.of(
+            new CategoryBounds(1L, 0, 1)
+        );
+
+        Mockito
+            .doReturn(staleBounds)
+            .when(categoriesTreeIndex)
+            .findStaleBounds();
+
+        final var service = createService();
+
+        service.updateTreeBounds();
+
+        Mockito
+            .verify(categoriesRepository, Mockito.times(1))
+            .updateAllTreeBounds(Mockito.eq(staleBounds));
+    }
+
     //#endregion
 }
@@ -0,0 +1,211 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.categories.InCategory;
+import ecommerce.dto.products.OutProductDetails;
+import ecommerce.repository.categories.CategoriesRepository;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.categories.projection.CategoryLink;
+import ecommerce.service.categories.CategoriesService;
+import ecommerce.service.categories.CategoriesTreeIndex;
+import ecommerce.service.categories.mapper.CategoriesMapper;
+import ecommerce.service.utils.TinyLfuCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Validates nested set bounds numbered by categories tree index
+ * and maintained by CategoriesService against recursive CTE
+ * executed by the database
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaConfiguration.class)
+public class CategoriesTreeIndexTest {
+
+    private static final int CATEGORIES_COUNT = 60;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+
+    private CategoriesTreeIndex categoriesTreeIndex;
+    private CategoriesService categoriesService;
+
+    @BeforeEach
+    public void setupService() {
+        categoriesTreeIndex = new CategoriesTreeIndex(categoriesRepository);
+        categoriesService = new CategoriesService(
+            new CategoriesMapper(),
+            categoriesRepository,
+            categoriesTreeIndex,
+            new TinyLfuCache<OutProductDetails>("products", 100, new SimpleMeterRegistry())
+        );
+    }
+
+    /**
+     * Creates (deep and wide) tree through the service
+     *
+     * @return IDs of created categories (in order of creation)
+     */
+    private List<Long> postCategories() throws Exception {
+        // Seeded, so every run builds the same tree
+        final var random = new Random(42);
+
+        final var ids = new ArrayList<Long>(CATEGORIES_COUNT);
+        for (int i = 0; i < CATEGORIES_COUNT; ++i) {
+            Long parentId = null;
+            if (i > 0 && random.nextInt(5) != 0) {
+                parentId = ids.get(random.nextInt(i));
+            }
+
+            ids.add(categoriesService.postCategory(new InCategory("category " + i, parentId)).id());
+        }
+        return ids;
+    }
+
+    /**
+     * @param categoryId
+     * @return IDs of the category and all its descendants, found by recursive CTE
+     */
+    @SuppressWarnings("unchecked")
+    private List<Long> findCategoryIdsTree(Long categoryId) {
+        return ((List<Number>) entityManager.getEntityManager()
+            .createNativeQuery("""
+                WITH RECURSIVE category_ids (id, parent_category_id) AS (
+                    SELECT id, parent_category_id FROM categories WHERE id = :categoryId
+                    UNION ALL
+                    SELECT c.id, c.parent_category_id FROM categories c INNER JOIN category_ids ids ON c.parent_category_id = ids.id
+                )
+                SELECT id FROM category_ids
+            """)
+            .setParameter("categoryId", categoryId)
+            .getResultList())
+            .stream()
+            .map(Number::longValue)
+            .toList();
+    }
+
+    private void assertBoundsMatchCte() {
+        final var links = categoriesRepository.findCategoryLinks();
+        for (final var link : links) {
+            final var expected = findCategoryIdsTree(link.id())
+                .stream()
+                .sorted()
+                .toList();
+            final var actual = links.stream()
+                .filter(other -> link.treeLeft() <= other.treeLeft())
+                .filter(other -> other.treeLeft() <= link.treeRight())
+                .map(CategoryLink::id)
+                .sorted()
+                .toList();
+
+            assertEquals(expected, actual, "subtree of category with id=%d".formatted(link.id()));
+        }
+
+        // Persisted order is kept, so application start rewrites nothing
+        assertTrue(categoriesTreeIndex.findStaleBounds().isEmpty());
+    }
+
+    @Test
+    public void findStaleBounds_unnumberedTree() {
+        // Categories inserted without the service have no bounds
+        final var random = new Random(42);
+        final var categories = new ArrayList<Category>(CATEGORIES_COUNT);
+        for (int i = 0; i < CATEGORIES_COUNT; ++i) {
+            Category parent = null;
+            if (i > 0 && random.nextInt(5) != 0) {
+                parent = categories.get(random.nextInt(i));
+            }
+
+            categories.add(categoriesRepository.saveAndFlush(Category.builder()
+                .name("category " + i)
+                .parentCategory(parent)
+                .build()
+            ));
+        }
+
+        final var staleBounds = categoriesTreeIndex.findStaleBounds();
+        assertEquals(CATEGORIES_COUNT, staleBounds.size());
+        categoriesRepository.updateAllTreeBounds(staleBounds);
+
+        assertBoundsMatchCte();
+    }
+
+    @Test
+    public void postCategory() throws Exception {
+        postCategories();
+
+        assertBoundsMatchCte();
+    }
+
+    @Test
+    public void postCategory_statementsIndependentOfTreeSize() throws Exception {
+        final var ids = postCategories();
+        entityManager.clear();
+
+        final var statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        // New child of the first category moves almost every other category
+        categoriesService.postCategory(new InCategory("new category", ids.get(0)));
+
+        assertTrue(
+            statistics.getPrepareStatementCount() <= 8,
+            "statements count=%d".formatted(statistics.getPrepareStatementCount())
+        );
+        assertBoundsMatchCte();
+    }
+
+    @Test
+    public void putCategory_moveSubtree() throws Exception {
+        final var ids = postCategories();
+
+        // Move every category that would not create a cycle under the last one
+        final var newParentId = ids.get(CATEGORIES_COUNT - 1);
+        for (final var id : ids.subList(0, 10)) {
+            if (findCategoryIdsTree(id).contains(newParentId)) {
+                continue;
+            }
+            categoriesService.putCategory(id, new InCategory("moved category " + id, newParentId));
+        }
+        assertBoundsMatchCte();
+
+        // and back to the root
+        for (final var id : ids.subList(0, 10)) {
+            categoriesService.putCategory(id, new InCategory("root category " + id, null));
+        }
+        assertBoundsMatchCte();
+    }
+
+    @Test
+    public void deleteCategory_leaves() throws Exception {
+        final var ids = postCategories();
+
+        for (final var id : ids) {
+            if (findCategoryIdsTree(id).size() == 1) {
+                categoriesService.deleteCategory(id);
+            }
+        }
+
+        assertBoundsMatchCte();
+    }
+}
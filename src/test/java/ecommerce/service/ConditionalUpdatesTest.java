@@ -0,0 +1,157 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.paymentmethods.PaymentMethodsRepository;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+
+/**
+ * Validates single-statement soft deletes and patches of products and payment methods
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaConfiguration.class)
+public class ConditionalUpdatesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private PaymentMethodsRepository paymentMethodsRepository;
+
+    private Statistics statistics;
+    private Category category;
+    private Category otherCategory;
+    private Product product;
+    private PaymentMethod paymentMethod;
+
+    @BeforeEach
+    public void setupEntities() {
+        category = entityManager.persist(Category.builder()
+            .name("category")
+            .build()
+        );
+        otherCategory = entityManager.persist(Category.builder()
+            .name("other category")
+            .build()
+        );
+        product = entityManager.persist(Product.builder()
+            .active(true)
+            .name("name")
+            .description("description")
+            .price(new BigDecimal("10.00"))
+            .category(category)
+            .build()
+        );
+        paymentMethod = entityManager.persist(PaymentMethod.builder()
+            .active(true)
+            .name("name")
+            .description("description")
+            .build()
+        );
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void products_deactivateById() {
+        assertEquals(1, productsRepository.deactivateById(product.getId()));
+        assertEquals(0, productsRepository.deactivateById(product.getId()));
+        assertEquals(0, productsRepository.deactivateById(product.getId() + 1000));
+        assertEquals(3, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        assertFalse(entityManager.find(Product.class, product.getId()).getActive());
+    }
+
+    @Test
+    public void products_patchById_nullPropertiesUnchanged() {
+        final var updated = productsRepository.patchById(
+            product.getId(),
+            null,
+            null,
+            new BigDecimal("4.99"),
+            null
+        );
+
+        assertEquals(1, updated);
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        final var patched = entityManager.find(Product.class, product.getId());
+        assertEquals("name", patched.getName());
+        assertEquals("description", patched.getDescription());
+        assertEquals(new BigDecimal("4.99"), patched.getPrice());
+        assertEquals(category.getId(), patched.getCategory().getId());
+    }
+
+    @Test
+    public void products_patchById_allProperties() {
+        final var updated = productsRepository.patchById(
+            product.getId(),
+            "new name",
+            "new description",
+            new BigDecimal("4.99"),
+            otherCategory.getId()
+        );
+
+        assertEquals(1, updated);
+
+        entityManager.clear();
+        final var patched = entityManager.find(Product.class, product.getId());
+        assertEquals("new name", patched.getName());
+        assertEquals("new description", patched.getDescription());
+        assertEquals(new BigDecimal("4.99"), patched.getPrice());
+        assertEquals(otherCategory.getId(), patched.getCategory().getId());
+    }
+
+    @Test
+    public void products_patchById_inactive() {
+        productsRepository.deactivateById(product.getId());
+
+        assertEquals(0, productsRepository.patchById(product.getId(), "new name", null, null, null));
+    }
+
+    @Test
+    public void paymentMethods_deactivateById() {
+        assertEquals(1, paymentMethodsRepository.deactivateById(paymentMethod.getId()));
+        assertEquals(0, paymentMethodsRepository.deactivateById(paymentMethod.getId()));
+
+        entityManager.clear();
+        assertFalse(entityManager.find(PaymentMethod.class, paymentMethod.getId()).getActive());
+    }
+
+    @Test
+    public void paymentMethods_patchById() {
+        assertEquals(1, paymentMethodsRepository.patchById(paymentMethod.getId(), null, "new description"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        final var patched = entityManager.find(PaymentMethod.class, paymentMethod.getId());
+        assertEquals("name", patched.getName());
+        assertEquals("new description", patched.getDescription());
+    }
+}
@@ -1,6 +1,7 @@
 package ecommerce.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.List;
@@ -13,26 +14,31 @@ import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import ecommerce.dto.countries.InCountry;
+import ecommerce.dto.countries.OutCountry;
 import ecommerce.exception.ConflictException;
 import ecommerce.exception.NotFoundException;
 import ecommerce.repository.countries.CountriesRepository;
 import ecommerce.repository.countries.entity.Country;
 import ecommerce.service.countries.CountriesService;
 import ecommerce.service.countries.mapper.CountriesMapper;
+import ecommerce.service.utils.ReferenceCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class CountriesServiceTest {
 
     private CountriesMapper countriesMapper;
     private CountriesRepository countriesRepository;
+    private ReferenceCache<Country, OutCountry> countriesCache;
 
     @BeforeEach
     public void setupDependencies() {
         countriesMapper = new CountriesMapper();
         countriesRepository = Mockito.mock(CountriesRepository.class);
+        countriesCache = new ReferenceCache<>("countries", 100, new SimpleMeterRegistry());
     }
 
     private CountriesService createService() {
-        return new CountriesService(countriesMapper, countriesRepository);
+        return new CountriesService(countriesMapper, countriesRepository, countriesCache);
     }
 
     //#region findByIdAndActive
@@ -75,6 +81,61 @@ public class CountriesServiceTest {
         assertEquals(country.getName(), out.getName());
     }
     
+    @Test
+    public void findByIdActive_cached() throws NotFoundException {
+        final var country = Country.builder()
+            .id(1L)
+            .active(true)
+            .name("name")
+            .build();
+
+        Mockito
+            .doReturn(Optional.of(country))
+            .when(countriesRepository)
+            .findByIdAndActiveTrue(Mockito.eq(country.getId()));
+
+        final var service = createService();
+
+        service.findByIdActive(country.getId());
+        final var out = service.findByIdActive(country.getId());
+
+        assertEquals(country.getId(), out.getId());
+        Mockito
+            .verify(countriesRepository, Mockito.times(1))
+            .findByIdAndActiveTrue(Mockito.eq(country.getId()));
+    }
+
+    @Test
+    public void findByIdActive_invalidatedByDelete() throws NotFoundException {
+        final var country = Country.builder()
+            .id(1L)
+            .active(true)
+            .name("name")
+            .build();
+
+        Mockito
+            .when(countriesRepository.findByIdAndActiveTrue(Mockito.eq(country.getId())))
+            .thenReturn(Optional.of(country))
+            // repository returns new instance every time
+            .thenReturn(Optional.of(Country.builder()
+                .id(country.getId())
+                .active(true)
+                .name(country.getName())
+                .build()))
+            .thenReturn(Optional.empty());
+
+        final var service = createService();
+
+        service.findByIdActive(country.getId());
+        service.deleteCountry(country.getId());
+
+        assertThrows(NotFoundException.class, () -> {
+            service.findByIdActive(country.getId());
+        });
+        // Cached entity is not modified by delete
+        assertEquals(true, country.getActive());
+    }
+
     //#endregion
 
     //#region getCountry
@@ -153,6 +214,40 @@ public class CountriesServiceTest {
         }
     }
 
+    @Test
+    public void getCountries_cachedUntilPosted() throws ConflictException {
+        final var country = Country.builder()
+            .id(1L)
+            .active(true)
+            .name("name")
+            .build();
+
+        Mockito
+            .doReturn(List.of(country))
+            .when(countriesRepository)
+            .findByActiveTrue();
+        Mockito
+            .doReturn(country)
+            .when(countriesRepository)
+            .save(Mockito.any());
+
+        final var service = createService();
+
+        final var first = service.getCountries();
+        final var second = service.getCountries();
+        assertSame(first, second);
+        Mockito
+            .verify(countriesRepository, Mockito.times(1))
+            .findByActiveTrue();
+
+        service.postCountry(new InCountry("name"));
+        service.getCountries();
+
+        Mockito
+            .verify(countriesRepository, Mockito.times(2))
+            .findByActiveTrue();
+    }
+
     //#endregion
 
     //#region postCountry
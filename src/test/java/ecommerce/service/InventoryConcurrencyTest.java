@@ -0,0 +1,329 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.products.InProductStock;
+import ecommerce.exception.ConflictException;
+import ecommerce.exception.NotFoundException;
+import ecommerce.repository.addresses.entity.Address;
+import ecommerce.repository.categories.CategoriesRepository;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.countries.CountriesRepository;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.inventory.StockReservationsRepository;
+import ecommerce.repository.inventory.StockShardsRepository;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderProduct;
+import ecommerce.repository.paymentmethods.PaymentMethodsRepository;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.payments.PaymentsRepository;
+import ecommerce.repository.payments.entity.Payment;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.inventory.InventoryService;
+
+/**
+ * Stress test of stock reservations.
+ * Many concurrent orders of the same products must never take more stock
+ * than available and orders of several products must not deadlock.
+ * Runs without test transaction, every reservation commits on its own.
+ */
+@DataJpaTest
+@Import(JpaConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InventoryConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SHARDS = 4;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+    @Autowired
+    private StockShardsRepository stockShardsRepository;
+    @Autowired
+    private StockReservationsRepository stockReservationsRepository;
+    @Autowired
+    private OrdersRepository ordersRepository;
+    @Autowired
+    private PaymentsRepository paymentsRepository;
+    @Autowired
+    private CountriesRepository countriesRepository;
+    @Autowired
+    private PaymentMethodsRepository paymentMethodsRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryService inventoryService;
+    private TransactionTemplate transactionTemplate;
+    private Category category;
+    private final ArrayList<Product> products = new ArrayList<>();
+    private final ArrayList<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    public void setupService() {
+        category = categoriesRepository.save(Category.builder()
+            .name("category")
+            .build()
+        );
+
+        inventoryService = new InventoryService(productsRepository, stockShardsRepository, stockReservationsRepository);
+        ReflectionTestUtils.setField(inventoryService, "shards", SHARDS);
+        ReflectionTestUtils.setField(inventoryService, "reservationTtl", Duration.ofMinutes(15));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        stockReservationsRepository.deleteAll();
+        for (final var order : orders) {
+            ordersRepository.deleteById(order.getId());
+            paymentsRepository.deleteById(order.getPayment().getId());
+            paymentMethodsRepository.deleteById(order.getPayment().getPaymentMethod().getId());
+            countriesRepository.deleteById(order.getAddress().getCountry().getId());
+        }
+        for (final var product : products) {
+            stockShardsRepository.deleteByProduct(product.getId());
+            productsRepository.deleteById(product.getId());
+        }
+        categoriesRepository.deleteById(category.getId());
+    }
+
+    private Product createProduct(long available) {
+        final var product = productsRepository.save(Product.builder()
+            .active(true)
+            .name("product")
+            .description("description")
+            .price(BigDecimal.ONE)
+            .category(category)
+            .stockTracked(false)
+            .build()
+        );
+        products.add(product);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                inventoryService.putStock(product.getId(), new InProductStock(available));
+            } catch (NotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return productsRepository.findById(product.getId()).orElseThrow();
+    }
+
+    private Order createOrder() {
+        final var order = ordersRepository.save(Order.builder()
+            .username("user")
+            .address(Address.builder()
+                .street("street")
+                .house("house")
+                .postalCode("postal code")
+                .city("city")
+                .country(countriesRepository.save(Country.builder()
+                    .active(true)
+                    .name("country")
+                    .build()
+                ))
+                .build()
+            )
+            .payment(Payment.builder()
+                .paymentMethod(paymentMethodsRepository.save(PaymentMethod.builder()
+                    .active(true)
+                    .name("payment method")
+                    .description("description")
+                    .build()
+                ))
+                .amount(BigDecimal.valueOf(30))
+                .build()
+            )
+            .orderedAt(LocalDateTime.now())
+            .build()
+        );
+        orders.add(order);
+        return order;
+    }
+
+    /**
+     * Sets order's products (in given order, not sorted)
+     *
+     * @param quantity quantity of every product
+     */
+    private Order withProducts(Order order, List<Product> orderedProducts, int quantity) {
+        order.setOrderProducts(orderedProducts.stream()
+            .map(product -> OrderProduct.builder()
+                .product(product)
+                .order(order)
+                .price(product.getPrice())
+                .quantity(quantity)
+                .build())
+            .toList()
+        );
+        return order;
+    }
+
+    /**
+     * Reserves stock of single unsaved order in its own transaction
+     *
+     * @return true when the order was accepted
+     */
+    private boolean reserve(List<Product> orderedProducts, int quantity) {
+        final var order = withProducts(new Order(), orderedProducts, quantity);
+        return transactionTemplate.execute(status -> inventoryService
+            .reserve(List.of(order))
+            .rejected()
+            .isEmpty()
+        );
+    }
+
+    private long available(Product product) {
+        return stockShardsRepository.sumAvailable(product.getId());
+    }
+
+    /**
+     * Runs 'request' concurrently from THREADS threads
+     *
+     * @return number of requests that returned true
+     */
+    private int countSuccesses(Callable<Boolean> request) throws Exception {
+        final var executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final var start = new CountDownLatch(1);
+            final var results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < THREADS; ++i) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return request.call();
+                }));
+            }
+            start.countDown();
+
+            int successes = 0;
+            for (final var result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    ++successes;
+                }
+            }
+            return successes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reserve_singleProduct_neverOversells() throws Exception {
+        final var product = createProduct(10);
+
+        final var successes = countSuccesses(() -> reserve(List.of(product), 1));
+
+        assertEquals(10, successes);
+        assertEquals(0, available(product));
+    }
+
+    @Test
+    public void reserve_quantityLargerThanShard_takesFromSeveralShards() throws Exception {
+        final var product = createProduct(20);
+
+        final var successes = countSuccesses(() -> reserve(List.of(product), 6));
+
+        assertEquals(3, successes);
+        assertEquals(2, available(product));
+    }
+
+    @Test
+    public void reserve_productsInOppositeOrder_noDeadlock() throws Exception {
+        final var first = createProduct(40);
+        final var second = createProduct(40);
+
+        final var requests = new AtomicInteger();
+        final var successes = countSuccesses(() -> {
+            // every other order lists the products in opposite order
+            final var orderedProducts = requests.getAndIncrement() % 2 == 0
+                ? List.of(first, second)
+                : List.of(second, first);
+            return reserve(orderedProducts, 15);
+        });
+
+        assertEquals(2, successes);
+        assertEquals(10, available(first));
+        assertEquals(10, available(second));
+    }
+
+    @Test
+    public void reserve_batch_rejectedOrderGivesBackStock() throws Exception {
+        final var first = createProduct(20);
+        final var second = createProduct(5);
+
+        final var accepted = withProducts(new Order(), List.of(first), 5);
+        final var rejected = withProducts(new Order(), List.of(first, second), 6);
+        final var reservations = transactionTemplate.execute(status -> inventoryService
+            .reserve(List.of(accepted, rejected))
+        );
+
+        assertEquals(1, reservations.rejected().size());
+        assertTrue(reservations.rejected().containsKey(rejected));
+        assertTrue(reservations.reservations().stream().allMatch(r -> r.getOrder() == accepted));
+        assertEquals(15, available(first));
+        assertEquals(5, available(second));
+    }
+
+    @Test
+    public void releaseReservation_expired_givesBackStockOnce() throws Exception {
+        final var product = createProduct(10);
+        final var order = withProducts(createOrder(), List.of(product), 4);
+        ReflectionTestUtils.setField(inventoryService, "reservationTtl", Duration.ofMinutes(-1));
+
+        transactionTemplate.executeWithoutResult(status -> inventoryService.saveReservations(
+            inventoryService.reserve(List.of(order)).reservations()
+        ));
+        assertEquals(6, available(product));
+
+        final var expired = inventoryService.findExpiredReservations(100);
+        assertFalse(expired.isEmpty());
+        for (final var id : expired) {
+            assertTrue(inventoryService.releaseReservation(id));
+            assertFalse(inventoryService.releaseReservation(id));
+        }
+        assertEquals(10, available(product));
+        assertTrue(inventoryService.findExpiredReservations(100).isEmpty());
+
+        // payment completed after expiry takes the stock again
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                inventoryService.confirm(order.getId());
+            } catch (ConflictException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertEquals(6, available(product));
+        assertEquals(0, stockReservationsRepository.count());
+    }
+}
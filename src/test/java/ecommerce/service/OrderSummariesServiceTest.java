@@ -0,0 +1,102 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.repository.orders.OrderSummariesRepository;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.payments.PaymentsRepository;
+import ecommerce.service.orders.OrderSummariesService;
+import ecommerce.service.orders.mapper.OrderSummariesMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.utils.TotalCountCache;
+import ecommerce.service.utils.mapper.PaginationMapper;
+
+public class OrderSummariesServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private OrderSummariesRepository orderSummariesRepository;
+    private OrdersRepository ordersRepository;
+    private PaymentsRepository paymentsRepository;
+
+    @BeforeEach
+    public void setupDependencies() {
+        orderSummariesRepository = Mockito.mock(OrderSummariesRepository.class);
+        ordersRepository = Mockito.mock(OrdersRepository.class);
+        paymentsRepository = Mockito.mock(PaymentsRepository.class);
+
+        Mockito
+            .doReturn(List.of(1L, 2L))
+            .when(orderSummariesRepository)
+            .findOrderIdsWithoutSummary(Mockito.eq(0L), Mockito.any(Limit.class));
+        Mockito
+            .doReturn(Collections.emptyList())
+            .when(orderSummariesRepository)
+            .findOrderIdsWithoutSummary(Mockito.eq(2L), Mockito.any(Limit.class));
+    }
+
+    private OrderSummariesService createService() {
+        final var service = new OrderSummariesService(
+            new OrderSummariesMapper(),
+            new OrdersSpecificationMapper(),
+            new PaginationMapper(),
+            new TotalCountCache(Duration.ofMinutes(1), 100, 100_000),
+            orderSummariesRepository,
+            ordersRepository,
+            paymentsRepository,
+            new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class))
+        );
+        ReflectionTestUtils.setField(service, "backfillBatchSize", 2);
+        ReflectionTestUtils.setField(service, "backfillMaxAttempts", MAX_ATTEMPTS);
+        return service;
+    }
+
+    @Test
+    public void backfillSummaries_failedBatchRetried() {
+        Mockito
+            .doThrow(new PessimisticLockingFailureException("lock timeout"))
+            .doReturn(Collections.emptyList())
+            .when(ordersRepository)
+            .findWithDetailsByIdIn(Mockito.any());
+
+        final var service = createService();
+
+        service.backfillSummaries();
+
+        assertEquals(true, ReflectionTestUtils.getField(service, "backfilled"));
+        Mockito
+            .verify(ordersRepository, Mockito.times(2))
+            .findWithDetailsByIdIn(Mockito.any());
+    }
+
+    @Test
+    public void backfillSummaries_failsAfterMaxAttempts() {
+        Mockito
+            .doThrow(new PessimisticLockingFailureException("lock timeout"))
+            .when(ordersRepository)
+            .findWithDetailsByIdIn(Mockito.any());
+
+        final var service = createService();
+
+        assertThrows(IllegalStateException.class, service::backfillSummaries);
+
+        assertEquals(false, ReflectionTestUtils.getField(service, "backfilled"));
+        Mockito
+            .verify(ordersRepository, Mockito.times(MAX_ATTEMPTS))
+            .findWithDetailsByIdIn(Mockito.any());
+    }
+}
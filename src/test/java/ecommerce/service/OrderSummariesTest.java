@@ -0,0 +1,337 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.addresses.InAddress;
+import ecommerce.dto.orders.InOrder;
+import ecommerce.dto.orders.InOrderCompletedAtUpdate;
+import ecommerce.dto.orders.InOrderFilters;
+import ecommerce.dto.orders.InOrderProduct;
+import ecommerce.dto.orders.OutOrderSummary;
+import ecommerce.dto.payments.InPayment;
+import ecommerce.dto.payments.InPaymentCompletedAtUpdate;
+import ecommerce.dto.shared.InPagination;
+import ecommerce.exception.ConflictException;
+import ecommerce.exception.NotFoundException;
+import ecommerce.exception.ValidationException;
+import ecommerce.repository.addresses.AddressesRepository;
+import ecommerce.repository.addresses.entity.Address;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.inventory.StockReservationsRepository;
+import ecommerce.repository.inventory.StockShardsRepository;
+import ecommerce.repository.orders.OrderProductsRepository;
+import ecommerce.repository.orders.OrderSummariesRepository;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderProduct;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.payments.PaymentsRepository;
+import ecommerce.repository.payments.entity.Payment;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.addresses.mapper.AddressesMapper;
+import ecommerce.service.countries.CountriesService;
+import ecommerce.service.inventory.InventoryService;
+import ecommerce.service.orders.OrderSummariesService;
+import ecommerce.service.orders.OrdersService;
+import ecommerce.service.orders.mapper.OrderProductsMapper;
+import ecommerce.service.orders.mapper.OrderSummariesMapper;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.paymentmethods.PaymentMethodsService;
+import ecommerce.service.payments.mapper.PaymentsMapper;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.TotalCountCache;
+import ecommerce.service.utils.mapper.PaginationMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+
+/**
+ * Order summaries written by OrdersService and read by OrderSummariesService
+ */
+@DataJpaTest
+@Import(JpaConfiguration.class)
+public class OrderSummariesTest {
+
+    private static final InPagination PAGINATION = new InPagination(10, 0, null, null);
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrdersRepository ordersRepository;
+    @Autowired
+    private OrderProductsRepository orderProductsRepository;
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private AddressesRepository addressesRepository;
+    @Autowired
+    private PaymentsRepository paymentsRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private OrderSummariesRepository orderSummariesRepository;
+    @Autowired
+    private StockShardsRepository stockShardsRepository;
+    @Autowired
+    private StockReservationsRepository stockReservationsRepository;
+
+    private OrdersService ordersService;
+    private OrderSummariesService orderSummariesService;
+    private Country country;
+    private PaymentMethod paymentMethod;
+    private Product cheapProduct;
+    private Product expensiveProduct;
+
+    @BeforeEach
+    public void setupServices() throws NotFoundException {
+        country = entityManager.persist(Country.builder()
+            .active(true)
+            .name("country")
+            .build()
+        );
+        paymentMethod = entityManager.persist(PaymentMethod.builder()
+            .active(true)
+            .name("payment method")
+            .description("description")
+            .build()
+        );
+        final var category = entityManager.persist(Category.builder()
+            .name("category")
+            .build()
+        );
+        cheapProduct = entityManager.persist(Product.builder()
+            .active(true)
+            .name("cheap")
+            .description("description")
+            .price(new BigDecimal("2.50"))
+            .category(category)
+            .build()
+        );
+        expensiveProduct = entityManager.persist(Product.builder()
+            .active(true)
+            .name("expensive")
+            .description("description")
+            .price(new BigDecimal("100.00"))
+            .category(category)
+            .build()
+        );
+        entityManager.flush();
+
+        final var countriesService = Mockito.mock(CountriesService.class);
+        Mockito
+            .doReturn(country)
+            .when(countriesService)
+            .findByIdActive(Mockito.anyLong());
+        final var paymentMethodsService = Mockito.mock(PaymentMethodsService.class);
+        Mockito
+            .doReturn(paymentMethod)
+            .when(paymentMethodsService)
+            .findByIdActive(Mockito.anyLong());
+
+        final var orderProductsMapper = new OrderProductsMapper(new ProductsMapper(new PassthroughUserInputSanitizer()));
+        final var addressesMapper = new AddressesMapper();
+        final var paymentsMapper = new PaymentsMapper();
+        final var totalCountCache = new TotalCountCache(Duration.ofMinutes(1), 100, 100_000);
+        orderSummariesService = new OrderSummariesService(
+            new OrderSummariesMapper(),
+            new OrdersSpecificationMapper(),
+            new PaginationMapper(),
+            totalCountCache,
+            orderSummariesRepository,
+            ordersRepository,
+            paymentsRepository,
+            transactionTemplate
+        );
+        ReflectionTestUtils.setField(orderSummariesService, "backfillBatchSize", 2);
+        ordersService = new OrdersService(
+            countriesService,
+            paymentMethodsService,
+            new OrdersMapper(orderProductsMapper, addressesMapper, paymentsMapper),
+            orderProductsMapper,
+            addressesMapper,
+            paymentsMapper,
+            new PaginationMapper(),
+            totalCountCache,
+            new OrdersSpecificationMapper(),
+            ordersRepository,
+            orderProductsRepository,
+            productsRepository,
+            addressesRepository,
+            paymentsRepository,
+            orderSummariesService,
+            new InventoryService(productsRepository, stockShardsRepository, stockReservationsRepository)
+        );
+    }
+
+    private long postOrder(String username) throws NotFoundException, ValidationException, ConflictException {
+        final var inOrder = new InOrder(
+            new InAddress("street", "house", "postal code", "city", country.getId()),
+            new InPayment(paymentMethod.getId()),
+            List.of(
+                new InOrderProduct(expensiveProduct.getId(), 1),
+                new InOrderProduct(cheapProduct.getId(), 2)
+            )
+        );
+        final var id = ordersService.postOrder(new TestingAuthenticationToken(username, null), inOrder).id();
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+    }
+
+    /**
+     * Order saved without summary (as before summaries existed)
+     */
+    private long createOrderWithoutSummary(String username) {
+        final var order = entityManager.persist(Order.builder()
+            .username(username)
+            .address(Address.builder()
+                .street("street")
+                .house("house")
+                .postalCode("postal code")
+                .city("city")
+                .country(country)
+                .build()
+            )
+            .payment(Payment.builder()
+                .paymentMethod(paymentMethod)
+                .amount(new BigDecimal("2.50"))
+                .build()
+            )
+            .orderedAt(LocalDateTime.now().minusDays(1))
+            .build()
+        );
+        entityManager.persist(OrderProduct.builder()
+            .order(order)
+            .product(cheapProduct)
+            .price(cheapProduct.getPrice())
+            .quantity(1)
+            .build()
+        );
+        entityManager.flush();
+        entityManager.clear();
+        return order.getId();
+    }
+
+    private List<OutOrderSummary> getOrderSummaries(Authentication user) throws ValidationException {
+        return orderSummariesService
+            .getOrderSummaries(user, new InOrderFilters(), PAGINATION)
+            .content();
+    }
+
+    @Test
+    public void postOrder_createsSummary() throws Exception {
+        final var id = postOrder("user");
+
+        final var summary = orderSummariesRepository.findById(id).orElseThrow();
+        assertEquals("user", summary.getUsername());
+        assertEquals("PENDING", summary.getStatus().name());
+        assertEquals(0, new BigDecimal("105.00").compareTo(summary.getTotalAmount()));
+        assertEquals(2, summary.getLineCount());
+        assertEquals(2, summary.getProducts().size());
+        assertEquals("cheap", summary.getProducts().get(0).name());
+        assertEquals(2, summary.getProducts().get(0).quantity());
+        assertEquals(0, new BigDecimal("2.50").compareTo(summary.getProducts().get(0).price()));
+        assertEquals("expensive", summary.getProducts().get(1).name());
+    }
+
+    @Test
+    public void getOrderSummaries_ownOrders() throws Exception {
+        final var id = postOrder("user");
+        postOrder("other user");
+        orderSummariesService.backfillSummaries();
+
+        final var summaries = getOrderSummaries(new TestingAuthenticationToken("user", null));
+
+        assertEquals(1, summaries.size());
+        assertEquals(id, summaries.get(0).id());
+        assertEquals(2, summaries.get(0).products().size());
+    }
+
+    @Test
+    public void getOrderSummaries_privileged() throws Exception {
+        postOrder("user");
+        postOrder("other user");
+        orderSummariesService.backfillSummaries();
+
+        final var summaries = getOrderSummaries(new TestingAuthenticationToken("admin", null, AuthRoles.ORDER_SEARCH));
+
+        assertEquals(2, summaries.size());
+    }
+
+    @Test
+    public void putOrderCompletedAt_updatesSummary() throws Exception {
+        final var id = postOrder("user");
+
+        ordersService.putOrderPaymentCompletedAt(id, new InPaymentCompletedAtUpdate(LocalDateTime.now()));
+        entityManager.clear();
+        assertEquals("PAID", orderSummariesRepository.findById(id).orElseThrow().getStatus().name());
+
+        ordersService.putOrderCompletedAt(id, new InOrderCompletedAtUpdate(LocalDateTime.now()));
+        entityManager.clear();
+        final var summary = orderSummariesRepository.findById(id).orElseThrow();
+        assertEquals("COMPLETED", summary.getStatus().name());
+        assertNotNull(summary.getCompletedAt());
+        assertNotNull(summary.getPaymentCompletedAt());
+    }
+
+    @Test
+    public void putOrderPaymentCompletedAt_completedOrderStaysCompleted() throws Exception {
+        final var id = postOrder("user");
+
+        ordersService.putOrderCompletedAt(id, new InOrderCompletedAtUpdate(LocalDateTime.now()));
+        ordersService.putOrderPaymentCompletedAt(id, new InPaymentCompletedAtUpdate(LocalDateTime.now()));
+        entityManager.clear();
+
+        assertEquals("COMPLETED", orderSummariesRepository.findById(id).orElseThrow().getStatus().name());
+    }
+
+    @Test
+    public void backfillSummaries() throws Exception {
+        final var user = new TestingAuthenticationToken("user", null);
+        final var oldIds = List.of(
+            createOrderWithoutSummary("user"),
+            createOrderWithoutSummary("user"),
+            createOrderWithoutSummary("user")
+        );
+        final var newId = postOrder("user");
+
+        // served from orders until summaries are complete
+        final var beforeBackfill = getOrderSummaries(user);
+        assertEquals(4, beforeBackfill.size());
+        assertEquals(0, new BigDecimal("2.50").compareTo(beforeBackfill.get(0).totalAmount()));
+        assertEquals(1, orderSummariesRepository.count());
+
+        orderSummariesService.backfillSummaries();
+        entityManager.clear();
+
+        assertEquals(4, orderSummariesRepository.count());
+        for (final var id : oldIds) {
+            final var summary = orderSummariesRepository.findById(id).orElseThrow();
+            assertEquals(1, summary.getLineCount());
+            assertEquals("cheap", summary.getProducts().get(0).name());
+        }
+        assertEquals(beforeBackfill, getOrderSummaries(user));
+        assertEquals(newId, getOrderSummaries(user).get(3).id());
+    }
+}
@@ -0,0 +1,311 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.orders.InOrderCompletedAtUpdate;
+import ecommerce.dto.payments.InPaymentCompletedAtUpdate;
+import ecommerce.exception.ConflictException;
+import ecommerce.repository.addresses.AddressesRepository;
+import ecommerce.repository.addresses.entity.Address;
+import ecommerce.repository.countries.CountriesRepository;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.inventory.StockReservationsRepository;
+import ecommerce.repository.inventory.StockShardsRepository;
+import ecommerce.repository.orders.OrderProductsRepository;
+import ecommerce.repository.orders.OrderSummariesRepository;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.paymentmethods.PaymentMethodsRepository;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.payments.PaymentsRepository;
+import ecommerce.repository.payments.entity.Payment;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.service.addresses.mapper.AddressesMapper;
+import ecommerce.service.countries.CountriesService;
+import ecommerce.service.inventory.InventoryService;
+import ecommerce.service.orders.OrderSummariesService;
+import ecommerce.service.orders.OrdersService;
+import ecommerce.service.orders.mapper.OrderProductsMapper;
+import ecommerce.service.orders.mapper.OrderSummariesMapper;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.paymentmethods.PaymentMethodsService;
+import ecommerce.service.payments.mapper.PaymentsMapper;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.TotalCountCache;
+import ecommerce.service.utils.mapper.PaginationMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+
+/**
+ * Stress test of order state transitions.
+ * Many concurrent requests try to complete the same order (and its payment),
+ * exactly one of them must succeed and the rest must get ConflictException.
+ * Runs without test transaction, so every request commits on its own.
+ */
+@DataJpaTest
+@Import(JpaConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrdersCompletionConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private OrdersRepository ordersRepository;
+    @Autowired
+    private OrderProductsRepository orderProductsRepository;
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private AddressesRepository addressesRepository;
+    @Autowired
+    private PaymentsRepository paymentsRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private OrderSummariesRepository orderSummariesRepository;
+    @Autowired
+    private StockShardsRepository stockShardsRepository;
+    @Autowired
+    private StockReservationsRepository stockReservationsRepository;
+    @Autowired
+    private CountriesRepository countriesRepository;
+    @Autowired
+    private PaymentMethodsRepository paymentMethodsRepository;
+
+    private OrdersService ordersService;
+    private Country country;
+    private PaymentMethod paymentMethod;
+    private final ArrayList<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    public void setupService() {
+        country = countriesRepository.save(Country.builder()
+            .active(true)
+            .name("country")
+            .build()
+        );
+        paymentMethod = paymentMethodsRepository.save(PaymentMethod.builder()
+            .active(true)
+            .name("payment method")
+            .description("description")
+            .build()
+        );
+
+        final var productsMapper = new ProductsMapper(new PassthroughUserInputSanitizer());
+        final var orderProductsMapper = new OrderProductsMapper(productsMapper);
+        final var addressesMapper = new AddressesMapper();
+        final var paymentsMapper = new PaymentsMapper();
+        final var totalCountCache = new TotalCountCache(Duration.ofMinutes(1), 100, 100_000);
+        final var orderSummariesService = new OrderSummariesService(
+            new OrderSummariesMapper(),
+            new OrdersSpecificationMapper(),
+            new PaginationMapper(),
+            totalCountCache,
+            orderSummariesRepository,
+            ordersRepository,
+            paymentsRepository,
+            transactionTemplate
+        );
+        ordersService = new OrdersService(
+            Mockito.mock(CountriesService.class),
+            Mockito.mock(PaymentMethodsService.class),
+            new OrdersMapper(orderProductsMapper, addressesMapper, paymentsMapper),
+            orderProductsMapper,
+            addressesMapper,
+            paymentsMapper,
+            new PaginationMapper(),
+            totalCountCache,
+            new OrdersSpecificationMapper(),
+            ordersRepository,
+            orderProductsRepository,
+            productsRepository,
+            addressesRepository,
+            paymentsRepository,
+            orderSummariesService,
+            new InventoryService(productsRepository, stockShardsRepository, stockReservationsRepository)
+        );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        orderSummariesRepository.deleteAllByIdInBatch(orders.stream().map(Order::getId).toList());
+        for (final var order : orders) {
+            ordersRepository.deleteById(order.getId());
+            paymentsRepository.deleteById(order.getPayment().getId());
+        }
+        paymentMethodsRepository.deleteById(paymentMethod.getId());
+        countriesRepository.deleteById(country.getId());
+    }
+
+    private Order createOrder() {
+        final var order = ordersRepository.save(Order.builder()
+            .username("user")
+            .address(Address.builder()
+                .street("street")
+                .house("house")
+                .postalCode("postal code")
+                .city("city")
+                .country(country)
+                .build()
+            )
+            .payment(Payment.builder()
+                .paymentMethod(paymentMethod)
+                .amount(BigDecimal.valueOf(30))
+                .build()
+            )
+            .orderedAt(LocalDateTime.now().minusDays(1))
+            .build()
+        );
+        orders.add(order);
+        return order;
+    }
+
+    /**
+     * Runs 'request' concurrently from THREADS threads
+     *
+     * @return number of requests that did not fail with ConflictException
+     */
+    private int countSuccesses(Callable<Void> request) throws Exception {
+        final var executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final var start = new CountDownLatch(1);
+            final var results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < THREADS; ++i) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        request.call();
+                        return true;
+                    } catch (ConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int successes = 0;
+            for (final var result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    ++successes;
+                }
+            }
+            return successes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void putOrderCompletedAt_completedExactlyOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; ++round) {
+            final var id = createOrder().getId();
+
+            final var successes = countSuccesses(() -> {
+                ordersService.putOrderCompletedAt(id, new InOrderCompletedAtUpdate(LocalDateTime.now()));
+                return null;
+            });
+
+            assertEquals(1, successes);
+            assertNotNull(ordersRepository.findById(id).orElseThrow().getCompletedAt());
+        }
+    }
+
+    @Test
+    public void putOrderPaymentCompletedAt_completedExactlyOnce() throws Exception {
+        for (int round = 0; round < ROUNDS; ++round) {
+            final var order = createOrder();
+            final var id = order.getId();
+
+            final var successes = countSuccesses(() -> {
+                ordersService.putOrderPaymentCompletedAt(id, new InPaymentCompletedAtUpdate(LocalDateTime.now()));
+                return null;
+            });
+
+            assertEquals(1, successes);
+            assertNotNull(paymentsRepository.findById(order.getPayment().getId()).orElseThrow().getCompletedAt());
+        }
+    }
+
+    @Test
+    public void backfillSummaries_orderCompletedWhileSummarized() throws Exception {
+        // Order created before summaries existed
+        final var id = createOrder().getId();
+
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final var completions = new ArrayList<Future<Void>>();
+            final OrdersRepository racingRepository = Mockito.mock(
+                OrdersRepository.class,
+                AdditionalAnswers.delegatesTo(ordersRepository)
+            );
+            Mockito
+                .doAnswer(invocation -> {
+                    final var orders = ordersRepository.findWithDetailsByIdIn(invocation.getArgument(0));
+                    // Order is completed after it was read, before its summary is committed
+                    final var completion = executor.<Void>submit(() -> {
+                        ordersService.putOrderCompletedAt(id, new InOrderCompletedAtUpdate(LocalDateTime.now()));
+                        return null;
+                    });
+                    completions.add(completion);
+                    try {
+                        completion.get(500, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // completion waits for the summarized order's lock
+                    }
+                    return orders;
+                })
+                .when(racingRepository)
+                .findWithDetailsByIdIn(Mockito.any());
+
+            final var racingService = new OrderSummariesService(
+                new OrderSummariesMapper(),
+                new OrdersSpecificationMapper(),
+                new PaginationMapper(),
+                new TotalCountCache(Duration.ofMinutes(1), 100, 100_000),
+                orderSummariesRepository,
+                racingRepository,
+                paymentsRepository,
+                transactionTemplate
+            );
+            ReflectionTestUtils.setField(racingService, "backfillBatchSize", 10);
+            ReflectionTestUtils.setField(racingService, "backfillMaxAttempts", 1);
+
+            racingService.backfillSummaries();
+            assertEquals(1, completions.size());
+            completions.get(0).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final var summary = orderSummariesRepository.findById(id).orElseThrow();
+        assertEquals("COMPLETED", summary.getStatus().name());
+        assertNotNull(summary.getCompletedAt());
+    }
+}
@@ -0,0 +1,106 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import ecommerce.dto.orders.InOrderFilters;
+import ecommerce.dto.orders.OutOrderExport;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.service.orders.OrdersExportService;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+
+public class OrdersExportServiceTest {
+
+    private static final int FETCH_SIZE = 100;
+
+    private OrdersRepository ordersRepository;
+    private AtomicBoolean streamClosed;
+
+    @BeforeEach
+    public void setupDependencies() {
+        ordersRepository = Mockito.mock(OrdersRepository.class);
+        streamClosed = new AtomicBoolean(false);
+
+        final var orderedAt = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        Mockito
+            .doAnswer(invocation -> Stream
+                .of(
+                    new OutOrderExport(1L, "user", orderedAt, null, "street", "1", "00-000", "city",
+                        1L, 2L, new BigDecimal("10.50"), null),
+                    new OutOrderExport(2L, "user", orderedAt, orderedAt, "street, \"main\"", "2", "00-000", "city",
+                        1L, 2L, new BigDecimal("20.00"), orderedAt)
+                )
+                .onClose(() -> streamClosed.set(true))
+            )
+            .when(ordersRepository)
+            .streamProjections(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.eq(OutOrderExport.class),
+                Mockito.eq(OrdersMapper.OUT_ORDER_EXPORT_ATTRIBUTES),
+                Mockito.eq(FETCH_SIZE)
+            );
+    }
+
+    private OrdersExportService createService() {
+        final var objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        final var service = new OrdersExportService(
+            ordersRepository,
+            new OrdersSpecificationMapper(),
+            objectMapper
+        );
+        ReflectionTestUtils.setField(service, "fetchSize", FETCH_SIZE);
+        return service;
+    }
+
+    @Test
+    public void exportOrdersNdjson() throws Exception {
+        final var writer = new StringWriter();
+
+        final var service = createService();
+
+        final var count = service.exportOrdersNdjson(new InOrderFilters(), writer);
+
+        final var lines = writer.toString().split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"username\":\"user\",\"orderedAt\":\"2024-01-02T03:04:05\""));
+        assertTrue(lines[1].contains("\"paymentAmount\":20.00"));
+        assertTrue(streamClosed.get());
+    }
+
+    @Test
+    public void exportOrdersCsv() throws Exception {
+        final var writer = new StringWriter();
+
+        final var service = createService();
+
+        final var count = service.exportOrdersCsv(new InOrderFilters(), writer);
+
+        final var lines = writer.toString().split("\r\n");
+        assertEquals(2, count);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,username,orderedAt,completedAt,"));
+        assertEquals("1,user,2024-01-02T03:04:05,,street,1,00-000,city,1,2,10.50,", lines[1]);
+        assertTrue(lines[2].startsWith("2,user,2024-01-02T03:04:05,2024-01-02T03:04:05,\"street, \"\"main\"\"\",2,"));
+        assertTrue(streamClosed.get());
+    }
+}
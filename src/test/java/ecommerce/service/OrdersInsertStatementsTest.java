@@ -0,0 +1,261 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.addresses.InAddress;
+import ecommerce.dto.orders.InOrder;
+import ecommerce.dto.orders.InOrderBatch;
+import ecommerce.dto.orders.InOrderProduct;
+import ecommerce.dto.payments.InPayment;
+import ecommerce.exception.ConflictException;
+import ecommerce.exception.NotFoundException;
+import ecommerce.exception.ValidationException;
+import ecommerce.repository.addresses.AddressesRepository;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.inventory.StockReservationsRepository;
+import ecommerce.repository.inventory.StockShardsRepository;
+import ecommerce.repository.orders.OrderProductsRepository;
+import ecommerce.repository.orders.OrderSummariesRepository;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.payments.PaymentsRepository;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.addresses.mapper.AddressesMapper;
+import ecommerce.service.countries.CountriesService;
+import ecommerce.service.inventory.InventoryService;
+import ecommerce.service.orders.OrderSummariesService;
+import ecommerce.service.orders.OrdersService;
+import ecommerce.service.orders.mapper.OrderProductsMapper;
+import ecommerce.service.orders.mapper.OrderSummariesMapper;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.paymentmethods.PaymentMethodsService;
+import ecommerce.service.payments.mapper.PaymentsMapper;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.TotalCountCache;
+import ecommerce.service.utils.mapper.PaginationMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Regression test of the orders write path.
+ * IDs are allocated from pooled sequences and inserts are sent
+ * in JDBC batches, so creating order executes roughly the same
+ * number of statements regardless of number of its products.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaConfiguration.class)
+@Slf4j
+public class OrdersInsertStatementsTest {
+
+    private static final int PRODUCTS_COUNT = 120;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrdersRepository ordersRepository;
+    @Autowired
+    private OrderProductsRepository orderProductsRepository;
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private AddressesRepository addressesRepository;
+    @Autowired
+    private PaymentsRepository paymentsRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private OrderSummariesRepository orderSummariesRepository;
+    @Autowired
+    private StockShardsRepository stockShardsRepository;
+    @Autowired
+    private StockReservationsRepository stockReservationsRepository;
+
+    private Statistics statistics;
+    private OrdersService ordersService;
+    private Country country;
+    private PaymentMethod paymentMethod;
+    private List<Product> products;
+
+    @BeforeEach
+    public void setupService() throws NotFoundException {
+        country = entityManager.persist(Country.builder()
+            .active(true)
+            .name("country")
+            .build()
+        );
+        paymentMethod = entityManager.persist(PaymentMethod.builder()
+            .active(true)
+            .name("payment method")
+            .description("description")
+            .build()
+        );
+        final var category = entityManager.persist(Category.builder()
+            .name("category")
+            .build()
+        );
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS_COUNT; ++i) {
+            products.add(entityManager.persist(Product.builder()
+                .active(true)
+                .name("product " + i)
+                .description("description " + i)
+                .price(BigDecimal.valueOf(10))
+                .category(category)
+                .build()
+            ));
+        }
+        entityManager.flush();
+
+        final var countriesService = Mockito.mock(CountriesService.class);
+        Mockito
+            .doReturn(country)
+            .when(countriesService)
+            .findByIdActive(Mockito.anyLong());
+        final var paymentMethodsService = Mockito.mock(PaymentMethodsService.class);
+        Mockito
+            .doReturn(paymentMethod)
+            .when(paymentMethodsService)
+            .findByIdActive(Mockito.anyLong());
+
+        final var productsMapper = new ProductsMapper(new PassthroughUserInputSanitizer());
+        final var orderProductsMapper = new OrderProductsMapper(productsMapper);
+        final var addressesMapper = new AddressesMapper();
+        final var paymentsMapper = new PaymentsMapper();
+        final var totalCountCache = new TotalCountCache(Duration.ofMinutes(1), 100, 100_000);
+        final var orderSummariesService = new OrderSummariesService(
+            new OrderSummariesMapper(),
+            new OrdersSpecificationMapper(),
+            new PaginationMapper(),
+            totalCountCache,
+            orderSummariesRepository,
+            ordersRepository,
+            paymentsRepository,
+            transactionTemplate
+        );
+        ordersService = new OrdersService(
+            countriesService,
+            paymentMethodsService,
+            new OrdersMapper(orderProductsMapper, addressesMapper, paymentsMapper),
+            orderProductsMapper,
+            addressesMapper,
+            paymentsMapper,
+            new PaginationMapper(),
+            totalCountCache,
+            new OrdersSpecificationMapper(),
+            ordersRepository,
+            orderProductsRepository,
+            productsRepository,
+            addressesRepository,
+            paymentsRepository,
+            orderSummariesService,
+            new InventoryService(productsRepository, stockShardsRepository, stockReservationsRepository)
+        );
+        ReflectionTestUtils.setField(ordersService, "batchMaxSize", 1000);
+
+        statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+    }
+
+    private InOrder createInOrder(int productsCount) {
+        final var orderProducts = products.stream()
+            .limit(productsCount)
+            .map(product -> new InOrderProduct(product.getId(), 1))
+            .toList();
+
+        return new InOrder(
+            new InAddress("street", "house", "postal code", "city", country.getId()),
+            new InPayment(paymentMethod.getId()),
+            orderProducts
+        );
+    }
+
+    private long countStatements(ThrowingRunnable runnable) throws Exception {
+        entityManager.clear();
+        statistics.clear();
+
+        runnable.run();
+        entityManager.flush();
+
+        log.info(
+            "statements={} inserts={}",
+            statistics.getPrepareStatementCount(),
+            statistics.getEntityInsertCount()
+        );
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countPostOrderStatements(int productsCount) throws Exception {
+        final var user = new TestingAuthenticationToken("user", null);
+        final var inOrder = createInOrder(productsCount);
+
+        return countStatements(() -> ordersService.postOrder(user, inOrder));
+    }
+
+    @Test
+    public void postOrder_statementsCountIndependentOfProductsCount() throws Exception {
+        // warm up sequences, so measured orders do not pay for initial allocation
+        countPostOrderStatements(1);
+
+        final var smallOrderStatements = countPostOrderStatements(1);
+        final var largeOrderStatements = countPostOrderStatements(PRODUCTS_COUNT);
+
+        // products + categories of products + (addresses, payments, orders, order_products, order_summaries) inserts
+        assertEquals(7, smallOrderStatements);
+        // additionally allocations of order_products sequence (block of 50 IDs each)
+        assertTrue(
+            largeOrderStatements <= 11,
+            "large order executed %d statements".formatted(largeOrderStatements)
+        );
+    }
+
+    @Test
+    public void postOrders_statementsCountIndependentOfOrdersCount() throws Exception {
+        countPostOrderStatements(1);
+
+        final var user = new TestingAuthenticationToken("user", null);
+        final var inOrders = new ArrayList<InOrder>();
+        for (int i = 0; i < 40; ++i) {
+            inOrders.add(createInOrder(3));
+        }
+
+        final var statements = countStatements(() -> {
+            final var out = ordersService.postOrders(user, new InOrderBatch(inOrders));
+            assertEquals(inOrders.size(), out.createdCount());
+        });
+
+        // 280 rows, yet only products, categories, allocations of sequences
+        // (block of 50 IDs each) and one batched insert per table
+        assertTrue(statements <= 13, "batch executed %d statements".formatted(statements));
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws NotFoundException, ValidationException, ConflictException;
+    }
+}
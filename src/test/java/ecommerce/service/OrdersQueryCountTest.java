@@ -0,0 +1,285 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.configuration.metrics.JdbcRequestStatistics;
+import ecommerce.dto.orders.InOrderFilters;
+import ecommerce.dto.orders.OutOrderExport;
+import ecommerce.repository.addresses.entity.Address;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.countries.entity.Country;
+import ecommerce.repository.orders.OrdersRepository;
+import ecommerce.repository.orders.entity.Order;
+import ecommerce.repository.orders.entity.OrderProduct;
+import ecommerce.repository.paymentmethods.entity.PaymentMethod;
+import ecommerce.repository.payments.entity.Payment;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.addresses.mapper.AddressesMapper;
+import ecommerce.service.orders.mapper.OrderProductsMapper;
+import ecommerce.service.orders.mapper.OrdersMapper;
+import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
+import ecommerce.service.payments.mapper.PaymentsMapper;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+
+/**
+ * Regression test of the orders read path.
+ * Loading and mapping page of orders must execute
+ * the same number of statements regardless of page size.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaConfiguration.class)
+public class OrdersQueryCountTest {
+
+    private static final int ORDERS_COUNT = 40;
+    private static final int PRODUCTS_PER_ORDER = 3;
+    private static final Sort SORT = Sort.by("id");
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrdersRepository ordersRepository;
+
+    private Statistics statistics;
+    private OrdersMapper ordersMapper;
+    private OrdersSpecificationMapper ordersSpecificationMapper;
+
+    @BeforeEach
+    public void setupOrders() {
+        final var productsMapper = new ProductsMapper(new PassthroughUserInputSanitizer());
+        ordersMapper = new OrdersMapper(
+            new OrderProductsMapper(productsMapper),
+            new AddressesMapper(),
+            new PaymentsMapper()
+        );
+        ordersSpecificationMapper = new OrdersSpecificationMapper();
+
+        // Every product has its own category with parent, so nothing is shared between orders
+        final var products = new ArrayList<Product>();
+        for (int i = 0; i < ORDERS_COUNT * PRODUCTS_PER_ORDER; ++i) {
+            final var parentCategory = entityManager.persist(Category.builder()
+                .name("parent category " + i)
+                .build()
+            );
+            final var category = entityManager.persist(Category.builder()
+                .name("category " + i)
+                .parentCategory(parentCategory)
+                .build()
+            );
+            products.add(entityManager.persist(Product.builder()
+                .active(true)
+                .name("product " + i)
+                .description("description " + i)
+                .price(BigDecimal.valueOf(10))
+                .category(category)
+                .build()
+            ));
+        }
+
+        for (int i = 0; i < ORDERS_COUNT; ++i) {
+            final var country = entityManager.persist(Country.builder()
+                .active(true)
+                .name("country " + i)
+                .build()
+            );
+            final var paymentMethod = entityManager.persist(PaymentMethod.builder()
+                .active(true)
+                .name("payment method " + i)
+                .description("description " + i)
+                .build()
+            );
+            final var order = entityManager.persist(Order.builder()
+                .username("user")
+                .address(Address.builder()
+                    .street("street")
+                    .house("house")
+                    .postalCode("postal code")
+                    .city("city")
+                    .country(country)
+                    .build()
+                )
+                .payment(Payment.builder()
+                    .paymentMethod(paymentMethod)
+                    .amount(BigDecimal.valueOf(30))
+                    .build()
+                )
+                .orderedAt(LocalDateTime.now())
+                .build()
+            );
+            for (int j = 0; j < PRODUCTS_PER_ORDER; ++j) {
+                entityManager.persist(OrderProduct.builder()
+                    .order(order)
+                    .product(products.get(i * PRODUCTS_PER_ORDER + j))
+                    .price(BigDecimal.valueOf(10))
+                    .quantity(1)
+                    .build()
+                );
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+    }
+
+    private long countStatements(Runnable runnable) {
+        entityManager.clear();
+        statistics.clear();
+
+        runnable.run();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countSliceStatements(int pageSize) {
+        final var specification = ordersSpecificationMapper
+            .mapToSpecification(new InOrderFilters(null, "user"));
+
+        return countStatements(() -> {
+            final var slice = ordersRepository.findSlice(
+                specification,
+                PageRequest.of(0, pageSize, SORT),
+                Order.DETAILS_GRAPH
+            );
+            assertEquals(pageSize, slice.getNumberOfElements());
+            slice.forEach(order -> {
+                final var outOrder = ordersMapper.fromEntity(order);
+                assertEquals(PRODUCTS_PER_ORDER, outOrder.orderProducts().size());
+            });
+        });
+    }
+
+    private long countPageStatements(int pageSize) {
+        final var specification = ordersSpecificationMapper
+            .mapToSpecification(new InOrderFilters(null, "user"));
+
+        return countStatements(() -> {
+            final var page = ordersRepository.findPage(
+                specification,
+                PageRequest.of(1, pageSize, SORT),
+                () -> ordersRepository.count(specification),
+                Order.DETAILS_GRAPH
+            );
+            assertEquals(ORDERS_COUNT, page.getTotalElements());
+            page.forEach(ordersMapper::fromEntity);
+        });
+    }
+
+    @Test
+    public void findSlice_fixedStatementsCount() {
+        // IDs of the page + orders with details
+        assertEquals(2, countSliceStatements(1));
+        assertEquals(2, countSliceStatements(5));
+        assertEquals(2, countSliceStatements(20));
+    }
+
+    @Test
+    public void findPage_fixedStatementsCount() {
+        // IDs of the page + orders with details + count
+        assertEquals(3, countPageStatements(1));
+        assertEquals(3, countPageStatements(5));
+        assertEquals(3, countPageStatements(15));
+    }
+
+    @Test
+    public void findWithDetailsById_singleStatement() {
+        final var orderId = ordersRepository.findAll(PageRequest.of(0, 1, SORT))
+            .getContent()
+            .get(0)
+            .getId();
+
+        final var statementsCount = countStatements(() -> {
+            final var order = ordersRepository.findWithDetailsById(orderId).orElseThrow();
+            ordersMapper.fromEntity(order);
+        });
+
+        assertEquals(1, statementsCount);
+    }
+
+    @Test
+    public void jdbcRequestStatistics_countsExecutedStatements() {
+        entityManager.clear();
+        final var requestStatistics = JdbcRequestStatistics.start();
+        try {
+            countSliceStatements(5);
+        } finally {
+            JdbcRequestStatistics.stop();
+        }
+
+        assertEquals(2, requestStatistics.getStatements());
+    }
+
+    @Test
+    public void findSlice_keepsOrder() {
+        final var specification = ordersSpecificationMapper
+            .mapToSpecification(new InOrderFilters(null, null));
+
+        final List<Long> expectedIds = ordersRepository
+            .findAll(specification, PageRequest.of(2, 7, SORT))
+            .map(Order::getId)
+            .getContent();
+        final List<Long> ids = ordersRepository
+            .findSlice(specification, PageRequest.of(2, 7, SORT), Order.DETAILS_GRAPH)
+            .map(Order::getId)
+            .getContent();
+
+        assertEquals(expectedIds, ids);
+    }
+
+    @Test
+    public void streamProjections_singleStatement() {
+        final var completedOrder = ordersRepository.findAll(PageRequest.of(0, 1, SORT))
+            .getContent()
+            .get(0);
+        completedOrder.setCompletedAt(LocalDateTime.now());
+        entityManager.flush();
+
+        final var specification = ordersSpecificationMapper
+            .mapToSpecification(new InOrderFilters(false, null));
+
+        final var rows = new ArrayList<OutOrderExport>();
+        final var statementsCount = countStatements(() -> {
+            try (final var stream = ordersRepository.streamProjections(
+                specification,
+                SORT,
+                OutOrderExport.class,
+                OrdersMapper.OUT_ORDER_EXPORT_ATTRIBUTES,
+                7
+            )) {
+                stream.forEach(rows::add);
+            }
+        });
+
+        assertEquals(1, statementsCount);
+        assertEquals(ORDERS_COUNT - 1, rows.size());
+        for (int i = 1; i < rows.size(); ++i) {
+            assertTrue(rows.get(i - 1).id() < rows.get(i).id());
+        }
+        final var row = rows.get(0);
+        assertEquals("city", row.city());
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(row.paymentAmount()));
+    }
+}
@@ -1,16 +1,19 @@
 package ecommerce.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,10 +30,12 @@ import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import ecommerce.configuration.auth.AuthRoles;
 import ecommerce.dto.addresses.InAddress;
 import ecommerce.dto.orders.InOrder;
+import ecommerce.dto.orders.InOrderBatch;
 import ecommerce.dto.orders.InOrderCompletedAtUpdate;
 import ecommerce.dto.orders.InOrderFilters;
 import ecommerce.dto.orders.InOrderProduct;
@@ -56,6 +61,8 @@ import ecommerce.repository.products.ProductsRepository;
 import ecommerce.repository.products.entity.Product;
 import ecommerce.service.addresses.mapper.AddressesMapper;
 import ecommerce.service.countries.CountriesService;
+import ecommerce.service.inventory.InventoryService;
+import ecommerce.service.orders.OrderSummariesService;
 import ecommerce.service.orders.OrdersService;
 import ecommerce.service.orders.mapper.OrderProductsMapper;
 import ecommerce.service.orders.mapper.OrdersMapper;
@@ -63,11 +70,14 @@ import ecommerce.service.orders.mapper.OrdersSpecificationMapper;
 import ecommerce.service.paymentmethods.PaymentMethodsService;
 import ecommerce.service.payments.mapper.PaymentsMapper;
 import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.TotalCountCache;
 import ecommerce.service.utils.mapper.PaginationMapper;
 import ecommerce.service.utils.sanitizer.IUserInputSanitizer;
 
 public class OrdersServiceTest {
 
+    private static final int BATCH_MAX_SIZE = 10;
+
     private CountriesService countriesService;
     private PaymentMethodsService paymentMethodsService;
     private OrdersMapper ordersMapper;
@@ -75,12 +85,15 @@ public class OrdersServiceTest {
     private AddressesMapper addressesMapper;
     private PaymentsMapper paymentsMapper;
     private PaginationMapper paginationMapper;
+    private TotalCountCache totalCountCache;
     private OrdersSpecificationMapper ordersSpecificationMapper;
     private OrdersRepository ordersRepository;
     private OrderProductsRepository orderProductsRepository;
     private ProductsRepository productsRepository;
     private AddressesRepository addressesRepository;
     private PaymentsRepository paymentsRepository;
+    private OrderSummariesService orderSummariesService;
+    private InventoryService inventoryService;
 
     // indirect dependencies
     private ProductsMapper productsMapper;
@@ -102,16 +115,23 @@ public class OrdersServiceTest {
         orderProductsMapper = new OrderProductsMapper(productsMapper);
         ordersMapper = new OrdersMapper(orderProductsMapper, addressesMapper, paymentsMapper);
         paginationMapper = new PaginationMapper();
+        totalCountCache = new TotalCountCache(Duration.ofMinutes(1), 100, 100_000);
         ordersSpecificationMapper = new OrdersSpecificationMapper();
         ordersRepository = Mockito.mock(OrdersRepository.class);
         orderProductsRepository = Mockito.mock(OrderProductsRepository.class);
         productsRepository = Mockito.mock(ProductsRepository.class);
         addressesRepository = Mockito.mock(AddressesRepository.class);
         paymentsRepository = Mockito.mock(PaymentsRepository.class);
+        orderSummariesService = Mockito.mock(OrderSummariesService.class);
+        inventoryService = Mockito.mock(InventoryService.class);
+        Mockito
+            .doReturn(new InventoryService.Reservations(List.of(), Map.of()))
+            .when(inventoryService)
+            .reserve(Mockito.any());
     }
 
     private OrdersService createService() {
-        return new OrdersService(
+        final var service = new OrdersService(
             countriesService, 
             paymentMethodsService, 
             ordersMapper, 
@@ -119,13 +139,19 @@ public class OrdersServiceTest {
             addressesMapper, 
             paymentsMapper, 
             paginationMapper, 
+            totalCountCache, 
             ordersSpecificationMapper, 
             ordersRepository, 
             orderProductsRepository, 
             productsRepository, 
             addressesRepository, 
-            paymentsRepository
+            paymentsRepository,
+            orderSummariesService,
+            inventoryService
         );
+        ReflectionTestUtils.setField(service, "batchMaxSize", BATCH_MAX_SIZE);
+
+        return service;
     }
 
     private Authentication createUser(String... roles) {
@@ -252,7 +278,7 @@ public class OrdersServiceTest {
         });
         Mockito
             .verify(ordersRepository, Mockito.never())
-            .findById(Mockito.anyLong());
+            .findWithDetailsById(Mockito.anyLong());
     }
 
     private void test_getOrder_notFound_privileged(String role) {
@@ -261,7 +287,7 @@ public class OrdersServiceTest {
         Mockito
             .doReturn(Optional.empty())
             .when(ordersRepository)
-            .findById(Mockito.anyLong());
+            .findWithDetailsById(Mockito.anyLong());
 
         final var service = createService();
 
@@ -290,7 +316,7 @@ public class OrdersServiceTest {
         Mockito
             .doReturn(Optional.of(order))
             .when(ordersRepository)
-            .findById(Mockito.eq(order.getId()));
+            .findWithDetailsById(Mockito.eq(order.getId()));
         Mockito
             .doReturn(Optional.of(order))
             .when(ordersRepository)
@@ -309,7 +335,7 @@ public class OrdersServiceTest {
 
         Mockito
             .verify(ordersRepository, Mockito.never())
-            .findById(Mockito.anyLong());
+            .findWithDetailsById(Mockito.anyLong());
     }
 
     @Test
@@ -335,7 +361,7 @@ public class OrdersServiceTest {
     //#region getOrders
 
     @Test
-    public void getOrders() {
+    public void getOrders() throws ValidationException {
         final var user = createUser();
         final var orders = List.of(
             createOrder(1L, user.getName()),
@@ -343,7 +369,7 @@ public class OrdersServiceTest {
             createOrder(3L, user.getName())
         );
         final var filters = new InOrderFilters(null, null);
-        final var pagination = new InPagination(5, 1);
+        final var pagination = new InPagination(5, 1, null, null);
         
         final var ordersPage = new PageImpl<Order>(
             orders,
@@ -354,7 +380,12 @@ public class OrdersServiceTest {
         Mockito
             .doReturn(ordersPage)
             .when(ordersRepository)
-            .findAll(Mockito.<Specification<Order>>any(), Mockito.<Pageable>any());
+            .findPage(
+                Mockito.<Specification<Order>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.any(),
+                Mockito.eq(Order.DETAILS_GRAPH)
+            );
 
         final var service = createService();
 
@@ -548,7 +579,79 @@ public class OrdersServiceTest {
     }
 
     @Test
-    public void postOrder() throws NotFoundException, ValidationException {
+    public void postOrder_productOutOfStock() throws NotFoundException {
+        final Long countryId = 1L;
+        final Long paymentMethodId = 1L;
+        final var user = createUser();
+        final var inOrder = new InOrder(
+            new InAddress(
+                "street",
+                "house",
+                "postalCode",
+                "city",
+                countryId
+            ),
+            new InPayment(paymentMethodId),
+            List.of(
+                new InOrderProduct(1L, 10)
+            )
+        );
+        final var country = Country.builder()
+            .id(countryId)
+            .active(true)
+            .name("name")
+            .build();
+        final var paymentMethod = PaymentMethod.builder()
+            .id(paymentMethodId)
+            .active(true)
+            .name("name")
+            .description("description")
+            .build();
+        final var product = Product.builder()
+            .id(1L)
+            .active(true)
+            .name("name")
+            .description("description")
+            .price(BigDecimal.valueOf(1.00))
+            .category(Category.builder().id(1L).name("name").build())
+            .stockTracked(true)
+            .build();
+
+        Mockito
+            .doReturn(country)
+            .when(countriesService)
+            .findByIdActive(Mockito.eq(countryId));
+        Mockito
+            .doReturn(paymentMethod)
+            .when(paymentMethodsService)
+            .findByIdActive(Mockito.eq(paymentMethodId));
+        Mockito
+            .doReturn(List.of(product))
+            .when(productsRepository)
+            .findByActiveTrueAndIdIn(Mockito.any());
+        Mockito
+            .doAnswer(invocation -> {
+                final List<?> orders = invocation.getArgument(0, List.class);
+                return new InventoryService.Reservations(
+                    List.of(),
+                    Map.of((Order) orders.get(0), ConflictException.productOutOfStock(1L))
+                );
+            })
+            .when(inventoryService)
+            .reserve(Mockito.any());
+
+        final var service = createService();
+
+        assertThrows(ConflictException.class, () -> {
+            service.postOrder(user, inOrder);
+        });
+        Mockito
+            .verify(ordersRepository, Mockito.never())
+            .save(Mockito.any());
+    }
+
+    @Test
+    public void postOrder() throws NotFoundException, ValidationException, ConflictException {
         final Long countryId = 1L;
         final Long paymentMethodId = 1L;
         final var user = createUser();
@@ -689,10 +792,170 @@ public class OrdersServiceTest {
                     assertNull(saved.getCompletedAt());
                 })
             );
+        Mockito
+            .verify(orderSummariesService)
+            .createSummaries(Mockito.eq(List.of(savedOrder.get(0))));
     }
     
     //#endregion
 
+    //#region postOrders
+
+    private InOrder createInOrder(long countryId, long paymentMethodId, InOrderProduct... products) {
+        return new InOrder(
+            new InAddress(
+                "street",
+                "house",
+                "postalCode",
+                "city",
+                countryId
+            ),
+            new InPayment(paymentMethodId),
+            List.of(products)
+        );
+    }
+
+    @Test
+    public void postOrders_tooManyOrders() {
+        final var user = createUser();
+        final var inOrders = new ArrayList<InOrder>();
+        for (int i = 0; i <= BATCH_MAX_SIZE; ++i) {
+            inOrders.add(createInOrder(1L, 1L, new InOrderProduct(1L, 1)));
+        }
+
+        final var service = createService();
+
+        assertThrows(ValidationException.class, () -> {
+            service.postOrders(user, new InOrderBatch(inOrders));
+        });
+    }
+
+    @Test
+    public void postOrders() throws NotFoundException, ValidationException {
+        final var user = createUser();
+        final var inOrders = List.of(
+            createInOrder(1L, 1L, new InOrderProduct(2L, 1), new InOrderProduct(1L, 2)),
+            createInOrder(2L, 1L, new InOrderProduct(1L, 1)),
+            createInOrder(1L, 1L, new InOrderProduct(1L, 1), new InOrderProduct(1L, 2)),
+            createInOrder(1L, 1L, new InOrderProduct(3L, 1)),
+            createInOrder(1L, 1L, new InOrderProduct(2L, 3))
+        );
+        final var country = Country.builder()
+            .id(1L)
+            .active(true)
+            .name("name")
+            .build();
+        final var paymentMethod = PaymentMethod.builder()
+            .id(1L)
+            .active(true)
+            .name("name")
+            .description("description")
+            .build();
+        final var category = Category.builder()
+            .id(1L)
+            .name("name")
+            .parentCategory(null)
+            .products(Collections.emptyList())
+            .build();
+        final var products = List.of(
+            Product.builder()
+                .id(1L)
+                .active(true)
+                .name("name")
+                .description("description")
+                .price(BigDecimal.valueOf(1.00))
+                .category(category)
+                .build(),
+            Product.builder()
+                .id(2L)
+                .active(true)
+                .name("name")
+                .description("description")
+                .price(BigDecimal.valueOf(2.00))
+                .category(category)
+                .build()
+        );
+
+        Mockito
+            .doReturn(country)
+            .when(countriesService)
+            .findByIdActive(Mockito.eq(1L));
+        Mockito
+            .doThrow(NotFoundException.country(2L))
+            .when(countriesService)
+            .findByIdActive(Mockito.eq(2L));
+        Mockito
+            .doReturn(paymentMethod)
+            .when(paymentMethodsService)
+            .findByIdActive(Mockito.eq(1L));
+        Mockito
+            .doReturn(products)
+            .when(productsRepository)
+            .findByActiveTrueAndIdIn(Mockito.any());
+        Mockito
+            .when(ordersRepository.saveAll(Mockito.any()))
+            .then((invocation) -> {
+                final var saved = new ArrayList<Order>(invocation.getArgument(0, List.class));
+                for (int i = 0; i < saved.size(); ++i) {
+                    saved.get(i).setId(i + 1L);
+                }
+                return saved;
+            });
+        Mockito
+            .when(orderProductsRepository.saveAll(Mockito.any()))
+            .then((invocation) -> invocation.getArgument(0, List.class));
+
+        final var service = createService();
+
+        final var out = service.postOrders(user, new InOrderBatch(inOrders));
+
+        assertEquals(2, out.createdCount());
+        assertEquals(3, out.rejectedCount());
+        assertEquals(inOrders.size(), out.items().size());
+        for (int i = 0; i < inOrders.size(); ++i) {
+            assertEquals(i, out.items().get(i).index());
+        }
+        assertEquals(1L, out.items().get(0).orderId());
+        assertNull(out.items().get(0).error());
+        assertNull(out.items().get(1).orderId());
+        assertNotNull(out.items().get(1).error());
+        assertNull(out.items().get(2).orderId());
+        assertNotNull(out.items().get(2).error());
+        assertNull(out.items().get(3).orderId());
+        assertNotNull(out.items().get(3).error());
+        assertEquals(2L, out.items().get(4).orderId());
+        assertNull(out.items().get(4).error());
+
+        // products of all orders are fetched at once, references are resolved once per batch
+        Mockito
+            .verify(productsRepository, Mockito.times(1))
+            .findByActiveTrueAndIdIn(Mockito.assertArg((ids) -> {
+                assertEquals(3, ids.size());
+            }));
+        Mockito
+            .verify(countriesService, Mockito.times(1))
+            .findByIdActive(Mockito.eq(1L));
+        Mockito
+            .verify(paymentMethodsService, Mockito.times(1))
+            .findByIdActive(Mockito.eq(1L));
+        Mockito
+            .verify(ordersRepository)
+            .saveAll(Mockito.assertArg((savedIterable) -> {
+                final var saved = new ArrayList<>(IterableUtil.toCollection(savedIterable));
+                assertEquals(2, saved.size());
+                assertEquals(BigDecimal.valueOf(4.00), saved.get(0).getPayment().getAmount());
+                assertEquals(BigDecimal.valueOf(6.00), saved.get(1).getPayment().getAmount());
+            }));
+        Mockito
+            .verify(orderProductsRepository)
+            .saveAll(Mockito.assertArg((savedIterable) -> {
+                final var saved = IterableUtil.toCollection(savedIterable);
+                assertEquals(3, saved.size());
+            }));
+    }
+
+    //#endregion
+
     //#region putOrderAddress
 
     private void test_putOrderAddress_orderNotFound(
@@ -972,29 +1235,28 @@ public class OrdersServiceTest {
     @Test
     public void putOrderCompletedAt() throws NotFoundException, ConflictException, ValidationException {
         final Long id = 1L;
-        final var order = createOrder(id, "username");
-        order.setOrderedAt(LocalDateTime.now().minusDays(1));
         final var inCompletedAt = new InOrderCompletedAtUpdate(
             LocalDateTime.now()
         );
 
         Mockito
-            .doReturn(Optional.of(order))
+            .doReturn(1)
             .when(ordersRepository)
-            .findById(Mockito.eq(id));
+            .updateCompletedAtIfNotCompleted(Mockito.eq(id), Mockito.eq(inCompletedAt.completedAt()));
 
         final var service = createService();
 
         service.putOrderCompletedAt(id, inCompletedAt);
 
         Mockito
-            .verify(ordersRepository, Mockito.times(1))
-            .save(
-                Mockito.assertArg((saved) -> {
-                    assertEquals(id, saved.getId());
-                    assertEquals(inCompletedAt.completedAt(), saved.getCompletedAt());
-                })
-            );
+            .verify(ordersRepository, Mockito.never())
+            .findById(Mockito.any());
+        Mockito
+            .verify(ordersRepository, Mockito.never())
+            .save(Mockito.any());
+        Mockito
+            .verify(orderSummariesService)
+            .orderCompleted(Mockito.eq(id), Mockito.eq(inCompletedAt.completedAt()));
     }
 
     //#endregion
@@ -1089,30 +1351,31 @@ public class OrdersServiceTest {
     @Test
     public void putOrderPaymentCompletedAt() throws NotFoundException, ConflictException, ValidationException {
         final Long id = 1L;
-        final var order = createOrder(id, "username");
-        order.setOrderedAt(LocalDateTime.now().minusDays(10));
-        order.getPayment().setCompletedAt(null);
         final var inCompletedAt = new InPaymentCompletedAtUpdate(
             LocalDateTime.now()
         );
 
         Mockito
-            .doReturn(Optional.of(order))
-            .when(ordersRepository)
-            .findById(Mockito.eq(id));
+            .doReturn(1)
+            .when(paymentsRepository)
+            .updateCompletedAtIfNotCompletedByOrderId(Mockito.eq(id), Mockito.eq(inCompletedAt.completedAt()));
 
         final var service = createService();
 
         service.putOrderPaymentCompletedAt(id, inCompletedAt);
 
         Mockito
-            .verify(paymentsRepository, Mockito.times(1))
-            .save(
-                Mockito.assertArg((saved) -> {
-                    assertEquals(order.getPayment().getId(), saved.getId());
-                    assertEquals(inCompletedAt.completedAt(), saved.getCompletedAt());
-                })
-            );
+            .verify(ordersRepository, Mockito.never())
+            .findById(Mockito.any());
+        Mockito
+            .verify(paymentsRepository, Mockito.never())
+            .save(Mockito.any());
+        Mockito
+            .verify(orderSummariesService)
+            .paymentCompleted(Mockito.eq(id), Mockito.eq(inCompletedAt.completedAt()));
+        Mockito
+            .verify(inventoryService)
+            .confirm(Mockito.eq(id));
     }
 
     //#endregion
@@ -1,6 +1,7 @@
 package ecommerce.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.List;
@@ -13,19 +14,23 @@ import org.mockito.Mockito;
 
 import ecommerce.dto.paymentmethods.InPaymentMethod;
 import ecommerce.dto.paymentmethods.InPaymentMethodPatch;
+import ecommerce.dto.paymentmethods.OutPaymentMethod;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
 import ecommerce.repository.paymentmethods.PaymentMethodsRepository;
 import ecommerce.repository.paymentmethods.entity.PaymentMethod;
 import ecommerce.service.paymentmethods.PaymentMethodsService;
 import ecommerce.service.paymentmethods.mapper.PaymentMethodsMapper;
+import ecommerce.service.utils.ReferenceCache;
 import ecommerce.service.utils.sanitizer.IUserInputSanitizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class PaymentMethodsServiceTest {
 
     private IUserInputSanitizer userInputSanitizer;
     private PaymentMethodsMapper paymentMethodsMapper;
     private PaymentMethodsRepository paymentMethodsRepository;
+    private ReferenceCache<PaymentMethod, OutPaymentMethod> paymentMethodsCache;
 
     @BeforeEach
     public void setupDependencies() throws ValidationException {
@@ -35,13 +40,15 @@ public class PaymentMethodsServiceTest {
             .then(AdditionalAnswers.returnsFirstArg());
         paymentMethodsMapper = new PaymentMethodsMapper(userInputSanitizer);
         paymentMethodsRepository = Mockito.mock(PaymentMethodsRepository.class);
+        paymentMethodsCache = new ReferenceCache<>("payment_methods", 100, new SimpleMeterRegistry());
     }
 
     private PaymentMethodsService createService() {
         return new PaymentMethodsService(
             paymentMethodsMapper,
             userInputSanitizer,
-            paymentMethodsRepository
+            paymentMethodsRepository,
+            paymentMethodsCache
         );
     }
 
@@ -88,6 +95,63 @@ public class PaymentMethodsServiceTest {
         assertEquals(paymentMethod.getDescription(), out.getDescription());
     }
 
+    @Test
+    public void findByIdActive_cached() throws NotFoundException {
+        final Long id = 1L;
+        final var paymentMethod = PaymentMethod.builder()
+            .id(id)
+            .active(true)
+            .name("name")
+            .description("description")
+            .build();
+
+        Mockito
+            .doReturn(Optional.of(paymentMethod))
+            .when(paymentMethodsRepository)
+            .findByIdAndActiveTrue(Mockito.eq(id));
+
+        final var service = createService();
+
+        service.findByIdActive(id);
+        final var out = service.findByIdActive(id);
+
+        assertEquals(paymentMethod.getId(), out.getId());
+        Mockito
+            .verify(paymentMethodsRepository, Mockito.times(1))
+            .findByIdAndActiveTrue(Mockito.eq(id));
+    }
+
+    @Test
+    public void findByIdActive_invalidatedByDelete() throws NotFoundException {
+        final Long id = 1L;
+        final var paymentMethod = PaymentMethod.builder()
+            .id(id)
+            .active(true)
+            .name("name")
+            .description("description")
+            .build();
+
+        Mockito
+            .when(paymentMethodsRepository.findByIdAndActiveTrue(Mockito.eq(id)))
+            .thenReturn(Optional.of(paymentMethod))
+            .thenReturn(Optional.empty());
+        Mockito
+            .doReturn(1)
+            .when(paymentMethodsRepository)
+            .deactivateById(Mockito.eq(id));
+
+        final var service = createService();
+
+        service.findByIdActive(id);
+        service.deletePaymentMethod(id);
+
+        assertThrows(NotFoundException.class, () -> {
+            service.findByIdActive(id);
+        });
+        // Cached entity is not modified by delete
+        assertEquals(true, paymentMethod.getActive());
+    }
+
     //#endregion
 
     //#region getPaymentMethods
@@ -128,6 +192,42 @@ public class PaymentMethodsServiceTest {
         }
     }
     
+    @Test
+    public void getPaymentMethods_cachedUntilPatched() throws NotFoundException, ValidationException {
+        final Long id = 1L;
+        final var paymentMethod = PaymentMethod.builder()
+            .id(id)
+            .active(true)
+            .name("name")
+            .description("description")
+            .build();
+
+        Mockito
+            .doReturn(List.of(paymentMethod))
+            .when(paymentMethodsRepository)
+            .findByActiveTrue();
+        Mockito
+            .doReturn(1)
+            .when(paymentMethodsRepository)
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any());
+
+        final var service = createService();
+
+        final var first = service.getPaymentMethods();
+        final var second = service.getPaymentMethods();
+        assertSame(first, second);
+        Mockito
+            .verify(paymentMethodsRepository, Mockito.times(1))
+            .findByActiveTrue();
+
+        service.patchPaymentMethod(id, new InPaymentMethodPatch("new name", null));
+        service.getPaymentMethods();
+
+        Mockito
+            .verify(paymentMethodsRepository, Mockito.times(2))
+            .findByActiveTrue();
+    }
+
     //#endregion
 
     //#region getPaymentMethod
@@ -235,9 +335,9 @@ public class PaymentMethodsServiceTest {
         final var inPatch = new InPaymentMethodPatch("name", "description");
 
         Mockito
-            .doReturn(Optional.empty())
+            .doReturn(0)
             .when(paymentMethodsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any());
 
         final var service = createService();
 
@@ -249,18 +349,8 @@ public class PaymentMethodsServiceTest {
     @Test
     public void patchPaymentMethod_sanitizerValidationException() throws ValidationException {
         final Long id = 1L;
-        final var paymentMethod = PaymentMethod.builder()
-            .id(id)
-            .active(true)
-            .name("name")
-            .description("description")
-            .build();
         final var inPatch = new InPaymentMethodPatch("name", "description");
 
-        Mockito
-            .doReturn(Optional.of(paymentMethod))
-            .when(paymentMethodsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
         Mockito
             .doThrow(ValidationException.class)
             .when(userInputSanitizer)
@@ -271,25 +361,20 @@ public class PaymentMethodsServiceTest {
         assertThrows(ValidationException.class, () -> {
             service.patchPaymentMethod(id, inPatch);
         });
+        Mockito
+            .verify(paymentMethodsRepository, Mockito.never())
+            .patchById(Mockito.anyLong(), Mockito.any(), Mockito.any());
     }
 
     @Test
     public void patchPaymentMethod_nameUnchangedDescriptionChanged() throws NotFoundException, ValidationException {
         final Long id = 1L;
-        final String name = "name";
-        final String description = "description";
-        final var paymentMethod = PaymentMethod.builder()
-            .id(id)
-            .active(true)
-            .name(name)
-            .description(description)
-            .build();
         final var inPatch = new InPaymentMethodPatch(null, "new description");
 
         Mockito
-            .doReturn(Optional.of(paymentMethod))
+            .doReturn(1)
             .when(paymentMethodsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any());
 
         final var service = createService();
 
@@ -297,33 +382,21 @@ public class PaymentMethodsServiceTest {
 
         Mockito
             .verify(paymentMethodsRepository, Mockito.times(1))
-            .save(
-                Mockito.assertArg((saved) -> {
-                    assertEquals(id, saved.getId());
-                    assertEquals(true, saved.getActive());
-                    assertEquals(name, saved.getName());
-                    assertEquals(inPatch.description(), saved.getDescription());
-                })
-            );
+            .patchById(id, null, inPatch.description());
+        Mockito
+            .verify(paymentMethodsRepository, Mockito.never())
+            .findByIdAndActiveTrue(Mockito.anyLong());
     }
 
     @Test
     public void patchPaymentMethod_nameChangeddescriptionUnchanged() throws NotFoundException, ValidationException {
         final Long id = 1L;
-        final String name = "name";
-        final String description = "description";
-        final var paymentMethod = PaymentMethod.builder()
-            .id(id)
-            .active(true)
-            .name(name)
-            .description(description)
-            .build();
         final var inPatch = new InPaymentMethodPatch("new name", null);
 
         Mockito
-            .doReturn(Optional.of(paymentMethod))
+            .doReturn(1)
             .when(paymentMethodsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any());
 
         final var service = createService();
 
@@ -331,14 +404,7 @@ public class PaymentMethodsServiceTest {
 
         Mockito
             .verify(paymentMethodsRepository, Mockito.times(1))
-            .save(
-                Mockito.assertArg((saved) -> {
-                    assertEquals(id, saved.getId());
-                    assertEquals(true, saved.getActive());
-                    assertEquals(inPatch.name(), saved.getName());
-                    assertEquals(description, saved.getDescription());
-                })
-            );
+            .patchById(id, inPatch.name(), null);
     }
 
     //#endregion
@@ -350,9 +416,9 @@ public class PaymentMethodsServiceTest {
         final Long id = 1L;
 
         Mockito
-            .doReturn(Optional.empty())
+            .doReturn(0)
             .when(paymentMethodsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .deactivateById(Mockito.eq(id));
 
         final var service = createService();
 
@@ -364,17 +430,11 @@ public class PaymentMethodsServiceTest {
     @Test
     public void deletePaymentMethod() throws NotFoundException {
         final Long id = 1L;
-        final var paymentMethod = PaymentMethod.builder()
-            .id(id)
-            .active(true)
-            .name("name")
-            .description("description")
-            .build();
 
         Mockito
-            .doReturn(Optional.of(paymentMethod))
+            .doReturn(1)
             .when(paymentMethodsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .deactivateById(Mockito.eq(id));
 
         final var service = createService();
 
@@ -382,12 +442,10 @@ public class PaymentMethodsServiceTest {
 
         Mockito
             .verify(paymentMethodsRepository, Mockito.times(1))
-            .save(
-                Mockito.assertArg((saved) -> {
-                    assertEquals(id, saved.getId());
-                    assertEquals(false, saved.getActive());
-                })
-            );
+            .deactivateById(id);
+        Mockito
+            .verify(paymentMethodsRepository, Mockito.never())
+            .save(Mockito.any());
     }
     
     //#endregion
@@ -0,0 +1,211 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.products.InProductFilters;
+import ecommerce.dto.products.OutProduct;
+import ecommerce.dto.shared.InPagination;
+import ecommerce.exception.ValidationException;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.categories.CategoriesService;
+import ecommerce.service.products.ProductsSearchIndex;
+import ecommerce.service.products.ProductsService;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.products.mapper.ProductsSpecificationMapper;
+import ecommerce.service.utils.TinyLfuCache;
+import ecommerce.service.utils.TotalCountCache;
+import ecommerce.service.utils.mapper.PaginationMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs products full-text search SQL generated for PostgreSQL (fts_match and fts_rank)
+ * on H2. PostgreSQL's text search functions are replaced with Java functions
+ * matching words of 'simple' configuration as prefixes and ranking names
+ * by number of matched words. H2 does not support '@@' operator,
+ * so it is rewritten into function call before the statement is executed.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ecommerce.service.ProductsFullTextSearchTest$TextSearchOperatorRewriter"
+})
+@Import(JpaConfiguration.class)
+public class ProductsFullTextSearchTest {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Records executed statements and rewrites 'vector @@ query' into 'ts_match(vector, query)'
+     */
+    public static class TextSearchOperatorRewriter implements StatementInspector {
+
+        private static final Pattern MATCH = Pattern.compile(
+            "\\((to_tsvector\\('simple',[^()]*\\)) @@ (to_tsquery\\('simple',[^()]*\\))\\)"
+        );
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return MATCH.matcher(sql).replaceAll("ts_match($1, $2)");
+        }
+    }
+
+    public static String toTsvector(String config, String text) {
+        return String.join(" ", ProductsSearchIndex.toWords(text));
+    }
+
+    public static String toTsquery(String config, String query) {
+        return query;
+    }
+
+    public static boolean tsMatch(String vector, String query) {
+        final var words = Arrays.asList(vector.split(" "));
+        return toPrefixes(query)
+            .stream()
+            .allMatch(prefix -> words.stream().anyMatch(word -> word.startsWith(prefix)));
+    }
+
+    public static double tsRank(String vector, String query) {
+        final var prefixes = toPrefixes(query);
+        return Arrays.stream(vector.split(" "))
+            .filter(word -> prefixes.stream().anyMatch(word::startsWith))
+            .count();
+    }
+
+    /**
+     * @param query tsquery created by ProductsSearchIndex.toPrefixQuery
+     * @return matched prefixes
+     */
+    private static List<String> toPrefixes(String query) {
+        return Arrays.stream(query.split(" & "))
+            .map(term -> term.substring(1, term.length() - "':*".length()))
+            .toList();
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    private ProductsSearchIndex productsSearchIndex;
+    private ProductsService productsService;
+
+    @BeforeEach
+    public void setupService() {
+        final var functions = List.of(
+            "CREATE ALIAS IF NOT EXISTS to_tsvector FOR 'ecommerce.service.ProductsFullTextSearchTest.toTsvector'",
+            "CREATE ALIAS IF NOT EXISTS to_tsquery FOR 'ecommerce.service.ProductsFullTextSearchTest.toTsquery'",
+            "CREATE ALIAS IF NOT EXISTS ts_match FOR 'ecommerce.service.ProductsFullTextSearchTest.tsMatch'",
+            "CREATE ALIAS IF NOT EXISTS ts_rank FOR 'ecommerce.service.ProductsFullTextSearchTest.tsRank'"
+        );
+        for (final var function : functions) {
+            entityManager.getEntityManager().createNativeQuery(function).executeUpdate();
+        }
+
+        productsSearchIndex = new ProductsSearchIndex(
+            dataSource,
+            entityManager.getEntityManager().getEntityManagerFactory(),
+            false
+        );
+        productsService = new ProductsService(
+            Mockito.mock(CategoriesService.class),
+            new PassthroughUserInputSanitizer(),
+            productsRepository,
+            new ProductsMapper(new PassthroughUserInputSanitizer()),
+            new ProductsSpecificationMapper(productsSearchIndex),
+            new PaginationMapper(),
+            new TotalCountCache(Duration.ofMinutes(1), 100, 100_000),
+            new TinyLfuCache<>("products", 100, new SimpleMeterRegistry())
+        );
+
+        final var category = entityManager.persist(Category.builder()
+            .name("shoes")
+            .build()
+        );
+        final var names = List.of(
+            "Red shoe",
+            "Blue shoe",
+            "Red shoe, red laces",
+            "Bored shoe",
+            "Shoelace red",
+            "Red hat"
+        );
+        for (final var name : names) {
+            entityManager.persist(Product.builder()
+                .active(true)
+                .name(name)
+                .description("description")
+                .price(BigDecimal.TEN)
+                .category(category)
+                .build()
+            );
+        }
+        entityManager.flush();
+        entityManager.clear();
+        STATEMENTS.clear();
+    }
+
+    @Test
+    public void isFullText() {
+        assertTrue(productsSearchIndex.isFullText());
+    }
+
+    @Test
+    public void getProducts_search() throws ValidationException {
+        final var outPage = productsService.getProducts(
+            new InProductFilters(null, "red SHO", null, null, null),
+            new InPagination(2, 0, null, null)
+        );
+
+        // Most relevant first, equally relevant by ID
+        assertEquals(
+            List.of("Red shoe, red laces", "Red shoe"),
+            outPage.content().stream().map(OutProduct::name).toList()
+        );
+        assertEquals(3L, outPage.totalElements());
+        assertNull(outPage.nextCursor());
+
+        // Queries use the expression of GIN index created by ProductsSearchIndex
+        final var select = STATEMENTS.get(0);
+        assertTrue(select.contains("(to_tsvector('simple', p1_0.name) @@ to_tsquery('simple', "), select);
+        assertTrue(select.contains("order by ts_rank(to_tsvector('simple', p1_0.name), "), select);
+        final var count = STATEMENTS.get(1);
+        assertTrue(count.contains("count("), count);
+        assertTrue(count.contains("@@ to_tsquery('simple',"), count);
+    }
+
+    @Test
+    public void getProducts_searchPageIdx() throws ValidationException {
+        final var filters = new InProductFilters(null, "red sho", null, null, null);
+
+        final var secondPage = productsService.getProducts(filters, new InPagination(2, 1, null, false));
+
+        assertEquals(List.of("Shoelace red"), secondPage.content().stream().map(OutProduct::name).toList());
+    }
+}
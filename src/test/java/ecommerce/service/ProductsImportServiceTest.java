@@ -0,0 +1,210 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ecommerce.exception.NotFoundException;
+import ecommerce.exception.ValidationException;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.categories.CategoriesService;
+import ecommerce.service.products.ProductsImportService;
+import ecommerce.service.products.ProductsService;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.utils.sanitizer.IUserInputSanitizer;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+
+public class ProductsImportServiceTest {
+
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_REPORTED_ERRORS = 2;
+
+    private CategoriesService categoriesService;
+    private IUserInputSanitizer userInputSanitizer;
+    private ProductsRepository productsRepository;
+    private EntityManager entityManager;
+    private List<List<Product>> savedBatches;
+
+    @BeforeEach
+    public void setupDependencies() throws ValidationException, NotFoundException {
+        categoriesService = Mockito.mock(CategoriesService.class);
+        Mockito
+            .doReturn(Category.builder().id(1L).name("category").build())
+            .when(categoriesService)
+            .findCategoryById(1L);
+        Mockito
+            .doThrow(NotFoundException.class)
+            .when(categoriesService)
+            .findCategoryById(2L);
+
+        userInputSanitizer = Mockito.mock(IUserInputSanitizer.class);
+        Mockito
+            .when(userInputSanitizer.sanitize(Mockito.anyString()))
+            .then(AdditionalAnswers.returnsFirstArg());
+
+        savedBatches = new ArrayList<>();
+        productsRepository = Mockito.mock(ProductsRepository.class);
+        Mockito
+            .doAnswer(invocation -> {
+                // the batch is reused by the service, so it is copied
+                savedBatches.add(new ArrayList<>(invocation.getArgument(0, List.class)));
+                return invocation.getArgument(0);
+            })
+            .when(productsRepository)
+            .saveAll(Mockito.anyList());
+
+        entityManager = Mockito.mock(EntityManager.class);
+    }
+
+    private ProductsImportService createService() {
+        final var service = new ProductsImportService(
+            categoriesService,
+            Mockito.mock(ProductsService.class),
+            productsRepository,
+            new ProductsMapper(userInputSanitizer),
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            entityManager
+        );
+        ReflectionTestUtils.setField(service, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", MAX_REPORTED_ERRORS);
+        return service;
+    }
+
+    private static String ndjson(String name, String price, long category) {
+        return "{\"name\":\"%s\",\"description\":\"description\",\"price\":%s,\"category\":%d}\n"
+            .formatted(name, price, category);
+    }
+
+    //#region importProductsNdjson
+
+    @Test
+    public void importProductsNdjson_savedInBatches() throws Exception {
+        final var body = ndjson("a", "1.00", 1)
+            + ndjson("b", "2.00", 1)
+            + "\n"
+            + ndjson("c", "3.00", 1);
+
+        final var service = createService();
+
+        final var out = service.importProductsNdjson(new StringReader(body));
+
+        assertEquals(3, out.createdCount());
+        assertEquals(0, out.rejectedCount());
+        assertEquals(List.of(2, 1), savedBatches.stream().map(List::size).toList());
+        assertEquals("c", savedBatches.get(1).get(0).getName());
+        // category is resolved once per import
+        Mockito
+            .verify(categoriesService, Mockito.times(1))
+            .findCategoryById(1L);
+        Mockito
+            .verify(entityManager, Mockito.times(2))
+            .clear();
+    }
+
+    @Test
+    public void importProductsNdjson_invalidLinesReported() throws Exception {
+        final var body = ndjson("a", "1.00", 1)
+            + "{not json\n"
+            + ndjson("b", "-1.00", 1)
+            + ndjson("c", "1.00", 2)
+            + ndjson("d", "1.00", 2);
+
+        final var service = createService();
+
+        final var out = service.importProductsNdjson(new StringReader(body));
+
+        assertEquals(1, out.createdCount());
+        assertEquals(4, out.rejectedCount());
+        assertEquals(MAX_REPORTED_ERRORS, out.errors().size());
+        assertEquals(2, out.errors().get(0).line());
+        assertTrue(out.errors().get(0).error().startsWith("invalid JSON"));
+        assertEquals(3, out.errors().get(1).line());
+        assertTrue(out.errors().get(1).error().startsWith("price"));
+        // missing category is looked up once
+        Mockito
+            .verify(categoriesService, Mockito.times(1))
+            .findCategoryById(2L);
+    }
+
+    @Test
+    public void importProductsNdjson_sanitizerValidationException() throws Exception {
+        Mockito
+            .doThrow(new ValidationException("invalid name"))
+            .when(userInputSanitizer)
+            .sanitize(Mockito.eq("a"));
+
+        final var service = createService();
+
+        final var out = service.importProductsNdjson(new StringReader(ndjson("a", "1.00", 1)));
+
+        assertEquals(0, out.createdCount());
+        assertEquals("invalid name", out.errors().get(0).error());
+        assertEquals(Collections.emptyList(), savedBatches);
+    }
+
+    //#endregion
+
+    //#region importProductsCsv
+
+    @Test
+    public void importProductsCsv() throws Exception {
+        final var body = """
+            category,name,price,description
+            1,a,1.00,"description, with comma"
+            1,b,abc,description
+            1,c,2.00
+            1,d,3.00,"multi
+            line"
+            """;
+
+        final var service = createService();
+
+        final var out = service.importProductsCsv(new StringReader(body));
+
+        assertEquals(2, out.createdCount());
+        assertEquals(2, out.rejectedCount());
+        assertEquals(3, out.errors().get(0).line());
+        assertEquals(4, out.errors().get(1).line());
+        final var saved = savedBatches.get(0);
+        assertEquals("a", saved.get(0).getName());
+        assertEquals("description, with comma", saved.get(0).getDescription());
+        assertEquals("multi\nline", saved.get(1).getDescription());
+    }
+
+    @Test
+    public void importProductsCsv_headerLacksColumn() {
+        final var service = createService();
+
+        assertThrows(ValidationException.class, () -> {
+            service.importProductsCsv(new StringReader("name,description,price\n"));
+        });
+    }
+
+    @Test
+    public void importProductsCsv_empty() {
+        final var service = createService();
+
+        assertThrows(ValidationException.class, () -> {
+            service.importProductsCsv(new StringReader(""));
+        });
+    }
+
+    //#endregion
+}
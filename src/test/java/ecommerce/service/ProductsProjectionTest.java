@@ -0,0 +1,219 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import ecommerce.configuration.database.JpaConfiguration;
+import ecommerce.dto.products.InProductFilters;
+import ecommerce.dto.products.OutProduct;
+import ecommerce.repository.categories.CategoriesRepository;
+import ecommerce.repository.categories.entity.Category;
+import ecommerce.repository.products.ProductsRepository;
+import ecommerce.repository.products.entity.Product;
+import ecommerce.service.categories.CategoriesTreeIndex;
+import ecommerce.service.products.ProductsSearchIndex;
+import ecommerce.service.products.mapper.ProductsMapper;
+import ecommerce.service.products.mapper.ProductsSpecificationMapper;
+import ecommerce.service.utils.sanitizer.PassthroughUserInputSanitizer;
+
+/**
+ * Validates products listing projection against mapping of loaded entities
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaConfiguration.class)
+public class ProductsProjectionTest {
+
+    private static final Sort SORT = Sort.by("id");
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductsRepository productsRepository;
+    @Autowired
+    private CategoriesRepository categoriesRepository;
+    @Autowired
+    private DataSource dataSource;
+
+    private ProductsMapper productsMapper;
+    private ProductsSpecificationMapper productsSpecificationMapper;
+    private List<Category> categories;
+
+    @BeforeEach
+    public void setupProducts() {
+        productsMapper = new ProductsMapper(new PassthroughUserInputSanitizer());
+
+        categories = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            categories.add(entityManager.persist(Category.builder()
+                .name("category " + i)
+                .build()
+            ));
+        }
+        for (int i = 0; i < 30; ++i) {
+            entityManager.persist(Product.builder()
+                .active(i % 5 != 0)
+                .name("product " + i)
+                .description("description " + i)
+                .price(BigDecimal.valueOf(i))
+                .category(categories.get(i % categories.size()))
+                .build()
+            );
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        categoriesRepository.updateAllTreeBounds(
+            new CategoriesTreeIndex(categoriesRepository).findStaleBounds()
+        );
+        final var productsSearchIndex = new ProductsSearchIndex(
+            dataSource,
+            entityManager.getEntityManager().getEntityManagerFactory(),
+            true
+        );
+        productsSpecificationMapper = new ProductsSpecificationMapper(productsSearchIndex);
+    }
+
+    private void assertProjectionMatchesEntities(InProductFilters filters, PageRequest pageRequest) {
+        final Specification<Product> specification = productsSpecificationMapper
+            .mapToSpecification(filters)
+            .and((root, query, cb) -> cb.equal(root.get("active"), true));
+
+        final var expected = productsRepository
+            .findAll(specification, pageRequest)
+            .map(productsMapper::fromEntity)
+            .getContent();
+        entityManager.clear();
+
+        final var statistics = entityManager
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+
+        final var slice = productsRepository.findSlice(
+            specification,
+            pageRequest,
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+        final var page = productsRepository.findPage(
+            specification,
+            pageRequest,
+            () -> productsRepository.count(specification),
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+
+        assertEquals(expected, slice.getContent());
+        assertEquals(expected, page.getContent());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(expected.isEmpty());
+    }
+
+    @Test
+    public void findSlice_noFilters() {
+        assertProjectionMatchesEntities(
+            new InProductFilters(null, null, null, null, null),
+            PageRequest.of(1, 7, SORT)
+        );
+    }
+
+    @Test
+    public void findSlice_filters() {
+        final var categoryIds = categories.stream()
+            .map(Category::getId)
+            .collect(Collectors.toList());
+
+        assertProjectionMatchesEntities(
+            new InProductFilters("%1%", null, BigDecimal.valueOf(5), null, categoryIds.get(1)),
+            PageRequest.of(0, 5, SORT)
+        );
+    }
+
+    @Test
+    public void estimateActiveCount_notPostgres() {
+        assertTrue(productsRepository.estimateActiveCount().isEmpty());
+    }
+
+    @Test
+    public void findSlice_categoryNotFound() {
+        final var products = productsRepository.findSlice(
+            productsSpecificationMapper.mapToSpecification(new InProductFilters(null, null, null, null, -1L)),
+            PageRequest.of(0, 100, SORT),
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+
+        assertTrue(products.isEmpty());
+    }
+
+    @Test
+    public void findSlice_search() {
+        final var filters = new InProductFilters(null, "Product, 1", null, null, null);
+
+        assertProjectionMatchesEntities(filters, PageRequest.of(0, 5, SORT));
+
+        // H2 falls back to LIKE of every word as prefix of name's words,
+        // so "product 21" is not matched (as with full-text search)
+        final var products = productsRepository.findSlice(
+            productsSpecificationMapper.mapToSpecification(filters),
+            PageRequest.of(0, 100, SORT),
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+        assertEquals(11, products.getNumberOfElements());
+        assertTrue(products.stream().allMatch(product -> product.name().startsWith("product 1")));
+    }
+
+    @Test
+    public void findSlice_searchWithoutWords() {
+        final var products = productsRepository.findSlice(
+            productsSpecificationMapper.mapToSpecification(new InProductFilters(null, "%", null, null, null)),
+            PageRequest.of(0, 100, SORT),
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+
+        assertTrue(products.isEmpty());
+    }
+
+    @Test
+    public void findSlice_specificationOrderPrecedesSort() {
+        final Specification<Product> specification = (root, query, cb) -> {
+            query.orderBy(cb.desc(root.get("price")));
+            return null;
+        };
+
+        final var products = productsRepository.findSlice(
+            specification,
+            PageRequest.of(0, 3, SORT),
+            OutProduct.class,
+            ProductsMapper.OUT_PRODUCT_ATTRIBUTES
+        );
+
+        assertEquals(
+            List.of(BigDecimal.valueOf(29), BigDecimal.valueOf(28), BigDecimal.valueOf(27)),
+            products.stream().map(product -> product.price().stripTrailingZeros()).toList()
+        );
+    }
+}
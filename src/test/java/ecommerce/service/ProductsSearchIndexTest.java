@@ -0,0 +1,70 @@
+package ecommerce.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import ecommerce.service.products.ProductsSearchIndex;
+import jakarta.persistence.EntityManagerFactory;
+
+public class ProductsSearchIndexTest {
+
+    @Test
+    public void toWords() {
+        assertEquals(
+            List.of("red", "shoe", "42", "żółw"),
+            ProductsSearchIndex.toWords(" Red-shoe, 42 'ŻÓŁW' & ")
+        );
+        assertEquals(List.of(), ProductsSearchIndex.toWords("%:*!"));
+    }
+
+    @Test
+    public void toPrefixQuery() {
+        assertEquals(
+            "'red':* & 'sho':*",
+            ProductsSearchIndex.toPrefixQuery(ProductsSearchIndex.toWords("Red sho"))
+        );
+    }
+
+    @Test
+    public void createIndexes_invalidIndexRecreated() throws Exception {
+        final var resultSet = Mockito.mock(ResultSet.class);
+        Mockito.doReturn(true).when(resultSet).next();
+        Mockito.doReturn(true).when(resultSet).getBoolean(1);
+        final var preparedStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.doReturn(resultSet).when(preparedStatement).executeQuery();
+        final var statement = Mockito.mock(Statement.class);
+        final var connection = Mockito.mock(Connection.class);
+        Mockito.doReturn(preparedStatement).when(connection).prepareStatement(Mockito.anyString());
+        Mockito.doReturn(statement).when(connection).createStatement();
+        final var dataSource = Mockito.mock(DataSource.class);
+        Mockito.doReturn(connection).when(dataSource).getConnection();
+
+        final var sessionFactory = Mockito.mock(SessionFactoryImplementor.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(sessionFactory.getJdbcServices().getDialect()).thenReturn(new PostgreSQLDialect());
+        final var entityManagerFactory = Mockito.mock(EntityManagerFactory.class);
+        Mockito.doReturn(sessionFactory).when(entityManagerFactory).unwrap(SessionFactoryImplementor.class);
+
+        new ProductsSearchIndex(dataSource, entityManagerFactory, true).createIndexes();
+
+        final var inOrder = Mockito.inOrder(preparedStatement, statement);
+        inOrder.verify(preparedStatement).setString(1, "products_name_fts_idx");
+        inOrder.verify(statement).execute("DROP INDEX CONCURRENTLY IF EXISTS products_name_fts_idx");
+        inOrder.verify(preparedStatement).setString(1, "products_name_trgm_idx");
+        inOrder.verify(statement).execute("DROP INDEX CONCURRENTLY IF EXISTS products_name_trgm_idx");
+        inOrder.verify(statement).execute(Mockito.startsWith("CREATE INDEX CONCURRENTLY IF NOT EXISTS products_name_fts_idx"));
+        inOrder.verify(statement).execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        inOrder.verify(statement).execute(Mockito.startsWith("CREATE INDEX CONCURRENTLY IF NOT EXISTS products_name_trgm_idx"));
+    }
+}
@@ -1,12 +1,19 @@
 package ecommerce.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,24 +22,31 @@ import org.mockito.Mockito;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 
 import ecommerce.dto.products.InProduct;
 import ecommerce.dto.products.InProductFilters;
 import ecommerce.dto.products.InProductPatch;
+import ecommerce.dto.products.OutProduct;
+import ecommerce.dto.products.OutProductDetails;
 import ecommerce.dto.shared.InPagination;
 import ecommerce.exception.NotFoundException;
 import ecommerce.exception.ValidationException;
-import ecommerce.repository.categories.CategoriesRepository;
 import ecommerce.repository.categories.entity.Category;
 import ecommerce.repository.products.ProductsRepository;
 import ecommerce.repository.products.entity.Product;
 import ecommerce.service.categories.CategoriesService;
+import ecommerce.service.products.ProductsSearchIndex;
 import ecommerce.service.products.ProductsService;
 import ecommerce.service.products.mapper.ProductsMapper;
 import ecommerce.service.products.mapper.ProductsSpecificationMapper;
+import ecommerce.service.utils.TinyLfuCache;
+import ecommerce.service.utils.TotalCountCache;
 import ecommerce.service.utils.mapper.PaginationMapper;
 import ecommerce.service.utils.sanitizer.IUserInputSanitizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class ProductsServiceTest {
 
@@ -40,17 +54,14 @@ public class ProductsServiceTest {
     private IUserInputSanitizer userInputSanitizer;
     private ProductsRepository productsRepository;
     private ProductsMapper productsMapper;
+    private ProductsSearchIndex productsSearchIndex;
     private ProductsSpecificationMapper productsSpecificationMapper;
     private PaginationMapper paginationMapper;
-
-    // Indirect dependencies
-    private CategoriesRepository categoriesRepository;
+    private TotalCountCache totalCountCache;
+    private TinyLfuCache<OutProductDetails> productsCache;
 
     @BeforeEach
     public void setupDependencies() throws ValidationException {
-        // Indirect dependencies
-        categoriesRepository = Mockito.mock(CategoriesRepository.class);
-
         categoriesService = Mockito.mock(CategoriesService.class);
         userInputSanitizer = Mockito.mock(IUserInputSanitizer.class);
         Mockito
@@ -58,8 +69,11 @@ public class ProductsServiceTest {
             .then(AdditionalAnswers.returnsFirstArg());
         productsRepository = Mockito.mock(ProductsRepository.class);
         productsMapper = new ProductsMapper(userInputSanitizer);
-        productsSpecificationMapper = new ProductsSpecificationMapper(categoriesRepository);
+        productsSearchIndex = Mockito.mock(ProductsSearchIndex.class);
+        productsSpecificationMapper = new ProductsSpecificationMapper(productsSearchIndex);
         paginationMapper = new PaginationMapper();
+        totalCountCache = new TotalCountCache(Duration.ofMinutes(1), 100, 100_000);
+        productsCache = new TinyLfuCache<>("products", 100, new SimpleMeterRegistry());
     }
 
     private ProductsService createService() {
@@ -69,7 +83,9 @@ public class ProductsServiceTest {
             productsRepository,
             productsMapper,
             productsSpecificationMapper,
-            paginationMapper
+            paginationMapper,
+            totalCountCache,
+            productsCache
         );
     }
 
@@ -127,14 +143,108 @@ public class ProductsServiceTest {
         assertEquals(product.getCategory().getId(), out.category());
     }
 
+    private Product createProductEntity(long id) {
+        return Product.builder()
+            .id(id)
+            .active(true)
+            .name("product name")
+            .description("description")
+            .price(BigDecimal.valueOf(15.00))
+            .category(Category.builder().id(1L).name("category name").build())
+            .build();
+    }
+
+    @Test
+    public void getProduct_cached() throws NotFoundException {
+        final Long id = 1L;
+
+        Mockito
+            .doReturn(Optional.of(createProductEntity(id)))
+            .when(productsRepository)
+            .findByIdAndActiveTrue(Mockito.eq(id));
+
+        final var service = createService();
+
+        final var first = service.getProduct(id);
+        final var second = service.getProduct(id);
+
+        assertEquals(first, second);
+        Mockito
+            .verify(productsRepository, Mockito.times(1))
+            .findByIdAndActiveTrue(id);
+    }
+
+    @Test
+    public void getProduct_notFoundNotCached() {
+        final Long id = 1L;
+
+        Mockito
+            .doReturn(Optional.empty())
+            .when(productsRepository)
+            .findByIdAndActiveTrue(Mockito.eq(id));
+
+        final var service = createService();
+
+        assertThrows(NotFoundException.class, () -> service.getProduct(id));
+        assertThrows(NotFoundException.class, () -> service.getProduct(id));
+        Mockito
+            .verify(productsRepository, Mockito.times(2))
+            .findByIdAndActiveTrue(id);
+    }
+
+    @Test
+    public void getProduct_invalidatedByPatch() throws NotFoundException, ValidationException {
+        final Long id = 1L;
+        final var patched = createProductEntity(id);
+        patched.setName("new name");
+
+        Mockito
+            .doReturn(Optional.of(createProductEntity(id)), Optional.of(patched))
+            .when(productsRepository)
+            .findByIdAndActiveTrue(Mockito.eq(id));
+        Mockito
+            .doReturn(1)
+            .when(productsRepository)
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        final var service = createService();
+
+        service.getProduct(id);
+        service.patchProduct(id, new InProductPatch("new name", null, null, null));
+        final var out = service.getProduct(id);
+
+        assertEquals("new name", out.name());
+    }
+
+    @Test
+    public void getProduct_invalidatedByDelete() throws NotFoundException {
+        final Long id = 1L;
+
+        Mockito
+            .doReturn(Optional.of(createProductEntity(id)), Optional.empty())
+            .when(productsRepository)
+            .findByIdAndActiveTrue(Mockito.eq(id));
+        Mockito
+            .doReturn(1)
+            .when(productsRepository)
+            .deactivateById(Mockito.eq(id));
+
+        final var service = createService();
+
+        service.getProduct(id);
+        service.deleteProduct(id);
+
+        assertThrows(NotFoundException.class, () -> service.getProduct(id));
+    }
+
     //#endregion
 
     //#region getProducts
 
     @Test
-    public void getProducts() {
-        final var filters = new InProductFilters(null, null, null, null);
-        final var pagination = new InPagination(5, 1);
+    public void getProducts() throws ValidationException {
+        final var filters = new InProductFilters(null, null, null, null, null);
+        final var pagination = new InPagination(5, 1, null, null);
         final var category = Category.builder()
             .id(1L)
             .name("category name")
@@ -161,8 +271,8 @@ public class ProductsServiceTest {
                 .build()
         );
         category.setProducts(products);
-        final var productsPage = new PageImpl<Product>(
-            products,
+        final var productsPage = new PageImpl<OutProduct>(
+            toOutProducts(products),
             PageRequest.of(pagination.pageIdx(), pagination.pageSize()),
             products.size()
         );
@@ -170,7 +280,13 @@ public class ProductsServiceTest {
         Mockito
             .doReturn(productsPage)
             .when(productsRepository)
-            .findAll(Mockito.<Specification<Product>>any(), Mockito.<Pageable>any());
+            .findPage(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
 
         final var service = createService();
 
@@ -198,6 +314,320 @@ public class ProductsServiceTest {
         }
     }
 
+    @Test
+    public void getProducts_cursor() throws ValidationException {
+        final var filters = new InProductFilters(null, null, null, null, null);
+        final var firstPagination = new InPagination(2, 0, null, null);
+        final var category = Category.builder()
+            .id(1L)
+            .name("category name")
+            .parentCategory(null)
+            .childCategories(Collections.emptyList())
+            .products(Collections.emptyList())
+            .build();
+        final var products = List.of(
+            Product.builder()
+                .id(3L)
+                .active(true)
+                .name("product name 3")
+                .description("description 3")
+                .price(BigDecimal.valueOf(15.00))
+                .category(category)
+                .build(),
+            Product.builder()
+                .id(7L)
+                .active(true)
+                .name("product name 7")
+                .description("description 7")
+                .price(BigDecimal.valueOf(35.00))
+                .category(category)
+                .build()
+        );
+
+        Mockito
+            .doReturn(new PageImpl<OutProduct>(toOutProducts(products), PageRequest.of(0, 2), 10))
+            .when(productsRepository)
+            .findPage(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+        Mockito
+            .doReturn(new SliceImpl<OutProduct>(toOutProducts(products), PageRequest.of(0, 2), false))
+            .when(productsRepository)
+            .findSlice(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+
+        final var service = createService();
+
+        final var firstPage = service.getProducts(filters, firstPagination);
+        assertNotNull(firstPage.nextCursor());
+
+        final var cursorPagination = new InPagination(2, null, firstPage.nextCursor(), null);
+        final var cursorPage = service.getProducts(filters, cursorPagination);
+
+        assertNull(cursorPage.pageIdx());
+        assertNull(cursorPage.totalPages());
+        assertNull(cursorPage.totalElements());
+        assertNull(cursorPage.nextCursor());
+        assertEquals(products.size(), cursorPage.content().size());
+        Mockito
+            .verify(productsRepository, Mockito.times(1))
+            .findSlice(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+    }
+
+    @Test
+    public void getProducts_searchRankedWithoutCursor() throws ValidationException {
+        final var filters = new InProductFilters(null, "red shoe", null, null, null);
+        final var products = createProducts(2);
+
+        Mockito
+            .doReturn(new SliceImpl<OutProduct>(toOutProducts(products), PageRequest.of(0, 2), true))
+            .when(productsRepository)
+            .findSlice(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+
+        final var service = createService();
+
+        // Without full-text search pages are sorted by ID, cursor continues the page
+        final var idPage = service.getProducts(filters, new InPagination(2, 0, null, false));
+        assertNotNull(idPage.nextCursor());
+
+        final var cursorPage = service.getProducts(filters, new InPagination(2, null, idPage.nextCursor(), null));
+        assertEquals(products.size(), cursorPage.content().size());
+
+        // Pages sorted by relevance are continued only by 'pageIdx'
+        Mockito
+            .doReturn(true)
+            .when(productsSearchIndex)
+            .isFullText();
+
+        final var rankedPage = service.getProducts(filters, new InPagination(2, 0, null, false));
+        assertNull(rankedPage.nextCursor());
+        assertEquals(products.size(), rankedPage.content().size());
+    }
+
+    @Test
+    public void getProducts_invalidCursor() {
+        final var filters = new InProductFilters(null, null, null, null, null);
+        final var pagination = new InPagination(5, null, "not a cursor", null);
+
+        final var service = createService();
+
+        assertThrows(ValidationException.class, () -> {
+            service.getProducts(filters, pagination);
+        });
+    }
+
+    @Test
+    public void getProducts_withoutTotal() throws ValidationException {
+        final var filters = new InProductFilters(null, null, null, null, null);
+        final var pagination = new InPagination(2, 3, null, false);
+        final var products = createProducts(2);
+
+        Mockito
+            .doReturn(new SliceImpl<OutProduct>(toOutProducts(products), PageRequest.of(3, 2), true))
+            .when(productsRepository)
+            .findSlice(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+
+        final var service = createService();
+
+        final var outPage = service.getProducts(filters, pagination);
+
+        assertEquals(pagination.pageIdx(), outPage.pageIdx());
+        assertEquals(pagination.pageSize(), outPage.pageSize());
+        assertNull(outPage.totalPages());
+        assertNull(outPage.totalElements());
+        assertNotNull(outPage.nextCursor());
+        assertEquals(products.size(), outPage.content().size());
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .findPage(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .count(Mockito.<Specification<Product>>any());
+    }
+
+    @Test
+    public void getProducts_totalCached() throws ValidationException {
+        final var products = createProducts(2);
+
+        mockFindPageCallingTotalSupplier(products);
+        Mockito
+            .doReturn(50L)
+            .when(productsRepository)
+            .count(Mockito.<Specification<Product>>any());
+
+        final var service = createService();
+
+        // Filters differ only in the letter case and scale, so they select the same products
+        final var firstPage = service.getProducts(
+            new InProductFilters("name", null, BigDecimal.valueOf(10), null, null),
+            new InPagination(2, 0, null, null)
+        );
+        final var secondPage = service.getProducts(
+            new InProductFilters("NAME", null, new BigDecimal("10.00"), null, null),
+            new InPagination(2, 1, null, null)
+        );
+
+        assertEquals(50L, firstPage.totalElements());
+        assertEquals(50L, secondPage.totalElements());
+        Mockito
+            .verify(productsRepository, Mockito.times(1))
+            .count(Mockito.<Specification<Product>>any());
+    }
+
+    @Test
+    public void getProducts_searchTotalCachedPerWords() throws ValidationException {
+        final var products = createProducts(2);
+
+        mockFindPageCallingTotalSupplier(products);
+        Mockito
+            .doReturn(50L)
+            .when(productsRepository)
+            .count(Mockito.<Specification<Product>>any());
+
+        final var service = createService();
+
+        // Searches differ only in the letter case and separators, so they have the same words
+        service.getProducts(
+            new InProductFilters(null, "Red  shoe", null, null, null),
+            new InPagination(2, 0, null, null)
+        );
+        service.getProducts(
+            new InProductFilters(null, "red, SHOE", null, null, null),
+            new InPagination(2, 1, null, null)
+        );
+        service.getProducts(
+            new InProductFilters(null, "red", null, null, null),
+            new InPagination(2, 0, null, null)
+        );
+
+        Mockito
+            .verify(productsRepository, Mockito.times(2))
+            .count(Mockito.<Specification<Product>>any());
+    }
+
+    @Test
+    public void getProducts_totalEstimated() throws ValidationException {
+        final var filters = new InProductFilters(null, null, null, null, null);
+        final var pagination = new InPagination(2, 0, null, null);
+        final var products = createProducts(2);
+
+        mockFindPageCallingTotalSupplier(products);
+        Mockito
+            .doReturn(OptionalLong.of(1_000_000L))
+            .when(productsRepository)
+            .estimateActiveCount();
+
+        final var service = createService();
+
+        final var outPage = service.getProducts(filters, pagination);
+
+        assertEquals(1_000_000L, outPage.totalElements());
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .count(Mockito.<Specification<Product>>any());
+        // Estimate of the whole table would include deleted products
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .estimateCount();
+    }
+
+    @Test
+    public void getProducts_totalCountedWhenEstimateTooSmall() throws ValidationException {
+        final var filters = new InProductFilters(null, null, null, null, null);
+        final var pagination = new InPagination(2, 0, null, null);
+        final var products = createProducts(2);
+
+        mockFindPageCallingTotalSupplier(products);
+        Mockito
+            .doReturn(OptionalLong.of(10L))
+            .when(productsRepository)
+            .estimateActiveCount();
+        Mockito
+            .doReturn(12L)
+            .when(productsRepository)
+            .count(Mockito.<Specification<Product>>any());
+
+        final var service = createService();
+
+        final var outPage = service.getProducts(filters, pagination);
+
+        assertEquals(12L, outPage.totalElements());
+    }
+
+    private List<Product> createProducts(int count) {
+        final var category = Category.builder()
+            .id(1L)
+            .name("category name")
+            .parentCategory(null)
+            .childCategories(Collections.emptyList())
+            .products(Collections.emptyList())
+            .build();
+
+        return LongStream.rangeClosed(1, count)
+            .mapToObj(id -> Product.builder()
+                .id(id)
+                .active(true)
+                .name("product name " + id)
+                .description("description " + id)
+                .price(BigDecimal.valueOf(15.00))
+                .category(category)
+                .build()
+            )
+            .collect(Collectors.toList());
+    }
+
+    private List<OutProduct> toOutProducts(List<Product> products) {
+        return products.stream()
+            .map(productsMapper::fromEntity)
+            .collect(Collectors.toList());
+    }
+
+    private void mockFindPageCallingTotalSupplier(List<Product> products) {
+        Mockito
+            .doAnswer(invocation -> PageableExecutionUtils.getPage(
+                toOutProducts(products),
+                invocation.<Pageable>getArgument(1),
+                invocation.<LongSupplier>getArgument(2)
+            ))
+            .when(productsRepository)
+            .findPage(
+                Mockito.<Specification<Product>>any(),
+                Mockito.<Pageable>any(),
+                Mockito.any(),
+                Mockito.eq(OutProduct.class),
+                Mockito.eq(ProductsMapper.OUT_PRODUCT_ATTRIBUTES)
+            );
+    }
+
     // TODO: write filters (specification) tests
     
     //#endregion
@@ -325,9 +755,9 @@ public class ProductsServiceTest {
         final Long id = 1L;
 
         Mockito
-            .doReturn(Optional.empty())
+            .doReturn(0)
             .when(productsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .deactivateById(Mockito.eq(id));
 
         final var service = createService();
 
@@ -339,27 +769,11 @@ public class ProductsServiceTest {
     @Test
     public void deleteProduct() throws NotFoundException {
         final Long id = 1L;
-        final var category = Category.builder()
-            .id(1L)
-            .name("category name")
-            .parentCategory(null)
-            .childCategories(Collections.emptyList())
-            .products(Collections.emptyList())
-            .build();
-        final var product = Product.builder()
-            .id(id)
-            .active(true)
-            .name("name")
-            .description("description")
-            .price(BigDecimal.valueOf(10.00))
-            .category(category)
-            .build();
-        category.setProducts(List.of(product));
 
         Mockito
-            .doReturn(Optional.of(product))
+            .doReturn(1)
             .when(productsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .deactivateById(Mockito.eq(id));
 
         final var service = createService();
 
@@ -367,10 +781,10 @@ public class ProductsServiceTest {
 
         Mockito
             .verify(productsRepository, Mockito.times(1))
-            .save(Mockito.assertArg((saved) -> {
-                assertEquals(id, saved.getId());
-                assertEquals(false, saved.getActive());
-            }));
+            .deactivateById(id);
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .save(Mockito.any());
     }
     
     //#endregion
@@ -384,13 +798,13 @@ public class ProductsServiceTest {
             "name", 
             "description", 
             BigDecimal.valueOf(10.00), 
-            1L
+            null
         );
 
         Mockito
-            .doReturn(Optional.empty())
+            .doReturn(0)
             .when(productsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
 
         final var service = createService();
 
@@ -403,27 +817,7 @@ public class ProductsServiceTest {
         InProductPatch inPatch
     ) throws ValidationException {
         final Long id = 1L;
-        final var category = Category.builder()
-            .id(1L)
-            .name("category name")
-            .parentCategory(null)
-            .childCategories(Collections.emptyList())
-            .products(Collections.emptyList())
-            .build();
-        final var product = Product.builder()
-            .id(id)
-            .active(true)
-            .name("name")
-            .description("description")
-            .price(BigDecimal.valueOf(10.00))
-            .category(category)
-            .build();
-        category.setProducts(List.of(product));
 
-        Mockito
-            .doReturn(Optional.of(product))
-            .when(productsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
         Mockito
             .doThrow(ValidationException.class)
             .when(userInputSanitizer)
@@ -434,6 +828,9 @@ public class ProductsServiceTest {
         assertThrows(ValidationException.class, () -> {
             service.patchProduct(id, inPatch);
         });
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .patchById(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -452,28 +849,8 @@ public class ProductsServiceTest {
     public void patchProduct_categoryNotFound() throws NotFoundException {
         final Long id = 1L;
         final Long newCategoryId = 5L;
-        final var category = Category.builder()
-            .id(1L)
-            .name("category name")
-            .parentCategory(null)
-            .childCategories(Collections.emptyList())
-            .products(Collections.emptyList())
-            .build();
-        final var product = Product.builder()
-            .id(id)
-            .active(true)
-            .name("name")
-            .description("description")
-            .price(BigDecimal.valueOf(10.00))
-            .category(category)
-            .build();
-        category.setProducts(List.of(product));
         final var inPatch = new InProductPatch(null, null, null, newCategoryId);
 
-        Mockito
-            .doReturn(Optional.of(product))
-            .when(productsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
         Mockito
             .doThrow(NotFoundException.class)
             .when(categoriesService)
@@ -484,6 +861,9 @@ public class ProductsServiceTest {
         assertThrows(NotFoundException.class, () -> {
             service.patchProduct(id, inPatch);
         });
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .patchById(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -493,29 +873,13 @@ public class ProductsServiceTest {
         final var newDescription = "new description";
         final var newPrice = BigDecimal.valueOf(4.99);
         final var newCategory = 2L;
-        final var category1 = Category.builder()
-            .id(1L)
-            .name("category name")
-            .parentCategory(null)
-            .childCategories(Collections.emptyList())
-            .products(Collections.emptyList())
-            .build();
-        final var category2 = Category.builder()
+        final var category = Category.builder()
             .id(newCategory)
             .name("category name")
             .parentCategory(null)
             .childCategories(Collections.emptyList())
             .products(Collections.emptyList())
             .build();
-        final var product = Product.builder()
-            .id(id)
-            .active(true)
-            .name("name")
-            .description("description")
-            .price(BigDecimal.valueOf(10.00))
-            .category(category1)
-            .build();
-        category1.setProducts(List.of(product));
         final var inPatch = new InProductPatch(
             newName, 
             newDescription, 
@@ -524,11 +888,11 @@ public class ProductsServiceTest {
         );
 
         Mockito
-            .doReturn(Optional.of(product))
+            .doReturn(1)
             .when(productsRepository)
-            .findByIdAndActiveTrue(Mockito.eq(id));
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
         Mockito
-            .doReturn(category2)
+            .doReturn(category)
             .when(categoriesService)
             .findCategoryById(Mockito.eq(newCategory));
 
@@ -537,16 +901,33 @@ public class ProductsServiceTest {
         service.patchProduct(id, inPatch);
 
         Mockito
-            .verify(productsRepository)
-            .save(
-                Mockito.assertArg((saved) -> {
-                    assertEquals(id, saved.getId());
-                    assertEquals(newName, saved.getName());
-                    assertEquals(newDescription, saved.getDescription());
-                    assertEquals(newPrice, saved.getPrice());
-                    assertEquals(newCategory, saved.getCategory().getId());
-                })
-            );
+            .verify(productsRepository, Mockito.times(1))
+            .patchById(id, newName, newDescription, newPrice, newCategory);
+        Mockito
+            .verify(productsRepository, Mockito.never())
+            .findByIdAndActiveTrue(Mockito.anyLong());
+    }
+
+    @Test
+    public void patchProduct_nullFieldsUnchanged() throws NotFoundException, ValidationException {
+        final Long id = 1L;
+        final var newPrice = BigDecimal.valueOf(4.99);
+        final var inPatch = new InProductPatch(null, null, newPrice, null);
+
+        Mockito
+            .doReturn(1)
+            .when(productsRepository)
+            .patchById(Mockito.eq(id), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        final var service = createService();
+
+        service.patchProduct(id, inPatch);
+
+        Mockito
+            .verify(productsRepository, Mockito.times(1))
+            .patchById(id, null, null, newPrice, null);
+        Mockito
+            .verifyNoInteractions(categoriesService);
     }
 
     //#endregion
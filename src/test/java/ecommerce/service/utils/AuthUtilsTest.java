@@ -0,0 +1,78 @@
+package ecommerce.service.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import ecommerce.configuration.auth.AuthRoleSet;
+import ecommerce.configuration.auth.AuthRoles;
+import ecommerce.configuration.auth.RolesJwtAuthenticationToken;
+
+public class AuthUtilsTest {
+
+    private static final AuthRoleSet ORDER_ROLES = AuthRoleSet.of(
+        AuthRoles.ORDER_SEARCH,
+        AuthRoles.ORDER_UPDATE
+    );
+
+    private RolesJwtAuthenticationToken createJwtUser(String... roles) {
+        final var jwt = Jwt.withTokenValue("token")
+            .header("alg", "HS256")
+            .subject("user")
+            .build();
+        return new RolesJwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList(roles));
+    }
+
+    @Test
+    public void userHasAnyRole_jwtUser() {
+        Assertions.assertTrue(AuthUtils.userHasAnyRole(createJwtUser(AuthRoles.ORDER_UPDATE), ORDER_ROLES));
+        Assertions.assertFalse(AuthUtils.userHasAnyRole(createJwtUser(AuthRoles.PRODUCT_CREATE), ORDER_ROLES));
+        Assertions.assertFalse(AuthUtils.userHasAnyRole(createJwtUser(), ORDER_ROLES));
+    }
+
+    @Test
+    public void userHasAllRoles_jwtUser() {
+        final var user = createJwtUser(AuthRoles.ORDER_SEARCH, AuthRoles.ORDER_UPDATE, AuthRoles.PRODUCT_CREATE);
+
+        Assertions.assertTrue(AuthUtils.userHasAllRoles(user, ORDER_ROLES));
+        Assertions.assertFalse(AuthUtils.userHasAllRoles(createJwtUser(AuthRoles.ORDER_SEARCH), ORDER_ROLES));
+    }
+
+    @Test
+    public void userHasAnyRole_otherAuthentication() {
+        final var user = new TestingAuthenticationToken("user", null, AuthRoles.ORDER_SEARCH);
+
+        Assertions.assertTrue(AuthUtils.userHasAnyRole(user, ORDER_ROLES));
+        Assertions.assertFalse(AuthUtils.userHasAllRoles(user, ORDER_ROLES));
+    }
+
+    @Test
+    public void userHasAnyRole_unknownRolesIgnored() {
+        final var user = createJwtUser("offline_access", "uma_authorization");
+
+        Assertions.assertEquals(AuthRoleSet.EMPTY, user.getRoles());
+        Assertions.assertFalse(AuthUtils.userHasAnyRole(user, ORDER_ROLES));
+    }
+
+    @Test
+    public void authRoleSet_of_unknownRole() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            AuthRoleSet.of("offline_access");
+        });
+    }
+
+    @Test
+    public void authRoleSet_allRolesRepresentable() {
+        final var all = AuthRoleSet.of(AuthRoles.ALL.toArray(String[]::new));
+
+        for (final var role : AuthRoles.ALL) {
+            Assertions.assertTrue(all.containsAll(AuthRoleSet.of(role)), role);
+        }
+        Assertions.assertEquals(
+            AuthRoleSet.fromAuthorities(AuthorityUtils.createAuthorityList(AuthRoles.ALL)),
+            all
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package ecommerce.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ecommerce.exception.ValidationException;
+
+public class CsvReaderTest {
+
+    @Test
+    public void readRecord_plainFields() throws Exception {
+        final var reader = new CsvReader(new StringReader("a,b,c\r\n1,,3\n"));
+
+        assertEquals(List.of("a", "b", "c"), reader.readRecord());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("1", "", "3"), reader.readRecord());
+        assertEquals(2, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    public void readRecord_quotedFields() throws Exception {
+        final var reader = new CsvReader(new StringReader("\"a,b\",\"say \"\"hi\"\"\",\"multi\nline\"\nnext,x,y"));
+
+        assertEquals(List.of("a,b", "say \"hi\"", "multi\nline"), reader.readRecord());
+        assertEquals(List.of("next", "x", "y"), reader.readRecord());
+        assertEquals(3, reader.getRecordLine());
+        assertNull(reader.readRecord());
+    }
+
+    @Test
+    public void readRecord_quotedFieldNotClosed() {
+        final var reader = new CsvReader(new StringReader("\"a,b\n"));
+
+        assertThrows(ValidationException.class, () -> reader.readRecord());
+    }
+
+    @Test
+    public void readRecord_characterAfterQuotedField() {
+        final var reader = new CsvReader(new StringReader("\"a\"b,c\n"));
+
+        assertThrows(ValidationException.class, () -> reader.readRecord());
+    }
+}
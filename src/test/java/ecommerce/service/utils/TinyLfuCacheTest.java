@@ -0,0 +1,133 @@
+package ecommerce.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TinyLfuCacheTest {
+
+    private static final int MAX_SIZE = 100;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TinyLfuCache<String> cache;
+    private AtomicInteger loads;
+    private LongFunction<Optional<String>> loader;
+
+    @BeforeEach
+    public void setupCache() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TinyLfuCache<>("test", MAX_SIZE, meterRegistry);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            return Optional.of("value " + id);
+        };
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("cache", "test").gauge().value();
+    }
+
+    @Test
+    public void find_cached() {
+        assertEquals(Optional.of("value 1"), cache.find(1, loader));
+        assertEquals(Optional.of("value 1"), cache.find(1, loader));
+
+        assertEquals(1, loads.get());
+        assertEquals(0.5, gauge("ecommerce.cache.hit.ratio"));
+        assertEquals(1, meterRegistry.get("ecommerce.cache.loads").tag("cache", "test").timer().count());
+    }
+
+    @Test
+    public void find_missingNotCached() {
+        final LongFunction<Optional<String>> missingLoader = id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        };
+
+        assertTrue(cache.find(1, missingLoader).isEmpty());
+        assertTrue(cache.find(1, missingLoader).isEmpty());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void find_sizeBounded() {
+        for (long id = 0; id < 10 * MAX_SIZE; ++id) {
+            cache.find(id, loader);
+        }
+
+        assertTrue(gauge("ecommerce.cache.size") <= MAX_SIZE);
+        assertTrue(meterRegistry.get("ecommerce.cache.evictions").tag("cache", "test").counter().count() > 0);
+    }
+
+    @Test
+    public void find_frequentValuesSurviveScan() {
+        // Every round requests the hot values once and as many other values
+        // as the cache holds, LRU cache would evict all hot values every round
+        final var hotCount = MAX_SIZE / 2;
+        long scannedId = 1_000_000;
+        for (int round = 0; round < 20; ++round) {
+            for (long id = 0; id < hotCount; ++id) {
+                cache.find(id, loader);
+            }
+            for (int i = 0; i < MAX_SIZE; ++i) {
+                cache.find(scannedId++, loader);
+            }
+        }
+
+        loads.set(0);
+        for (long id = 0; id < hotCount; ++id) {
+            cache.find(id, loader);
+        }
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void find_invalidatedWhileLoading_notCached() {
+        final LongFunction<Optional<String>> invalidatingLoader = id -> {
+            loads.incrementAndGet();
+            // concurrent write of the value
+            cache.invalidate(id);
+            return Optional.of("stale value");
+        };
+
+        cache.find(1, invalidatingLoader);
+
+        assertEquals(Optional.of("value 1"), cache.find(1, loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidate() {
+        cache.find(1, loader);
+        cache.find(2, loader);
+
+        cache.invalidate(1);
+        cache.find(1, loader);
+        cache.find(2, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void invalidateAll() {
+        cache.find(1, loader);
+        cache.find(2, loader);
+
+        cache.invalidateAll();
+        cache.find(1, loader);
+        cache.find(2, loader);
+
+        assertEquals(4, loads.get());
+        assertEquals(2, gauge("ecommerce.cache.size"));
+    }
+}
@@ -0,0 +1,74 @@
+package ecommerce.service.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TotalCountCacheTest {
+
+    private static final int MAX_SIZE = 10;
+
+    private TotalCountCache cache;
+    private AtomicInteger counts;
+    private LongSupplier exactCount;
+
+    @BeforeEach
+    public void setupCache() {
+        cache = new TotalCountCache(Duration.ofMinutes(1), MAX_SIZE, 1_000);
+        counts = new AtomicInteger();
+        exactCount = () -> {
+            counts.incrementAndGet();
+            return 42;
+        };
+    }
+
+    @Test
+    public void count_cached() {
+        assertEquals(42, cache.count("key", exactCount));
+        assertEquals(42, cache.count("key", exactCount));
+
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    public void count_expired() {
+        cache = new TotalCountCache(Duration.ZERO, MAX_SIZE, 1_000);
+
+        cache.count("key", exactCount);
+        cache.count("key", exactCount);
+
+        assertEquals(2, counts.get());
+    }
+
+    @Test
+    public void count_fullCacheEvictsOldest() {
+        for (int key = 0; key <= MAX_SIZE; ++key) {
+            cache.count(key, exactCount);
+        }
+        counts.set(0);
+
+        // All but the oldest total stay cached
+        for (int key = 1; key <= MAX_SIZE; ++key) {
+            cache.count(key, exactCount);
+        }
+        assertEquals(0, counts.get());
+
+        cache.count(0, exactCount);
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    public void countOrEstimate() {
+        assertEquals(5_000, cache.countOrEstimate("large", () -> OptionalLong.of(5_000), exactCount));
+        assertEquals(42, cache.countOrEstimate("small", () -> OptionalLong.of(10), exactCount));
+        assertEquals(42, cache.countOrEstimate("unknown", OptionalLong::empty, exactCount));
+
+        assertEquals(2, counts.get());
+    }
+}